@@ -4,7 +4,7 @@
 # todo:
 # - writing html
 # - if no latency info is found; print warning
-# - when not a lot of data points, them time issues in gnuplot (use WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS=default)
+# - when not a lot of data points, them time issues in gnuplot (use WORKER_PERFORMANCE_MONITOR_INTERVAL=default)
 # - timeseries: avg
 # - gnuplot y axis formatting; long numbers are unreadable because not dots or comma's
 # - gc aggregated
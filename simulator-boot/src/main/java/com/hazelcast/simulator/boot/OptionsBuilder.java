@@ -23,6 +23,7 @@ import java.lang.reflect.Field;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.common.SimulatorProperties.WORKER_PERFORMANCE_MONITOR_INTERVAL;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static java.lang.reflect.Modifier.isStatic;
 import static java.util.concurrent.TimeUnit.MINUTES;
@@ -116,7 +117,7 @@ public class OptionsBuilder {
     }
 
     public OptionsBuilder performanceMonitorIntervalSeconds(long seconds) {
-        options.simulatorProperties.set("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS", "" + seconds);
+        options.simulatorProperties.set(WORKER_PERFORMANCE_MONITOR_INTERVAL, seconds + "s");
         return this;
     }
 
@@ -28,6 +28,7 @@ import java.util.Properties;
 
 import static com.hazelcast.simulator.utils.CloudProviderUtils.isTrueCloud;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.parseIntervalMillis;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
@@ -52,9 +53,13 @@ public class SimulatorProperties {
     public static final String CLOUD_PROVIDER = "CLOUD_PROVIDER";
     public static final String CLOUD_IDENTITY = "CLOUD_IDENTITY";
     public static final String CLOUD_CREDENTIAL = "CLOUD_CREDENTIAL";
+    public static final String WORKER_PERFORMANCE_MONITOR_INTERVAL = "WORKER_PERFORMANCE_MONITOR_INTERVAL";
 
     private static final int WORKER_TIMEOUT_FACTOR = 3;
 
+    // the previous name of WORKER_PERFORMANCE_MONITOR_INTERVAL, from when only seconds were supported
+    private static final String WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS = "WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS";
+
     private static final Logger LOGGER = Logger.getLogger(SimulatorProperties.class);
 
     private final Map<String, Value> properties = new HashMap<String, Value>();
@@ -138,7 +143,7 @@ public class SimulatorProperties {
                 String key = (String) entry.getKey();
 
                 String value = (String) entry.getValue();
-                properties.put(key, new Value(isDefault, value));
+                properties.put(currentName(key), new Value(isDefault, value));
             }
 
             if (containsKey("HAZELCAST_VERSION_SPEC")) {
@@ -167,6 +172,19 @@ public class SimulatorProperties {
         return Integer.parseInt(get(property));
     }
 
+    /**
+     * Returns the interval of the WorkerPerformanceMonitor.
+     *
+     * The interval is configured with {@value #WORKER_PERFORMANCE_MONITOR_INTERVAL}; the previous name
+     * {@code WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS} is still accepted in properties files.
+     *
+     * @return the interval in milliseconds, 0 if the performance monitor is disabled
+     * @see com.hazelcast.simulator.utils.CommonUtils#parseIntervalMillis(String)
+     */
+    public long getPerformanceMonitorIntervalMillis() {
+        return parseIntervalMillis(get(WORKER_PERFORMANCE_MONITOR_INTERVAL, "0"));
+    }
+
     public String getSshOptions() {
         return get("SSH_OPTIONS", "");
     }
@@ -294,10 +312,14 @@ public class SimulatorProperties {
     }
 
     public SimulatorProperties set(String name, String value) {
-        properties.put(name, new Value(false, value));
+        properties.put(currentName(name), new Value(false, value));
         return this;
     }
 
+    private static String currentName(String name) {
+        return WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS.equals(name) ? WORKER_PERFORMANCE_MONITOR_INTERVAL : name;
+    }
+
     public SimulatorProperties setIfNotNull(String name, String value) {
         if (value != null) {
             set(name, value);
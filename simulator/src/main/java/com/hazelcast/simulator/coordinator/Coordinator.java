@@ -17,9 +17,11 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.common.SimulatorProperties;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -36,10 +38,13 @@ import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
 import com.hazelcast.simulator.coordinator.tasks.TerminateWorkersTask;
 import com.hazelcast.simulator.protocol.CoordinatorClient;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.CommandLineExitException;
 import com.hazelcast.simulator.utils.CommonUtils;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import org.apache.log4j.Logger;
 
 import java.io.Closeable;
@@ -85,7 +90,7 @@ public class Coordinator implements Closeable {
     public Coordinator(Registry registry, CoordinatorParameters parameters) {
         this.registry = registry;
         this.parameters = parameters;
-        this.failureCollector = new FailureCollector(parameters.getOutputDirectory(), registry);
+        this.failureCollector = new FailureCollector(parameters.getOutputDirectory(), registry, performanceStatsCollector);
         this.properties = parameters.getSimulatorProperties();
         this.testCompletionTimeoutSeconds = properties.getTestCompletionTimeoutSeconds();
 
@@ -158,11 +163,10 @@ public class Coordinator implements Closeable {
         log("Total number of agents: %s", registry.agentCount());
         log("Output directory: " + parameters.getOutputDirectory().getAbsolutePath());
 
-        int performanceIntervalSeconds
-                = parameters.getSimulatorProperties().getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS");
+        long performanceIntervalMillis = parameters.getSimulatorProperties().getPerformanceMonitorIntervalMillis();
 
-        if (performanceIntervalSeconds > 0) {
-            log("Performance monitor enabled (%d seconds interval)", performanceIntervalSeconds);
+        if (performanceIntervalMillis > 0) {
+            log("Performance monitor enabled (%d ms interval)", performanceIntervalMillis);
         } else {
             log("Performance monitor disabled");
         }
@@ -325,6 +329,77 @@ public class Coordinator implements Closeable {
                 + " seconds, current status: " + test.getStatusString());
     }
 
+    public String testThreadCount(RcTestThreadCountOperation op) throws Exception {
+        List<WorkerData> workers = getRunningTargets(op.getTestId());
+
+        LOGGER.info(format("Changing thread count of test [%s] executionGroup [%s] to %d on %s workers...",
+                op.getTestId(), op.getExecutionGroup(), op.getThreadCount(), workers.size()));
+
+        // every worker returns its new total number of threads of the test
+        String result = submit(workers,
+                new SetThreadCountOperation(op.getTestId(), op.getExecutionGroup(), op.getThreadCount()));
+
+        LOGGER.info(format("Changing thread count of test [%s] completed", op.getTestId()));
+        return result;
+    }
+
+    public String testProfile(RcTestProfileOperation op) throws Exception {
+        List<WorkerData> workers = getRunningTargets(op.getTestId());
+
+        LOGGER.info(format("%s profiler of test [%s] on %s workers...",
+                op.isStop() ? "Stopping" : "Starting", op.getTestId(), workers.size()));
+
+        // every worker returns the file of its profile
+        String result = submit(workers, new ProfileOperation(op.getTestId(), op.getProfiler(), op.getSettings(),
+                op.getDelay(), op.getDuration(), op.isStop()));
+
+        LOGGER.info(format("%s profiler of test [%s] completed", op.isStop() ? "Stopping" : "Starting", op.getTestId()));
+        return result;
+    }
+
+    private List<WorkerData> getRunningTargets(String testId) {
+        TestData test = registry.getTest(testId);
+        if (test == null) {
+            throw new IllegalStateException(format("no test with id [%s] found", testId));
+        }
+        if (test.isCompleted()) {
+            throw new IllegalStateException(format("test [%s] has already completed", testId));
+        }
+
+        List<WorkerData> workers = getRunningTargets(test);
+        if (workers.isEmpty()) {
+            throw new IllegalStateException(format("test [%s] has no running workers", testId));
+        }
+        return workers;
+    }
+
+    // returns a line with the result of every worker
+    private String submit(List<WorkerData> workers, SimulatorOperation op) throws Exception {
+        Map<WorkerData, Future<String>> futures = new HashMap<WorkerData, Future<String>>();
+        for (WorkerData worker : workers) {
+            futures.put(worker, client.submit(worker.getAddress(), op));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<WorkerData, Future<String>> entry : futures.entrySet()) {
+            WorkerData worker = entry.getKey();
+            String result = entry.getValue().get();
+            sb.append(worker.getAddress()).append("=").append(result).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // the workers which have failed in the meantime are skipped
+    private List<WorkerData> getRunningTargets(TestData test) {
+        List<WorkerData> workers = new ArrayList<WorkerData>();
+        for (WorkerData worker : test.getTargets()) {
+            if (registry.findWorker(worker.getAddress()) != null) {
+                workers.add(worker);
+            }
+        }
+        return workers;
+    }
+
     public String testStatus(RcTestStatusOperation op) {
         TestData test = registry.getTest(op.getTestId());
         return test == null ? "null" : test.getStatusString();
@@ -49,6 +49,7 @@ import static com.hazelcast.simulator.vendors.VendorDriver.loadVendorDriver;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -79,6 +80,29 @@ final class CoordinatorCli {
                     + "the test will run until the test decides to stop.")
             .withRequiredArg().ofType(String.class).defaultsTo(format("%ds", DEFAULT_DURATION_SECONDS));
 
+    private final OptionSpec<Long> rateSearchLatencyUsSpec = parser.accepts("rateSearchLatencyUs",
+            "Enables the search for the maximum sustainable rate of the tests, with the given latency limit in microseconds."
+                    + " The rate of the RUN phase is changed until the highest rate is found where the latency at the"
+                    + " --rateSearchPercentile stays below the limit. Only execution groups with a rateProfile are adjusted."
+                    + " Use --duration 0 to let the test run until the search completes.")
+            .withRequiredArg().ofType(Long.class);
+
+    private final OptionSpec<Double> rateSearchPercentileSpec = parser.accepts("rateSearchPercentile",
+            "The latency percentile which is checked against the --rateSearchLatencyUs limit.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(99.9);
+
+    private final OptionSpec<Double> rateSearchMinRateSpec = parser.accepts("rateSearchMinRate",
+            "The total rate in operations per second of all Workers to start the rate search with.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(1000d);
+
+    private final OptionSpec<Double> rateSearchMaxRateSpec = parser.accepts("rateSearchMaxRate",
+            "The highest total rate in operations per second of all Workers the rate search tries.")
+            .withRequiredArg().ofType(Double.class).defaultsTo(1000000d);
+
+    private final OptionSpec<String> rateSearchStepSpec = parser.accepts("rateSearchStep",
+            "The time a single rate is measured during the rate search, e.g. 30s or 2m.")
+            .withRequiredArg().ofType(String.class).defaultsTo("30s");
+
     private final OptionSpec<Integer> membersSpec = parser.accepts("members",
             "Number of cluster member Worker JVMs. If no value is specified and no mixed members are specified,"
                     + " then the number of cluster members will be equal to the number of machines in the agents file.")
@@ -224,9 +248,26 @@ final class CoordinatorCli {
             coordinatorParameters.setSessionId(options.valueOf(sessionIdSpec));
         }
 
+        if (options.has(rateSearchLatencyUsSpec)) {
+            coordinatorParameters.setRateSearchSettings(loadRateSearchSettings());
+        }
+
         return coordinatorParameters;
     }
 
+    private RateSearchSettings loadRateSearchSettings() {
+        try {
+            return new RateSearchSettings(
+                    options.valueOf(rateSearchPercentileSpec),
+                    MICROSECONDS.toNanos(options.valueOf(rateSearchLatencyUsSpec)),
+                    options.valueOf(rateSearchMinRateSpec),
+                    options.valueOf(rateSearchMaxRateSpec),
+                    SECONDS.toMillis(getDurationSeconds(options, rateSearchStepSpec)));
+        } catch (IllegalArgumentException e) {
+            throw new CommandLineExitException("Invalid rate search: " + e.getMessage());
+        }
+    }
+
     private TestSuite loadTestSuite() {
         TestSuite testSuite = loadRawTestSuite();
         if (testSuite == null) {
@@ -249,7 +290,7 @@ final class CoordinatorCli {
                 .setWorkerQuery(workerQuery);
 
         // if the coordinator is not monitoring performance, we don't care for measuring latencies
-        if (coordinatorParameters.getSimulatorProperties().getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS") == 0) {
+        if (coordinatorParameters.getSimulatorProperties().getPerformanceMonitorIntervalMillis() == 0) {
             for (TestCase testCase : testSuite.getTestCaseList()) {
                 testCase.setProperty("measureLatency", "false");
             }
@@ -42,7 +42,9 @@ public class CoordinatorOperationProcessor implements OperationProcessor {
         if (op instanceof FailureOperation) {
             failureCollector.notify((FailureOperation) op);
         } else if (op instanceof PerformanceStatsOperation) {
-            performanceStatsCollector.update(source, ((PerformanceStatsOperation) op).getPerformanceStats());
+            PerformanceStatsOperation performanceStatsOperation = (PerformanceStatsOperation) op;
+            performanceStatsCollector.update(source, performanceStatsOperation.getPerformanceStats(),
+                    performanceStatsOperation.getHistograms());
         } else if (op instanceof LogOperation) {
             LogOperation logOperation = (LogOperation) op;
             LOGGER.log(logOperation.getLevel(), logOperation.getMessage());
@@ -39,6 +39,7 @@ public class CoordinatorParameters {
     private boolean skipShutdownHook;
     private int workerVmStartupDelayMs;
     private File outputDirectory;
+    private RateSearchSettings rateSearchSettings;
 
     public CoordinatorParameters() {
         setSessionId(new SimpleDateFormat("yyyy-MM-dd__HH_mm_ss").format(new Date()));
@@ -121,4 +122,18 @@ public class CoordinatorParameters {
         this.workerVmStartupDelayMs = workerVmStartupDelayMs;
         return this;
     }
+
+    /**
+     * Returns the settings of the search for the maximum sustainable rate.
+     *
+     * @return the settings or {@code null} if the rate of the tests isn't searched
+     */
+    public RateSearchSettings getRateSearchSettings() {
+        return rateSearchSettings;
+    }
+
+    public CoordinatorParameters setRateSearchSettings(RateSearchSettings rateSearchSettings) {
+        this.rateSearchSettings = rateSearchSettings;
+        return this;
+    }
 }
@@ -20,9 +20,11 @@ import com.hazelcast.simulator.coordinator.operations.RcDownloadOperation;
 import com.hazelcast.simulator.coordinator.operations.RcInstallOperation;
 import com.hazelcast.simulator.coordinator.operations.RcPrintLayoutOperation;
 import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -62,6 +64,7 @@ import static java.lang.System.arraycopy;
 /**
  * CLI to access Simulator Coordinator remotely.
  */
+@SuppressWarnings("checkstyle:classdataabstractioncoupling")
 public final class CoordinatorRemoteCli implements Closeable {
 
     private static final Logger LOGGER = Logger.getLogger(CoordinatorRemoteCli.class);
@@ -104,6 +107,8 @@ public final class CoordinatorRemoteCli implements Closeable {
             new PrintClusterLayoutCli().run(subArgs);
         } else if (StopCli.NAME.equals(cmd)) {
             new StopCli().run(subArgs);
+        } else if (TestProfileCli.NAME.equals(cmd)) {
+            new TestProfileCli().run(subArgs);
         } else if (TestRunCli.NAME.equals(cmd)) {
             new TestRunCli().run(subArgs);
         } else if (TestStartCli.NAME.equals(cmd)) {
@@ -112,6 +117,8 @@ public final class CoordinatorRemoteCli implements Closeable {
             new TestStatusCli().run(subArgs);
         } else if (TestStopCli.NAME.equals(cmd)) {
             new TestStopCli().run(subArgs);
+        } else if (TestThreadCountCli.NAME.equals(cmd)) {
+            new TestThreadCountCli().run(subArgs);
         } else if (WorkerKillCli.NAME.equals(cmd)) {
             new WorkerKillCli().run(subArgs);
         } else if (WorkerScriptCli.NAME.equals(cmd)) {
@@ -134,10 +141,12 @@ public final class CoordinatorRemoteCli implements Closeable {
                         + "download        Downloads all artifacts from the workers                                    \n"
                         + "install         Installs vendor software on the remote machines                             \n"
                         + "print-layout    Prints the cluster-layout                                                   \n"
+                        + "test-profile    Profiles a running test with JFR or async-profiler                          \n"
                         + "test-run        Runs a test and wait for completion                                         \n"
                         + "test-start      Starts a test asynchronously                                                \n"
                         + "test-stop       Stops a test                                                                \n"
                         + "test-status     Checks the status of a test                                                 \n"
+                        + "test-threads    Changes the number of threads of a running test                             \n"
                         + "stop            Stops the Coordinator remote session                                        \n"
                         + "worker-kill     Kills one or more workers                                                   \n"
                         + "worker-script   Executes a script on workers                                                \n"
@@ -333,6 +342,133 @@ public final class CoordinatorRemoteCli implements Closeable {
         }
     }
 
+    private class TestThreadCountCli extends AbstractCli {
+
+        static final String NAME = "test-threads";
+
+        private final String help =
+                "Changes the number of timestep threads of a running test, without restarting the test.\n"
+                        + "The number of threads is changed on every worker which runs the test and each change is marked in\n"
+                        + "the performance logs. Returns the new total number of threads of the test per worker.\n"
+                        + "\n"
+                        + "Examples\n"
+                        + "# Changes the number of threads of the default execution group to 64.\n"
+                        + "coordinator-remote test-threads --threadCount 64 mytest\n"
+                        + "\n"
+                        + "# Changes the number of threads of the 'write' execution group to 8.\n"
+                        + "coordinator-remote test-threads --executionGroup write --threadCount 8 mytest\n";
+
+        private final OptionSpec<Integer> threadCountSpec = parser.accepts("threadCount",
+                "The new number of threads of the execution group on each worker.")
+                .withRequiredArg().ofType(Integer.class);
+
+        private final OptionSpec<String> executionGroupSpec = parser.accepts("executionGroup",
+                "The execution group to change the number of threads of. By default the default execution group is used.")
+                .withRequiredArg().ofType(String.class).defaultsTo("");
+
+        private final NonOptionArgumentSpec<String> argumentSpec = parser
+                .nonOptions("test address").ofType(String.class);
+
+        @Override
+        protected String name() {
+            return NAME;
+        }
+
+        @Override
+        protected OptionSet newOptions(String[] args) {
+            return initOptionsWithHelp(parser, help, args);
+        }
+
+        @Override
+        protected SimulatorOperation newOperation() {
+            List<String> nonOptionArguments = options.valuesOf(argumentSpec);
+            if (nonOptionArguments.size() != 1) {
+                throw new CommandLineExitException("Expected exactly one test id");
+            }
+            if (!options.has(threadCountSpec)) {
+                throw new CommandLineExitException("--threadCount is required");
+            }
+
+            int threadCount = options.valueOf(threadCountSpec);
+            if (threadCount < 1) {
+                throw new CommandLineExitException("--threadCount should be at least 1, found: " + threadCount);
+            }
+
+            String testId = nonOptionArguments.get(0);
+            return new RcTestThreadCountOperation(testId, options.valueOf(executionGroupSpec), threadCount);
+        }
+    }
+
+    private class TestProfileCli extends AbstractCli {
+
+        static final String NAME = "test-profile";
+
+        private final String help =
+                "Starts or stops profiling a running test on every worker which runs the test.\n"
+                        + "The profile is written to the worker directory and is downloaded with the other worker artifacts.\n"
+                        + "A profile is always stopped at the end of the run of the test.\n"
+                        + "\n"
+                        + "The jfr profiler records a JDK Flight Recorder recording; on Java 8 the workers need to be started\n"
+                        + "with -XX:+UnlockCommercialFeatures. The async-profiler profiler records a flame graph; it requires\n"
+                        + "the async-profiler jar and libasyncProfiler.so in the user-lib directory of Simulator.\n"
+                        + "\n"
+                        + "Examples\n"
+                        + "# Records a JFR recording till the end of the run.\n"
+                        + "coordinator-remote test-profile mytest\n"
+                        + "\n"
+                        + "# Records an allocation flame graph for 60 seconds, starting in 30 seconds.\n"
+                        + "coordinator-remote test-profile --profiler async-profiler --settings alloc \\\n"
+                        + "    --delay 30s --duration 60s mytest\n"
+                        + "\n"
+                        + "# Stops profiling and writes the profile.\n"
+                        + "coordinator-remote test-profile --stop mytest\n";
+
+        private final OptionSpec<String> profilerSpec = parser.accepts("profiler",
+                "The profiler to use: jfr or async-profiler.")
+                .withRequiredArg().ofType(String.class).defaultsTo("jfr");
+
+        private final OptionSpec<String> settingsSpec = parser.accepts("settings",
+                "The profiler settings. For jfr the name or path of the JFR configuration (default profile), for "
+                        + "async-profiler the profiled event (default cpu).")
+                .withRequiredArg().ofType(String.class);
+
+        private final OptionSpec<String> delaySpec = parser.accepts("delay",
+                "The delay before the profiler is started, e.g. 30s. By default the profiler is started immediately.")
+                .withRequiredArg().ofType(String.class);
+
+        private final OptionSpec<String> durationSpec = parser.accepts("duration",
+                "The duration of the profile, e.g. 60s. By default the test is profiled till the end of the run.")
+                .withRequiredArg().ofType(String.class);
+
+        private final OptionSpec stopSpec = parser.accepts("stop",
+                "Stops the running profiler of the test and writes the profile.");
+
+        private final NonOptionArgumentSpec<String> argumentSpec = parser
+                .nonOptions("test id").ofType(String.class);
+
+        @Override
+        protected String name() {
+            return NAME;
+        }
+
+        @Override
+        protected OptionSet newOptions(String[] args) {
+            return initOptionsWithHelp(parser, help, args);
+        }
+
+        @Override
+        protected SimulatorOperation newOperation() {
+            List<String> nonOptionArguments = options.valuesOf(argumentSpec);
+            if (nonOptionArguments.size() != 1) {
+                throw new CommandLineExitException("Expected exactly one test id");
+            }
+
+            String testId = nonOptionArguments.get(0);
+            return new RcTestProfileOperation(testId, options.valueOf(profilerSpec), options.valueOf(settingsSpec),
+                    options.valueOf(delaySpec), options.valueOf(durationSpec), options.has(stopSpec));
+        }
+    }
+
     private class DownloadCli extends AbstractCli {
 
         static final String NAME = "download";
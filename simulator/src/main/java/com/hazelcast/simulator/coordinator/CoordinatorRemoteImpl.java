@@ -20,9 +20,11 @@ import com.hazelcast.simulator.coordinator.operations.RcDownloadOperation;
 import com.hazelcast.simulator.coordinator.operations.RcInstallOperation;
 import com.hazelcast.simulator.coordinator.operations.RcPrintLayoutOperation;
 import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -41,6 +43,7 @@ public class CoordinatorRemoteImpl implements CoordinatorRemote {
     }
 
     @Override
+    @SuppressWarnings({"checkstyle:returncount", "checkstyle:cyclomaticcomplexity"})
     public String execute(SimulatorOperation op) throws Exception {
         if (op instanceof RcDownloadOperation) {
             coordinator.download();
@@ -57,6 +60,10 @@ public class CoordinatorRemoteImpl implements CoordinatorRemote {
             return coordinator.testStatus((RcTestStatusOperation) op);
         } else if (op instanceof RcTestStopOperation) {
             return coordinator.testStop((RcTestStopOperation) op);
+        } else if (op instanceof RcTestThreadCountOperation) {
+            return coordinator.testThreadCount((RcTestThreadCountOperation) op);
+        } else if (op instanceof RcTestProfileOperation) {
+            return coordinator.testProfile((RcTestProfileOperation) op);
         } else if (op instanceof RcWorkerKillOperation) {
             return coordinator.workerKill((RcWorkerKillOperation) op);
         } else if (op instanceof RcWorkerScriptOperation) {
@@ -51,10 +51,23 @@ public class FailureCollector {
 
     private final File file;
     private final Registry registry;
+    private final PerformanceStatsCollector performanceStatsCollector;
 
     public FailureCollector(File outputDirectory, Registry registry) {
+        this(outputDirectory, registry, null);
+    }
+
+    /**
+     * Creates a FailureCollector which also removes the latest performance of a Worker that is removed from the registry.
+     *
+     * @param outputDirectory           the directory to write the failures file to
+     * @param registry                  the registry of the Workers
+     * @param performanceStatsCollector the collector of the performance of the Workers, can be {@code null}
+     */
+    public FailureCollector(File outputDirectory, Registry registry, PerformanceStatsCollector performanceStatsCollector) {
         this.file = new File(outputDirectory, "failures.txt");
         this.registry = registry;
+        this.performanceStatsCollector = performanceStatsCollector;
     }
 
     public void addListener(FailureListener listener) {
@@ -74,9 +87,7 @@ public class FailureCollector {
 
             // if the failure is the terminal for that workers, we need to remove it from the component registry
             if (failure.getType().isTerminal()) {
-                LOGGER.info("Removing worker " + worker.getAddress()
-                        + " from registry due to [" + failure.getType() + "]");
-                registry.removeWorker(worker.getAddress());
+                removeWorker(worker, failure);
             }
 
             // if we don't care for the failure, we are done; no need to log anything.
@@ -100,6 +111,15 @@ public class FailureCollector {
         }
     }
 
+    private void removeWorker(WorkerData worker, FailureOperation failure) {
+        LOGGER.info("Removing worker " + worker.getAddress()
+                + " from registry due to [" + failure.getType() + "]");
+        registry.removeWorker(worker.getAddress());
+        if (performanceStatsCollector != null) {
+            performanceStatsCollector.removeWorker(worker.getAddress());
+        }
+    }
+
     private FailureOperation enrich(FailureOperation failure) {
         String testId = failure.getTestId();
         if (testId != null) {
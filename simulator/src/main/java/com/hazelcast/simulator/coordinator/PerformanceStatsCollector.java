@@ -17,6 +17,7 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 
 import java.util.Collections;
 import java.util.Comparator;
@@ -25,13 +26,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static com.hazelcast.simulator.utils.HistogramUtils.decodeHistogram;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
 import static java.lang.Math.round;
 import static java.lang.String.format;
@@ -42,6 +46,11 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Responsible for storing and formatting performance metrics from Simulator workers.
+ *
+ * The latency interval histograms of the workers are merged, so the reported latency percentiles are calculated over all
+ * operations of all workers, instead of being the worst value of a single worker.
+ *
+ * The allocated bytes and CPU time per operation are calculated over all operations of all workers as well.
  */
 public class PerformanceStatsCollector {
 
@@ -51,11 +60,29 @@ public class PerformanceStatsCollector {
 
     private static final long DISPLAY_LATENCY_AS_MICROS_MAX_VALUE = MILLISECONDS.toMicros(10);
 
+    private static final double[] LATENCY_PERCENTILES = {50, 99, 99.9, 99.99};
+
     // holds a map per Worker SimulatorAddress which contains the lastDelta PerformanceStats per testCaseId
     private final ConcurrentMap<SimulatorAddress, WorkerPerformance> workerPerformanceInfoMap
             = new ConcurrentHashMap<SimulatorAddress, WorkerPerformance>();
 
+    // holds per testCaseId the latency histogram per probe, merged over all Workers and intervals
+    private final Map<String, Map<String, Histogram>> totalHistogramMap = new HashMap<String, Map<String, Histogram>>();
+
     public void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap) {
+        update(workerAddress, performanceStatsMap, null);
+    }
+
+    /**
+     * Updates the performance of a Worker.
+     *
+     * @param workerAddress       the address of the Worker
+     * @param performanceStatsMap the {@link PerformanceStats} per testCaseId
+     * @param histograms          the encoded latency interval histograms per probe per testCaseId, can be {@code null}
+     */
+    public void update(SimulatorAddress workerAddress,
+                       Map<String, PerformanceStats> performanceStatsMap,
+                       Map<String, Map<String, String>> histograms) {
         WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
         if (workerPerformance == null) {
             WorkerPerformance newInfo = new WorkerPerformance();
@@ -64,6 +91,120 @@ public class PerformanceStatsCollector {
         }
 
         workerPerformance.updateAll(performanceStatsMap);
+
+        if (histograms == null) {
+            return;
+        }
+        for (Map.Entry<String, Map<String, String>> entry : histograms.entrySet()) {
+            String testId = entry.getKey();
+            Map<String, Histogram> intervalHistograms = new HashMap<String, Histogram>();
+            for (Map.Entry<String, String> histogramEntry : entry.getValue().entrySet()) {
+                intervalHistograms.put(histogramEntry.getKey(), decodeHistogram(histogramEntry.getValue()));
+            }
+            workerPerformance.intervalHistogramMap.put(testId, intervalHistograms);
+            addToTotalHistograms(testId, intervalHistograms);
+        }
+    }
+
+    /**
+     * Removes the latest interval of a Worker which is removed from the registry, e.g. because it has been killed.
+     *
+     * Otherwise the last interval of the Worker would be added to every later interval of the test. The aggregated
+     * performance and the total histograms keep the results of the Worker.
+     *
+     * @param workerAddress the address of the Worker
+     */
+    public void removeWorker(SimulatorAddress workerAddress) {
+        WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
+        if (workerPerformance != null) {
+            workerPerformance.removeInterval();
+        }
+    }
+
+    private void addToTotalHistograms(String testId, Map<String, Histogram> intervalHistograms) {
+        synchronized (totalHistogramMap) {
+            Map<String, Histogram> testHistograms = totalHistogramMap.get(testId);
+            if (testHistograms == null) {
+                testHistograms = new HashMap<String, Histogram>();
+                totalHistogramMap.put(testId, testHistograms);
+            }
+
+            for (Map.Entry<String, Histogram> entry : intervalHistograms.entrySet()) {
+                Histogram total = testHistograms.get(entry.getKey());
+                if (total == null) {
+                    total = newHistogram(entry.getValue());
+                    testHistograms.put(entry.getKey(), total);
+                }
+                total.add(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the latency histograms per probe of a test, merged over all Workers and intervals.
+     *
+     * @param testId the id of the test
+     * @return a map with the probe name as key and a copy of the merged histogram as value, sorted by probe name
+     */
+    Map<String, Histogram> getTotalHistograms(String testId) {
+        Map<String, Histogram> result = new TreeMap<String, Histogram>();
+        synchronized (totalHistogramMap) {
+            Map<String, Histogram> testHistograms = totalHistogramMap.get(testId);
+            if (testHistograms != null) {
+                for (Map.Entry<String, Histogram> entry : testHistograms.entrySet()) {
+                    result.put(entry.getKey(), entry.getValue().copy());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the latency histograms of all probes of a test, merged over all Workers and intervals into a single histogram.
+     *
+     * @param testId the id of the test
+     * @return the merged histogram or {@code null} if no histograms are available
+     */
+    Histogram getTotalHistogram(String testId) {
+        Histogram result = null;
+        synchronized (totalHistogramMap) {
+            Map<String, Histogram> testHistograms = totalHistogramMap.get(testId);
+            if (testHistograms == null) {
+                return null;
+            }
+
+            for (Histogram histogram : testHistograms.values()) {
+                if (result == null) {
+                    result = newHistogram(histogram);
+                }
+                result.add(histogram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the latest latency interval histograms of all probes of all Workers of a test, merged into a single histogram.
+     *
+     * @param testId the id of the test
+     * @return the merged histogram or {@code null} if no histograms are available
+     */
+    Histogram getIntervalHistogram(String testId) {
+        Histogram result = null;
+        for (WorkerPerformance workerPerformance : workerPerformanceInfoMap.values()) {
+            Map<String, Histogram> intervalHistograms = workerPerformance.intervalHistogramMap.get(testId);
+            if (intervalHistograms == null) {
+                continue;
+            }
+
+            for (Histogram intervalHistogram : intervalHistograms.values()) {
+                if (result == null) {
+                    result = newHistogram(intervalHistogram);
+                }
+                result.add(intervalHistogram);
+            }
+        }
+        return result;
     }
 
     public String formatIntervalPerformanceNumbers(String testId) {
@@ -72,6 +213,14 @@ public class PerformanceStatsCollector {
             return "";
         }
 
+        Histogram intervalHistogram = getIntervalHistogram(testId);
+        if (intervalHistogram != null && intervalHistogram.getTotalCount() > 0) {
+            return format("%s ops %s ops/s %s",
+                    formatLong(latest.getOperationCount(), OPERATION_COUNT_FORMAT_LENGTH),
+                    formatDouble(latest.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
+                    formatLatency(intervalHistogram));
+        }
+
         String latencyUnit = "µs";
         long latencyAvg = NANOSECONDS.toMicros(round(latest.getIntervalLatencyAvgNanos()));
         long latency999Percentile = NANOSECONDS.toMicros(latest.getIntervalLatency999PercentileNanos());
@@ -131,6 +280,8 @@ public class PerformanceStatsCollector {
                 formatLong(totalOperationCount, OPERATION_COUNT_FORMAT_LENGTH),
                 formatDouble(throughput, THROUGHPUT_FORMAT_LENGTH)));
 
+        appendCostPerOperation(sb, totalPerformanceStats);
+
 
         for (SimulatorAddress address : sort(agentPerformanceStatsMap.keySet())) {
             PerformanceStats performanceStats = agentPerformanceStatsMap.get(address);
@@ -142,9 +293,70 @@ public class PerformanceStatsCollector {
                     formatLong(operationCount, OPERATION_COUNT_FORMAT_LENGTH),
                     formatDouble(operationCount / runningTimeSeconds, THROUGHPUT_FORMAT_LENGTH)));
         }
+
+        for (Map.Entry<String, Histogram> entry : getTotalHistograms(testId).entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+
+            sb.append(format("Latency %s\n  %s ops %s\n",
+                    entry.getKey(),
+                    formatLong(histogram.getTotalCount(), OPERATION_COUNT_FORMAT_LENGTH),
+                    formatLatency(histogram)));
+        }
         return sb.toString();
     }
 
+    private static void appendCostPerOperation(StringBuilder sb, PerformanceStats performanceStats) {
+        double allocatedBytesPerOperation = performanceStats.getAllocatedBytesPerOperation();
+        if (allocatedBytesPerOperation >= 0) {
+            sb.append(format("Allocated per operation %s bytes\n",
+                    formatDouble(allocatedBytesPerOperation, THROUGHPUT_FORMAT_LENGTH)));
+        }
+
+        double cpuNanosPerOperation = performanceStats.getCpuNanosPerOperation();
+        if (cpuNanosPerOperation >= 0) {
+            sb.append(format("CPU time per operation  %s ns\n",
+                    formatDouble(cpuNanosPerOperation, THROUGHPUT_FORMAT_LENGTH)));
+        }
+    }
+
+    static String formatLatency(Histogram histogram) {
+        String latencyUnit = "µs";
+        TimeUnit timeUnit = MICROSECONDS;
+        if (NANOSECONDS.toMicros(round(histogram.getMean())) > DISPLAY_LATENCY_AS_MICROS_MAX_VALUE) {
+            latencyUnit = "ms";
+            timeUnit = MILLISECONDS;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(format("%s %s (avg)",
+                formatLong(timeUnit.convert(round(histogram.getMean()), NANOSECONDS), LATENCY_FORMAT_LENGTH), latencyUnit));
+        for (double percentile : LATENCY_PERCENTILES) {
+            sb.append(format(" %s %s (%sth)",
+                    formatLong(timeUnit.convert(histogram.getValueAtPercentile(percentile), NANOSECONDS), LATENCY_FORMAT_LENGTH),
+                    latencyUnit,
+                    formatPercentile(percentile)));
+        }
+        sb.append(format(" %s %s (max)",
+                formatLong(timeUnit.convert(histogram.getMaxValue(), NANOSECONDS), LATENCY_FORMAT_LENGTH), latencyUnit));
+        return sb.toString();
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == round(percentile) ? Long.toString(round(percentile)) : Double.toString(percentile);
+    }
+
+    private static Histogram newHistogram(Histogram template) {
+        Histogram histogram = new Histogram(
+                template.getLowestDiscernibleValue(),
+                template.getHighestTrackableValue(),
+                template.getNumberOfSignificantValueDigits());
+        histogram.setAutoResize(true);
+        return histogram;
+    }
+
     void calculatePerformanceStats(String testId,
                                    PerformanceStats totalPerformanceStats,
                                    Map<SimulatorAddress, PerformanceStats> agentPerformanceStatsMap) {
@@ -186,6 +398,10 @@ public class PerformanceStatsCollector {
         private final ConcurrentMap<String, TestPerformance> testPerformanceMap
                 = new ConcurrentHashMap<String, TestPerformance>();
 
+        // contains the latest interval histograms per probe per test. Key is test-id.
+        private final ConcurrentMap<String, Map<String, Histogram>> intervalHistogramMap
+                = new ConcurrentHashMap<String, Map<String, Histogram>>();
+
         private void updateAll(Map<String, PerformanceStats> deltas) {
             for (Map.Entry<String, PerformanceStats> entry : deltas.entrySet()) {
                 update(entry.getKey(), entry.getValue());
@@ -208,6 +424,19 @@ public class PerformanceStatsCollector {
             }
         }
 
+        private void removeInterval() {
+            intervalHistogramMap.clear();
+            for (String testId : testPerformanceMap.keySet()) {
+                for (; ; ) {
+                    TestPerformance current = testPerformanceMap.get(testId);
+                    TestPerformance update = new TestPerformance(current.aggregated, new PerformanceStats());
+                    if (testPerformanceMap.replace(testId, current, update)) {
+                        break;
+                    }
+                }
+            }
+        }
+
         private PerformanceStats get(String testId, boolean aggregated) {
             TestPerformance testPerformance = testPerformanceMap.get(testId);
             if (testPerformance == null) {
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.coordinator.PerformanceStatsCollector.formatLatency;
+import static java.lang.Math.sqrt;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Searches the maximum sustainable rate of a running test, based on the latency histograms the coordinator receives from
+ * the Workers.
+ *
+ * The search first tries the minimum rate and then the maximum rate. If the minimum rate is sustainable and the maximum
+ * rate isn't, it does a binary search between the highest sustainable and the lowest unsustainable rate. The middle is
+ * the geometric mean of both rates, since the search range often spans several orders of magnitude. The search completes
+ * when both rates are within 5% of each other.
+ *
+ * Every rate is measured in a step: after the rate has been changed, the search waits for the settle time, so the
+ * latencies of the previous rate are not included, and then measures the latency and throughput for the step time.
+ *
+ * This class is not thread-safe.
+ */
+final class RateSearch {
+
+    // the search completes when the unsustainable rate is at most 5% higher than the sustainable rate
+    private static final double PRECISION = 1.05;
+    // the Workers need to deliver at least 90% of the rate, otherwise the rate isn't sustainable
+    private static final double MIN_THROUGHPUT_RATIO = 0.9;
+
+    private final String testId;
+    private final RateSearchSettings settings;
+    private final PerformanceStatsCollector performanceStatsCollector;
+    private final long settleMillis;
+    private final List<Step> steps = new ArrayList<Step>();
+
+    private double rate;
+    private boolean done;
+    private Step sustainableStep;
+    private double unsustainableRate;
+
+    private long stepStartMs;
+    private long measureStartMs;
+    private Histogram measureStartHistogram;
+    private long measureStartOperationCount;
+
+    RateSearch(String testId, RateSearchSettings settings, PerformanceStatsCollector performanceStatsCollector,
+               long settleMillis) {
+        this.testId = testId;
+        this.settings = settings;
+        this.performanceStatsCollector = performanceStatsCollector;
+        this.settleMillis = settleMillis;
+        this.rate = settings.getMinRate();
+    }
+
+    /**
+     * Updates the search. This method should be called periodically while the test is running.
+     *
+     * @param nowMs the current time in milliseconds
+     * @return {@code true} if a new rate should be applied or if the search has completed, {@code false} otherwise
+     */
+    boolean update(long nowMs) {
+        if (done) {
+            return false;
+        }
+
+        if (stepStartMs == 0) {
+            stepStartMs = nowMs;
+            return true;
+        }
+
+        if (measureStartMs == 0) {
+            if (nowMs - stepStartMs >= settleMillis) {
+                measureStartMs = nowMs;
+                measureStartHistogram = performanceStatsCollector.getTotalHistogram(testId);
+                measureStartOperationCount = performanceStatsCollector.get(testId, true).getOperationCount();
+            }
+            return false;
+        }
+
+        long measureMillis = nowMs - measureStartMs;
+        if (measureMillis < settings.getStepMillis()) {
+            return false;
+        }
+
+        long operationCount = performanceStatsCollector.get(testId, true).getOperationCount() - measureStartOperationCount;
+        double throughput = operationCount * (double) SECONDS.toMillis(1) / measureMillis;
+        complete(measuredHistogram(), throughput);
+
+        stepStartMs = nowMs;
+        measureStartMs = 0;
+        return true;
+    }
+
+    private Histogram measuredHistogram() {
+        Histogram histogram = performanceStatsCollector.getTotalHistogram(testId);
+        if (histogram != null && measureStartHistogram != null) {
+            histogram.subtract(measureStartHistogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * Completes the measurement of the current rate and selects the next rate.
+     *
+     * @param histogram  the latency histogram of the current rate, can be {@code null} if no latencies have been recorded
+     * @param throughput the measured throughput in operations per second
+     * @return {@code true} if the current rate is sustainable, {@code false} otherwise
+     */
+    boolean complete(Histogram histogram, double throughput) {
+        boolean sustainable = histogram != null
+                && histogram.getTotalCount() > 0
+                && histogram.getValueAtPercentile(settings.getPercentile()) <= settings.getLatencyNanos()
+                && throughput >= rate * MIN_THROUGHPUT_RATIO;
+
+        Step step = new Step(rate, throughput, histogram, sustainable);
+        steps.add(step);
+        if (sustainable) {
+            sustainableStep = step;
+        } else {
+            unsustainableRate = rate;
+        }
+
+        selectNextRate();
+        return sustainable;
+    }
+
+    private void selectNextRate() {
+        if (sustainableStep == null || sustainableStep.rate >= settings.getMaxRate()) {
+            // the minimum rate isn't sustainable or the maximum rate is sustainable
+            done = true;
+        } else if (unsustainableRate == 0) {
+            rate = settings.getMaxRate();
+        } else if (unsustainableRate <= sustainableStep.rate * PRECISION) {
+            done = true;
+        } else {
+            rate = sqrt(sustainableStep.rate * unsustainableRate);
+        }
+    }
+
+    /**
+     * Returns the rate which should be applied.
+     *
+     * @return the total rate in operations per second
+     */
+    double getRate() {
+        return rate;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Returns the maximum sustainable rate that has been found so far.
+     *
+     * @return the maximum sustainable rate in operations per second or 0 if no sustainable rate has been found
+     */
+    double getMaxSustainableRate() {
+        return sustainableStep == null ? 0 : sustainableStep.rate;
+    }
+
+    /**
+     * Returns the latency histogram of the maximum sustainable rate.
+     *
+     * @return the latency histogram or {@code null} if no sustainable rate has been found
+     */
+    Histogram getMaxSustainableHistogram() {
+        return sustainableStep == null ? null : sustainableStep.histogram;
+    }
+
+    /**
+     * Creates a report of the search, with the result of every step and the latency distribution at the maximum
+     * sustainable rate.
+     *
+     * @return the report
+     */
+    String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(format(Locale.ENGLISH, "Rate search of %s with %sth percentile latency limit of %d µs%s%n",
+                testId, settings.getPercentile(), NANOSECONDS.toMicros(settings.getLatencyNanos()),
+                done ? "" : " (incomplete)"));
+        for (Step step : steps) {
+            sb.append(format(Locale.ENGLISH, "  rate %.0f ops/s throughput %.0f ops/s %s%n    %s%n",
+                    step.rate, step.throughput, step.sustainable ? "sustainable" : "unsustainable",
+                    step.histogram == null ? "no latencies recorded" : formatLatency(step.histogram)));
+        }
+
+        if (sustainableStep == null) {
+            sb.append(format(Locale.ENGLISH, "No sustainable rate found, the minimum rate %.0f ops/s is too high",
+                    settings.getMinRate()));
+        } else {
+            sb.append(format(Locale.ENGLISH, "Maximum sustainable rate %.0f ops/s%n  %s",
+                    sustainableStep.rate, formatLatency(sustainableStep.histogram)));
+        }
+        return sb.toString();
+    }
+
+    private static final class Step {
+        private final double rate;
+        private final double throughput;
+        private final Histogram histogram;
+        private final boolean sustainable;
+
+        private Step(double rate, double throughput, Histogram histogram, boolean sustainable) {
+            this.rate = rate;
+            this.throughput = throughput;
+            this.histogram = histogram;
+            this.sustainable = sustainable;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import static java.lang.String.format;
+
+/**
+ * Settings for the search of the maximum sustainable rate of a test.
+ *
+ * A rate is sustainable if the latency at the given percentile stays below the latency limit and the Workers are able to
+ * deliver the rate. The rates are the total number of operations per second of all Workers which run the test.
+ *
+ * @see RateSearch
+ */
+public class RateSearchSettings {
+
+    private static final double MAX_PERCENTILE = 100;
+
+    private final double percentile;
+    private final long latencyNanos;
+    private final double minRate;
+    private final double maxRate;
+    private final long stepMillis;
+
+    /**
+     * Creates the settings of a rate search.
+     *
+     * @param percentile   the latency percentile, e.g. 99.9
+     * @param latencyNanos the maximum latency at the percentile in nanoseconds
+     * @param minRate      the rate to start the search with
+     * @param maxRate      the highest rate to try
+     * @param stepMillis   the time to measure the latency of a single rate in milliseconds
+     * @throws IllegalArgumentException if one of the settings is invalid
+     */
+    public RateSearchSettings(double percentile, long latencyNanos, double minRate, double maxRate, long stepMillis) {
+        if (!(percentile > 0 && percentile <= MAX_PERCENTILE)) {
+            throw new IllegalArgumentException(format("percentile should be larger than 0 and at most 100, found: %s",
+                    percentile));
+        }
+        if (latencyNanos <= 0) {
+            throw new IllegalArgumentException("latency should be larger than 0, found: " + latencyNanos);
+        }
+        if (!(minRate > 0) || Double.isInfinite(maxRate) || maxRate < minRate) {
+            throw new IllegalArgumentException(format("minRate should be larger than 0 and maxRate should not be smaller"
+                    + " than minRate, found: minRate=%s maxRate=%s", minRate, maxRate));
+        }
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("step should be larger than 0, found: " + stepMillis);
+        }
+
+        this.percentile = percentile;
+        this.latencyNanos = latencyNanos;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.stepMillis = stepMillis;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public double getMinRate() {
+        return minRate;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RateSearchSettings{"
+                + "percentile=" + percentile
+                + ", latencyNanos=" + latencyNanos
+                + ", minRate=" + minRate
+                + ", maxRate=" + maxRate
+                + ", stepMillis=" + stepMillis
+                + '}';
+    }
+}
@@ -25,13 +25,17 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.BashCommand;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +57,7 @@ import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedSta
 import static com.hazelcast.simulator.utils.CommonUtils.await;
 import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
 import static com.hazelcast.simulator.utils.FileUtils.appendText;
@@ -60,6 +65,9 @@ import static com.hazelcast.simulator.utils.FileUtils.getConfigurationFile;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static com.hazelcast.simulator.utils.HistogramUtils.writePercentileDistribution;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.capitalizeFirst;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
@@ -78,6 +86,8 @@ public final class TestCaseRunner {
     private static final int WAIT_FOR_PHASE_COMPLETION_LOG_VERBOSE_DELAY_SECONDS = 300;
     private static final Logger LOGGER = Logger.getLogger(TestCaseRunner.class);
     private static final float THOUSAND = 1000f;
+    private static final int RATE_SEARCH_SETTLE_INTERVALS = 3;
+    private static final String GLOBAL_RATE_PROPERTY = "globalRatePerSecond";
 
     private final TestData test;
     private final TestCase testCase;
@@ -90,14 +100,18 @@ public final class TestCaseRunner {
     private final boolean isVerifyEnabled;
     private final TargetType targetType;
     private final int targetCount;
-    private final int performanceMonitorIntervalSeconds;
+    private final long performanceMonitorIntervalMillis;
     private final int logRunPhaseIntervalSeconds;
     private final List<WorkerData> targets;
     private final WorkerData globalTarget;
     private final Registry registry;
     private final CoordinatorParameters coordinatorParameters;
+    private final boolean globalRate;
+    private int rateShareWorkerCount;
+    // the total rate set by the rate search; 0 until the search has set a rate
+    private double searchedRate;
 
-    @SuppressWarnings("checkstyle:parameternumber")
+    @SuppressWarnings({"checkstyle:parameternumber", "checkstyle:executablestatementcount"})
     public TestCaseRunner(TestData test,
                           CoordinatorParameters coordinatorParameters,
                           List<WorkerData> targets,
@@ -121,15 +135,28 @@ public final class TestCaseRunner {
         this.isVerifyEnabled = testSuite.isVerifyEnabled();
         this.targetType = testSuite.getWorkerQuery().getTargetType().resolvePreferClient(registry.hasClientWorkers());
         this.targetCount = targets.size();
-        this.performanceMonitorIntervalSeconds
-                = coordinatorParameters.getSimulatorProperties().getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS");
-        if (performanceMonitorIntervalSeconds > 0) {
+        this.globalRate = hasGlobalRate(testCase);
+        this.performanceMonitorIntervalMillis
+                = coordinatorParameters.getSimulatorProperties().getPerformanceMonitorIntervalMillis();
+        if (performanceMonitorIntervalMillis > 0) {
+            // the progress is logged at most once per second, also when the performance monitor has a sub-second interval
+            int performanceMonitorIntervalSeconds = (int) max(1, MILLISECONDS.toSeconds(performanceMonitorIntervalMillis));
             this.logRunPhaseIntervalSeconds = min(performanceMonitorIntervalSeconds, RUN_PHASE_LOG_INTERVAL_SECONDS);
         } else {
             this.logRunPhaseIntervalSeconds = RUN_PHASE_LOG_INTERVAL_SECONDS;
         }
     }
 
+    private static boolean hasGlobalRate(TestCase testCase) {
+        for (String property : testCase.getProperties().keySet()) {
+            // the property is either globalRatePerSecond or prefixed with the execution group, e.g. readGlobalRatePerSecond
+            if (property.equals(GLOBAL_RATE_PROPERTY) || property.endsWith(capitalizeFirst(GLOBAL_RATE_PROPERTY))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean run() {
         logDetails();
 
@@ -190,19 +217,29 @@ public final class TestCaseRunner {
     }
 
     private Map<WorkerData, Future> submitToTargets(boolean singleTarget, SimulatorOperation op) {
+        return submitTo(singleTarget ? Collections.singletonList(globalTarget) : targets, op);
+    }
+
+    private Map<WorkerData, Future> submitTo(List<WorkerData> workers, SimulatorOperation op) {
         Map<WorkerData, Future> futures = new HashMap<WorkerData, Future>();
+        for (WorkerData worker : workers) {
+            Future f = client.submit(worker.getAddress(), op);
+            futures.put(worker, f);
+        }
+        return futures;
+    }
 
-        if (singleTarget) {
-            Future f = client.submit(globalTarget.getAddress(), op);
-            futures.put(globalTarget, f);
-        } else {
-            for (WorkerData worker : targets) {
-                Future f = client.submit(worker.getAddress(), op);
-                futures.put(worker, f);
+    /**
+     * Returns the target Workers which are still registered, so the Workers which haven't failed.
+     */
+    private List<WorkerData> liveTargets() {
+        List<WorkerData> liveTargets = new ArrayList<WorkerData>(targets.size());
+        for (WorkerData target : targets) {
+            if (registry.findWorker(target.getAddress()) != null) {
+                liveTargets.add(target);
             }
         }
-
-        return futures;
+        return liveTargets;
     }
 
     private void awaitCompletion(Map<WorkerData, Future> futures) {
@@ -259,6 +296,8 @@ public final class TestCaseRunner {
             timeoutMs = startMs + durationMs;
         }
 
+        RateSearch rateSearch = newRateSearch();
+
         long nextSleepUntilMs = startMs;
         int iteration = 0;
         for (; ; ) {
@@ -276,6 +315,11 @@ public final class TestCaseRunner {
                 break;
             }
 
+            if (updateRate(rateSearch, nowMs) && durationSeconds == 0) {
+                log("Rate search completed");
+                break;
+            }
+
             iteration++;
             if (iteration % logRunPhaseIntervalSeconds == 0) {
                 logProgress(nowMs - startMs, durationMs);
@@ -288,9 +332,119 @@ public final class TestCaseRunner {
 
         logFinalPerformanceInfo(startMs);
 
+        reportRateSearch(rateSearch);
+
         waitForGlobalTestPhaseCompletion(RUN);
     }
 
+    private RateSearch newRateSearch() {
+        RateSearchSettings rateSearchSettings = coordinatorParameters.getRateSearchSettings();
+        if (rateSearchSettings == null) {
+            return null;
+        }
+        if (performanceMonitorIntervalMillis == 0) {
+            log("Rate search is skipped, the performance monitor is disabled");
+            return null;
+        }
+
+        log(format("Searching the maximum sustainable rate between %.0f and %.0f ops/s",
+                rateSearchSettings.getMinRate(), rateSearchSettings.getMaxRate()));
+        // after a rate change we wait a few performance monitor intervals, so the new rate is fully in effect
+        long settleMillis = RATE_SEARCH_SETTLE_INTERVALS * performanceMonitorIntervalMillis;
+        return new RateSearch(testCase.getId(), rateSearchSettings, performanceStatsCollector, settleMillis);
+    }
+
+    /**
+     * Updates the rate of the test, if it has a global rate or the maximum sustainable rate is searched.
+     *
+     * @return {@code true} if the rate search has completed, {@code false} otherwise
+     */
+    private boolean updateRate(RateSearch rateSearch, long nowMs) {
+        if (globalRate || searchedRate > 0) {
+            rebalanceGlobalRate();
+        }
+        return rateSearch != null && updateRateSearch(rateSearch, nowMs);
+    }
+
+    /**
+     * Updates the rate search and applies the next rate to the Workers. Once the search has completed, the maximum
+     * sustainable rate is applied, so a test with a duration continues at that rate.
+     *
+     * @return {@code true} if the rate search has completed with this update, {@code false} otherwise
+     */
+    private boolean updateRateSearch(RateSearch rateSearch, long nowMs) {
+        if (!rateSearch.update(nowMs)) {
+            return false;
+        }
+        if (rateSearch.isDone()) {
+            if (rateSearch.getMaxSustainableRate() > 0) {
+                log(format("Rate search completed, applying the maximum sustainable rate %.0f ops/s",
+                        rateSearch.getMaxSustainableRate()));
+                applySearchedRate(rateSearch.getMaxSustainableRate());
+            }
+            return true;
+        }
+
+        log(format("Rate search is trying %.0f ops/s", rateSearch.getRate()));
+        applySearchedRate(rateSearch.getRate());
+        return false;
+    }
+
+    private void applySearchedRate(double rate) {
+        searchedRate = rate;
+        List<WorkerData> liveTargets = liveTargets();
+        if (liveTargets.isEmpty()) {
+            // no Worker runs the test anymore, so the RUN phase ends when their futures are checked
+            return;
+        }
+        awaitCompletion(submitTo(liveTargets, new SetRateOperation(testCase.getId(), searchedRate / liveTargets.size())));
+        rateShareWorkerCount = liveTargets.size();
+    }
+
+    /**
+     * Divides the global rate of the test between the Workers which run the test. The shares are only sent when the number
+     * of Workers has changed, e.g. because a Worker has failed, so the total rate stays the same.
+     *
+     * Once the rate search has set a rate, the searched rate is divided instead of the configured global rate. Otherwise
+     * the share of the configured rate would replace the rate the search is measuring.
+     */
+    private void rebalanceGlobalRate() {
+        List<WorkerData> liveTargets = liveTargets();
+        if (liveTargets.isEmpty() || liveTargets.size() == rateShareWorkerCount) {
+            return;
+        }
+
+        log(format("Dividing the %s rate between %d workers %s", searchedRate > 0 ? "searched" : "global",
+                liveTargets.size(), WorkerData.toAddressString(liveTargets)));
+        SimulatorOperation operation = searchedRate > 0
+                ? new SetRateOperation(testCase.getId(), searchedRate / liveTargets.size())
+                : new SetRateShareOperation(testCase.getId(), 1d / liveTargets.size());
+        try {
+            awaitCompletion(submitTo(liveTargets, operation));
+            rateShareWorkerCount = liveTargets.size();
+        } catch (RuntimeException e) {
+            // a Worker may fail while the shares are sent; the shares are sent again on the next attempt
+            log("Failed to divide the global rate: " + e.getMessage());
+        }
+    }
+
+    private void reportRateSearch(RateSearch rateSearch) {
+        if (rateSearch == null) {
+            return;
+        }
+
+        String report = rateSearch.report();
+        LOGGER.info(prefix + report);
+
+        File outputDirectory = coordinatorParameters.getOutputDirectory();
+        appendText(report + "\n", new File(outputDirectory, "rate-search.txt"));
+
+        Histogram histogram = rateSearch.getMaxSustainableHistogram();
+        if (histogram != null) {
+            writePercentileDistribution(histogram, new File(outputDirectory, testCase.getId() + "-rate-search.hgrm"));
+        }
+    }
+
     private boolean isAllDone(Map<WorkerData, Future> futures) {
         for (Future f : futures.values()) {
             if (!f.isDone()) {
@@ -306,18 +460,18 @@ public final class TestCaseRunner {
         // due to premature abortion of a test. Or if the test has no explicit duration configured
         long durationWithWarmupMillis = currentTimeMillis() - startMs;
 
-        // then we need to subtract the warmup.
-        long durationMillis = durationWithWarmupMillis;
-
-        if (performanceMonitorIntervalSeconds > 0) {
+        if (performanceMonitorIntervalMillis > 0) {
             LOGGER.info(testCase.getId() + " Waiting for all performance info");
-            sleepSeconds(performanceMonitorIntervalSeconds);
+            sleepMillis(performanceMonitorIntervalMillis);
+
+            // then we need to subtract the warmup, since its operations are not counted
+            PerformanceStats performanceStats = performanceStatsCollector.get(testCase.getId(), true);
+            long durationMillis = max(1, durationWithWarmupMillis - performanceStats.getWarmupMillis());
 
             String performanceInfo = performanceStatsCollector.detailedPerformanceInfo(testCase.getId(), durationMillis);
             LOGGER.info("Performance " + testCase.getId() + "\n"
                     + performanceInfo);
 
-            PerformanceStats performanceStats = performanceStatsCollector.get(testCase.getId(), true);
             File performanceFile = new File(coordinatorParameters.getOutputDirectory(), "performance.txt");
             long operationCount = performanceStats.getOperationCount();
             appendText("operations=" + operationCount + "\n", performanceFile);
@@ -336,6 +490,11 @@ public final class TestCaseRunner {
 
         recordTimestamp("start");
 
+        if (globalRate) {
+            // the shares are assigned before the run starts, so a Worker never runs the full global rate
+            rebalanceGlobalRate();
+        }
+
         return submitToTargets(false, new StartPhaseOperation(RUN, testCase.getId()));
     }
 
@@ -372,7 +531,7 @@ public final class TestCaseRunner {
                     formatPercentage(elapsedMs, durationMs));
         }
 
-        if (performanceMonitorIntervalSeconds > 0) {
+        if (performanceMonitorIntervalMillis > 0) {
             msg += performanceStatsCollector.formatIntervalPerformanceNumbers(testCase.getId());
         }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator.operations;
+
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+public class RcTestProfileOperation implements SimulatorOperation {
+
+    private final String testId;
+    private final String profiler;
+    private final String settings;
+    private final String delay;
+    private final String duration;
+    private final boolean stop;
+
+    public RcTestProfileOperation(String testId, String profiler, String settings, String delay, String duration, boolean stop) {
+        this.testId = testId;
+        this.profiler = profiler;
+        this.settings = settings;
+        this.delay = delay;
+        this.duration = duration;
+        this.stop = stop;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getProfiler() {
+        return profiler;
+    }
+
+    public String getSettings() {
+        return settings;
+    }
+
+    public String getDelay() {
+        return delay;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public boolean isStop() {
+        return stop;
+    }
+}
@@ -19,6 +19,9 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.coordinator.TestSuite;
 
+import java.util.Collections;
+import java.util.List;
+
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.FAILED;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.IN_PROGRESS;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.SUCCESS;
@@ -38,6 +41,7 @@ public class TestData {
     private volatile TestPhase testPhase;
     private volatile boolean stopRequested;
     private volatile CompletedStatus completedStatus = IN_PROGRESS;
+    private volatile List<WorkerData> targets = Collections.emptyList();
 
     TestData(int testIndex,  TestCase testCase, TestSuite testSuite) {
         this.testIndex = testIndex;
@@ -65,6 +69,19 @@ public class TestData {
         return stopRequested;
     }
 
+    /**
+     * Sets the Workers which run the test.
+     *
+     * @param targets the Workers which run the test
+     */
+    public void setTargets(List<WorkerData> targets) {
+        this.targets = targets;
+    }
+
+    public List<WorkerData> getTargets() {
+        return targets;
+    }
+
     public void setTestPhase(TestPhase testPhase) {
         this.testPhase = testPhase;
     }
@@ -122,6 +122,7 @@ public class RunTestSuiteTask {
             int testIndex = test.getTestIndex();
             TestCase testCase = test.getTestCase();
             LOGGER.info(format("Configuration for %s (T%d):%n%s", testCase.getId(), testIndex, testCase));
+            test.setTargets(targets);
 
             TestCaseRunner runner = new TestCaseRunner(
                     test,
@@ -31,6 +31,30 @@ public interface Probe {
      */
     void done(long startNanos);
 
+    /**
+     * Calculates the latency from an external start time and records the value, together with a tag like the key of the
+     * operation.
+     *
+     * The tag is only kept if the probe records the slowest operations of each interval and the operation is one of them.
+     * So it shows which key or request caused a tail latency.
+     *
+     * @param startNanos external start time from {@link System#nanoTime()}.
+     * @param tag        the tag of the operation, e.g. its key; converted to a String only if the operation is kept
+     */
+    void done(long startNanos, Object tag);
+
+    /**
+     * Records the latency of an operation which was intended to start at {@code intendedStartNanos}, e.g. by the metronome,
+     * but actually started at {@code actualStartNanos}. The latency is calculated from the intended start, so it includes
+     * the time the operation was delayed.
+     *
+     * @param intendedStartNanos the intended start time from {@link System#nanoTime()}
+     * @param actualStartNanos   the actual start time from {@link System#nanoTime()}
+     * @param tag                the tag of the operation or {@code null}
+     * @see #done(long, Object)
+     */
+    void done(long intendedStartNanos, long actualStartNanos, Object tag);
+
     /**
      * Adds a latency value in nanoseconds to the probe result.
      *
@@ -37,6 +37,14 @@ public class EmptyProbe implements Probe {
     public void done(long startNanos) {
     }
 
+    @Override
+    public void done(long startNanos, Object tag) {
+    }
+
+    @Override
+    public void done(long intendedStartNanos, long actualStartNanos, Object tag) {
+    }
+
     @Override
     public void recordValue(long latencyNanos) {
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+/**
+ * One of the slowest operations of an interval of a {@link HdrProbe}.
+ *
+ * It tells which operation produced a tail latency: when it completed, on which thread, how late it started compared to its
+ * intended start and the optional tag, like the key of the operation.
+ */
+public final class Exemplar {
+
+    /**
+     * The value of {@link #getStartLagNanos()} if the intended start of the operation is not known.
+     */
+    public static final long NOT_MEASURED = -1;
+
+    private final long completedMillis;
+    private final long latencyNanos;
+    private final long startLagNanos;
+    private final String threadName;
+    private final String tag;
+
+    public Exemplar(long completedMillis, long latencyNanos, long startLagNanos, String threadName, String tag) {
+        this.completedMillis = completedMillis;
+        this.latencyNanos = latencyNanos;
+        this.startLagNanos = startLagNanos;
+        this.threadName = threadName;
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the time the operation completed in epoch millis.
+     */
+    public long getCompletedMillis() {
+        return completedMillis;
+    }
+
+    /**
+     * Returns the latency of the operation, measured from its intended start.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Returns the time between the intended and the actual start of the operation or {@link #NOT_MEASURED}.
+     */
+    public long getStartLagNanos() {
+        return startLagNanos;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Returns the tag of the operation or {@code null} if the operation has no tag.
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    @Override
+    public String toString() {
+        return "Exemplar{completedMillis=" + completedMillis + ", latencyNanos=" + latencyNanos
+                + ", startLagNanos=" + startLagNanos + ", threadName='" + threadName + "', tag='" + tag + "'}";
+    }
+}
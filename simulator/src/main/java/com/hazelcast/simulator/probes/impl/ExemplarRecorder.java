@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import org.HdrHistogram.WriterReaderPhaser;
+
+import java.util.List;
+
+/**
+ * Keeps the slowest operations of an interval which are recorded by a single thread.
+ *
+ * The operations are kept in a fixed size min-heap, so recording an operation which is faster than the fastest kept operation
+ * only costs a single comparison. Like the {@link org.HdrHistogram.SingleWriterRecorder}, the interval is switched using a
+ * {@link WriterReaderPhaser}, so the recording thread is never blocked by the thread reading the interval.
+ *
+ * A recorder which is shared by multiple threads is recorded using {@link #recordConcurrently(long, long, Object)}; the
+ * writers then wait for each other, but still not for the reader.
+ */
+final class ExemplarRecorder {
+
+    private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+    private final Object writerLock = new Object();
+    private volatile ExemplarHeap activeHeap;
+    private ExemplarHeap inactiveHeap;
+
+    ExemplarRecorder(int capacity) {
+        this.activeHeap = new ExemplarHeap(capacity);
+        this.inactiveHeap = new ExemplarHeap(capacity);
+    }
+
+    /**
+     * Records an operation. Should only be called by the thread owning this recorder.
+     *
+     * @param latencyNanos  the latency of the operation
+     * @param startLagNanos the time between the intended and the actual start or {@link Exemplar#NOT_MEASURED}
+     * @param tag           the tag of the operation or {@code null}
+     */
+    void record(long latencyNanos, long startLagNanos, Object tag) {
+        long criticalValue = phaser.writerCriticalSectionEnter();
+        try {
+            activeHeap.offer(latencyNanos, startLagNanos, tag);
+        } finally {
+            phaser.writerCriticalSectionExit(criticalValue);
+        }
+    }
+
+    /**
+     * Records an operation from any thread.
+     *
+     * @param latencyNanos  the latency of the operation
+     * @param startLagNanos the time between the intended and the actual start or {@link Exemplar#NOT_MEASURED}
+     * @param tag           the tag of the operation or {@code null}
+     */
+    void recordConcurrently(long latencyNanos, long startLagNanos, Object tag) {
+        synchronized (writerLock) {
+            record(latencyNanos, startLagNanos, tag);
+        }
+    }
+
+    /**
+     * Adds the operations recorded since the previous call to the given list and starts a new interval.
+     *
+     * @param exemplars the list to add the operations to
+     */
+    synchronized void drainIntervalTo(List<Exemplar> exemplars) {
+        phaser.readerLock();
+        try {
+            ExemplarHeap intervalHeap = activeHeap;
+            activeHeap = inactiveHeap;
+            phaser.flipPhase();
+            inactiveHeap = intervalHeap;
+        } finally {
+            phaser.readerUnlock();
+        }
+        inactiveHeap.drainTo(exemplars);
+    }
+
+    private static final class ExemplarHeap {
+
+        private final long[] latencies;
+        private final long[] startLags;
+        private final long[] completedMillis;
+        private final String[] tags;
+        private final Thread[] threads;
+        private int size;
+
+        ExemplarHeap(int capacity) {
+            this.latencies = new long[capacity];
+            this.startLags = new long[capacity];
+            this.completedMillis = new long[capacity];
+            this.tags = new String[capacity];
+            this.threads = new Thread[capacity];
+        }
+
+        void offer(long latencyNanos, long startLagNanos, Object tag) {
+            int index;
+            if (size < latencies.length) {
+                index = size++;
+            } else if (latencyNanos > latencies[0]) {
+                // the fastest kept operation is replaced
+                index = 0;
+            } else {
+                return;
+            }
+
+            latencies[index] = latencyNanos;
+            startLags[index] = startLagNanos;
+            completedMillis[index] = System.currentTimeMillis();
+            tags[index] = tag == null ? null : tag.toString();
+            threads[index] = Thread.currentThread();
+
+            if (index == 0) {
+                siftDown(0);
+            } else {
+                siftUp(index);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (latencies[parent] <= latencies[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && latencies[left] < latencies[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && latencies[right] < latencies[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long latency = latencies[i];
+            latencies[i] = latencies[j];
+            latencies[j] = latency;
+
+            long startLag = startLags[i];
+            startLags[i] = startLags[j];
+            startLags[j] = startLag;
+
+            long completed = completedMillis[i];
+            completedMillis[i] = completedMillis[j];
+            completedMillis[j] = completed;
+
+            String tag = tags[i];
+            tags[i] = tags[j];
+            tags[j] = tag;
+
+            Thread thread = threads[i];
+            threads[i] = threads[j];
+            threads[j] = thread;
+        }
+
+        void drainTo(List<Exemplar> exemplars) {
+            for (int i = 0; i < size; i++) {
+                exemplars.add(new Exemplar(completedMillis[i], latencies[i], startLags[i], threads[i].getName(), tags[i]));
+            }
+            clear();
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                tags[i] = null;
+                threads[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -16,35 +16,100 @@
 package com.hazelcast.simulator.probes.impl;
 
 import com.hazelcast.simulator.probes.Probe;
+import org.HdrHistogram.Histogram;
 import org.HdrHistogram.Recorder;
 
-import static java.util.concurrent.TimeUnit.HOURS;
-import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 
 /**
  * HDR-Histogram implementation of the {@link Probe}.
+ *
+ * The probe itself can be recorded by any number of threads. A thread that records a lot of values, like a timestep-thread,
+ * should use its own {@link #newThreadProbe()} to prevent contention; {@link #getIntervalHistogram()} merges the values
+ * of all thread probes. When the thread completes, it should {@link #release(Probe)} its thread probe, so the histograms of
+ * completed threads don't pile up. The number of thread probes is limited to {@link #MAX_THREAD_PROBES}; beyond that,
+ * {@link #newThreadProbe()} returns the probe itself, so the memory of the histograms doesn't grow with the number of threads,
+ * e.g. with many thousands of virtual threads.
+ *
+ * The range and precision of the histograms are configured using {@link HistogramSettings}; by default the values are
+ * recorded with a microsecond resolution up to an hour.
+ *
+ * Optionally the probe keeps the slowest operations of each interval as {@link Exemplar}s. Every thread probe keeps its own
+ * slowest operations, so this doesn't cause contention either; the threads recording into the probe itself share a fixed
+ * number of stripes, chosen by thread id, so the number of recorders doesn't grow with the number of threads.
+ * {@link #getIntervalExemplars()} merges them.
  */
 public class HdrProbe implements Probe {
-    // we want to track up to an hour.
-    static final long HIGHEST_TRACKABLE_VALUE = HOURS.toNanos(1);
 
-    // we care only about microsecond accuracy.
-    private static final long LOWEST_DISCERNIBLE_VALUE = MICROSECONDS.toNanos(1);
+    /**
+     * The maximum number of thread probes of a probe which have not been released.
+     */
+    public static final int MAX_THREAD_PROBES = 64;
 
-    // since we care about us, the value should be 1000 according to the javadoc of Recorder.
-    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+    private static final int EXEMPLAR_STRIPES = 16;
 
-    // these settings come the website; just above the following link
-    //https://github.com/HdrHistogram/HdrHistogram#histogram-variants-and-internal-representation
-    private final Recorder recorder = new Recorder(
-            LOWEST_DISCERNIBLE_VALUE,
-            HIGHEST_TRACKABLE_VALUE,
-            NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private static final Comparator<Exemplar> SLOWEST_FIRST = new Comparator<Exemplar>() {
+        @Override
+        public int compare(Exemplar o1, Exemplar o2) {
+            long latency1 = o1.getLatencyNanos();
+            long latency2 = o2.getLatencyNanos();
+            return latency1 > latency2 ? -1 : (latency1 == latency2 ? 0 : 1);
+        }
+    };
 
+    private final Recorder recorder;
+    private final List<SingleWriterHdrProbe> threadProbes = new CopyOnWriteArrayList<SingleWriterHdrProbe>();
+    private final List<ExemplarRecorder> exemplarRecorders = new CopyOnWriteArrayList<ExemplarRecorder>();
+    // the exemplar recorders of the threads recording into this probe; null if no exemplars are kept
+    private final ExemplarRecorder[] exemplarStripes;
     private final boolean partOfTotalThroughput;
+    private final int exemplarCount;
+    private final HistogramSettings histogramSettings;
+    private final long highestTrackableValue;
+    private volatile long estimatedFootprintInBytes;
+    // the values and slowest operations of released thread probes which are not part of an interval yet; guarded by this
+    private Histogram releasedHistogram;
+    private final List<Exemplar> releasedExemplars = new ArrayList<Exemplar>();
 
     public HdrProbe(boolean partOfTotalThroughput) {
+        this(partOfTotalThroughput, 0);
+    }
+
+    public HdrProbe(boolean partOfTotalThroughput, int exemplarCount) {
+        this(partOfTotalThroughput, exemplarCount, HistogramSettings.MICROSECOND_RESOLUTION);
+    }
+
+    /**
+     * Creates a probe which keeps the slowest operations of each interval.
+     *
+     * @param partOfTotalThroughput {@code true} if the probe is relevant for the throughput
+     * @param exemplarCount         the number of slowest operations kept per interval or 0 to keep none
+     * @param histogramSettings     the range and precision of the histograms
+     */
+    public HdrProbe(boolean partOfTotalThroughput, int exemplarCount, HistogramSettings histogramSettings) {
+        if (exemplarCount < 0) {
+            throw new IllegalArgumentException("exemplarCount can't be negative, found: " + exemplarCount);
+        }
         this.partOfTotalThroughput = partOfTotalThroughput;
+        this.exemplarCount = exemplarCount;
+        this.histogramSettings = checkNotNull(histogramSettings, "histogramSettings can't be null");
+        this.highestTrackableValue = histogramSettings.getHighestTrackableValue();
+        this.recorder = histogramSettings.newRecorder();
+        this.exemplarStripes = exemplarCount > 0 ? newExemplarStripes() : null;
+    }
+
+    private ExemplarRecorder[] newExemplarStripes() {
+        ExemplarRecorder[] stripes = new ExemplarRecorder[EXEMPLAR_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = newExemplarRecorder();
+        }
+        return stripes;
     }
 
     @Override
@@ -62,10 +127,35 @@ public class HdrProbe implements Probe {
         recordValue(nowNanos - startNanos);
     }
 
+    @Override
+    public void done(long startNanos, Object tag) {
+        if (startNanos <= 0) {
+            throw new IllegalArgumentException("startedNanos has to be a positive number");
+        }
+
+        long nowNanos = System.nanoTime();
+        record(nowNanos - startNanos, Exemplar.NOT_MEASURED, tag);
+    }
+
+    @Override
+    public void done(long intendedStartNanos, long actualStartNanos, Object tag) {
+        long nowNanos = System.nanoTime();
+        record(nowNanos - intendedStartNanos, actualStartNanos - intendedStartNanos, tag);
+    }
+
     @Override
     public void recordValue(long latencyNanos) {
-        if (latencyNanos > HIGHEST_TRACKABLE_VALUE) {
-            latencyNanos = HIGHEST_TRACKABLE_VALUE;
+        record(latencyNanos, Exemplar.NOT_MEASURED, null);
+    }
+
+    private void record(long latencyNanos, long startLagNanos, Object tag) {
+        if (exemplarStripes != null) {
+            int stripe = (int) (Thread.currentThread().getId() & (EXEMPLAR_STRIPES - 1));
+            exemplarStripes[stripe].recordConcurrently(latencyNanos, startLagNanos, tag);
+        }
+
+        if (latencyNanos > highestTrackableValue) {
+            latencyNanos = highestTrackableValue;
         }
         recorder.recordValue(latencyNanos);
     }
@@ -74,8 +164,149 @@ public class HdrProbe implements Probe {
         return recorder;
     }
 
+    /**
+     * Creates a {@link Probe} for a single recording thread, which is merged into this probe.
+     *
+     * If there are already {@link #MAX_THREAD_PROBES} thread probes, this probe itself is returned; it can be recorded by
+     * any number of threads and releasing it is a no-op.
+     *
+     * @return the created thread probe or this probe
+     */
+    public synchronized Probe newThreadProbe() {
+        if (threadProbes.size() >= MAX_THREAD_PROBES) {
+            return this;
+        }
+
+        ExemplarRecorder exemplarRecorder = exemplarCount > 0 ? newExemplarRecorder() : null;
+        SingleWriterHdrProbe threadProbe = new SingleWriterHdrProbe(
+                partOfTotalThroughput, histogramSettings, exemplarRecorder);
+        threadProbes.add(threadProbe);
+        return threadProbe;
+    }
+
+    /**
+     * Releases a thread probe created by {@link #newThreadProbe()} when its thread completes.
+     *
+     * The values recorded since the last interval are kept for the next interval, but the histograms of the thread probe are
+     * dropped. The thread probe should not be recorded to after it has been released.
+     *
+     * @param threadProbe the thread probe to release
+     */
+    public synchronized void release(Probe threadProbe) {
+        if (!threadProbes.remove(threadProbe)) {
+            return;
+        }
+
+        SingleWriterHdrProbe singleWriterProbe = (SingleWriterHdrProbe) threadProbe;
+        Histogram histogram = singleWriterProbe.getRecorder().getIntervalHistogram();
+        if (releasedHistogram == null) {
+            releasedHistogram = histogram;
+        } else {
+            releasedHistogram.add(histogram);
+        }
+
+        ExemplarRecorder exemplarRecorder = singleWriterProbe.getExemplarRecorder();
+        if (exemplarRecorder != null) {
+            exemplarRecorders.remove(exemplarRecorder);
+            exemplarRecorder.drainIntervalTo(releasedExemplars);
+            keepSlowest(releasedExemplars);
+        }
+    }
+
+    /**
+     * Gets the number of thread probes which have not been released.
+     *
+     * @return the number of thread probes
+     */
+    public int getThreadProbeCount() {
+        return threadProbes.size();
+    }
+
+    /**
+     * Gets the histogram of the values recorded since the previous call, including the values of the thread probes.
+     *
+     * @return the interval histogram
+     */
+    public synchronized Histogram getIntervalHistogram() {
+        Histogram intervalHistogram = recorder.getIntervalHistogram();
+        long footprintInBytes = intervalHistogram.getEstimatedFootprintInBytes();
+        for (SingleWriterHdrProbe threadProbe : threadProbes) {
+            Histogram threadIntervalHistogram = threadProbe.getRecorder().getIntervalHistogram();
+            footprintInBytes += threadIntervalHistogram.getEstimatedFootprintInBytes();
+            intervalHistogram.add(threadIntervalHistogram);
+        }
+        if (releasedHistogram != null) {
+            intervalHistogram.add(releasedHistogram);
+            releasedHistogram = null;
+        }
+        // every recorder swaps between an active and an inactive histogram
+        estimatedFootprintInBytes = 2 * footprintInBytes;
+        return intervalHistogram;
+    }
+
+    /**
+     * Gets the estimated memory used by the histograms of this probe and its thread probes, as measured by the last call
+     * to {@link #getIntervalHistogram()}. With auto-resizing histograms the footprint grows with the highest recorded value.
+     *
+     * @return the estimated footprint in bytes or 0 if no interval histogram has been taken yet
+     */
+    public long getEstimatedFootprintInBytes() {
+        return estimatedFootprintInBytes;
+    }
+
+    public HistogramSettings getHistogramSettings() {
+        return histogramSettings;
+    }
+
+    /**
+     * Gets the slowest operations recorded since the previous call, including the operations of the thread probes.
+     *
+     * @return the slowest operations, the slowest first; empty if the probe doesn't keep the slowest operations
+     */
+    public synchronized List<Exemplar> getIntervalExemplars() {
+        List<Exemplar> exemplars = new ArrayList<Exemplar>(releasedExemplars);
+        releasedExemplars.clear();
+        for (ExemplarRecorder exemplarRecorder : exemplarRecorders) {
+            exemplarRecorder.drainIntervalTo(exemplars);
+        }
+        keepSlowest(exemplars);
+        return exemplars;
+    }
+
+    private void keepSlowest(List<Exemplar> exemplars) {
+        Collections.sort(exemplars, SLOWEST_FIRST);
+        if (exemplars.size() > exemplarCount) {
+            exemplars.subList(exemplarCount, exemplars.size()).clear();
+        }
+    }
+
+    public int getExemplarCount() {
+        return exemplarCount;
+    }
+
+    /**
+     * Gets the number of exemplar recorders: the stripes of this probe and the recorders of its thread probes.
+     *
+     * @return the number of exemplar recorders
+     */
+    int getExemplarRecorderCount() {
+        return exemplarRecorders.size();
+    }
+
+    private ExemplarRecorder newExemplarRecorder() {
+        ExemplarRecorder exemplarRecorder = new ExemplarRecorder(exemplarCount);
+        exemplarRecorders.add(exemplarRecorder);
+        return exemplarRecorder;
+    }
+
     @Override
-    public void reset() {
+    public synchronized void reset() {
         recorder.reset();
+        for (SingleWriterHdrProbe threadProbe : threadProbes) {
+            threadProbe.reset();
+        }
+        releasedHistogram = null;
+        // discards the slowest operations recorded so far
+        getIntervalExemplars();
     }
 }
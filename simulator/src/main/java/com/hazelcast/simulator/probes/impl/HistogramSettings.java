@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import org.HdrHistogram.Recorder;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * The range and precision of the histograms of a {@link HdrProbe}.
+ *
+ * The memory used by a histogram grows with the ratio between the highest trackable value and the lowest discernible value,
+ * and by a factor of 10 for every significant value digit. So a nanosecond resolution or an extra digit isn't for free,
+ * especially since every thread probe has its own histograms.
+ */
+public final class HistogramSettings {
+
+    // these settings come the website; just above the following link
+    //https://github.com/HdrHistogram/HdrHistogram#histogram-variants-and-internal-representation
+    // we want to track up to an hour, but we care only about microsecond accuracy. Since we care about us, the number of
+    // significant value digits should be 3 according to the javadoc of Recorder.
+    public static final HistogramSettings MICROSECOND_RESOLUTION = new HistogramSettings(
+            MICROSECONDS.toNanos(1), HOURS.toNanos(1), 3);
+
+    // the same range, but values below a microsecond, like near-cache hits, don't collapse into the first bucket.
+    public static final HistogramSettings NANOSECOND_RESOLUTION = new HistogramSettings(1, HOURS.toNanos(1), 3);
+
+    // the highest value an auto-resizing histogram can record.
+    private static final long AUTO_RESIZE_HIGHEST_TRACKABLE_VALUE = Long.MAX_VALUE / 2;
+    private static final int MAX_SIGNIFICANT_VALUE_DIGITS = 5;
+
+    private final long lowestDiscernibleValue;
+    private final long highestTrackableValue;
+    private final int numberOfSignificantValueDigits;
+    private final boolean autoResize;
+
+    /**
+     * Creates settings for histograms with a fixed range.
+     *
+     * @param lowestDiscernibleValue         the lowest value in nanoseconds that can be told apart from 0
+     * @param highestTrackableValue          the highest value in nanoseconds; higher values are recorded as this value
+     * @param numberOfSignificantValueDigits the precision of the recorded values, between 0 and 5
+     * @throws IllegalArgumentException if the settings are invalid
+     */
+    public HistogramSettings(long lowestDiscernibleValue, long highestTrackableValue, int numberOfSignificantValueDigits) {
+        this(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits, false);
+
+        if (lowestDiscernibleValue < 1) {
+            throw new IllegalArgumentException("lowestDiscernibleValue must be at least 1, found: " + lowestDiscernibleValue);
+        }
+        if (highestTrackableValue < 2 * lowestDiscernibleValue) {
+            throw new IllegalArgumentException(format("highestTrackableValue must be at least twice the lowestDiscernibleValue,"
+                    + " found: %d and %d", highestTrackableValue, lowestDiscernibleValue));
+        }
+    }
+
+    private HistogramSettings(long lowestDiscernibleValue, long highestTrackableValue, int numberOfSignificantValueDigits,
+                              boolean autoResize) {
+        if (numberOfSignificantValueDigits < 0 || numberOfSignificantValueDigits > MAX_SIGNIFICANT_VALUE_DIGITS) {
+            throw new IllegalArgumentException("numberOfSignificantValueDigits must be between 0 and "
+                    + MAX_SIGNIFICANT_VALUE_DIGITS + ", found: " + numberOfSignificantValueDigits);
+        }
+        this.lowestDiscernibleValue = lowestDiscernibleValue;
+        this.highestTrackableValue = highestTrackableValue;
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.autoResize = autoResize;
+    }
+
+    /**
+     * Creates settings for histograms with a nanosecond resolution, which only grow as far as the recorded values require.
+     *
+     * @param numberOfSignificantValueDigits the precision of the recorded values, between 0 and 5
+     * @return the created settings
+     * @throws IllegalArgumentException if the number of significant value digits is invalid
+     */
+    public static HistogramSettings autoResize(int numberOfSignificantValueDigits) {
+        return new HistogramSettings(1, AUTO_RESIZE_HIGHEST_TRACKABLE_VALUE, numberOfSignificantValueDigits, true);
+    }
+
+    public long getLowestDiscernibleValue() {
+        return lowestDiscernibleValue;
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getNumberOfSignificantValueDigits() {
+        return numberOfSignificantValueDigits;
+    }
+
+    public boolean isAutoResize() {
+        return autoResize;
+    }
+
+    Recorder newRecorder() {
+        if (autoResize) {
+            return new Recorder(numberOfSignificantValueDigits);
+        }
+        return new Recorder(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
+    }
+
+    SingleWriterRecorder newSingleWriterRecorder() {
+        if (autoResize) {
+            return new SingleWriterRecorder(numberOfSignificantValueDigits);
+        }
+        return new SingleWriterRecorder(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        HistogramSettings that = (HistogramSettings) o;
+        return lowestDiscernibleValue == that.lowestDiscernibleValue
+                && highestTrackableValue == that.highestTrackableValue
+                && numberOfSignificantValueDigits == that.numberOfSignificantValueDigits
+                && autoResize == that.autoResize;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (lowestDiscernibleValue ^ (lowestDiscernibleValue >>> 32));
+        result = 31 * result + (int) (highestTrackableValue ^ (highestTrackableValue >>> 32));
+        result = 31 * result + numberOfSignificantValueDigits;
+        result = 31 * result + (autoResize ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (autoResize) {
+            return "HistogramSettings{autoResize, numberOfSignificantValueDigits=" + numberOfSignificantValueDigits + '}';
+        }
+        return "HistogramSettings{"
+                + "lowestDiscernibleValue=" + lowestDiscernibleValue
+                + ", highestTrackableValue=" + highestTrackableValue
+                + ", numberOfSignificantValueDigits=" + numberOfSignificantValueDigits
+                + '}';
+    }
+}
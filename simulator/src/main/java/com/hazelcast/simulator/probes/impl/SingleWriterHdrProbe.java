@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Probe;
+import org.HdrHistogram.SingleWriterRecorder;
+
+/**
+ * A {@link Probe} that is recorded by a single thread.
+ *
+ * It is created using {@link HdrProbe#newThreadProbe()} and its values are merged into the interval histogram of the
+ * {@link HdrProbe} it belongs to; the same goes for its slowest operations. Recording a value doesn't cause any contention
+ * with the other threads recording into the same {@link HdrProbe}. When the thread completes, the thread probe is released
+ * using {@link HdrProbe#release(Probe)}.
+ */
+public final class SingleWriterHdrProbe implements Probe {
+
+    private final SingleWriterRecorder recorder;
+    private final boolean partOfTotalThroughput;
+    private final long highestTrackableValue;
+    private final ExemplarRecorder exemplarRecorder;
+
+    SingleWriterHdrProbe(boolean partOfTotalThroughput, HistogramSettings histogramSettings, ExemplarRecorder exemplarRecorder) {
+        this.recorder = histogramSettings.newSingleWriterRecorder();
+        this.partOfTotalThroughput = partOfTotalThroughput;
+        this.highestTrackableValue = histogramSettings.getHighestTrackableValue();
+        this.exemplarRecorder = exemplarRecorder;
+    }
+
+    @Override
+    public boolean isPartOfTotalThroughput() {
+        return partOfTotalThroughput;
+    }
+
+    @Override
+    public void done(long startNanos) {
+        if (startNanos <= 0) {
+            throw new IllegalArgumentException("startedNanos has to be a positive number");
+        }
+
+        long nowNanos = System.nanoTime();
+        recordValue(nowNanos - startNanos);
+    }
+
+    @Override
+    public void done(long startNanos, Object tag) {
+        if (startNanos <= 0) {
+            throw new IllegalArgumentException("startedNanos has to be a positive number");
+        }
+
+        long nowNanos = System.nanoTime();
+        record(nowNanos - startNanos, Exemplar.NOT_MEASURED, tag);
+    }
+
+    @Override
+    public void done(long intendedStartNanos, long actualStartNanos, Object tag) {
+        long nowNanos = System.nanoTime();
+        record(nowNanos - intendedStartNanos, actualStartNanos - intendedStartNanos, tag);
+    }
+
+    @Override
+    public void recordValue(long latencyNanos) {
+        record(latencyNanos, Exemplar.NOT_MEASURED, null);
+    }
+
+    private void record(long latencyNanos, long startLagNanos, Object tag) {
+        if (exemplarRecorder != null) {
+            exemplarRecorder.record(latencyNanos, startLagNanos, tag);
+        }
+
+        if (latencyNanos > highestTrackableValue) {
+            latencyNanos = highestTrackableValue;
+        }
+        recorder.recordValue(latencyNanos);
+    }
+
+    SingleWriterRecorder getRecorder() {
+        return recorder;
+    }
+
+    ExemplarRecorder getExemplarRecorder() {
+        return exemplarRecorder;
+    }
+
+    @Override
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -23,15 +23,21 @@ import com.hazelcast.simulator.coordinator.operations.RcDownloadOperation;
 import com.hazelcast.simulator.coordinator.operations.RcInstallOperation;
 import com.hazelcast.simulator.coordinator.operations.RcPrintLayoutOperation;
 import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
@@ -64,6 +70,8 @@ public enum OperationType {
     RC_WORKER_START(RcWorkerStartOperation.class, 2007),
     RC_PRINT_LAYOUT(RcPrintLayoutOperation.class, 2008),
     RC_DOWNLOAD(RcDownloadOperation.class, 2009),
+    RC_TEST_THREAD_COUNT(RcTestThreadCountOperation.class, 2010),
+    RC_TEST_PROFILE(RcTestProfileOperation.class, 2011),
 
     // Agent-Operations
     CREATE_WORKER(CreateWorkerOperation.class, 3000),
@@ -75,7 +83,11 @@ public enum OperationType {
     CREATE_TEST(CreateTestOperation.class, 4002),
     EXECUTE_SCRIPT(ExecuteScriptOperation.class, 4003),
     START_TEST_PHASE(StartPhaseOperation.class, 4004),
-    STOP_TEST(StopRunOperation.class, 4005);
+    STOP_TEST(StopRunOperation.class, 4005),
+    SET_RATE(SetRateOperation.class, 4006),
+    SET_RATE_SHARE(SetRateShareOperation.class, 4007),
+    SET_THREAD_COUNT(SetThreadCountOperation.class, 4008),
+    PROFILE(ProfileOperation.class, 4009);
 
     private final Class<? extends SimulatorOperation> classType;
     private final int classId;
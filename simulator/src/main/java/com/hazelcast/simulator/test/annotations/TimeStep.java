@@ -318,6 +318,10 @@ import java.lang.annotation.Target;
  * both can influence the benchmark. With the ConstantCombinedRateMetronome as long as their is a thread available, a
  * requests will be made. THis prevents building up the bubble and will give a more stable request rate.
  * </li>
+ * <li>{@link com.hazelcast.simulator.worker.metronome.BatchedCombinedRateMetronome} has the same combined rate as the
+ * ConstantCombinedRateMetronome, but the threads claim their requests using an atomic increment instead of competing on a
+ * CAS. This is useful for high rates with many threads.
+ * </li>
  * </ol>
  *
  * The metronome type can be configured using:
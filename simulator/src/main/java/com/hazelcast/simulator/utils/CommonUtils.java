@@ -228,6 +228,36 @@ public final class CommonUtils {
         sleepNanos(randomValue % maxDelayNanos);
     }
 
+    /**
+     * Parses an interval to milliseconds.
+     *
+     * A value without a unit, like {@code 10}, is interpreted as seconds for backwards compatibility. The units {@code s}
+     * and {@code ms} can be used to define an interval in seconds or in milliseconds, e.g. {@code 250ms}.
+     *
+     * @param value the interval to parse
+     * @return the interval in milliseconds
+     * @throws IllegalArgumentException if the value can't be parsed or is negative
+     */
+    public static long parseIntervalMillis(String value) {
+        String trimmed = value.trim();
+        long millis;
+        try {
+            if (trimmed.endsWith("ms")) {
+                millis = Long.parseLong(trimmed.substring(0, trimmed.length() - 2).trim());
+            } else if (trimmed.endsWith("s")) {
+                millis = SECONDS.toMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 1).trim()));
+            } else {
+                millis = SECONDS.toMillis(Long.parseLong(trimmed));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Could not parse interval: " + value, e);
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("Interval can't be negative: " + value);
+        }
+        return millis;
+    }
+
     public static long getElapsedSeconds(long started) {
         return NANOSECONDS.toSeconds(System.nanoTime() - started);
     }
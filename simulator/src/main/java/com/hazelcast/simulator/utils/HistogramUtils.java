@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static org.apache.commons.codec.binary.Base64.decodeBase64;
+import static org.apache.commons.codec.binary.Base64.encodeBase64String;
+
+/**
+ * Utility methods to transfer {@link Histogram} instances as text, e.g. as part of an operation.
+ *
+ * The histograms are encoded in the compressed HdrHistogram format and then Base64 encoded, like in the HDR files.
+ */
+public final class HistogramUtils {
+
+    // the latencies are recorded in nanoseconds and written in microseconds
+    private static final double OUTPUT_VALUE_UNIT_SCALING_RATIO = 1000.0;
+
+    private HistogramUtils() {
+    }
+
+    /**
+     * Encodes a histogram into a compressed Base64 string.
+     *
+     * @param histogram the histogram to encode
+     * @return the encoded histogram
+     */
+    public static String encodeHistogram(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return encodeBase64String(Arrays.copyOf(buffer.array(), length));
+    }
+
+    /**
+     * Decodes a histogram which was encoded with {@link #encodeHistogram(Histogram)}.
+     *
+     * @param encodedHistogram the encoded histogram
+     * @return the decoded histogram
+     * @throws IllegalArgumentException if the string doesn't contain a valid encoded histogram
+     */
+    public static Histogram decodeHistogram(String encodedHistogram) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(decodeBase64(encodedHistogram)), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Could not decode histogram: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the percentile distribution of a latency histogram in microseconds to a file, in the format of the
+     * HdrHistogram {@code .hgrm} files.
+     *
+     * @param histogram the histogram with the latencies in nanoseconds
+     * @param file      the file to write to
+     * @throws UncheckedIOException if the file can't be written
+     */
+    public static void writePercentileDistribution(Histogram histogram, File file) {
+        PrintStream printStream = null;
+        try {
+            printStream = new PrintStream(new FileOutputStream(file));
+            histogram.outputPercentileDistribution(printStream, OUTPUT_VALUE_UNIT_SCALING_RATIO);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException("Could not write percentile distribution to " + file, e);
+        } finally {
+            closeQuietly(printStream);
+        }
+    }
+}
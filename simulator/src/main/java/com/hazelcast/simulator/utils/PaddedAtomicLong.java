@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A long value which can be read and written atomically, padded so it occupies its own cache line.
+ *
+ * The value is written by a single thread at a very high frequency while other threads read it, e.g. the iteration count of a
+ * timestep thread. Objects allocated close together, like the {@link java.util.concurrent.atomic.AtomicLong} counters of the
+ * timestep threads, would share a cache line; every write then invalidates the counters of the other threads (false sharing).
+ *
+ * The value is stored in the middle of an array, so there are at least {@value #PADDING} longs on each side of it. Unlike
+ * padding fields, the JVM can't reorder the elements of an array.
+ */
+public final class PaddedAtomicLong {
+
+    // 8 longs are 64 bytes, the size of a cache line on most CPUs
+    private static final int PADDING = 8;
+    private static final int INDEX = PADDING;
+
+    private final AtomicLongArray array = new AtomicLongArray(2 * PADDING + 1);
+
+    public PaddedAtomicLong() {
+    }
+
+    public PaddedAtomicLong(long initialValue) {
+        array.set(INDEX, initialValue);
+    }
+
+    public long get() {
+        return array.get(INDEX);
+    }
+
+    public void set(long newValue) {
+        array.set(INDEX, newValue);
+    }
+
+    /**
+     * Eventually sets the value; the write is not immediately visible to other threads, but it is much cheaper than a
+     * volatile write.
+     *
+     * @param newValue the new value
+     */
+    public void lazySet(long newValue) {
+        array.lazySet(INDEX, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
@@ -15,9 +15,12 @@
  */
 package com.hazelcast.simulator.utils;
 
+import org.apache.log4j.Logger;
+
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -38,7 +41,10 @@ import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
  */
 public class ThreadSpawner {
 
-    private final List<Thread> threads = Collections.synchronizedList(new LinkedList<Thread>());
+    private static final Logger LOGGER = Logger.getLogger(ThreadSpawner.class);
+
+    // synchronized instead of copy-on-write, so spawning a large number of (virtual) threads doesn't copy the list each time
+    private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
     private final ConcurrentMap<String, AtomicInteger> idMap = new ConcurrentHashMap<String, AtomicInteger>();
 
     private final String testId;
@@ -118,18 +124,63 @@ public class ThreadSpawner {
         return thread;
     }
 
+    /**
+     * Spawns a new virtual thread for the given {@link Runnable}.
+     *
+     * Virtual threads are cheap to create and to block, so a single JVM can run tens of thousands of them. If the JVM doesn't
+     * support virtual threads, a platform thread is spawned instead.
+     *
+     * @param namePrefix the name prefix for the thread
+     * @param runnable   the {@link Runnable} to execute
+     * @return the created thread
+     */
+    public Thread spawnVirtual(String namePrefix, Runnable runnable) {
+        checkNotNull(namePrefix, "namePrefix can't be null");
+        checkNotNull(runnable, "runnable can't be null");
+
+        if (!VirtualThreadBuilder.isSupported()) {
+            return spawn(namePrefix, runnable);
+        }
+
+        String name = newName(namePrefix);
+        Thread thread;
+        if (throwException) {
+            thread = VirtualThreadBuilder.newThread(name, runnable);
+            thread.setUncaughtExceptionHandler(exceptionHandler);
+        } else {
+            thread = VirtualThreadBuilder.newThread(name, new ReportExceptionRunnable(testId, runnable));
+        }
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Checks if virtual threads are supported by this JVM.
+     *
+     * @return {@code true} if virtual threads can be spawned, {@code false} otherwise
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreadBuilder.isSupported();
+    }
+
     /**
      * Waits for all threads to finish.
      *
+     * Threads which are spawned while waiting, are waited for as well.
+     *
      * If {@link #throwException} is <code>true</code> this method will throw the first occurred exception of a thread.
      */
     public void awaitCompletion() {
-        for (Thread thread : threads) {
+        int joined = 0;
+        Thread thread = threadAt(joined);
+        while (thread != null) {
             try {
                 thread.join();
             } catch (InterruptedException e) {
                 throw rethrow(e);
             }
+            thread = threadAt(++joined);
         }
         if (caughtException != null) {
             throw rethrow(caughtException);
@@ -140,8 +191,22 @@ public class ThreadSpawner {
      * Interrupts all running threads.
      */
     public void interrupt() {
-        for (Thread thread : threads) {
-            thread.interrupt();
+        synchronized (threads) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the thread at the given index; the size and the thread are read under the lock of the list, since threads can be
+     * spawned concurrently.
+     *
+     * @return the thread or {@code null} if there is no thread at the index
+     */
+    private Thread threadAt(int index) {
+        synchronized (threads) {
+            return index < threads.size() ? threads.get(index) : null;
         }
     }
 
@@ -164,6 +229,74 @@ public class ThreadSpawner {
         }
     }
 
+    private static class ReportExceptionRunnable implements Runnable {
+
+        private final String testId;
+        private final Runnable task;
+
+        ReportExceptionRunnable(String testId, Runnable task) {
+            this.testId = testId;
+            this.task = task;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingThrowable")
+        public void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                ExceptionReporter.report(testId, t);
+            }
+        }
+    }
+
+    /**
+     * Creates virtual threads using reflection, since Simulator needs to compile and run on JVMs without virtual threads.
+     */
+    private static final class VirtualThreadBuilder {
+
+        private static final Method OF_VIRTUAL;
+        private static final Method NAME;
+        private static final Method UNSTARTED;
+
+        static {
+            Method ofVirtual = null;
+            Method name = null;
+            Method unstarted = null;
+            try {
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                name = builderClass.getMethod("name", String.class);
+                unstarted = builderClass.getMethod("unstarted", Runnable.class);
+                // on JVMs where virtual threads are a preview feature, this will fail unless preview features are enabled
+                ofVirtual.invoke(null);
+            } catch (Exception e) {
+                LOGGER.debug("Virtual threads are not supported: " + e.getMessage());
+                ofVirtual = null;
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            UNSTARTED = unstarted;
+        }
+
+        private VirtualThreadBuilder() {
+        }
+
+        static boolean isSupported() {
+            return OF_VIRTUAL != null;
+        }
+
+        static Thread newThread(String name, Runnable task) {
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                builder = NAME.invoke(builder, name);
+                return (Thread) UNSTARTED.invoke(builder, task);
+            } catch (Exception e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
     private static class ReportExceptionThread extends Thread {
 
         private final String testId;
@@ -23,6 +23,7 @@ import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceLogFormat;
 import com.hazelcast.simulator.worker.performance.PerformanceMonitor;
 import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.apache.log4j.Logger;
@@ -33,9 +34,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.simulator.agent.workerprocess.WorkerParameters.loadParameters;
 import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
 import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
+import static com.hazelcast.simulator.common.SimulatorProperties.WORKER_PERFORMANCE_MONITOR_INTERVAL;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
 import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
+import static com.hazelcast.simulator.utils.CommonUtils.parseIntervalMillis;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.FormatUtils.fillString;
@@ -78,8 +81,9 @@ public class Worker {
 
         Runtime.getRuntime().addShutdownHook(new WorkerShutdownThread(true));
 
-        int interval = Integer.parseInt(parameters.get("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS"));
-        this.performanceMonitor = new PerformanceMonitor(server, testManager, interval);
+        long intervalMillis = parseIntervalMillis(parameters.get(WORKER_PERFORMANCE_MONITOR_INTERVAL));
+        PerformanceLogFormat logFormat = PerformanceLogFormat.fromString(parameters.get("WORKER_PERFORMANCE_LOG_FORMAT"));
+        this.performanceMonitor = new PerformanceMonitor(server, testManager, intervalMillis, logFormat);
     }
 
     public void start() throws Exception {
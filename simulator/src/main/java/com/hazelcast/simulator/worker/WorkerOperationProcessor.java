@@ -23,6 +23,10 @@ import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
@@ -56,6 +60,16 @@ public class WorkerOperationProcessor implements OperationProcessor {
             } else if (op instanceof StopRunOperation) {
                 testManager.stopRun((StopRunOperation) op);
                 promise.answer("ok");
+            } else if (op instanceof SetRateOperation) {
+                testManager.setRate((SetRateOperation) op);
+                promise.answer("ok");
+            } else if (op instanceof SetRateShareOperation) {
+                testManager.setRateShare((SetRateShareOperation) op);
+                promise.answer("ok");
+            } else if (op instanceof SetThreadCountOperation) {
+                promise.answer(testManager.setThreadCount((SetThreadCountOperation) op));
+            } else if (op instanceof ProfileOperation) {
+                promise.answer(testManager.profile((ProfileOperation) op));
             } else {
                 throw new ProcessException("Unknown operation:" + op);
             }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} with the same combined rate as the {@link ConstantCombinedRateMetronome}, but without the contention.
+ *
+ * With the ConstantCombinedRateMetronome all threads wait for the same expected start time and then race to CAS it to the
+ * next one; at high rates and thread counts the failing CAS operations limit the achievable rate and distort the latency.
+ * This metronome numbers the requests instead: request n is expected to start at {@code start + n * interval}. A thread
+ * claims the numbers of its next requests with a single {@link AtomicLong#getAndAdd(long)}, which never fails, and then
+ * waits for the expected start time of each claimed request.
+ *
+ * The requests are claimed in batches of {@code metronomeBatchSize} (default 1). A larger batch reduces the contention on
+ * the shared counter even further, but a blocked thread will delay the requests it already claimed; so the batch size is a
+ * trade-off between contention and the bubble prevention of the combined rate. A request is only claimed once a thread is
+ * available, so as long as a thread is available, it will take over the requests of the blocked threads.
+ */
+public final class BatchedCombinedRateMetronome implements Metronome {
+
+    private final long intervalNanos;
+    private final int batchSize;
+    private final boolean accountForCoordinatedOmission;
+    private final long startNanos;
+    private final AtomicLong nextRequest;
+
+    // the claimed requests of this thread: [request, batchEnd)
+    private long request;
+    private long batchEnd;
+
+    BatchedCombinedRateMetronome(long intervalNanos, int batchSize, boolean accountForCoordinatedOmission) {
+        if (batchSize < 1) {
+            throw new IllegalTestException(format("metronomeBatchSize must be at least 1, but was %d", batchSize));
+        }
+
+        this.intervalNanos = intervalNanos;
+        this.batchSize = batchSize;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.startNanos = nanoTime();
+        this.nextRequest = new AtomicLong();
+    }
+
+    public BatchedCombinedRateMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(intervalNanos,
+                binding.loadAsInt(toPropertyName(prefix, "metronomeBatchSize"), 1),
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+    }
+
+    public BatchedCombinedRateMetronome(Metronome m) {
+        BatchedCombinedRateMetronome master = (BatchedCombinedRateMetronome) m;
+        this.intervalNanos = master.intervalNanos;
+        this.batchSize = master.batchSize;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.startNanos = master.startNanos;
+        this.nextRequest = master.nextRequest;
+    }
+
+    @Override
+    public long waitForNext() {
+        if (request == batchEnd) {
+            request = nextRequest.getAndAdd(batchSize);
+            batchEnd = request + batchSize;
+        }
+
+        long expectedStartNanos = startNanos + request * intervalNanos;
+        request++;
+
+        long now;
+        while ((now = nanoTime()) < expectedStartNanos) {
+            // we can't execute the request yet since it is too early
+            parkNanos(expectedStartNanos - now);
+        }
+
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
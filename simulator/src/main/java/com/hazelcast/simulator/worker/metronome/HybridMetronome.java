@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.Arrays;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.toSchedulingErrorProbeName;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.apache.commons.lang3.RandomUtils.nextLong;
+
+/**
+ * {@link Metronome} implementation which parks until shortly before the next execution and busy spins the remainder.
+ *
+ * A {@link java.util.concurrent.locks.LockSupport#parkNanos(long)} typically overshoots by 50us or more, so the
+ * {@link SleepingMetronome} isn't accurate at high rates, while the {@link BusySpinningMetronome} burns a full core per
+ * thread. The HybridMetronome measures the park overshoot when it is created and only spins for that period, so it gets
+ * the accuracy of spinning at a fraction of the CPU cost.
+ *
+ * The scheduling error, the time between the expected start and the actual wakeup, is recorded in the
+ * {@code metronome-schedulingError} probe (prefixed with the execution group), so the accuracy of the pacing can be
+ * verified. Like the service time and start lag probes it is written to file, but isn't included in the latency totals.
+ * The error is only recorded if the metronome had to wait; if the thread is behind schedule, the delay isn't caused by
+ * the metronome.
+ *
+ * The wait interval on the first {@link #waitForNext()} call is randomized.
+ */
+public final class HybridMetronome implements Metronome {
+
+    static final int CALIBRATION_ROUNDS = 100;
+    static final long CALIBRATION_PARK_NANOS = MICROSECONDS.toNanos(10);
+    static final double CALIBRATION_PERCENTILE = 0.9;
+
+    private final long intervalNanos;
+    private final boolean accountForCoordinatedOmission;
+    private final long parkOverheadNanos;
+    private final Probe probe;
+    // the probe shared by all threads; the probe of this metronome is a thread probe of it
+    private final Probe sharedProbe;
+    private long nextNanos;
+
+    HybridMetronome(long intervalNanos, boolean accountForCoordinatedOmission, long parkOverheadNanos, Probe probe) {
+        this.intervalNanos = intervalNanos;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.parkOverheadNanos = parkOverheadNanos;
+        this.probe = probe;
+        this.sharedProbe = probe;
+    }
+
+    public HybridMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(intervalNanos * threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true),
+                calibrateParkOverheadNanos(),
+                binding.getOrCreateProbe(toSchedulingErrorProbeName(prefix), false));
+    }
+
+    public HybridMetronome(Metronome m) {
+        HybridMetronome master = (HybridMetronome) m;
+        this.intervalNanos = master.intervalNanos;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.parkOverheadNanos = master.parkOverheadNanos;
+        // every thread gets its own probe to prevent contention on the recording
+        this.sharedProbe = master.probe;
+        this.probe = sharedProbe instanceof HdrProbe ? ((HdrProbe) sharedProbe).newThreadProbe() : sharedProbe;
+    }
+
+    /**
+     * Releases the thread probe of this metronome when its thread completes, see {@link HdrProbe#release(Probe)}.
+     */
+    public void releaseProbe() {
+        if (probe != sharedProbe) {
+            ((HdrProbe) sharedProbe).release(probe);
+        }
+    }
+
+    /**
+     * Measures how much a short {@link java.util.concurrent.locks.LockSupport#parkNanos(long)} overshoots.
+     *
+     * A high percentile is used, so an occasional late wakeup is compensated for, without letting a single outlier make
+     * the metronome spin most of the time.
+     *
+     * @return the park overshoot in nanoseconds
+     */
+    static long calibrateParkOverheadNanos() {
+        long[] overshoots = new long[CALIBRATION_ROUNDS];
+        for (int i = 0; i < overshoots.length; i++) {
+            long startNanos = nanoTime();
+            parkNanos(CALIBRATION_PARK_NANOS);
+            overshoots[i] = Math.max(0, nanoTime() - startNanos - CALIBRATION_PARK_NANOS);
+        }
+        Arrays.sort(overshoots);
+        return overshoots[(int) (overshoots.length * CALIBRATION_PERCENTILE)];
+    }
+
+    @Override
+    public long waitForNext() {
+        // set random interval on the first run
+        if (nextNanos == 0) {
+            nextNanos = nanoTime() + nextLong(0, intervalNanos);
+        }
+
+        long now = nanoTime();
+        if (now < nextNanos) {
+            // park until the overshoot of the park would bring us to the deadline
+            long parkDeadlineNanos = nextNanos - parkOverheadNanos;
+            while (now < parkDeadlineNanos) {
+                parkNanos(parkDeadlineNanos - now);
+                now = nanoTime();
+            }
+
+            // and spin the remainder
+            while (now < nextNanos) {
+                now = nanoTime();
+            }
+
+            probe.recordValue(now - nextNanos);
+        }
+
+        long expectedStartNanos = nextNanos;
+        nextNanos += intervalNanos;
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    long getParkOverheadNanos() {
+        return parkOverheadNanos;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.Random;
+
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.log;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * {@link Metronome} implementation which models an open system where requests arrive according to a Poisson process.
+ *
+ * The other metronomes emit requests on a perfectly periodic interval, which under-represents the queueing that happens
+ * in production where arrivals are bursty. This metronome draws exponentially distributed inter-arrival times with the
+ * configured interval as mean, so on average the configured rate is achieved.
+ *
+ * The arrivals can be modulated further:
+ * <ol>
+ * <li>{@code burstSize}: the requests arrive in bursts of the given size. The mean interval between the bursts is
+ * increased accordingly, so the average rate doesn't change.</li>
+ * <li>{@code onPeriod} and {@code offPeriod}: the arrivals are switched on and off, e.g. onPeriod=10s and offPeriod=5s.
+ * During the on-period the requests arrive with the configured rate, during the off-period no requests arrive. All
+ * threads of the execution group share the same on/off cycle.</li>
+ * </ol>
+ *
+ * Like the other metronomes, the expected start time is returned so coordinated omission can be accounted for.
+ */
+public final class PoissonMetronome implements Metronome {
+
+    private final long intervalNanos;
+    private final int burstSize;
+    private final long onPeriodNanos;
+    private final long offPeriodNanos;
+    private final boolean accountForCoordinatedOmission;
+    private final long epochNanos;
+    private final Random random = new Random();
+
+    // the time of the next arrival, measured in on-time since the epoch; so excluding all off-periods
+    private long onTimeNanos = -1;
+    private long nextNanos;
+    private int remainingInBurst;
+
+    PoissonMetronome(long intervalNanos,
+                     int burstSize,
+                     long onPeriodNanos,
+                     long offPeriodNanos,
+                     boolean accountForCoordinatedOmission) {
+        if (burstSize < 1) {
+            throw new IllegalTestException(format("burstSize must be at least 1, but was %d", burstSize));
+        }
+        if (offPeriodNanos > 0 && onPeriodNanos == 0) {
+            throw new IllegalTestException("onPeriod must be configured when offPeriod is configured");
+        }
+
+        this.intervalNanos = intervalNanos;
+        this.burstSize = burstSize;
+        this.onPeriodNanos = onPeriodNanos;
+        this.offPeriodNanos = offPeriodNanos;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.epochNanos = nanoTime();
+    }
+
+    public PoissonMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(intervalNanos * threadCount,
+                binding.loadAsInt(toPropertyName(prefix, "burstSize"), 1),
+                loadPeriod(binding, toPropertyName(prefix, "onPeriod")),
+                loadPeriod(binding, toPropertyName(prefix, "offPeriod")),
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+    }
+
+    public PoissonMetronome(Metronome m) {
+        PoissonMetronome master = (PoissonMetronome) m;
+        this.intervalNanos = master.intervalNanos;
+        this.burstSize = master.burstSize;
+        this.onPeriodNanos = master.onPeriodNanos;
+        this.offPeriodNanos = master.offPeriodNanos;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.epochNanos = master.epochNanos;
+    }
+
+    private static long loadPeriod(PropertyBinding binding, String property) {
+        String value = binding.load(property);
+        return value == null ? 0 : parseInterval(property, value);
+    }
+
+    @Override
+    public long waitForNext() {
+        if (remainingInBurst == 0) {
+            if (onTimeNanos == -1) {
+                onTimeNanos = toOnTimeNanos(nanoTime() - epochNanos);
+            }
+            onTimeNanos += nextExponential(intervalNanos * burstSize);
+            nextNanos = epochNanos + toElapsedNanos(onTimeNanos);
+            remainingInBurst = burstSize;
+        }
+        remainingInBurst--;
+
+        long now;
+        while ((now = nanoTime()) < nextNanos) {
+            parkNanos(nextNanos - now);
+        }
+
+        return accountForCoordinatedOmission ? nextNanos : nanoTime();
+    }
+
+    private long nextExponential(long meanNanos) {
+        // 1 - nextDouble() is in (0, 1], so the log is always defined
+        return round(-log(1 - random.nextDouble()) * meanNanos);
+    }
+
+    /**
+     * Converts the time elapsed since the epoch to on-time, by removing the off-periods.
+     */
+    private long toOnTimeNanos(long elapsedNanos) {
+        if (offPeriodNanos == 0) {
+            return elapsedNanos;
+        }
+        long cyclePeriodNanos = onPeriodNanos + offPeriodNanos;
+        long cycles = elapsedNanos / cyclePeriodNanos;
+        return cycles * onPeriodNanos + Math.min(elapsedNanos % cyclePeriodNanos, onPeriodNanos);
+    }
+
+    /**
+     * Converts on-time to the time elapsed since the epoch, by inserting the off-periods.
+     */
+    private long toElapsedNanos(long onTimeNanos) {
+        if (offPeriodNanos == 0) {
+            return onTimeNanos;
+        }
+        long cycles = onTimeNanos / onPeriodNanos;
+        return cycles * (onPeriodNanos + offPeriodNanos) + onTimeNanos % onPeriodNanos;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    long getEpochNanos() {
+        return epochNanos;
+    }
+}
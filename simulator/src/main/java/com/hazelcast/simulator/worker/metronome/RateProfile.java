@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+
+import java.util.Locale;
+
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * A rate profile changes the rate of an execution group while the test is running, so a single run can produce a
+ * throughput/latency curve. Two types of profiles are supported:
+ * <ol>
+ * <li>a ramp which increases or decreases the rate linearly, e.g. {@code ramp 1k->100k over 10m}. When the ramp is
+ * completed, the final rate is kept.</li>
+ * <li>steps which change the rate on a fixed period, e.g. {@code steps 10k,20k,40k every 2m}. When the last step is
+ * reached, its rate is kept.</li>
+ * </ol>
+ * The rates are the total number of operations per second of the execution group and accept the suffixes {@code k} and
+ * {@code m} for thousand and million. The durations need a time unit, like the interval property.
+ *
+ * A rate profile can also have a constant rate, which is used when the coordinator changes the rate of a running test.
+ *
+ * A rate profile is immutable and thread-safe.
+ */
+public final class RateProfile {
+
+    private static final double THOUSAND = 1000;
+    private static final double MILLION = 1000000;
+    // e.g. 'ramp', '1k->100k', 'over', '10m'
+    private static final int TOKEN_COUNT = 4;
+
+    // for a ramp the rates are the start and end rate
+    private final double[] rates;
+    private final long periodNanos;
+    private final boolean ramp;
+
+    private RateProfile(double[] rates, long periodNanos, boolean ramp) {
+        this.rates = rates;
+        this.periodNanos = periodNanos;
+        this.ramp = ramp;
+    }
+
+    /**
+     * Parses a rate profile.
+     *
+     * @param property the name of the property, used in the error messages
+     * @param value    the rate profile to parse
+     * @return the parsed rate profile
+     * @throws IllegalTestException if the rate profile is invalid
+     */
+    public static RateProfile parse(String property, String value) {
+        String[] tokens = value.trim().split("\\s+");
+        if (tokens.length != TOKEN_COUNT) {
+            throw invalidRateProfile(property, value);
+        }
+
+        String type = tokens[0].toLowerCase(Locale.ENGLISH);
+        if (type.equals("ramp") && tokens[2].equalsIgnoreCase("over")) {
+            String[] range = tokens[1].split("->");
+            if (range.length != 2) {
+                throw invalidRateProfile(property, value);
+            }
+            double[] rates = {parseRate(property, value, range[0]), parseRate(property, value, range[1])};
+            return new RateProfile(rates, parsePeriod(property, value, tokens[3]), true);
+        } else if (type.equals("steps") && tokens[2].equalsIgnoreCase("every")) {
+            String[] steps = tokens[1].split(",");
+            double[] rates = new double[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                rates[i] = parseRate(property, value, steps[i]);
+            }
+            return new RateProfile(rates, parsePeriod(property, value, tokens[3]), false);
+        }
+        throw invalidRateProfile(property, value);
+    }
+
+    /**
+     * Creates a rate profile with a constant rate.
+     *
+     * @param ratePerSecond the total rate in operations per second
+     * @return the created rate profile
+     * @throws IllegalArgumentException if the rate isn't larger than 0
+     */
+    public static RateProfile constant(double ratePerSecond) {
+        if (!(ratePerSecond > 0) || Double.isInfinite(ratePerSecond)) {
+            throw new IllegalArgumentException("ratePerSecond should be larger than 0, found: " + ratePerSecond);
+        }
+        return new RateProfile(new double[]{ratePerSecond}, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Creates a rate profile with the rates of this profile multiplied by a factor, e.g. to get the share of a Worker of a
+     * rate profile which applies to all Workers.
+     *
+     * @param factor the factor to multiply the rates with
+     * @return the created rate profile
+     * @throws IllegalArgumentException if the factor isn't larger than 0
+     */
+    public RateProfile scale(double factor) {
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("factor should be larger than 0, found: " + factor);
+        }
+        double[] scaledRates = new double[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            scaledRates[i] = rates[i] * factor;
+        }
+        return new RateProfile(scaledRates, periodNanos, ramp);
+    }
+
+    private static double parseRate(String property, String value, String rate) {
+        String lowerCase = rate.toLowerCase(Locale.ENGLISH);
+        double multiplier = 1;
+        if (lowerCase.endsWith("k")) {
+            multiplier = THOUSAND;
+        } else if (lowerCase.endsWith("m")) {
+            multiplier = MILLION;
+        }
+
+        double result;
+        try {
+            result = Double.parseDouble(multiplier == 1 ? lowerCase : lowerCase.substring(0, lowerCase.length() - 1))
+                    * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalTestException(format("%s has an invalid rate [%s] in [%s]", property, rate, value), e);
+        }
+
+        if (!(result > 0) || Double.isInfinite(result)) {
+            throw new IllegalTestException(format("%s has a rate [%s] in [%s] that isn't larger than 0", property, rate, value));
+        }
+        return result;
+    }
+
+    private static long parsePeriod(String property, String value, String period) {
+        long periodNanos = parseInterval(property, period);
+        if (periodNanos == 0) {
+            throw new IllegalTestException(format("%s has a duration of 0 in [%s]", property, value));
+        }
+        return periodNanos;
+    }
+
+    private static IllegalTestException invalidRateProfile(String property, String value) {
+        return new IllegalTestException(format("%s has an invalid rate profile [%s]."
+                + " Examples of valid profiles: 'ramp 1k->100k over 10m' or 'steps 10k,20k,40k every 2m'", property, value));
+    }
+
+    /**
+     * Returns the rate at the given time.
+     *
+     * @param elapsedNanos the time since the start of the profile
+     * @return the total rate in operations per second
+     */
+    public double getRatePerSecond(long elapsedNanos) {
+        if (ramp) {
+            double progress = min(1, (double) elapsedNanos / periodNanos);
+            return rates[0] + (rates[1] - rates[0]) * progress;
+        }
+        return rates[getStepIndex(elapsedNanos)];
+    }
+
+    /**
+     * Returns the index of the step at the given time. A ramp has 2 steps: the ramp itself and the final rate after the
+     * ramp has completed.
+     *
+     * @param elapsedNanos the time since the start of the profile
+     * @return the index of the step
+     */
+    public int getStepIndex(long elapsedNanos) {
+        int lastStep = ramp ? 1 : rates.length - 1;
+        return (int) min(lastStep, elapsedNanos / periodNanos);
+    }
+
+    /**
+     * Describes a step, so it can be marked in the performance logs.
+     *
+     * @param stepIndex the index of the step
+     * @return the description of the step
+     */
+    public String describeStep(int stepIndex) {
+        if (ramp) {
+            return stepIndex == 0
+                    ? format(Locale.ENGLISH, "ramp %.0f->%.0f ops/s", rates[0], rates[1])
+                    : format(Locale.ENGLISH, "ramp completed %.0f ops/s", rates[1]);
+        }
+        if (rates.length == 1) {
+            return format(Locale.ENGLISH, "rate %.0f ops/s", rates[0]);
+        }
+        return format(Locale.ENGLISH, "step %d/%d %.0f ops/s", stepIndex + 1, rates.length, rates[stepIndex]);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.apache.commons.lang3.RandomUtils.nextLong;
+
+/**
+ * {@link Metronome} implementation which follows a {@link RateProfile}, so the rate changes while the test is running.
+ *
+ * Like the {@link SleepingMetronome} it parks between the requests; the interval is recalculated for every request based on
+ * the rate of the profile at the expected start time of the previous request. The profile starts when the first thread of
+ * the execution group calls {@link #waitForNext()}; all threads of the execution group share the same start time.
+ *
+ * The rate profile can be replaced by a constant rate using {@link #setRatePerSecond(double)}, e.g. when the coordinator
+ * searches for the maximum sustainable rate. The threads pick up the new rate on their next request and restart their
+ * schedule, so a backlog of the previous rate isn't carried over.
+ *
+ * With the {@code globalRatePerSecond} property the rate applies to all Workers which run the test. The coordinator then
+ * assigns each Worker its share of the rate using {@link #setShare(double)}; until a share is assigned, the Worker runs the
+ * full rate.
+ *
+ * The wait interval on the first {@link #waitForNext()} call is randomized.
+ */
+public final class RateProfileMetronome implements Metronome {
+
+    private final AtomicReference<RateProfile> sharedRateProfile;
+    private final RateProfile baseRateProfile;
+    private final boolean global;
+    private final int threadCount;
+    private final boolean accountForCoordinatedOmission;
+    private final AtomicLong startNanos;
+    private RateProfile rateProfile;
+    private long nextNanos;
+
+    RateProfileMetronome(RateProfile rateProfile, int threadCount, boolean accountForCoordinatedOmission) {
+        this(rateProfile, threadCount, accountForCoordinatedOmission, false);
+    }
+
+    RateProfileMetronome(RateProfile rateProfile, int threadCount, boolean accountForCoordinatedOmission, boolean global) {
+        this.sharedRateProfile = new AtomicReference<RateProfile>(rateProfile);
+        this.baseRateProfile = rateProfile;
+        this.global = global;
+        this.threadCount = threadCount;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.startNanos = new AtomicLong();
+        this.rateProfile = rateProfile;
+    }
+
+    public RateProfileMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(loadRateProfile(binding, prefix),
+                threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true),
+                binding.load(toPropertyName(prefix, "globalRatePerSecond")) != null);
+    }
+
+    public RateProfileMetronome(Metronome m) {
+        RateProfileMetronome master = (RateProfileMetronome) m;
+        this.sharedRateProfile = master.sharedRateProfile;
+        this.baseRateProfile = master.baseRateProfile;
+        this.global = master.global;
+        this.threadCount = master.threadCount;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.startNanos = master.startNanos;
+        this.rateProfile = sharedRateProfile.get();
+    }
+
+    /**
+     * Loads the rate profile of an execution group, which is either configured with the {@code rateProfile} property or
+     * with the {@code globalRatePerSecond} property.
+     *
+     * @param binding the {@link PropertyBinding} of the test
+     * @param prefix  the name of the execution group
+     * @return the rate profile or {@code null} if the execution group has no rate profile
+     * @throws IllegalTestException if the rate profile is invalid or both properties are configured
+     */
+    public static RateProfile loadRateProfile(PropertyBinding binding, String prefix) {
+        String rateProfileProperty = toPropertyName(prefix, "rateProfile");
+        String rateProfile = binding.load(rateProfileProperty);
+        String globalRateProperty = toPropertyName(prefix, "globalRatePerSecond");
+        String globalRate = binding.load(globalRateProperty);
+
+        if (rateProfile != null && globalRate != null) {
+            throw new IllegalTestException(format("%s can't be combined with %s", rateProfileProperty, globalRateProperty));
+        } else if (rateProfile != null) {
+            return RateProfile.parse(rateProfileProperty, rateProfile);
+        } else if (globalRate == null) {
+            return null;
+        }
+
+        double globalRatePerSecond = binding.loadAsDouble(globalRateProperty, 0);
+        if (!(globalRatePerSecond > 0) || Double.isInfinite(globalRatePerSecond)) {
+            throw new IllegalTestException(format("%s should be larger than 0, found: %s", globalRateProperty, globalRate));
+        }
+        return RateProfile.constant(globalRatePerSecond);
+    }
+
+    @Override
+    public long waitForNext() {
+        if (nextNanos == 0) {
+            long now = nanoTime();
+            startNanos.compareAndSet(0, now);
+            // set random interval on the first run
+            nextNanos = now + nextLong(0, intervalNanos(now));
+        }
+
+        RateProfile currentRateProfile = sharedRateProfile.get();
+        if (currentRateProfile != rateProfile) {
+            // the rate has been changed, so the schedule is restarted
+            rateProfile = currentRateProfile;
+            long now = nanoTime();
+            nextNanos = now + intervalNanos(now);
+        }
+
+        long now;
+        while ((now = nanoTime()) < nextNanos) {
+            parkNanos(nextNanos - now);
+        }
+
+        long expectedStartNanos = nextNanos;
+        nextNanos += intervalNanos(expectedStartNanos);
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    private long intervalNanos(long timeNanos) {
+        double ratePerSecond = rateProfile.getRatePerSecond(timeNanos - startNanos.get());
+        return Math.max(1, round(SECONDS.toNanos(1) * threadCount / ratePerSecond));
+    }
+
+    public RateProfile getRateProfile() {
+        return sharedRateProfile.get();
+    }
+
+    /**
+     * Replaces the rate profile by a constant rate.
+     *
+     * This method is thread-safe.
+     *
+     * @param ratePerSecond the new total rate in operations per second of the execution group
+     */
+    public void setRatePerSecond(double ratePerSecond) {
+        sharedRateProfile.set(RateProfile.constant(ratePerSecond));
+    }
+
+    /**
+     * Checks if the rate applies to all Workers which run the test, configured with the {@code globalRatePerSecond}
+     * property.
+     *
+     * @return {@code true} if the rate is global, {@code false} otherwise
+     */
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /**
+     * Sets the share of this Worker of the global rate.
+     *
+     * The share is applied to the configured rate, so it replaces a rate set by {@link #setRatePerSecond(double)}. That's
+     * why the coordinator sends the Workers a new rate instead of a share once it has changed the rate.
+     *
+     * This method is thread-safe.
+     *
+     * @param share the share of the rate, larger than 0 and at most 1
+     * @throws IllegalArgumentException if the share is invalid
+     */
+    public void setShare(double share) {
+        if (!(share > 0 && share <= 1)) {
+            throw new IllegalArgumentException("share should be larger than 0 and at most 1, found: " + share);
+        }
+        sharedRateProfile.set(baseRateProfile.scale(share));
+    }
+
+    /**
+     * Describes the current step of the rate profile.
+     *
+     * This method is thread-safe.
+     *
+     * @return the description of the current step or {@code null} if the profile hasn't started yet
+     */
+    public String describeCurrentStep() {
+        long start = startNanos.get();
+        if (start == 0) {
+            return null;
+        }
+        RateProfile currentRateProfile = sharedRateProfile.get();
+        return currentRateProfile.describeStep(currentRateProfile.getStepIndex(nanoTime() - start));
+    }
+}
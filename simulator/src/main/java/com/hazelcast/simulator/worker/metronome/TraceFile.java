@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.lang.String.format;
+
+/**
+ * A compact binary trace of recorded requests, used by the {@link TraceReplayMetronome}.
+ *
+ * The file has the following layout:
+ * <ol>
+ * <li>a header with a magic number, the version, the number of records and the offset of the method table</li>
+ * <li>the records: the time of the request in nanoseconds relative to the first request (long) and the index of the
+ * method in the method table (short)</li>
+ * <li>the method table: the number of methods (short) followed by the method names</li>
+ * </ol>
+ *
+ * The records are memory-mapped, so a trace of multiple GB doesn't sit on the heap. Reading a record doesn't change any
+ * state, so a trace can be shared between threads.
+ */
+public final class TraceFile {
+
+    static final int MAGIC = 0x53494D54;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int RECORD_SIZE = 10;
+
+    // a single mapping is limited to 2 GB, so the records are mapped in segments
+    private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final File file;
+    private final long recordCount;
+    private final List<String> methodNames;
+    private final MappedByteBuffer[] segments;
+
+    private TraceFile(File file, long recordCount, List<String> methodNames, MappedByteBuffer[] segments) {
+        this.file = file;
+        this.recordCount = recordCount;
+        this.methodNames = methodNames;
+        this.segments = segments;
+    }
+
+    /**
+     * Opens and maps a trace file.
+     *
+     * @param file the trace file
+     * @return the opened trace file
+     * @throws UncheckedIOException if the file can't be read or isn't a valid trace file
+     */
+    public static TraceFile open(File file) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new UncheckedIOException(format("%s is not a trace file", file));
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new UncheckedIOException(format("%s has unsupported trace version %d", file, version));
+            }
+            long recordCount = header.getLong();
+            long tableOffset = header.getLong();
+            if (recordCount < 0 || tableOffset != HEADER_SIZE + recordCount * RECORD_SIZE || tableOffset > channel.size()) {
+                throw new UncheckedIOException(format("%s is a truncated trace file", file));
+            }
+
+            List<String> methodNames = readMethodNames(channel, tableOffset);
+            MappedByteBuffer[] segments = mapSegments(channel, recordCount);
+            // the mappings stay valid after the channel is closed
+            return new TraceFile(file, recordCount, methodNames, segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Could not read trace file %s", file), e);
+        } finally {
+            closeQuietly(randomAccessFile);
+        }
+    }
+
+    private static List<String> readMethodNames(FileChannel channel, long tableOffset) throws IOException {
+        channel.position(tableOffset);
+        // the stream isn't closed, since that would close the channel
+        DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+        int methodCount = in.readShort();
+        List<String> methodNames = new ArrayList<String>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            methodNames.add(in.readUTF());
+        }
+        return Collections.unmodifiableList(methodNames);
+    }
+
+    private static MappedByteBuffer[] mapSegments(FileChannel channel, long recordCount) throws IOException {
+        int segmentCount = (int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            long firstRecord = (long) segment * RECORDS_PER_SEGMENT;
+            long records = Math.min(RECORDS_PER_SEGMENT, recordCount - firstRecord);
+            segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + firstRecord * RECORD_SIZE, records * RECORD_SIZE);
+        }
+        return segments;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public List<String> getMethodNames() {
+        return methodNames;
+    }
+
+    /**
+     * Returns the time of a request relative to the first request.
+     *
+     * @param record the index of the record
+     * @return the relative time in nanoseconds
+     */
+    public long getOffsetNanos(long record) {
+        return segment(record).getLong(position(record));
+    }
+
+    /**
+     * Returns the index of the method of a request in the method table.
+     *
+     * @param record the index of the record
+     * @return the index of the method in {@link #getMethodNames()}
+     */
+    public int getMethodIndex(long record) {
+        return segment(record).getShort(position(record) + Long.SIZE / Byte.SIZE);
+    }
+
+    private MappedByteBuffer segment(long record) {
+        return segments[(int) (record / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int position(long record) {
+        return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    /**
+     * Writes a trace file, e.g. to convert production access logs.
+     *
+     * The requests need to be written in the order of their timestamps.
+     */
+    public static final class Writer implements Closeable {
+
+        private final File file;
+        private final DataOutputStream out;
+        private final Map<String, Integer> methodIndices = new HashMap<String, Integer>();
+        private final List<String> methodNames = new ArrayList<String>();
+        private long firstTimestampNanos;
+        private long lastOffsetNanos;
+        private long recordCount;
+
+        public Writer(File file) {
+            this.file = file;
+            try {
+                this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+                // the header is completed when the writer is closed
+                out.write(new byte[HEADER_SIZE]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Could not create trace file %s", file), e);
+            }
+        }
+
+        /**
+         * Writes a request.
+         *
+         * @param timestampNanos the time of the request in nanoseconds, e.g. the epoch time of an access log entry
+         * @param methodName     the name of the {@link com.hazelcast.simulator.test.annotations.TimeStep} method
+         * @throws IllegalArgumentException if the timestamp is before the timestamp of the previous request
+         */
+        public void write(long timestampNanos, String methodName) {
+            if (recordCount == 0) {
+                firstTimestampNanos = timestampNanos;
+            }
+            long offsetNanos = timestampNanos - firstTimestampNanos;
+            if (offsetNanos < lastOffsetNanos) {
+                throw new IllegalArgumentException(format("Requests must be written in order, found %d after %d",
+                        timestampNanos, firstTimestampNanos + lastOffsetNanos));
+            }
+
+            try {
+                out.writeLong(offsetNanos);
+                out.writeShort(methodIndex(methodName));
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Could not write to trace file %s", file), e);
+            }
+            lastOffsetNanos = offsetNanos;
+            recordCount++;
+        }
+
+        private int methodIndex(String methodName) {
+            Integer index = methodIndices.get(methodName);
+            if (index == null) {
+                if (methodNames.size() == Short.MAX_VALUE) {
+                    throw new IllegalArgumentException(format("A trace can't have more than %d methods", Short.MAX_VALUE));
+                }
+                index = methodNames.size();
+                methodIndices.put(methodName, index);
+                methodNames.add(methodName);
+            }
+            return index;
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.writeShort(methodNames.size());
+                for (String methodName : methodNames) {
+                    out.writeUTF(methodName);
+                }
+                out.close();
+                writeHeader();
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Could not write to trace file %s", file), e);
+            } finally {
+                closeQuietly(out);
+            }
+        }
+
+        private void writeHeader() throws IOException {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.writeInt(MAGIC);
+                randomAccessFile.writeInt(VERSION);
+                randomAccessFile.writeLong(recordCount);
+                randomAccessFile.writeLong(HEADER_SIZE + recordCount * RECORD_SIZE);
+            } finally {
+                closeQuietly(randomAccessFile);
+            }
+        }
+    }
+}
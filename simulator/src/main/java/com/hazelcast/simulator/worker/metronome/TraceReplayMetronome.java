@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} which replays the requests of a recorded {@link TraceFile}, e.g. converted from production access logs.
+ *
+ * Every request is executed at its recorded time relative to the start of the replay and is dispatched to the
+ * {@link com.hazelcast.simulator.test.annotations.TimeStep} method named in the trace. So the real burst patterns are
+ * reproduced instead of synthetic ones. The threads of the execution group share the trace: a thread claims the next request
+ * as soon as it is available, like with the {@link ConstantCombinedRateMetronome}. Once all requests have been replayed, the
+ * metronome is completed, see {@link #isCompleted()}, and the timestep threads stop after their outstanding asynchronous calls
+ * have completed.
+ *
+ * Every worker replays the whole trace; the requests aren't divided over the workers.
+ *
+ * The metronome is configured with the following properties:
+ * <ol>
+ * <li>{@code traceFile}: the trace file to replay</li>
+ * <li>{@code traceSpeed}: the speed of the replay, e.g. 2 replays the trace twice as fast. Defaults to 1.</li>
+ * </ol>
+ */
+public final class TraceReplayMetronome implements Metronome {
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final TraceFile traceFile;
+    private final double speed;
+    private final boolean accountForCoordinatedOmission;
+    private final AtomicLong sharedStartNanos;
+    private final AtomicLong nextRecord;
+    // maps the index of a method in the trace to the index of the active timestep method
+    private int[] methodMapping;
+
+    private long startNanos = NOT_STARTED;
+    private int methodIndex;
+    private boolean completed;
+
+    TraceReplayMetronome(TraceFile traceFile, double speed, boolean accountForCoordinatedOmission) {
+        if (speed <= 0 || Double.isInfinite(speed) || Double.isNaN(speed)) {
+            throw new IllegalTestException(format("traceSpeed should be larger than 0, found: %s", speed));
+        }
+
+        this.traceFile = traceFile;
+        this.speed = speed;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.sharedStartNanos = new AtomicLong(NOT_STARTED);
+        this.nextRecord = new AtomicLong();
+    }
+
+    public TraceReplayMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(TraceFile.open(new File(loadTraceFile(binding, prefix))),
+                binding.loadAsDouble(toPropertyName(prefix, "traceSpeed"), 1),
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+    }
+
+    public TraceReplayMetronome(Metronome m) {
+        TraceReplayMetronome master = (TraceReplayMetronome) m;
+        if (master.methodMapping == null) {
+            throw new IllegalStateException("The timestep methods of the master metronome have not been bound");
+        }
+
+        this.traceFile = master.traceFile;
+        this.speed = master.speed;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.sharedStartNanos = master.sharedStartNanos;
+        this.nextRecord = master.nextRecord;
+        this.methodMapping = master.methodMapping;
+    }
+
+    private static String loadTraceFile(PropertyBinding binding, String prefix) {
+        String property = toPropertyName(prefix, "traceFile");
+        String traceFile = binding.load(property);
+        if (traceFile == null) {
+            throw new IllegalTestException(format("%s must be configured for the %s",
+                    property, TraceReplayMetronome.class.getSimpleName()));
+        }
+        return traceFile;
+    }
+
+    /**
+     * Binds the method names in the trace to the active timestep methods of the execution group.
+     *
+     * @param activeMethods the active timestep methods; the index returned by {@link #getMethodIndex()} refers to this list
+     * @throws IllegalTestException if the trace contains a method which isn't an active timestep method
+     */
+    public void bindMethods(List<Method> activeMethods) {
+        List<String> methodNames = traceFile.getMethodNames();
+        List<String> unknownMethodNames = new ArrayList<String>();
+        int[] mapping = new int[methodNames.size()];
+        for (int traceIndex = 0; traceIndex < mapping.length; traceIndex++) {
+            mapping[traceIndex] = indexOf(activeMethods, methodNames.get(traceIndex));
+            if (mapping[traceIndex] == -1) {
+                unknownMethodNames.add(methodNames.get(traceIndex));
+            }
+        }
+
+        if (!unknownMethodNames.isEmpty()) {
+            throw new IllegalTestException(format("Trace file %s contains methods %s which are not active timestep methods",
+                    traceFile.getFile(), unknownMethodNames));
+        }
+        this.methodMapping = mapping;
+    }
+
+    private static int indexOf(List<Method> methods, String methodName) {
+        for (int index = 0; index < methods.size(); index++) {
+            if (methods.get(index).getName().equals(methodName)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long waitForNext() {
+        long record = nextRecord.getAndIncrement();
+        if (record >= traceFile.getRecordCount()) {
+            completed = true;
+            return nanoTime();
+        }
+
+        if (startNanos == NOT_STARTED) {
+            // the replay starts when the first request is claimed, not when the metronome is created
+            sharedStartNanos.compareAndSet(NOT_STARTED, nanoTime());
+            startNanos = sharedStartNanos.get();
+        }
+
+        methodIndex = methodMapping[traceFile.getMethodIndex(record)];
+        long expectedStartNanos = startNanos + round(traceFile.getOffsetNanos(record) / speed);
+
+        long now;
+        while ((now = nanoTime()) < expectedStartNanos) {
+            parkNanos(expectedStartNanos - now);
+        }
+
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    /**
+     * Checks if all requests of the trace have been claimed. Once completed, {@link #waitForNext()} returns immediately and
+     * there is no request to execute, so the timestep thread should stop.
+     *
+     * @return {@code true} if the trace is completed, {@code false} otherwise
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Returns the index of the timestep method of the request returned by the last call to {@link #waitForNext()}.
+     *
+     * @return the index in the active timestep methods
+     */
+    public int getMethodIndex() {
+        return methodIndex;
+    }
+
+    public TraceFile getTraceFile() {
+        return traceFile;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+}
@@ -18,14 +18,20 @@ package com.hazelcast.simulator.worker.operations;
 import com.google.gson.annotations.SerializedName;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.hazelcast.simulator.utils.HistogramUtils.encodeHistogram;
+
 /**
  * Sends a {@link PerformanceStats} per running Simulator Test to the Coordinator, which contains the last snapshot of performance
  * numbers from that test.
  *
+ * It also contains the latency interval histograms of the probes of each test, so the Coordinator can calculate the
+ * latency percentiles over all Workers.
+ *
  * This Operation is 'mandatory' to implement. The consequence of not implementing it is no performance information is
  * available on the coordinator for logging purposes.
  */
@@ -40,11 +46,36 @@ public class PerformanceStatsOperation implements SimulatorOperation {
     @SerializedName("performanceStatsMap")
     private final Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
 
+    /**
+     * Map of encoded interval histograms per probe per Simulator Test.
+     *
+     * The key is the id of the test.
+     * The value is a map with the probe name as key and the compressed Base64 encoded interval histogram as value.
+     */
+    @SerializedName("histograms")
+    private final Map<String, Map<String, String>> histogramMap = new HashMap<String, Map<String, String>>();
+
     public void addPerformanceStats(String testId, PerformanceStats performanceStats) {
         performanceStatsMap.put(testId, performanceStats);
     }
 
+    public void addHistograms(String testId, Map<String, Histogram> intervalHistograms) {
+        if (intervalHistograms == null || intervalHistograms.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> encodedHistograms = new HashMap<String, String>();
+        for (Map.Entry<String, Histogram> entry : intervalHistograms.entrySet()) {
+            encodedHistograms.put(entry.getKey(), encodeHistogram(entry.getValue()));
+        }
+        histogramMap.put(testId, encodedHistograms);
+    }
+
     public Map<String, PerformanceStats> getPerformanceStats() {
         return performanceStatsMap;
     }
+
+    public Map<String, Map<String, String>> getHistograms() {
+        return histogramMap;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Starts or stops profiling a Simulator Test while it is in the {@link TestPhase#RUN} phase.
+ *
+ * The profile is written to the Worker directory, so it is collected with the other Worker artifacts.
+ */
+public class ProfileOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test to profile.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The name of the profiler, e.g. {@code jfr} or {@code async-profiler}.
+     */
+    @SerializedName("profiler")
+    private final String profiler;
+
+    /**
+     * The profiler specific settings or {@code null} for the defaults.
+     */
+    @SerializedName("settings")
+    private final String settings;
+
+    /**
+     * The delay before the profiler is started, e.g. {@code 30s}, or {@code null} to start immediately.
+     */
+    @SerializedName("delay")
+    private final String delay;
+
+    /**
+     * The duration of the profile, e.g. {@code 60s}, or {@code null} to profile until the end of the run.
+     */
+    @SerializedName("duration")
+    private final String duration;
+
+    /**
+     * Defines if the running profiler should be stopped instead of a new profiler started.
+     */
+    @SerializedName("stop")
+    private final boolean stop;
+
+    public ProfileOperation(String testId, String profiler, String settings, String delay, String duration, boolean stop) {
+        this.testId = testId;
+        this.profiler = profiler;
+        this.settings = settings;
+        this.delay = delay;
+        this.duration = duration;
+        this.stop = stop;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getProfiler() {
+        return profiler;
+    }
+
+    public String getSettings() {
+        return settings;
+    }
+
+    public String getDelay() {
+        return delay;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public boolean isStop() {
+        return stop;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfileOperation{testId='" + testId + "', profiler='" + profiler + "', settings='" + settings
+                + "', delay='" + delay + "', duration='" + duration + "', stop=" + stop + '}';
+    }
+}
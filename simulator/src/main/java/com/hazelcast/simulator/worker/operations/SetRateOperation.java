@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the rate of a Simulator Test while it is in the {@link TestPhase#RUN} phase.
+ *
+ * The coordinator sends this operation while searching for the maximum sustainable rate of a test. The rate is applied
+ * to every execution group of the test which has a rate profile; other execution groups aren't affected.
+ */
+public class SetRateOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test to change the rate of.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The new rate in operations per second of the Worker.
+     */
+    @SerializedName("ratePerSecond")
+    private final double ratePerSecond;
+
+    public SetRateOperation(String testId, double ratePerSecond) {
+        this.testId = testId;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "SetRateOperation{testId='" + testId + "', ratePerSecond=" + ratePerSecond + '}';
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the share of a Worker of the global rate of a Simulator Test.
+ *
+ * A test with a {@code globalRatePerSecond} has a rate which applies to all Workers which run the test. The coordinator
+ * divides this rate between the Workers by sending each Worker its share. When a Worker fails, the coordinator sends new
+ * shares to the remaining Workers, so the total rate stays the same.
+ */
+public class SetRateShareOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test to change the rate share of.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The share of the Worker of the global rate, larger than 0 and at most 1.
+     */
+    @SerializedName("share")
+    private final double share;
+
+    public SetRateShareOperation(String testId, double share) {
+        this.testId = testId;
+        this.share = share;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public double getShare() {
+        return share;
+    }
+
+    @Override
+    public String toString() {
+        return "SetRateShareOperation{testId='" + testId + "', share=" + share + '}';
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the number of timestep threads of an execution group of a Simulator Test while it is in the
+ * {@link TestPhase#RUN} phase.
+ *
+ * Threads are added or retired without restarting the test, so the latency can be measured for a range of concurrent
+ * callers in a single test run.
+ */
+public class SetThreadCountOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test to change the number of threads of.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The execution group to change the number of threads of; the default execution group is the empty string.
+     */
+    @SerializedName("executionGroup")
+    private final String executionGroup;
+
+    /**
+     * The new number of threads of the execution group on the Worker.
+     */
+    @SerializedName("threadCount")
+    private final int threadCount;
+
+    public SetThreadCountOperation(String testId, String executionGroup, int threadCount) {
+        this.testId = testId;
+        this.executionGroup = executionGroup;
+        this.threadCount = threadCount;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getExecutionGroup() {
+        return executionGroup;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SetThreadCountOperation{testId='" + testId + "', executionGroup='" + executionGroup
+                + "', threadCount=" + threadCount + '}';
+    }
+}
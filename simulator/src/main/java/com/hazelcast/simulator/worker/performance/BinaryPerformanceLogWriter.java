@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+
+/**
+ * Writes the performance stats in a compact binary format.
+ *
+ * The file starts with the int {@link #MAGIC} followed by the int {@link #VERSION}. Then a fixed size record of
+ * {@link #RECORD_SIZE} bytes follows for every interval, containing the big-endian values:
+ * <ol>
+ * <li>long: epoch time in milliseconds</li>
+ * <li>long: operations</li>
+ * <li>long: operations delta</li>
+ * <li>double: operations/second</li>
+ * <li>double: allocated bytes/operation, -1 if not measured</li>
+ * <li>double: CPU nanoseconds/operation, -1 if not measured</li>
+ * <li>double: GC pause milliseconds, -1 if not measured</li>
+ * <li>double: safepoint milliseconds, -1 if not measured</li>
+ * </ol>
+ * The formatted timestamp of the csv format is not written, since it can be derived from the epoch time. Markers aren't
+ * written either, they can be found in the latency files.
+ */
+final class BinaryPerformanceLogWriter extends PerformanceLogWriter {
+
+    // "SPL1" in ASCII
+    static final int MAGIC = 0x53504c31;
+    static final int VERSION = 3;
+    static final int RECORD_SIZE = 64;
+
+    private DataOutputStream out;
+
+    BinaryPerformanceLogWriter(File file) {
+        super(file);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:parameternumber")
+    void write(long timeMillis,
+               String timestamp,
+               long operationsTotal,
+               long operationsDelta,
+               double operationsPerSecond,
+               double allocatedBytesPerOperation,
+               double cpuNanosPerOperation,
+               double gcPauseMillis,
+               double safepointMillis,
+               String marker) {
+        try {
+            DataOutputStream stream = open();
+            stream.writeLong(timeMillis);
+            stream.writeLong(operationsTotal);
+            stream.writeLong(operationsDelta);
+            stream.writeDouble(operationsPerSecond);
+            stream.writeDouble(allocatedBytesPerOperation);
+            stream.writeDouble(cpuNanosPerOperation);
+            stream.writeDouble(gcPauseMillis);
+            stream.writeDouble(safepointMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
+        }
+    }
+
+    private DataOutputStream open() throws IOException {
+        if (out == null) {
+            boolean writeHeader = file.length() == 0;
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            if (writeHeader) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    void flush() {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(out);
+        out = null;
+    }
+}
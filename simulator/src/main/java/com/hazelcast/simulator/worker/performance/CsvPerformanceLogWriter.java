@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes the performance stats in csv format.
+ *
+ * The allocated-bytes/op, cpu-ns/op, gc-pause-ms and safepoint-ms columns are left empty if they are not measured. The
+ * marker column is only written for the records that have a marker.
+ */
+final class CsvPerformanceLogWriter extends PerformanceLogWriter {
+
+    private static final String HEADER = "epoch,timestamp,operations,operations-delta,operations/second,"
+            + "allocated-bytes/op,cpu-ns/op,gc-pause-ms,safepoint-ms,marker\n";
+
+    private final StringBuilder sb = new StringBuilder();
+    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private Writer writer;
+
+    CsvPerformanceLogWriter(File file) {
+        super(file);
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:parameternumber")
+    void write(long timeMillis,
+               String timestamp,
+               long operationsTotal,
+               long operationsDelta,
+               double operationsPerSecond,
+               double allocatedBytesPerOperation,
+               double cpuNanosPerOperation,
+               double gcPauseMillis,
+               double safepointMillis,
+               String marker) {
+
+        sb.setLength(0);
+        // ms are expressed in epoch time after the decimal point
+        sb.append(format.format(timeMillis * 1d / SECONDS.toMillis(1)));
+        sb.append(',').append(timestamp);
+        sb.append(',').append(operationsTotal);
+        sb.append(',').append(operationsDelta);
+        sb.append(',').append(format.format(operationsPerSecond));
+        appendOptional(allocatedBytesPerOperation);
+        appendOptional(cpuNanosPerOperation);
+        appendOptional(gcPauseMillis);
+        appendOptional(safepointMillis);
+        if (marker != null) {
+            // the marker is free text, so we prevent it from breaking up into multiple columns
+            sb.append(',').append(marker.replace(',', ';'));
+        }
+        sb.append('\n');
+
+        try {
+            open().append(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
+        }
+    }
+
+    private void appendOptional(double value) {
+        sb.append(',');
+        if (value >= 0) {
+            sb.append(format.format(value));
+        }
+    }
+
+    private Writer open() throws IOException {
+        if (writer == null) {
+            boolean writeHeader = file.length() == 0;
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true)));
+            if (writeHeader) {
+                writer.append(HEADER);
+            }
+        }
+        return writer;
+    }
+
+    @Override
+    void flush() {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(writer);
+        writer = null;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.probes.impl.Exemplar;
+import com.hazelcast.simulator.utils.UncheckedIOException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.List;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes the slowest operations of a probe per interval in csv format.
+ *
+ * Every row is a single operation. The epoch column contains the end of the interval, like the performance log. The start
+ * times are calculated from the completion time and the latency, so they can be matched with the timestamps of GC logs or
+ * migrations. The actual-start column is left empty if the intended start of the operation isn't known; the tag column if
+ * the operation has no tag.
+ */
+final class ExemplarLogWriter implements Closeable {
+
+    private static final String HEADER = "epoch,intended-start,actual-start,completed,latency-us,thread,tag\n";
+
+    private final File file;
+    private final StringBuilder sb = new StringBuilder();
+    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
+    private Writer writer;
+
+    ExemplarLogWriter(File file) {
+        this.file = file;
+    }
+
+    void write(long timeMillis, List<Exemplar> exemplars) {
+        sb.setLength(0);
+        for (Exemplar exemplar : exemplars) {
+            double completedMillis = exemplar.getCompletedMillis();
+            double intendedStartMillis = completedMillis - exemplar.getLatencyNanos() / (double) MILLISECONDS.toNanos(1);
+
+            appendEpoch(timeMillis);
+            sb.append(',');
+            appendEpoch(intendedStartMillis);
+            sb.append(',');
+            if (exemplar.getStartLagNanos() != Exemplar.NOT_MEASURED) {
+                appendEpoch(intendedStartMillis + exemplar.getStartLagNanos() / (double) MILLISECONDS.toNanos(1));
+            }
+            sb.append(',');
+            appendEpoch(completedMillis);
+            sb.append(',').append(format.format(exemplar.getLatencyNanos() / (double) MICROSECONDS.toNanos(1)));
+            sb.append(',').append(exemplar.getThreadName().replace(',', ';'));
+            sb.append(',');
+            if (exemplar.getTag() != null) {
+                // the tag is free text, so we prevent it from breaking up into multiple columns
+                sb.append(exemplar.getTag().replace(',', ';').replace('\n', ' '));
+            }
+            sb.append('\n');
+        }
+
+        try {
+            open().append(sb).flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
+        }
+    }
+
+    private void appendEpoch(double millis) {
+        // ms are expressed in epoch time after the decimal point
+        sb.append(format.format(millis / SECONDS.toMillis(1)));
+    }
+
+    private Writer open() throws IOException {
+        if (writer == null) {
+            boolean writeHeader = file.length() == 0;
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true)));
+            if (writeHeader) {
+                writer.append(HEADER);
+            }
+        }
+        return writer;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(writer);
+        writer = null;
+    }
+}
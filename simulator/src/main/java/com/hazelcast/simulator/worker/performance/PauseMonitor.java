@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import org.HdrHistogram.Histogram;
+import org.apache.log4j.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Monitors the pauses of the JVM of the Worker, so they can be correlated with the latency of the tests.
+ *
+ * The GC pauses are received as notifications of the {@link GarbageCollectorMXBean}s; their durations are recorded in a
+ * {@link Histogram} and summed up. The collectors which mostly run concurrently with the application are ignored, since the
+ * duration of a cycle isn't a pause.
+ *
+ * The total safepoint time is read from the HotSpot internal runtime MBean if it is available. It includes the GC pauses, but
+ * also other stop-the-world operations like deoptimization and biased lock revocation; and the pauses of the concurrent
+ * collectors.
+ *
+ * All values are totals since the monitor was started, so every consumer can calculate its own intervals.
+ */
+final class PauseMonitor {
+
+    static final long NOT_MEASURED = -1;
+
+    private static final String GC_NOTIFICATION_TYPE = "com.sun.management.gc.notification";
+    // the beans of the cycles of ZGC and Shenandoah, e.g. "ZGC Major Cycles", end with CONCURRENT_CYCLES_SUFFIX
+    private static final Set<String> CONCURRENT_COLLECTORS = new HashSet<String>(Arrays.asList(
+            "ConcurrentMarkSweep", "G1 Concurrent GC", "ZGC"));
+    private static final String CONCURRENT_CYCLES_SUFFIX = " Cycles";
+    private static final Logger LOGGER = Logger.getLogger(PauseMonitor.class);
+
+    private final List<NotificationEmitter> emitters = new ArrayList<NotificationEmitter>();
+    // auto resizing, so a very long pause can't break the monitor
+    private final Histogram pauseHistogram = new Histogram(3);
+    private final AtomicLong totalPauseNanos = new AtomicLong();
+    private final Object safepointMBean;
+    private final Method totalSafepointTimeMethod;
+    private final NotificationListener listener = new NotificationListener() {
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            onNotification(notification);
+        }
+    };
+
+    PauseMonitor() {
+        Method method = null;
+        Object mbean = null;
+        try {
+            Class helperClass = Class.forName("sun.management.ManagementFactoryHelper");
+            mbean = helperClass.getMethod("getHotspotRuntimeMBean").invoke(null);
+            method = Class.forName("sun.management.HotspotRuntimeMBean").getMethod("getTotalSafepointTime");
+            method.invoke(mbean);
+        } catch (Exception e) {
+            LOGGER.info("The safepoint time is not measured, since the JVM doesn't provide it: " + e);
+            method = null;
+            mbean = null;
+        }
+        this.safepointMBean = mbean;
+        this.totalSafepointTimeMethod = method;
+    }
+
+    /**
+     * Starts listening to the GC notifications.
+     */
+    void start() {
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gcBean instanceof NotificationEmitter)) {
+                continue;
+            }
+            if (isConcurrentCollector(gcBean.getName())) {
+                LOGGER.info(format("The GC pauses of %s are not measured, since it mostly runs concurrently", gcBean.getName()));
+                continue;
+            }
+
+            NotificationEmitter emitter = (NotificationEmitter) gcBean;
+            emitter.addNotificationListener(listener, null, null);
+            emitters.add(emitter);
+        }
+
+        if (emitters.isEmpty()) {
+            LOGGER.info("The GC pauses are not measured, since the JVM doesn't provide GC notifications");
+        }
+    }
+
+    /**
+     * Checks if a collector mostly runs concurrently with the application, so the duration of its cycles aren't pauses.
+     *
+     * @param collectorName the name of the {@link GarbageCollectorMXBean}
+     * @return {@code true} if the collector is concurrent, {@code false} otherwise
+     */
+    static boolean isConcurrentCollector(String collectorName) {
+        return CONCURRENT_COLLECTORS.contains(collectorName) || collectorName.endsWith(CONCURRENT_CYCLES_SUFFIX);
+    }
+
+    /**
+     * Stops listening to the GC notifications.
+     */
+    void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                ignore(e);
+            }
+        }
+        emitters.clear();
+    }
+
+    private void onNotification(Notification notification) {
+        if (!GC_NOTIFICATION_TYPE.equals(notification.getType())) {
+            return;
+        }
+
+        // the CompositeData is read directly, so we don't depend on com.sun.management.GarbageCollectionNotificationInfo
+        CompositeData gcInfo = (CompositeData) ((CompositeData) notification.getUserData()).get("gcInfo");
+        long durationMillis = (Long) gcInfo.get("duration");
+        recordPause(MILLISECONDS.toNanos(durationMillis));
+    }
+
+    void recordPause(long pauseNanos) {
+        synchronized (pauseHistogram) {
+            pauseHistogram.recordValue(pauseNanos);
+        }
+        totalPauseNanos.addAndGet(pauseNanos);
+    }
+
+    /**
+     * Returns a copy of the histogram with all GC pauses since the monitor was started.
+     *
+     * @return the histogram with the pauses in nanoseconds
+     */
+    Histogram getPauseHistogram() {
+        synchronized (pauseHistogram) {
+            return pauseHistogram.copy();
+        }
+    }
+
+    /**
+     * Returns the sum of all GC pauses since the monitor was started.
+     *
+     * @return the total GC pause time in nanoseconds
+     */
+    long getTotalPauseNanos() {
+        return totalPauseNanos.get();
+    }
+
+    /**
+     * Returns the total time the JVM has spent in safepoints since it was started.
+     *
+     * @return the total safepoint time in nanoseconds or -1 if not measured
+     */
+    long getTotalSafepointNanos() {
+        if (totalSafepointTimeMethod == null) {
+            return NOT_MEASURED;
+        }
+
+        try {
+            return MILLISECONDS.toNanos((Long) totalSafepointTimeMethod.invoke(safepointMBean));
+        } catch (Exception e) {
+            ignore(e);
+            return NOT_MEASURED;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import static java.lang.String.format;
+
+/**
+ * The file format of the performance logs written by the Worker.
+ */
+public enum PerformanceLogFormat {
+
+    /**
+     * Human readable csv format.
+     */
+    CSV("csv"),
+
+    /**
+     * Compact binary format with fixed size records, for very long running tests.
+     *
+     * See {@link BinaryPerformanceLogWriter} for a description of the format.
+     */
+    BINARY("bin");
+
+    private final String extension;
+
+    PerformanceLogFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Parses the name of a format, case insensitive.
+     *
+     * @param name the name of the format; {@code null} or an empty string results in {@link #CSV}
+     * @return the parsed format
+     * @throws IllegalArgumentException if the name is not a known format
+     */
+    public static PerformanceLogFormat fromString(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return CSV;
+        }
+
+        for (PerformanceLogFormat logFormat : values()) {
+            if (logFormat.name().equalsIgnoreCase(name.trim())) {
+                return logFormat;
+            }
+        }
+        throw new IllegalArgumentException(format("Unknown performance log format [%s], supported formats are csv and binary",
+                name));
+    }
+}
@@ -15,32 +15,42 @@
  */
 package com.hazelcast.simulator.worker.performance;
 
+import java.io.Closeable;
 import java.io.File;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Locale;
 
-import static com.hazelcast.simulator.utils.FileUtils.appendText;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Responsible for writing to performance stats to disk in csv format.
+ * Responsible for writing performance stats to disk.
+ *
+ * The file is opened on the first write and kept open until the writer is closed, so writing a record doesn't open and
+ * close the file. Records are buffered until {@link #flush()} is called, which is done at the end of every interval.
+ * A writer that is written to after it has been closed, reopens the file in append mode.
  */
-final class PerformanceLogWriter {
+abstract class PerformanceLogWriter implements Closeable {
 
-    private final StringBuffer sb = new StringBuffer();
-    private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
-    private final File file;
-    private boolean headerWritten;
+    final File file;
 
     PerformanceLogWriter(File file) {
         this.file = checkNotNull(file, "file can't be null");
     }
 
-    private void writeHeader() {
-        String columns = "epoch,timestamp,operations,operations-delta,operations/second\n";
-        appendText(columns, file);
+    /**
+     * Creates a {@link PerformanceLogWriter}.
+     *
+     * @param directory the directory to write the file to
+     * @param baseName  the name of the file without extension
+     * @param logFormat the format of the file
+     * @return the created writer
+     */
+    static PerformanceLogWriter newPerformanceLogWriter(File directory, String baseName, PerformanceLogFormat logFormat) {
+        File file = new File(directory, baseName + '.' + logFormat.getExtension());
+        switch (logFormat) {
+            case BINARY:
+                return new BinaryPerformanceLogWriter(file);
+            default:
+                return new CsvPerformanceLogWriter(file);
+        }
     }
 
     void write(long timeMillis,
@@ -48,20 +58,52 @@ final class PerformanceLogWriter {
                long operationsTotal,
                long operationsDelta,
                double operationsPerSecond) {
+        write(timeMillis, timestamp, operationsTotal, operationsDelta, operationsPerSecond, null);
+    }
 
-        if (!headerWritten) {
-            writeHeader();
-            headerWritten = true;
-        }
-
-        sb.setLength(0);
-        // ms are expressed in epoch time after the decimal point
-        sb.append(format.format(timeMillis * 1d / SECONDS.toMillis(1)));
-        sb.append(',').append(timestamp);
-        sb.append(',').append(operationsTotal);
-        sb.append(',').append(operationsDelta);
-        sb.append(',').append(format.format(operationsPerSecond));
-        sb.append('\n');
-        appendText(sb.toString(), file);
+    void write(long timeMillis,
+               String timestamp,
+               long operationsTotal,
+               long operationsDelta,
+               double operationsPerSecond,
+               String marker) {
+        write(timeMillis, timestamp, operationsTotal, operationsDelta, operationsPerSecond, -1, -1, -1, -1, marker);
     }
+
+    /**
+     * Writes a record.
+     *
+     * @param timeMillis                 the epoch time of the record in millis
+     * @param timestamp                  the formatted time of the record
+     * @param operationsTotal            the total number of operations
+     * @param operationsDelta            the number of operations in the interval
+     * @param operationsPerSecond        the throughput in the interval
+     * @param allocatedBytesPerOperation the bytes allocated per operation in the interval; -1 if not measured
+     * @param cpuNanosPerOperation       the CPU time in nanoseconds per operation in the interval; -1 if not measured
+     * @param gcPauseMillis              the GC pause time of the Worker in the interval; -1 if not measured
+     * @param safepointMillis            the safepoint time of the Worker in the interval; -1 if not measured
+     * @param marker                     marks an event in the interval, e.g. a new step of a rate profile; can be {@code null}
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    abstract void write(long timeMillis,
+                        String timestamp,
+                        long operationsTotal,
+                        long operationsDelta,
+                        double operationsPerSecond,
+                        double allocatedBytesPerOperation,
+                        double cpuNanosPerOperation,
+                        double gcPauseMillis,
+                        double safepointMillis,
+                        String marker);
+
+    /**
+     * Writes the buffered records to disk.
+     */
+    abstract void flush();
+
+    /**
+     * Flushes the buffered records and closes the file.
+     */
+    @Override
+    public abstract void close();
 }
@@ -22,20 +22,23 @@ import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.apache.log4j.Logger;
 
 import java.io.Closeable;
-import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
-import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.worker.performance.PerformanceLogWriter.newPerformanceLogWriter;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.System.nanoTime;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -46,21 +49,31 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public class PerformanceMonitor implements Closeable {
 
     private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
-    private static final long WAIT_FOR_TEST_CONTAINERS_DELAY_NANOS = MILLISECONDS.toNanos(100);
+    private static final long WAIT_FOR_TEST_CONTAINERS_DELAY_MILLIS = 100;
     private static final Logger LOGGER = Logger.getLogger(PerformanceMonitor.class);
 
     private final PerformanceMonitorThread thread;
     private final AtomicBoolean shutdown = new AtomicBoolean();
     private final TestManager testManager;
     private final Server server;
-    private final int updateIntervalSeconds;
+    private final long updateIntervalMillis;
+    private final PerformanceLogFormat logFormat;
+    private final PauseMonitor pauseMonitor = new PauseMonitor();
 
     public PerformanceMonitor(Server server,
                               TestManager testManager,
                               int updateIntervalSeconds) {
+        this(server, testManager, SECONDS.toMillis(updateIntervalSeconds), PerformanceLogFormat.CSV);
+    }
+
+    public PerformanceMonitor(Server server,
+                              TestManager testManager,
+                              long updateIntervalMillis,
+                              PerformanceLogFormat logFormat) {
         this.testManager = testManager;
         this.server = server;
-        this.updateIntervalSeconds = updateIntervalSeconds;
+        this.updateIntervalMillis = updateIntervalMillis;
+        this.logFormat = logFormat;
         this.thread = new PerformanceMonitorThread();
         thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
             @Override
@@ -71,11 +84,13 @@ public class PerformanceMonitor implements Closeable {
     }
 
     public void start() {
-        if (updateIntervalSeconds < 1) {
+        if (updateIntervalMillis < 1) {
             LOGGER.info("PerformanceMonitor disabled");
             return;
         }
-        LOGGER.info(format("PerformanceMonitor enabled with interval: %d seconds", updateIntervalSeconds));
+        LOGGER.info(format("PerformanceMonitor enabled with interval: %d ms, log format: %s",
+                updateIntervalMillis, logFormat));
+        pauseMonitor.start();
         thread.start();
     }
 
@@ -93,26 +108,41 @@ public class PerformanceMonitor implements Closeable {
      */
     private final class PerformanceMonitorThread extends Thread {
 
-        private final long scanIntervalNanos = SECONDS.toNanos(1);
         private final PerformanceLogWriter globalPerformanceLogWriter;
-        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-        private final long updateIntervalMillis;
+        private final SimpleDateFormat simpleDateFormat;
         private final List<TestContainer> dirtyContainers = new ArrayList<TestContainer>();
+        // the trackers which have written to disk and need to be closed when their test is gone
+        private final Set<TestPerformanceTracker> openTrackers = new HashSet<TestPerformanceTracker>();
 
         private PerformanceMonitorThread() {
             super("WorkerPerformanceMonitor");
             setDaemon(true);
-            this.updateIntervalMillis = SECONDS.toMillis(updateIntervalSeconds);
-            this.globalPerformanceLogWriter = new PerformanceLogWriter(new File(getUserDir(), "performance.csv"));
+            // with a sub-second interval the timestamps need millisecond precision to be distinguishable
+            this.simpleDateFormat = new SimpleDateFormat(updateIntervalMillis % SECONDS.toMillis(1) == 0
+                    ? "dd/MM/yyyy HH:mm:ss" : "dd/MM/yyyy HH:mm:ss.SSS");
+            this.globalPerformanceLogWriter = newPerformanceLogWriter(getUserDir(), "performance", logFormat);
         }
 
         @Override
         public void run() {
+            try {
+                monitor();
+            } finally {
+                for (TestPerformanceTracker tracker : openTrackers) {
+                    tracker.close();
+                }
+                openTrackers.clear();
+                globalPerformanceLogWriter.close();
+                pauseMonitor.stop();
+            }
+        }
+
+        private void monitor() {
             while (!shutdown.get()) {
                 long startNanos = nanoTime();
                 long currentTimeMillis = currentTimeMillis();
 
-                updateTrackers(currentTimeMillis);
+                long deadlineMillis = updateTrackers(currentTimeMillis);
 
                 if (!dirtyContainers.isEmpty()) {
                     coordinatorUpdate();
@@ -120,27 +150,54 @@ public class PerformanceMonitor implements Closeable {
                 }
 
                 long elapsedNanos = nanoTime() - startNanos;
-
-                if (scanIntervalNanos > elapsedNanos) {
-                    if (dirtyContainers.isEmpty()) {
-                        sleepNanos(WAIT_FOR_TEST_CONTAINERS_DELAY_NANOS - elapsedNanos);
-                    } else {
-                        sleepNanos(scanIntervalNanos - elapsedNanos);
-                    }
-                } else {
+                if (NANOSECONDS.toMillis(elapsedNanos) > updateIntervalMillis) {
                     LOGGER.warn(getName() + ".run() took " + NANOSECONDS.toMillis(elapsedNanos) + " ms");
                 }
+
+                // we wake up on the deadline of the first tracker to update, instead of sleeping a fixed amount of time,
+                // so the intervals don't drift and sub-second intervals are written on time
+                sleepUntilMs(deadlineMillis);
             }
         }
 
-        private void updateTrackers(long currentTimeMillis) {
+        /**
+         * Updates the trackers of all tests.
+         *
+         * @param currentTimeMillis the current time in millis
+         * @return the time in millis on which the next tracker needs to be updated
+         */
+        private long updateTrackers(long currentTimeMillis) {
             dirtyContainers.clear();
 
+            long deadlineMillis = Long.MAX_VALUE;
+            Set<TestPerformanceTracker> trackers = new HashSet<TestPerformanceTracker>();
             for (TestContainer container : testManager.getContainers()) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                if (tracker.update(updateIntervalMillis, currentTimeMillis)) {
+                trackers.add(tracker);
+                if (tracker.update(updateIntervalMillis, currentTimeMillis, pauseMonitor)) {
                     dirtyContainers.add(container);
                 }
+
+                long nextUpdateMillis = tracker.nextUpdateMillis();
+                if (nextUpdateMillis == 0) {
+                    // the test isn't running, so we need to check again soon
+                    nextUpdateMillis = currentTimeMillis + WAIT_FOR_TEST_CONTAINERS_DELAY_MILLIS;
+                }
+                deadlineMillis = min(deadlineMillis, nextUpdateMillis);
+            }
+
+            closeRemovedTrackers(trackers);
+            return deadlineMillis == Long.MAX_VALUE ? currentTimeMillis + WAIT_FOR_TEST_CONTAINERS_DELAY_MILLIS : deadlineMillis;
+        }
+
+        private void closeRemovedTrackers(Set<TestPerformanceTracker> trackers) {
+            Iterator<TestPerformanceTracker> iterator = openTrackers.iterator();
+            while (iterator.hasNext()) {
+                TestPerformanceTracker tracker = iterator.next();
+                if (!trackers.contains(tracker)) {
+                    tracker.close();
+                    iterator.remove();
+                }
             }
         }
 
@@ -149,7 +206,13 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                operation.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
+                if (tracker.isWarmupInterval()) {
+                    // the coordinator only receives the steady state
+                    continue;
+                }
+                String testId = container.getTestCase().getId();
+                operation.addPerformanceStats(testId, tracker.createPerformanceStats());
+                operation.addHistograms(testId, tracker.intervalHistograms());
             }
 
             if (operation.getPerformanceStats().size() > 0) {
@@ -165,7 +228,11 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                tracker.persist(currentTimestamp, dateString);
+                tracker.persist(currentTimestamp, dateString, logFormat);
+                openTrackers.add(tracker);
+                if (tracker.isWarmupInterval()) {
+                    continue;
+                }
 
                 globalIntervalOperationCount += tracker.intervalOperationCount();
                 globalOperationsCount += tracker.totalOperationCount();
@@ -179,6 +246,7 @@ public class PerformanceMonitor implements Closeable {
                     globalOperationsCount,
                     globalIntervalOperationCount,
                     globalIntervalThroughput);
+            globalPerformanceLogWriter.flush();
         }
     }
 }
@@ -25,6 +25,13 @@ import static java.lang.Math.max;
  * Has methods to combine {@link PerformanceStats} instances by adding or setting maximum values.
  *
  * There is a lot of stuff in there, but the thing most important is the operationCount (in a given time window).
+ *
+ * The allocated bytes and the CPU time are the totals of the timestep threads since the start of the measurements, like the
+ * operationCount, so they can be divided by the operationCount to get the cost per operation. They are -1 if they are not
+ * measured, e.g. because the JVM doesn't support it.
+ *
+ * If the test has a warmup, the totals start after the warmup; the duration of the warmup is included, so the total throughput
+ * can be calculated over the measured period only.
  */
 public class PerformanceStats {
 
@@ -32,6 +39,7 @@ public class PerformanceStats {
 
     private static final long EMPTY_OPERATION_COUNT = -1;
     private static final double EMPTY_THROUGHPUT = -1;
+    private static final long NOT_MEASURED = -1;
 
     private long operationCount;
     private double intervalThroughput;
@@ -39,6 +47,9 @@ public class PerformanceStats {
     private double intervalLatencyAvgNanos;
     private long intervalLatencyMaxNanos;
     private long intervalLatency999PercentileNanos;
+    private long allocatedBytes = NOT_MEASURED;
+    private long cpuNanos = NOT_MEASURED;
+    private long warmupMillis;
 
     /**
      * Creates an empty {@link PerformanceStats} instance.
@@ -66,12 +77,67 @@ public class PerformanceStats {
                             double intervalLatencyAvgNanos,
                             long intervalLatency999PercentileNanos,
                             long intervalLatencyMaxNanos) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos, intervalLatency999PercentileNanos,
+                intervalLatencyMaxNanos, NOT_MEASURED, NOT_MEASURED);
+    }
+
+    /**
+     * Creates a {@link PerformanceStats} instance with values, including the cost of the operations.
+     *
+     * @param operationCount                    Operation count value.
+     * @param intervalThroughput                Throughput value for an interval.
+     * @param totalThroughput                   Total throughput value.
+     * @param intervalLatencyAvgNanos           Average latency for an interval.
+     * @param intervalLatency999PercentileNanos 99.9 Percentile latency for an interval
+     *                                          ({@link PerformanceStats#INTERVAL_LATENCY_PERCENTILE}).
+     * @param intervalLatencyMaxNanos           Maximum latency for an interval.
+     * @param allocatedBytes                    Bytes allocated by the timestep threads for the operations, -1 if not measured.
+     * @param cpuNanos                          CPU time of the timestep threads for the operations, -1 if not measured.
+     */
+    public PerformanceStats(long operationCount,
+                            double intervalThroughput,
+                            double totalThroughput,
+                            double intervalLatencyAvgNanos,
+                            long intervalLatency999PercentileNanos,
+                            long intervalLatencyMaxNanos,
+                            long allocatedBytes,
+                            long cpuNanos) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos, intervalLatency999PercentileNanos,
+                intervalLatencyMaxNanos, allocatedBytes, cpuNanos, 0);
+    }
+
+    /**
+     * Creates a {@link PerformanceStats} instance with values, including the cost of the operations and the warmup.
+     *
+     * @param operationCount                    Operation count value.
+     * @param intervalThroughput                Throughput value for an interval.
+     * @param totalThroughput                   Total throughput value.
+     * @param intervalLatencyAvgNanos           Average latency for an interval.
+     * @param intervalLatency999PercentileNanos 99.9 Percentile latency for an interval
+     *                                          ({@link PerformanceStats#INTERVAL_LATENCY_PERCENTILE}).
+     * @param intervalLatencyMaxNanos           Maximum latency for an interval.
+     * @param allocatedBytes                    Bytes allocated by the timestep threads for the operations, -1 if not measured.
+     * @param cpuNanos                          CPU time of the timestep threads for the operations, -1 if not measured.
+     * @param warmupMillis                      Duration of the warmup which isn't part of the operation count, 0 if none.
+     */
+    public PerformanceStats(long operationCount,
+                            double intervalThroughput,
+                            double totalThroughput,
+                            double intervalLatencyAvgNanos,
+                            long intervalLatency999PercentileNanos,
+                            long intervalLatencyMaxNanos,
+                            long allocatedBytes,
+                            long cpuNanos,
+                            long warmupMillis) {
         this.operationCount = operationCount;
         this.intervalThroughput = intervalThroughput;
         this.totalThroughput = totalThroughput;
         this.intervalLatencyAvgNanos = intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = intervalLatencyMaxNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.cpuNanos = cpuNanos;
+        this.warmupMillis = warmupMillis;
     }
 
     public PerformanceStats(PerformanceStats original) {
@@ -81,6 +147,9 @@ public class PerformanceStats {
         this.intervalLatencyAvgNanos = original.intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = original.intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = original.intervalLatencyMaxNanos;
+        this.allocatedBytes = original.allocatedBytes;
+        this.cpuNanos = original.cpuNanos;
+        this.warmupMillis = original.warmupMillis;
     }
 
     /**
@@ -102,7 +171,8 @@ public class PerformanceStats {
      * For the total performance number and the performance per Simulator Agent, the added values should be set, so we get the
      * summed up operation count and throughput values.
      * <p>
-     * The method always sets the maximum values for latency.
+     * The method always sets the maximum values for latency and the warmup. The allocated bytes and CPU time are handled like
+     * the operation count.
      *
      * @param other                          {@link PerformanceStats} which should be added to this instance
      * @param addOperationCountAndThroughput {@code true} if operation count and throughput should be added,
@@ -121,6 +191,10 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = other.intervalLatencyAvgNanos;
             intervalLatency999PercentileNanos = other.intervalLatency999PercentileNanos;
             intervalLatencyMaxNanos = other.intervalLatencyMaxNanos;
+
+            allocatedBytes = other.allocatedBytes;
+            cpuNanos = other.cpuNanos;
+            warmupMillis = other.warmupMillis;
         } else {
             if (addOperationCountAndThroughput) {
                 operationCount += other.operationCount;
@@ -135,7 +209,21 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = max(intervalLatencyAvgNanos, other.intervalLatencyAvgNanos);
             intervalLatency999PercentileNanos = max(intervalLatency999PercentileNanos, other.intervalLatency999PercentileNanos);
             intervalLatencyMaxNanos = max(intervalLatencyMaxNanos, other.intervalLatencyMaxNanos);
+
+            allocatedBytes = addCost(allocatedBytes, other.allocatedBytes, addOperationCountAndThroughput);
+            cpuNanos = addCost(cpuNanos, other.cpuNanos, addOperationCountAndThroughput);
+            warmupMillis = max(warmupMillis, other.warmupMillis);
+        }
+    }
+
+    private static long addCost(long cost, long otherCost, boolean add) {
+        if (cost == NOT_MEASURED) {
+            return otherCost;
+        }
+        if (otherCost == NOT_MEASURED) {
+            return cost;
         }
+        return add ? cost + otherCost : max(cost, otherCost);
     }
 
     /**
@@ -171,6 +259,49 @@ public class PerformanceStats {
         return intervalLatencyMaxNanos;
     }
 
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Returns the duration of the warmup, which isn't part of the operation count. Of multiple Workers the longest warmup is
+     * returned.
+     *
+     * @return the duration of the warmup in milliseconds or 0 if the test has no warmup
+     */
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    /**
+     * Returns the average number of bytes allocated per operation.
+     *
+     * @return the allocated bytes per operation or -1 if not measured
+     */
+    public double getAllocatedBytesPerOperation() {
+        return perOperation(allocatedBytes, operationCount);
+    }
+
+    /**
+     * Returns the average CPU time per operation.
+     *
+     * @return the CPU time in nanoseconds per operation or -1 if not measured
+     */
+    public double getCpuNanosPerOperation() {
+        return perOperation(cpuNanos, operationCount);
+    }
+
+    static double perOperation(long cost, long operationCount) {
+        if (cost < 0 || operationCount < 1) {
+            return NOT_MEASURED;
+        }
+        return cost / (double) operationCount;
+    }
+
     @Override
     public String toString() {
         return "PerformanceStats{"
@@ -180,6 +311,9 @@ public class PerformanceStats {
                 + ", intervalAvgLatencyNanos=" + intervalLatencyAvgNanos
                 + ", intervalLatency999PercentileNanos=" + intervalLatency999PercentileNanos
                 + ", intervalMaxLatencyNanos=" + intervalLatencyMaxNanos
+                + ", allocatedBytes=" + allocatedBytes
+                + ", cpuNanos=" + cpuNanos
+                + ", warmupMillis=" + warmupMillis
                 + '}';
     }
 
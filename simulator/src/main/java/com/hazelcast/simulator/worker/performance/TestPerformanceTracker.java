@@ -16,19 +16,29 @@
 package com.hazelcast.simulator.worker.performance;
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.Exemplar;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.test.TestException;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogWriter;
+import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.FormatUtils.humanReadableByteCount;
+import static com.hazelcast.simulator.worker.performance.PerformanceLogWriter.newPerformanceLogWriter;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static com.hazelcast.simulator.worker.performance.PerformanceStats.perOperation;
+import static com.hazelcast.simulator.worker.performance.ThreadCostSampler.NOT_MEASURED;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.isLatencyBreakdownProbe;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -38,6 +48,18 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * <p>
  * Holds a map of {@link Histogram} for each {@link com.hazelcast.simulator.probes.Probe} of a Simulator Test.
  *
+ * If the test has a warmup, the intervals of the warmup are written to separate files with a "-warmup" suffix and they are
+ * not sent to the coordinator; so the reported numbers only contain the steady state. See {@link Warmup}.
+ *
+ * The service time histograms of asynchronous timestep methods and the start lag histograms are only written to file; they
+ * are not part of the performance stats.
+ *
+ * Every interval the bytes allocated by the timestep threads and their CPU time are sampled, so the cost per operation can be
+ * reported. See {@link ThreadCostSampler}.
+ *
+ * The GC pauses and the safepoint time of the Worker in every interval are written next to the throughput, and the GC pauses
+ * are written to a histogram file of the test, so the latency outliers can be related to the pauses. See {@link PauseMonitor}.
+ *
  * This class has a shitty design due to conflated concerns due to file writing and remoting sending the histograms.
  * This is caused by the Recorder that gets reset when getIntervalHistogram is called. Meaning that writing to file
  * and sending to remote, needs to rely on the same set of Histograms to write/send.
@@ -45,12 +67,27 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public final class TestPerformanceTracker {
 
     private static final long ONE_SECOND_IN_MILLIS = SECONDS.toMillis(1);
+    private static final double WARMUP_LATENCY_PERCENTILE = 99;
+    private static final String WARMUP_SUFFIX = "-warmup";
+    // a timestep method name can't contain a dash, so this name can't clash with a probe
+    private static final String GC_PAUSE_HISTOGRAM_NAME = "gc-pause";
+    private static final Logger LOGGER = Logger.getLogger(TestPerformanceTracker.class);
 
     private final TestContainer testContainer;
     private final Map<String, HistogramLogWriter> histogramLogWriterMap = new HashMap<String, HistogramLogWriter>();
-    private final PerformanceLogWriter performanceLogWriter;
+    private final Map<String, HistogramLogWriter> warmupHistogramLogWriterMap = new HashMap<String, HistogramLogWriter>();
+    private final Map<String, ExemplarLogWriter> exemplarLogWriterMap = new HashMap<String, ExemplarLogWriter>();
+    private final Map<String, ExemplarLogWriter> warmupExemplarLogWriterMap = new HashMap<String, ExemplarLogWriter>();
+    private final Warmup warmup;
+    private final ThreadCostSampler threadCostSampler = new ThreadCostSampler();
+    private PerformanceLogWriter performanceLogWriter;
+    private PerformanceLogWriter warmupPerformanceLogWriter;
     private long lastUpdateMillis;
     private Map<String, Histogram> intervalHistogramMap;
+    private Map<String, Histogram> latencyBreakdownHistogramMap;
+    private Map<String, List<Exemplar>> intervalExemplarMap;
+    private String lastRateProfileSteps;
+    private String lastThreadCounts;
 
     private long iterationsDuringWarmup;
     private long lastIterations;
@@ -61,12 +98,25 @@ public final class TestPerformanceTracker {
     private long totalOperationCount;
     private double intervalThroughput;
     private double totalThroughput;
+    private long intervalAllocatedBytes = NOT_MEASURED;
+    private long intervalCpuNanos = NOT_MEASURED;
+    private long totalAllocatedBytes = NOT_MEASURED;
+    private long totalCpuNanos = NOT_MEASURED;
+    private Histogram lastPauseHistogram;
+    private long lastPauseNanos;
+    private long lastSafepointNanos;
+    private long intervalPauseNanos = NOT_MEASURED;
+    private long intervalSafepointNanos = NOT_MEASURED;
     private long nextUpdateMillis;
+    // the start of the measurements of the total throughput; the end of the warmup if there is one
+    private long measurementStartMillis;
+    private boolean warmupCompleted;
+    private boolean warmupInterval;
 
     public TestPerformanceTracker(TestContainer container) {
         this.testContainer = container;
-        this.performanceLogWriter = new PerformanceLogWriter(
-                new File(getUserDir(), "performance-" + container.getTestCase().getId() + ".csv"));
+        this.warmup = Warmup.load(container.getPropertyBinding());
+        this.warmupCompleted = warmup == null;
     }
 
     /**
@@ -77,15 +127,34 @@ public final class TestPerformanceTracker {
      * @return true if anything needs to be written; false otherwise
      */
     public boolean update(long updateIntervalMillis, long currentTimeMillis) {
-        if (skipUpdate(updateIntervalMillis, currentTimeMillis)) {
+        return update(updateIntervalMillis, currentTimeMillis, null);
+    }
+
+    /**
+     * Updates internal state, including the pauses of the Worker.
+     *
+     * @param updateIntervalMillis update interval in millis
+     * @param currentTimeMillis current time in millis
+     * @param pauseMonitor the monitor of the pauses of the Worker or {@code null} if the pauses aren't monitored
+     * @return true if anything needs to be written; false otherwise
+     */
+    boolean update(long updateIntervalMillis, long currentTimeMillis, PauseMonitor pauseMonitor) {
+        if (skipUpdate(updateIntervalMillis, currentTimeMillis, pauseMonitor)) {
             return false;
         }
 
+        long intervalStartMillis = lastUpdateMillis;
         makeUpdate(updateIntervalMillis, currentTimeMillis);
+        updatePauses(pauseMonitor, intervalStartMillis, currentTimeMillis);
+
+        this.warmupInterval = !warmupCompleted;
+        if (warmupInterval) {
+            updateWarmup(currentTimeMillis);
+        }
         return true;
     }
 
-    private boolean skipUpdate(long updateIntervalMillis, long currentTimeMillis) {
+    private boolean skipUpdate(long updateIntervalMillis, long currentTimeMillis, PauseMonitor pauseMonitor) {
         long runStartedMillis = testContainer.getRunStartedMillis();
 
         if (!testContainer.isRunning() || runStartedMillis == 0) {
@@ -99,8 +168,15 @@ public final class TestPerformanceTracker {
             for (Probe probe : testContainer.getProbeMap().values()) {
                 probe.reset();
             }
+            threadCostSampler.sample(testContainer.getThreadIds());
+            if (pauseMonitor != null) {
+                lastPauseHistogram = pauseMonitor.getPauseHistogram();
+                lastPauseNanos = pauseMonitor.getTotalPauseNanos();
+                lastSafepointNanos = pauseMonitor.getTotalSafepointNanos();
+            }
             lastUpdateMillis = currentTimeMillis;
             nextUpdateMillis = lastUpdateMillis + updateIntervalMillis;
+            measurementStartMillis = runStartedMillis;
             return true;
         }
 
@@ -109,7 +185,7 @@ public final class TestPerformanceTracker {
 
     private void makeUpdate(long updateIntervalMillis, long currentTimeMillis) {
         Map<String, Probe> probeMap = testContainer.getProbeMap();
-        Map<String, Histogram> intervalHistograms = new HashMap<String, Histogram>(probeMap.size());
+        Map<String, Histogram> intervalHistograms = readIntervalHistograms(probeMap, currentTimeMillis);
 
         long intervalPercentileLatency = -1;
         double intervalMean = -1;
@@ -118,18 +194,9 @@ public final class TestPerformanceTracker {
         long iterations = testContainer.iteration() - iterationsDuringWarmup;
         long intervalOperationCount = iterations - lastIterations;
 
-        for (Map.Entry<String, Probe> entry : probeMap.entrySet()) {
-            String probeName = entry.getKey();
-            Probe probe = entry.getValue();
-            if (!(probe instanceof HdrProbe)) {
-                continue;
-            }
-
-            HdrProbe hdrProbe = (HdrProbe) probe;
-            Histogram intervalHistogram = hdrProbe.getRecorder().getIntervalHistogram();
-            intervalHistogram.setStartTimeStamp(lastUpdateMillis);
-            intervalHistogram.setEndTimeStamp(currentTimeMillis);
-            intervalHistograms.put(probeName, intervalHistogram);
+        for (Map.Entry<String, Histogram> entry : intervalHistograms.entrySet()) {
+            Probe probe = probeMap.get(entry.getKey());
+            Histogram intervalHistogram = entry.getValue();
 
             long percentileValue = intervalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE);
             if (percentileValue > intervalPercentileLatency) {
@@ -151,8 +218,6 @@ public final class TestPerformanceTracker {
             }
         }
 
-        this.intervalHistogramMap = intervalHistograms;
-
         this.intervalLatency999PercentileNanos = intervalPercentileLatency;
         this.intervalLatencyAvgNanos = intervalMean;
         this.intervalLatencyMaxNanos = intervalMaxLatency;
@@ -161,14 +226,151 @@ public final class TestPerformanceTracker {
         this.totalOperationCount += intervalOperationCount;
 
         long intervalTimeDelta = currentTimeMillis - lastUpdateMillis;
-        long totalTimeDelta = currentTimeMillis - testContainer.getRunStartedMillis();
+        long totalTimeDelta = currentTimeMillis - measurementStartMillis;
 
         this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
         this.totalThroughput = (totalOperationCount * ONE_SECOND_IN_MILLIS / (double) totalTimeDelta);
 
+        updateCost();
+
         this.lastIterations = iterations;
-        this.nextUpdateMillis += updateIntervalMillis;
         this.lastUpdateMillis = currentTimeMillis;
+        scheduleNextUpdate(updateIntervalMillis, currentTimeMillis);
+    }
+
+    private void updateCost() {
+        threadCostSampler.sample(testContainer.getThreadIds());
+        this.intervalAllocatedBytes = threadCostSampler.allocatedBytesDelta();
+        this.intervalCpuNanos = threadCostSampler.cpuNanosDelta();
+        this.totalAllocatedBytes = addCost(totalAllocatedBytes, intervalAllocatedBytes);
+        this.totalCpuNanos = addCost(totalCpuNanos, intervalCpuNanos);
+    }
+
+    private static long addCost(long total, long delta) {
+        if (delta == NOT_MEASURED) {
+            return total;
+        }
+        return total == NOT_MEASURED ? delta : total + delta;
+    }
+
+    /**
+     * Determines the pauses of the Worker in the interval. The GC pause histogram is written to file with the histograms of
+     * the probes, but it is not part of the performance stats.
+     */
+    private void updatePauses(PauseMonitor pauseMonitor, long intervalStartMillis, long currentTimeMillis) {
+        if (pauseMonitor == null || lastPauseHistogram == null) {
+            return;
+        }
+
+        Histogram pauseHistogram = pauseMonitor.getPauseHistogram();
+        Histogram intervalPauseHistogram = pauseHistogram.copy();
+        intervalPauseHistogram.subtract(lastPauseHistogram);
+        intervalPauseHistogram.setStartTimeStamp(intervalStartMillis);
+        intervalPauseHistogram.setEndTimeStamp(currentTimeMillis);
+        latencyBreakdownHistogramMap.put(GC_PAUSE_HISTOGRAM_NAME, intervalPauseHistogram);
+        lastPauseHistogram = pauseHistogram;
+
+        long pauseNanos = pauseMonitor.getTotalPauseNanos();
+        intervalPauseNanos = pauseNanos - lastPauseNanos;
+        lastPauseNanos = pauseNanos;
+
+        long safepointNanos = pauseMonitor.getTotalSafepointNanos();
+        intervalSafepointNanos = safepointNanos == NOT_MEASURED ? NOT_MEASURED : safepointNanos - lastSafepointNanos;
+        lastSafepointNanos = safepointNanos;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos == NOT_MEASURED ? NOT_MEASURED : nanos / (double) MILLISECONDS.toNanos(1);
+    }
+
+    private void updateWarmup(long currentTimeMillis) {
+        long intervalWarmupLatency = 0;
+        for (Histogram intervalHistogram : intervalHistogramMap.values()) {
+            intervalWarmupLatency = Math.max(intervalWarmupLatency,
+                    intervalHistogram.getValueAtPercentile(WARMUP_LATENCY_PERCENTILE));
+        }
+
+        long elapsedMillis = currentTimeMillis - testContainer.getRunStartedMillis();
+        if (!warmup.complete(elapsedMillis, intervalThroughput, intervalWarmupLatency)) {
+            return;
+        }
+
+        String testId = testContainer.getTestCase().getId();
+        if (warmup.isAuto() && !warmup.isStable()) {
+            LOGGER.warn(format("%s warmup is not stable after %d ms, the steady state measurements start anyway",
+                    testId, elapsedMillis));
+        } else {
+            LOGGER.info(format("%s warmup completed after %d ms", testId, elapsedMillis));
+        }
+
+        // the steady state measurements start after this interval
+        warmupCompleted = true;
+        totalOperationCount = 0;
+        totalAllocatedBytes = NOT_MEASURED;
+        totalCpuNanos = NOT_MEASURED;
+        measurementStartMillis = currentTimeMillis;
+    }
+
+    /**
+     * Reads the interval histograms of the probes. The service time and start lag histograms are kept apart, since they are
+     * only written to file; the performance stats and the histograms sent to the coordinator are based on the response times.
+     */
+    private Map<String, Histogram> readIntervalHistograms(Map<String, Probe> probeMap, long currentTimeMillis) {
+        Map<String, Histogram> intervalHistograms = new HashMap<String, Histogram>(probeMap.size());
+        Map<String, Histogram> latencyBreakdownHistograms = new HashMap<String, Histogram>();
+        Map<String, List<Exemplar>> intervalExemplars = new HashMap<String, List<Exemplar>>();
+        for (Map.Entry<String, Probe> entry : probeMap.entrySet()) {
+            String probeName = entry.getKey();
+            Probe probe = entry.getValue();
+            if (!(probe instanceof HdrProbe)) {
+                continue;
+            }
+
+            HdrProbe hdrProbe = (HdrProbe) probe;
+            if (hdrProbe.getExemplarCount() > 0) {
+                intervalExemplars.put(probeName, hdrProbe.getIntervalExemplars());
+            }
+
+            Histogram intervalHistogram = hdrProbe.getIntervalHistogram();
+            intervalHistogram.setStartTimeStamp(lastUpdateMillis);
+            intervalHistogram.setEndTimeStamp(currentTimeMillis);
+            if (isLatencyBreakdownProbe(probeName)) {
+                latencyBreakdownHistograms.put(probeName, intervalHistogram);
+            } else {
+                intervalHistograms.put(probeName, intervalHistogram);
+            }
+        }
+
+        this.intervalHistogramMap = intervalHistograms;
+        this.latencyBreakdownHistogramMap = latencyBreakdownHistograms;
+        this.intervalExemplarMap = intervalExemplars;
+        return intervalHistograms;
+    }
+
+    private void scheduleNextUpdate(long updateIntervalMillis, long currentTimeMillis) {
+        nextUpdateMillis += updateIntervalMillis;
+        if (nextUpdateMillis <= currentTimeMillis) {
+            // we have missed one or more intervals, e.g. due to a long GC; we skip them instead of
+            // doing a burst of updates with very short intervals
+            long missedIntervals = (currentTimeMillis - nextUpdateMillis) / updateIntervalMillis + 1;
+            nextUpdateMillis += missedIntervals * updateIntervalMillis;
+        }
+    }
+
+    /**
+     * Returns the time on which this tracker needs to be updated next.
+     *
+     * @return the time in millis or 0 if the test isn't running
+     */
+    long nextUpdateMillis() {
+        if (!testContainer.isRunning() || lastUpdateMillis == 0) {
+            return 0;
+        }
+        return nextUpdateMillis;
+    }
+
+    Map<String, Histogram> intervalHistograms() {
+        return intervalHistogramMap;
     }
 
     long intervalOperationCount() {
@@ -183,27 +385,180 @@ public final class TestPerformanceTracker {
         return intervalThroughput;
     }
 
-    void persist(long currentTimeMillis, String currentTimeString) {
+    /**
+     * Checks if the last interval was part of the warmup.
+     *
+     * @return {@code true} if the last interval was part of the warmup, {@code false} otherwise
+     */
+    boolean isWarmupInterval() {
+        return warmupInterval;
+    }
+
+    void persist(long currentTimeMillis, String currentTimeString, PerformanceLogFormat logFormat) {
+        if (warmupInterval) {
+            persistWarmup(currentTimeMillis, currentTimeString, logFormat);
+            return;
+        }
+
+        if (performanceLogWriter == null) {
+            performanceLogWriter = newPerformanceLogWriter(
+                    getUserDir(), "performance-" + testContainer.getTestCase().getId(), logFormat);
+        }
+
+        String marker = nextMarker();
+
         performanceLogWriter.write(
                 currentTimeMillis,
                 currentTimeString,
                 totalOperationCount,
                 intervalOperationCount,
-                intervalThroughput);
+                intervalThroughput,
+                perOperation(intervalAllocatedBytes, intervalOperationCount),
+                perOperation(intervalCpuNanos, intervalOperationCount),
+                toMillis(intervalPauseNanos),
+                toMillis(intervalSafepointNanos),
+                marker);
 
         // dumps all the Histograms that have been collected to file.
-        for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
+        writeHistograms(histogramLogWriterMap, "", marker);
+        writeExemplars(exemplarLogWriterMap, "", currentTimeMillis);
+
+        performanceLogWriter.flush();
+    }
+
+    /**
+     * Returns the events which are marked in the performance logs: a new step of a rate profile or a changed number of
+     * threads, so the throughput and latency can be related to the rate and the concurrency.
+     */
+    private String nextMarker() {
+        String marker = null;
+        String rateProfileSteps = testContainer.describeRateProfileSteps();
+        if (rateProfileSteps != null && !rateProfileSteps.equals(lastRateProfileSteps)) {
+            marker = rateProfileSteps;
+            lastRateProfileSteps = rateProfileSteps;
+        }
+
+        String threadCounts = testContainer.describeThreadCounts();
+        if (threadCounts != null && !threadCounts.equals(lastThreadCounts)) {
+            marker = marker == null ? threadCounts : marker + "; " + threadCounts;
+            lastThreadCounts = threadCounts;
+        }
+        return marker;
+    }
+
+    private void persistWarmup(long currentTimeMillis, String currentTimeString, PerformanceLogFormat logFormat) {
+        if (warmupPerformanceLogWriter == null) {
+            warmupPerformanceLogWriter = newPerformanceLogWriter(
+                    getUserDir(), "performance-" + testContainer.getTestCase().getId() + WARMUP_SUFFIX, logFormat);
+        }
+
+        warmupPerformanceLogWriter.write(
+                currentTimeMillis,
+                currentTimeString,
+                totalOperationCount,
+                intervalOperationCount,
+                intervalThroughput,
+                perOperation(intervalAllocatedBytes, intervalOperationCount),
+                perOperation(intervalCpuNanos, intervalOperationCount),
+                toMillis(intervalPauseNanos),
+                toMillis(intervalSafepointNanos),
+                null);
+
+        writeHistograms(warmupHistogramLogWriterMap, WARMUP_SUFFIX, null);
+        writeExemplars(warmupExemplarLogWriterMap, WARMUP_SUFFIX, currentTimeMillis);
+
+        warmupPerformanceLogWriter.flush();
+    }
+
+    private void writeHistograms(Map<String, HistogramLogWriter> writerMap, String suffix, String marker) {
+        writeHistograms(writerMap, intervalHistogramMap, suffix, marker);
+        writeHistograms(writerMap, latencyBreakdownHistogramMap, suffix, marker);
+    }
+
+    private void writeHistograms(Map<String, HistogramLogWriter> writerMap, Map<String, Histogram> histograms, String suffix,
+                                 String marker) {
+        for (Map.Entry<String, Histogram> histogramEntry : histograms.entrySet()) {
             String probeName = histogramEntry.getKey();
-            HistogramLogWriter histogramLogWriter = histogramLogWriterMap.get(probeName);
+            HistogramLogWriter histogramLogWriter = writerMap.get(probeName);
             if (histogramLogWriter == null) {
-                histogramLogWriter = createHistogramLogWriter(probeName);
-                histogramLogWriterMap.put(probeName, histogramLogWriter);
+                histogramLogWriter = createHistogramLogWriter(probeName + suffix);
+                writerMap.put(probeName, histogramLogWriter);
+            }
+            if (marker != null) {
+                histogramLogWriter.outputComment("[" + marker + ']');
             }
             Histogram intervalHistogram = histogramEntry.getValue();
             histogramLogWriter.outputIntervalHistogram(intervalHistogram);
         }
     }
 
+    private void writeExemplars(Map<String, ExemplarLogWriter> writerMap, String suffix, long currentTimeMillis) {
+        for (Map.Entry<String, List<Exemplar>> exemplarsEntry : intervalExemplarMap.entrySet()) {
+            String probeName = exemplarsEntry.getKey();
+            ExemplarLogWriter exemplarLogWriter = writerMap.get(probeName);
+            if (exemplarLogWriter == null) {
+                String testId = testContainer.getTestCase().getId();
+                exemplarLogWriter = new ExemplarLogWriter(
+                        new File(getUserDir(), testId + '-' + probeName + suffix + "-exemplars.csv"));
+                writerMap.put(probeName, exemplarLogWriter);
+            }
+            exemplarLogWriter.write(currentTimeMillis, exemplarsEntry.getValue());
+        }
+    }
+
+    /**
+     * Closes the performance log, the latency files and the exemplar files of the test.
+     *
+     * It also logs the memory used by the histograms of each probe, since a higher resolution or precision of the histograms
+     * multiplied by the number of probes and threads adds up.
+     */
+    void close() {
+        logHistogramFootprints();
+
+        if (performanceLogWriter != null) {
+            performanceLogWriter.close();
+        }
+        if (warmupPerformanceLogWriter != null) {
+            warmupPerformanceLogWriter.close();
+        }
+
+        closeHistogramLogWriters(histogramLogWriterMap);
+        closeHistogramLogWriters(warmupHistogramLogWriterMap);
+        closeExemplarLogWriters(exemplarLogWriterMap);
+        closeExemplarLogWriters(warmupExemplarLogWriterMap);
+    }
+
+    private void logHistogramFootprints() {
+        String testId = testContainer.getTestCase().getId();
+        for (Map.Entry<String, Probe> entry : testContainer.getProbeMap().entrySet()) {
+            Probe probe = entry.getValue();
+            if (!(probe instanceof HdrProbe)) {
+                continue;
+            }
+
+            HdrProbe hdrProbe = (HdrProbe) probe;
+            long footprintInBytes = hdrProbe.getEstimatedFootprintInBytes();
+            if (footprintInBytes > 0) {
+                LOGGER.info(format("%s probe %s used %s for its histograms with %s", testId, entry.getKey(),
+                        humanReadableByteCount(footprintInBytes, false), hdrProbe.getHistogramSettings()));
+            }
+        }
+    }
+
+    private static void closeExemplarLogWriters(Map<String, ExemplarLogWriter> writerMap) {
+        for (ExemplarLogWriter exemplarLogWriter : writerMap.values()) {
+            exemplarLogWriter.close();
+        }
+        writerMap.clear();
+    }
+
+    private static void closeHistogramLogWriters(Map<String, HistogramLogWriter> writerMap) {
+        for (HistogramLogWriter histogramLogWriter : writerMap.values()) {
+            histogramLogWriter.close();
+        }
+        writerMap.clear();
+    }
+
     PerformanceStats createPerformanceStats() {
         return new PerformanceStats(
                 totalOperationCount,
@@ -211,7 +566,10 @@ public final class TestPerformanceTracker {
                 totalThroughput,
                 intervalLatencyAvgNanos,
                 intervalLatency999PercentileNanos,
-                intervalLatencyMaxNanos);
+                intervalLatencyMaxNanos,
+                totalAllocatedBytes,
+                totalCpuNanos,
+                measurementStartMillis - testContainer.getRunStartedMillis());
     }
 
     HistogramLogWriter createHistogramLogWriter(String probeName) {
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import org.apache.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Samples the bytes allocated by a set of threads and their CPU time, using the {@link ThreadMXBean}.
+ *
+ * Every sample returns the increase since the previous sample; a thread which is sampled for the first time contributes
+ * everything since it was started. A thread which has terminated can't be sampled anymore, so what it did after its previous
+ * sample is lost. This is at most a single interval of a retired timestep thread.
+ *
+ * The allocated bytes are only available on JVMs which provide {@link com.sun.management.ThreadMXBean}, e.g. HotSpot. The
+ * {@link ThreadMXBean} doesn't report on virtual threads, so if none of the threads could be sampled, the cost is not measured.
+ */
+final class ThreadCostSampler {
+
+    static final long NOT_MEASURED = -1;
+
+    private static final Logger LOGGER = Logger.getLogger(ThreadCostSampler.class);
+
+    private final ThreadMXBean threadMXBean;
+    private final boolean allocatedBytesEnabled;
+    private final boolean cpuTimeEnabled;
+    private Map<Long, long[]> lastSamples = new HashMap<Long, long[]>();
+    private long allocatedBytesDelta = NOT_MEASURED;
+    private long cpuNanosDelta = NOT_MEASURED;
+
+    ThreadCostSampler() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    ThreadCostSampler(ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+        this.allocatedBytesEnabled = enableAllocatedBytes(threadMXBean);
+        this.cpuTimeEnabled = enableCpuTime(threadMXBean);
+    }
+
+    private static boolean enableAllocatedBytes(ThreadMXBean threadMXBean) {
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            LOGGER.info("The allocated bytes per operation are not measured, since the JVM doesn't support it");
+            return false;
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            LOGGER.info("The allocated bytes per operation are not measured, since the JVM doesn't support it");
+            return false;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return true;
+    }
+
+    private static boolean enableCpuTime(ThreadMXBean threadMXBean) {
+        if (!threadMXBean.isThreadCpuTimeSupported()) {
+            LOGGER.info("The CPU time per operation is not measured, since the JVM doesn't support it");
+            return false;
+        }
+        if (!threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        return true;
+    }
+
+    /**
+     * Samples the threads.
+     *
+     * @param threadIds the ids of the threads to sample
+     */
+    void sample(long[] threadIds) {
+        Map<Long, long[]> samples = new HashMap<Long, long[]>();
+        long allocatedBytes = 0;
+        long cpuNanos = 0;
+        for (long threadId : threadIds) {
+            long[] sample = sampleThread(threadId);
+            if (sample == null) {
+                continue;
+            }
+
+            long[] lastSample = lastSamples.get(threadId);
+            allocatedBytes += lastSample == null ? sample[0] : sample[0] - lastSample[0];
+            cpuNanos += lastSample == null ? sample[1] : sample[1] - lastSample[1];
+            samples.put(threadId, sample);
+        }
+
+        // e.g. virtual threads and terminated threads can't be sampled; then nothing is measured instead of a cost of 0
+        boolean measured = !samples.isEmpty();
+        this.allocatedBytesDelta = measured && allocatedBytesEnabled ? allocatedBytes : NOT_MEASURED;
+        this.cpuNanosDelta = measured && cpuTimeEnabled ? cpuNanos : NOT_MEASURED;
+        this.lastSamples = samples;
+    }
+
+    /**
+     * Returns the allocated bytes and CPU time of a thread, 0 for the values which aren't measured.
+     *
+     * @return the sample or {@code null} if the thread has terminated
+     */
+    private long[] sampleThread(long threadId) {
+        long allocatedBytes = allocatedBytesEnabled
+                ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId)
+                : 0;
+        long cpuNanos = cpuTimeEnabled ? threadMXBean.getThreadCpuTime(threadId) : 0;
+        if (allocatedBytes < 0 || cpuNanos < 0) {
+            return null;
+        }
+        return new long[]{allocatedBytes, cpuNanos};
+    }
+
+    /**
+     * Returns the bytes allocated by the threads between the last two samples.
+     *
+     * @return the allocated bytes or -1 if not measured
+     */
+    long allocatedBytesDelta() {
+        return allocatedBytesDelta;
+    }
+
+    /**
+     * Returns the CPU time of the threads between the last two samples.
+     *
+     * @return the CPU time in nanoseconds or -1 if not measured
+     */
+    long cpuNanosDelta() {
+        return cpuNanosDelta;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Decides when the warmup of a test is completed, so the steady state measurements exclude the JIT compilation and cache
+ * fill effects at the start of a run.
+ *
+ * The warmup is configured with the {@code warmup} property of a test:
+ * <ol>
+ * <li>a duration, e.g. {@code warmup=30s}: the warmup ends once the duration has passed</li>
+ * <li>{@code warmup=auto}: the warmup ends once the throughput and the 99th percentile latency of the last
+ * {@value #STABLE_INTERVALS} intervals differ less than {@code warmupTolerance} (default 0.2), or when
+ * {@code warmupMaxDuration} (default 5m) has passed</li>
+ * </ol>
+ */
+final class Warmup {
+
+    static final int STABLE_INTERVALS = 3;
+
+    private static final String AUTO = "auto";
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    private static final long DEFAULT_MAX_DURATION_MILLIS = MINUTES.toMillis(5);
+
+    private final boolean auto;
+    private final long durationMillis;
+    private final double tolerance;
+    private final double[] throughputs = new double[STABLE_INTERVALS];
+    private final long[] latencies = new long[STABLE_INTERVALS];
+    private int intervals;
+
+    Warmup(boolean auto, long durationMillis, double tolerance) {
+        if (durationMillis <= 0) {
+            throw new IllegalTestException(format("warmup duration should be larger than 0, found: %d ms", durationMillis));
+        }
+        if (tolerance < 0 || Double.isNaN(tolerance)) {
+            throw new IllegalTestException(format("warmupTolerance can't be negative, found: %s", tolerance));
+        }
+
+        this.auto = auto;
+        this.durationMillis = durationMillis;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Loads the warmup of a test.
+     *
+     * @param binding the binding of the test properties
+     * @return the warmup or {@code null} if no warmup is configured
+     * @throws IllegalTestException if the warmup is configured incorrectly
+     */
+    static Warmup load(PropertyBinding binding) {
+        String warmup = binding.load("warmup");
+        String maxDuration = binding.load("warmupMaxDuration");
+        double tolerance = binding.loadAsDouble("warmupTolerance", DEFAULT_TOLERANCE);
+        if (warmup == null) {
+            return null;
+        }
+
+        if (AUTO.equals(warmup)) {
+            long maxDurationMillis = maxDuration == null
+                    ? DEFAULT_MAX_DURATION_MILLIS
+                    : NANOSECONDS.toMillis(parseInterval("warmupMaxDuration", maxDuration));
+            return new Warmup(true, maxDurationMillis, tolerance);
+        }
+        return new Warmup(false, NANOSECONDS.toMillis(parseInterval("warmup", warmup)), tolerance);
+    }
+
+    /**
+     * Adds the measurements of an interval and checks if the warmup is completed with this interval.
+     *
+     * @param elapsedMillis       the time since the start of the run
+     * @param throughput          the throughput of the interval
+     * @param percentileLatency   the 99th percentile latency of the interval
+     * @return {@code true} if the warmup is completed, {@code false} otherwise
+     */
+    boolean complete(long elapsedMillis, double throughput, long percentileLatency) {
+        throughputs[intervals % STABLE_INTERVALS] = throughput;
+        latencies[intervals % STABLE_INTERVALS] = percentileLatency;
+        intervals++;
+
+        if (elapsedMillis >= durationMillis) {
+            return true;
+        }
+        return auto && intervals >= STABLE_INTERVALS && isStable();
+    }
+
+    /**
+     * Checks if the warmup was ended since the measurements were stable; so not because the (maximum) duration passed.
+     */
+    boolean isStable() {
+        return spread(throughputs) <= tolerance && spread(toDoubles(latencies)) <= tolerance;
+    }
+
+    boolean isAuto() {
+        return auto;
+    }
+
+    long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private static double spread(double[] values) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double value : values) {
+            min = min(min, value);
+            max = max(max, value);
+        }
+        return max == 0 ? 0 : (max - min) / max;
+    }
+
+    private static double[] toDoubles(long[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+}
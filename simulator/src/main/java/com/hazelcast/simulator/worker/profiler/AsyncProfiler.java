@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.profiler;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+
+import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
+import static com.hazelcast.simulator.utils.FileUtils.newFile;
+
+/**
+ * Records an async-profiler flame graph.
+ *
+ * The async-profiler Java API is invoked by reflection, so Simulator has no dependency on it. It is only available if the
+ * async-profiler jar has been copied to the {@code user-lib} directory, which is on the classpath of the Worker. The native
+ * library is loaded from the same directory, or else from the library path of the JVM.
+ */
+final class AsyncProfiler extends Profiler {
+
+    static final String CLASS_NAME = "one.profiler.AsyncProfiler";
+    static final String LIBRARY_NAME = "libasyncProfiler.so";
+
+    private static final String DEFAULT_EVENT = "cpu";
+
+    @Override
+    String getExtension() {
+        return ".html";
+    }
+
+    @Override
+    void start(File file, String settings) throws Exception {
+        execute("start,event=" + (settings == null ? DEFAULT_EVENT : settings));
+    }
+
+    @Override
+    void stop(File file) throws Exception {
+        execute("stop,file=" + file.getAbsolutePath());
+    }
+
+    private static void execute(String command) throws Exception {
+        Class<?> profilerClass;
+        try {
+            profilerClass = Class.forName(CLASS_NAME);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("async-profiler is not found, copy the async-profiler jar and "
+                    + LIBRARY_NAME + " to the user-lib directory of Simulator", e);
+        }
+
+        try {
+            File library = newFile(getSimulatorHome(), "user-lib", LIBRARY_NAME);
+            Object profiler = library.exists()
+                    ? profilerClass.getMethod("getInstance", String.class).invoke(null, library.getAbsolutePath())
+                    : profilerClass.getMethod("getInstance").invoke(null);
+            profilerClass.getMethod("execute", String.class).invoke(profiler, command);
+        } catch (InvocationTargetException e) {
+            // e.g. an UnsatisfiedLinkError if the native library is not found, which should not kill the Worker
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new IllegalStateException("async-profiler failed: " + cause, cause);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.profiler;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records a JDK Flight Recorder recording by invoking the {@code JFR.start} and {@code JFR.stop} diagnostic commands on the
+ * DiagnosticCommand MBean, so no command line options or tools are needed. On Java 8 the Worker needs to be started with
+ * {@code -XX:+UnlockCommercialFeatures}.
+ */
+final class JfrProfiler extends Profiler {
+
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+    private static final String DEFAULT_SETTINGS = "profile";
+
+    @Override
+    String getExtension() {
+        return ".jfr";
+    }
+
+    @Override
+    void start(File file, String settings) throws Exception {
+        execute("jfrStart",
+                "name=" + file.getName(),
+                "settings=" + (settings == null ? DEFAULT_SETTINGS : settings),
+                "filename=" + file.getAbsolutePath());
+    }
+
+    @Override
+    void stop(File file) throws Exception {
+        execute("jfrStop",
+                "name=" + file.getName(),
+                "filename=" + file.getAbsolutePath());
+    }
+
+    private static void execute(String command, String... args) throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.invoke(new ObjectName(DIAGNOSTIC_COMMAND), command, new Object[]{args}, new String[]{String[].class.getName()});
+    }
+}
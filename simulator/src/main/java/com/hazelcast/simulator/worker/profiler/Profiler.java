@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.profiler;
+
+import java.io.File;
+
+import static java.lang.String.format;
+
+/**
+ * A profiler which records the behavior of the Worker JVM to a file.
+ *
+ * The supported profilers are:
+ * <ol>
+ * <li>{@value #JFR}: a JDK Flight Recorder recording, the settings are the name or path of a JFR configuration (default
+ * {@code profile})</li>
+ * <li>{@value #ASYNC_PROFILER}: an async-profiler flame graph, the settings are the profiled event (default {@code cpu}).
+ * The async-profiler jar and {@code libasyncProfiler.so} need to be copied to the {@code user-lib} directory of
+ * Simulator.</li>
+ * </ol>
+ */
+abstract class Profiler {
+
+    static final String JFR = "jfr";
+    static final String ASYNC_PROFILER = "async-profiler";
+
+    /**
+     * Creates a profiler by its name.
+     *
+     * @param name the name of the profiler
+     * @return the created profiler
+     * @throws IllegalArgumentException if the profiler is unknown
+     */
+    static Profiler newProfiler(String name) {
+        if (JFR.equals(name)) {
+            return new JfrProfiler();
+        } else if (ASYNC_PROFILER.equals(name)) {
+            return new AsyncProfiler();
+        }
+        throw new IllegalArgumentException(format("Unknown profiler [%s], supported profilers are [%s, %s]",
+                name, JFR, ASYNC_PROFILER));
+    }
+
+    /**
+     * Returns the extension of the files written by this profiler.
+     */
+    abstract String getExtension();
+
+    /**
+     * Starts profiling.
+     *
+     * @param file     the file the profile will be written to
+     * @param settings the profiler specific settings or {@code null} for the defaults
+     * @throws Exception if the profiler could not be started
+     */
+    abstract void start(File file, String settings) throws Exception;
+
+    /**
+     * Stops profiling and writes the profile.
+     *
+     * @param file the file the profile is written to
+     * @throws Exception if the profiler could not be stopped
+     */
+    abstract void stop(File file) throws Exception;
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.profiler;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Profiles a test while it is in the RUN phase, so the profile matches the window in which the performance is measured.
+ *
+ * The profiler is configured with the following properties of a test:
+ * <ol>
+ * <li>{@code profiler}: the profiler to use, {@code jfr} or {@code async-profiler}; if not set the test isn't profiled</li>
+ * <li>{@code profilerSettings}: the profiler specific settings, see {@link Profiler}</li>
+ * <li>{@code profilerDelay}: the time between the start of the run and the start of the profiler, e.g. to skip the
+ * warmup (default 0)</li>
+ * <li>{@code profilerDuration}: the duration of the profile (default until the end of the run)</li>
+ * </ol>
+ * A running test can also be profiled on demand with the {@code test-profile} command of the Coordinator Remote.
+ *
+ * The profiles are written to the Worker directory, so they are collected by the download of the Worker artifacts. A
+ * failing profiler is logged, but doesn't fail the test.
+ */
+public class TestProfiler {
+
+    private static final Logger LOGGER = Logger.getLogger(TestProfiler.class);
+
+    private final String testId;
+    private final File directory;
+    private final String profilerName;
+    private final String settings;
+    private final long delayMillis;
+    private final long durationMillis;
+
+    private ProfilerSession session;
+    private int sessionCount;
+
+    public TestProfiler(PropertyBinding binding, String testId) {
+        this(binding, testId, getUserDir());
+    }
+
+    TestProfiler(PropertyBinding binding, String testId, File directory) {
+        this.testId = testId;
+        this.directory = directory;
+        this.profilerName = binding.load("profiler");
+        this.settings = binding.load("profilerSettings");
+        this.delayMillis = toMillis("profilerDelay", binding.load("profilerDelay"));
+        this.durationMillis = toMillis("profilerDuration", binding.load("profilerDuration"));
+
+        if (profilerName != null) {
+            try {
+                Profiler.newProfiler(profilerName);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalTestException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Converts a duration like {@code 30s} to milliseconds.
+     *
+     * @param property the name of the duration
+     * @param value    the duration or {@code null}
+     * @return the duration in milliseconds or 0 if the value is {@code null} or empty
+     * @throws IllegalTestException if the duration is invalid
+     */
+    public static long toMillis(String property, String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        return NANOSECONDS.toMillis(parseInterval(property, value));
+    }
+
+    /**
+     * Starts the profiler configured by the test properties, if any. Called when the RUN phase starts.
+     */
+    public void onRunStarted() {
+        if (profilerName == null) {
+            return;
+        }
+
+        try {
+            start(profilerName, settings, delayMillis, durationMillis);
+        } catch (Exception e) {
+            LOGGER.warn(format("Failed to start profiler [%s] of test [%s]", profilerName, testId), e);
+        }
+    }
+
+    /**
+     * Stops the running profiler, if any. Called when the RUN phase completes, so a profile never exceeds the run.
+     */
+    public void onRunCompleted() {
+        stop();
+    }
+
+    /**
+     * Starts profiling the test.
+     *
+     * If there is no delay, the profiler is started before this method returns, so a profiler which can't be started is
+     * reported to the caller.
+     *
+     * @param name           the name of the profiler
+     * @param settings       the profiler specific settings or {@code null} for the defaults
+     * @param delayMillis    the delay before the profiler is started
+     * @param durationMillis the duration of the profile or 0 to profile until the profiler is stopped
+     * @return the file the profile will be written to
+     * @throws IllegalStateException    if the test is already being profiled
+     * @throws IllegalArgumentException if the profiler is unknown
+     * @throws Exception                if the profiler could not be started
+     */
+    public synchronized File start(String name, String settings, long delayMillis, long durationMillis) throws Exception {
+        if (session != null && session.isAlive()) {
+            throw new IllegalStateException(format("Test [%s] is already being profiled to %s", testId, session.file.getName()));
+        }
+
+        Profiler profiler = newProfiler(name);
+        sessionCount++;
+        File file = new File(directory, testId + "-" + name + "-" + sessionCount + profiler.getExtension());
+        ProfilerSession newSession = new ProfilerSession(profiler, file, settings, delayMillis, durationMillis);
+        if (delayMillis == 0) {
+            newSession.startProfiler();
+        }
+        newSession.start();
+        session = newSession;
+        return file;
+    }
+
+    /**
+     * Stops profiling the test and waits till the profile has been written.
+     *
+     * @return the file the profile has been written to or {@code null} if no profile was written
+     */
+    public synchronized File stop() {
+        if (session == null) {
+            return null;
+        }
+
+        ProfilerSession stoppedSession = session;
+        session = null;
+        stoppedSession.shutdown();
+        return stoppedSession.written ? stoppedSession.file : null;
+    }
+
+    Profiler newProfiler(String name) {
+        return Profiler.newProfiler(name);
+    }
+
+    private final class ProfilerSession extends Thread {
+
+        private final CountDownLatch stopLatch = new CountDownLatch(1);
+        private final Profiler profiler;
+        private final File file;
+        private final String settings;
+        private final long delayMillis;
+        private final long durationMillis;
+
+        private volatile boolean started;
+        private volatile boolean written;
+
+        ProfilerSession(Profiler profiler, File file, String settings, long delayMillis, long durationMillis) {
+            super("ProfilerSession-" + file.getName());
+            setDaemon(true);
+            this.profiler = profiler;
+            this.file = file;
+            this.settings = settings;
+            this.delayMillis = delayMillis;
+            this.durationMillis = durationMillis;
+        }
+
+        void startProfiler() throws Exception {
+            profiler.start(file, settings);
+            started = true;
+            LOGGER.info(format("Started profiling test [%s] to %s", testId, file.getAbsolutePath()));
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!started) {
+                    if (stopLatch.await(delayMillis, MILLISECONDS)) {
+                        return;
+                    }
+                    startProfiler();
+                }
+
+                if (durationMillis > 0) {
+                    stopLatch.await(durationMillis, MILLISECONDS);
+                } else {
+                    stopLatch.await();
+                }
+
+                profiler.stop(file);
+                written = true;
+                LOGGER.info(format("Profile of test [%s] written to %s", testId, file.getAbsolutePath()));
+            } catch (Exception e) {
+                LOGGER.warn(format("Failed to profile test [%s] to %s", testId, file.getAbsolutePath()), e);
+            }
+        }
+
+        void shutdown() {
+            stopLatch.countDown();
+            joinThread(this);
+        }
+    }
+}
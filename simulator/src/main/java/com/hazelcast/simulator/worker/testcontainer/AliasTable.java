@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects an index with a given probability in constant time, using the alias method of Vose.
+ *
+ * The table is immutable and can be shared between threads; the random value is provided by the caller, so selecting an
+ * index doesn't allocate and doesn't cause any contention. The resolution of the probabilities is 2^-32 per index, so
+ * very small probabilities like 0.0001 are supported without the memory cost of a lookup array.
+ */
+public final class AliasTable {
+
+    private static final int RANDOM_BITS = 32;
+    private static final long RANDOM_MASK = 0xFFFFFFFFL;
+    private static final double RANDOM_RANGE = 1L << RANDOM_BITS;
+
+    // the probability that a column selects itself and not its alias, scaled to [0, 2^32]
+    private final long[] thresholds;
+    private final int[] aliases;
+
+    /**
+     * Creates an alias table.
+     *
+     * @param weights the relative weights of the indices, they don't need to sum up to 1
+     * @throws IllegalArgumentException if no weights are given, a weight is negative or the sum of the weights isn't positive
+     */
+    public AliasTable(double... weights) {
+        double sum = sum(weights);
+
+        this.thresholds = new long[weights.length];
+        this.aliases = new int[weights.length];
+
+        double[] scaled = new double[weights.length];
+        for (int index = 0; index < weights.length; index++) {
+            scaled[index] = weights[index] * weights.length / sum;
+        }
+        pairColumns(scaled);
+    }
+
+    /**
+     * Creates the alias table for the active {@link com.hazelcast.simulator.test.annotations.TimeStep} methods.
+     *
+     * @param probabilities the probabilities of the methods
+     * @param activeMethods the active methods; the index returned by {@link #select(long)} refers to this list
+     * @return the created alias table or {@code null} if there are less than two active methods
+     */
+    public static AliasTable newTimeStepAliasTable(Map<Method, Probability> probabilities, List<Method> activeMethods) {
+        if (activeMethods.size() < 2) {
+            return null;
+        }
+
+        double[] weights = new double[activeMethods.size()];
+        for (int methodIndex = 0; methodIndex < weights.length; methodIndex++) {
+            weights[methodIndex] = probabilities.get(activeMethods.get(methodIndex)).getValue();
+        }
+        return new AliasTable(weights);
+    }
+
+    /**
+     * Selects an index.
+     *
+     * The upper 32 bits of the random value select the column, the lower 32 bits decide between the column and its alias.
+     * So the random value should be uniformly distributed over all 64 bits.
+     *
+     * @param random a uniformly distributed random value
+     * @return the selected index
+     */
+    public int select(long random) {
+        int column = (int) (((random >>> RANDOM_BITS) * thresholds.length) >>> RANDOM_BITS);
+        return (random & RANDOM_MASK) < thresholds[column] ? column : aliases[column];
+    }
+
+    /**
+     * Returns the number of indices in this table.
+     *
+     * @return the number of indices
+     */
+    public int size() {
+        return thresholds.length;
+    }
+
+    /**
+     * Returns the probability that {@link #select(long)} returns the given index, as encoded in this table.
+     *
+     * @param index the index
+     * @return the probability of the index
+     */
+    public double getProbability(int index) {
+        double probability = 0;
+        for (int column = 0; column < thresholds.length; column++) {
+            double self = thresholds[column] / RANDOM_RANGE;
+            if (column == index) {
+                probability += self;
+            }
+            if (aliases[column] == index) {
+                probability += 1 - self;
+            }
+        }
+        return probability / thresholds.length;
+    }
+
+    private static double sum(double[] weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("weights can't be empty");
+        }
+
+        double sum = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("weight can't be negative or infinite, found: " + weight);
+            }
+            sum += weight;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("sum of the weights should be larger than 0");
+        }
+        return sum;
+    }
+
+    /**
+     * Pairs each column with a probability smaller than 1 with a column with a probability larger than 1.
+     *
+     * @param scaled the probabilities of the indices multiplied by the number of indices, so the average is 1
+     */
+    private void pairColumns(double[] scaled) {
+        int[] small = new int[scaled.length];
+        int[] large = new int[scaled.length];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int index = 0; index < scaled.length; index++) {
+            if (scaled[index] < 1) {
+                small[smallSize++] = index;
+            } else {
+                large[largeSize++] = index;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+
+            thresholds[less] = toThreshold(scaled[less]);
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+
+        // whatever remains has a probability of 1 within rounding errors
+        selectAlways(large, largeSize);
+        selectAlways(small, smallSize);
+    }
+
+    private void selectAlways(int[] indices, int size) {
+        for (int i = 0; i < size; i++) {
+            thresholds[indices[i]] = 1L << RANDOM_BITS;
+            aliases[indices[i]] = indices[i];
+        }
+    }
+
+    private static long toThreshold(double probability) {
+        return Math.round(probability * RANDOM_RANGE);
+    }
+}
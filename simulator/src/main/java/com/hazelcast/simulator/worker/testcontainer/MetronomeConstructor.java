@@ -17,7 +17,10 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.RateProfile;
+import com.hazelcast.simulator.worker.metronome.RateProfileMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import com.hazelcast.simulator.worker.metronome.TraceReplayMetronome;
 
 import java.lang.reflect.Constructor;
 import java.util.concurrent.TimeUnit;
@@ -54,36 +57,103 @@ public class MetronomeConstructor {
 
         // we read the metronome up front so we doing get an unused properties error if interval is 0,
         // but the user did configure a metronome.
-        Class<SleepingMetronome> configuredMetronomeClass = binding.loadAsClass(
+        Class<? extends Metronome> configuredMetronomeClass = binding.loadAsClass(
                 toPropertyName(executionGroup, "metronomeClass"), SleepingMetronome.class);
 
+        // a rate profile is configured with the rateProfile or the globalRatePerSecond property
+        RateProfile rateProfile = RateProfileMetronome.loadRateProfile(binding, executionGroup);
+        if (rateProfile != null) {
+            String rateProfileProperty = rateProfileProperty(executionGroup, binding);
+            intervalNanos = initialRateProfileInterval(rateProfileProperty, rateProfile, intervalNanos);
+            configuredMetronomeClass = rateProfileMetronomeClass(rateProfileProperty, configuredMetronomeClass);
+        }
+
+        // a trace replay has no interval, the requests are executed at their recorded times
+        boolean traceReplay = isTraceReplay(executionGroup, binding, configuredMetronomeClass, intervalNanos);
+        if (traceReplay) {
+            configuredMetronomeClass = TraceReplayMetronome.class;
+        }
+
         this.intervalNanos = intervalNanos;
-        if (intervalNanos == 0) {
+        if (intervalNanos == 0 && !traceReplay) {
             this.metronomeClass = EmptyMetronome.class;
             this.masterMetronome = EmptyMetronome.INSTANCE;
         } else {
             this.metronomeClass = configuredMetronomeClass;
+            this.masterMetronome = newMasterMetronome(executionGroup, binding, threadCount);
+        }
+    }
 
-            Constructor<? extends Metronome> constructor;
-            try {
-                constructor = this.metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class);
-            } catch (NoSuchMethodException e) {
-                throw new IllegalTestException("Metronome [%s], does not have the right constructor", e);
-            }
+    private Metronome newMasterMetronome(String executionGroup, PropertyBinding binding, int threadCount) {
+        Constructor<? extends Metronome> constructor;
+        try {
+            constructor = metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalTestException("Metronome [%s], does not have the right constructor", e);
+        }
 
-            try {
-                masterMetronome = constructor.newInstance(intervalNanos, threadCount, binding, executionGroup);
-            } catch (Exception e) {
-                throw new IllegalTestException("Failed to create a master metronome instance", e);
-            }
+        try {
+            return constructor.newInstance(intervalNanos, threadCount, binding, executionGroup);
+        } catch (Exception e) {
+            throw new IllegalTestException("Failed to create a master metronome instance", e);
+        }
+    }
+
+    private static String rateProfileProperty(String executionGroup, PropertyBinding binding) {
+        String rateProfileProperty = toPropertyName(executionGroup, "rateProfile");
+        if (binding.load(rateProfileProperty) == null) {
+            return toPropertyName(executionGroup, "globalRatePerSecond");
         }
+        return rateProfileProperty;
+    }
+
+    private static long initialRateProfileInterval(String property, RateProfile rateProfile, long intervalNanos) {
+        if (intervalNanos != 0) {
+            throw new IllegalTestException(format("%s can't be combined with an interval or ratePerSecond", property));
+        }
+        return round(SECONDS.toNanos(1) / rateProfile.getRatePerSecond(0));
+    }
+
+    private static Class<? extends Metronome> rateProfileMetronomeClass(String property,
+                                                                       Class<? extends Metronome> configuredMetronomeClass) {
+        if (configuredMetronomeClass != SleepingMetronome.class && configuredMetronomeClass != RateProfileMetronome.class) {
+            throw new IllegalTestException(format("%s can't be combined with metronomeClass %s",
+                    property, configuredMetronomeClass.getName()));
+        }
+        return RateProfileMetronome.class;
+    }
+
+    private static boolean isTraceReplay(String executionGroup, PropertyBinding binding,
+                                         Class<? extends Metronome> configuredMetronomeClass, long intervalNanos) {
+        String property = toPropertyName(executionGroup, "traceFile");
+        if (binding.load(property) == null && configuredMetronomeClass != TraceReplayMetronome.class) {
+            return false;
+        }
+
+        if (intervalNanos != 0) {
+            throw new IllegalTestException(format("%s can't be combined with an interval, ratePerSecond or rateProfile",
+                    property));
+        }
+        if (configuredMetronomeClass != SleepingMetronome.class && configuredMetronomeClass != TraceReplayMetronome.class) {
+            throw new IllegalTestException(format("%s can't be combined with metronomeClass %s",
+                    property, configuredMetronomeClass.getName()));
+        }
+        return true;
     }
 
     public long getIntervalNanos() {
         return intervalNanos;
     }
 
-    private static long parseInterval(String property, String value) {
+    /**
+     * Parses a duration with a time unit, e.g. 10us or 5s.
+     *
+     * @param property the name of the property, used in the error messages
+     * @param value    the value of the property
+     * @return the duration in nanoseconds
+     * @throws IllegalTestException if the value has no valid time unit or is negative
+     */
+    public static long parseInterval(String property, String value) {
         long duration;
         try {
             if (value.endsWith("ns")) {
@@ -124,6 +194,10 @@ public class MetronomeConstructor {
         return metronomeClass;
     }
 
+    Metronome getMasterMetronome() {
+        return masterMetronome;
+    }
+
     Metronome newInstance() {
         if (metronomeClass == EmptyMetronome.class) {
             return EmptyMetronome.INSTANCE;
@@ -15,10 +15,6 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
-import java.lang.reflect.Method;
-import java.util.List;
-import java.util.Map;
-
 import static java.lang.Math.round;
 
 public class Probability {
@@ -72,22 +68,6 @@ public class Probability {
         return Double.toString(value);
     }
 
-    public static byte[] loadTimeStepProbabilityArray(Map<Method, Probability> methods, List<Method> activeMethods) {
-        if (activeMethods.size() < 2) {
-            return null;
-        }
-
-        double[] methodProbabilities = new double[activeMethods.size()];
-        for (int methodIndex = 0; methodIndex < activeMethods.size(); methodIndex++) {
-            Method method = activeMethods.get(methodIndex);
-            Probability probability = methods.get(method);
-            methodProbabilities[methodIndex] = probability.getValue();
-        }
-
-        int[] methodRatios = methodProbabilitiesToMethodRatios(methodProbabilities);
-        return ratiosToMethodProbabilityArray(methodRatios);
-    }
-
     public static int[] methodProbabilitiesToMethodRatios(double... methodProbabilities) {
         int[] roundedMethodProbabilities = new int[methodProbabilities.length];
 
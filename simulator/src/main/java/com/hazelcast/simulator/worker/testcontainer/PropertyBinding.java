@@ -19,6 +19,7 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.probes.impl.EmptyProbe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.probes.impl.HistogramSettings;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
@@ -27,12 +28,14 @@ import com.hazelcast.simulator.utils.PropertyBindingSupport;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
 import static com.hazelcast.simulator.utils.PropertyBindingSupport.bindAll;
 import static com.hazelcast.simulator.utils.PropertyBindingSupport.removeUnderscores;
 import static com.hazelcast.simulator.utils.ReflectionUtils.setFieldValue;
@@ -62,10 +65,22 @@ public class PropertyBinding {
     public boolean recordJitter;
     // configures the minimum value for the jitter sample to be recorded.
     public int recordJitterThresholdNs = DEFAULT_RECORD_JITTER_THRESHOLD_NS;
+    // the number of slowest operations per interval each probe keeps; 0 disables it.
+    public int exemplarCount;
+    // the lowest latency the histograms can tell apart from 0, e.g. 1us or 1ns, or 'auto' for auto-resizing histograms.
+    public String latencyResolution = "1us";
+    // the highest latency the histograms track; higher latencies are recorded as this value. Not used by 'auto'.
+    public String latencyHighestTrackableValue = "1h";
+    // the precision of the histograms, between 0 and 5 significant digits.
+    public int latencySignificantDigits = 3;
+    // the latency resolution per probe, e.g. 'get:1ns,put-serviceTime:auto'.
+    public String probeLatencyResolution = "";
 
     // this can be removed as soon as the @InjectMetronome/worker functionality is dropped
     private MetronomeConstructor workerMetronomeConstructor;
     private final Class<? extends Probe> probeClass;
+    private final HistogramSettings histogramSettings;
+    private final Map<String, HistogramSettings> probeHistogramSettings = new HashMap<String, HistogramSettings>();
     private TestContextImpl testContext;
     private final Map<String, Probe> probeMap = new ConcurrentHashMap<String, Probe>();
     private final TestCase testCase;
@@ -83,10 +98,48 @@ public class PropertyBinding {
         if (recordJitterThresholdNs < 0) {
             throw new IllegalTestException("recordJitterThresholdNs can't be smaller than 0");
         }
+        if (exemplarCount < 0) {
+            throw new IllegalTestException("exemplarCount can't be smaller than 0");
+        }
 
         this.workerMetronomeConstructor = new MetronomeConstructor(
                 "", this, loadAsInt("threadCount", DEFAULT_THREAD_COUNT));
         this.probeClass = loadProbeClass();
+        this.histogramSettings = loadHistogramSettings("latencyResolution", latencyResolution);
+        loadProbeHistogramSettings();
+    }
+
+    private void loadProbeHistogramSettings() {
+        for (String probeResolution : probeLatencyResolution.split(",")) {
+            probeResolution = probeResolution.trim();
+            if (probeResolution.isEmpty()) {
+                continue;
+            }
+
+            int index = probeResolution.lastIndexOf(':');
+            if (index <= 0) {
+                throw new IllegalTestException(format("probeLatencyResolution [%s] should be a list of probe:resolution"
+                        + " pairs, e.g. get:1ns,put:auto", probeLatencyResolution));
+            }
+            String probeName = probeResolution.substring(0, index).trim();
+            String resolution = probeResolution.substring(index + 1).trim();
+            probeHistogramSettings.put(probeName, loadHistogramSettings("probeLatencyResolution", resolution));
+        }
+    }
+
+    private HistogramSettings loadHistogramSettings(String property, String resolution) {
+        try {
+            if ("auto".equals(resolution)) {
+                return HistogramSettings.autoResize(latencySignificantDigits);
+            }
+
+            return new HistogramSettings(
+                    parseInterval(property, resolution),
+                    parseInterval("latencyHighestTrackableValue", latencyHighestTrackableValue),
+                    latencySignificantDigits);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalTestException(format("%s [%s] is invalid: %s", property, resolution, e.getMessage()), e);
+        }
     }
 
     public PropertyBinding setVendorInstance(Object vendorInstance) {
@@ -252,7 +305,8 @@ public class PropertyBinding {
 
         Probe probe = probeMap.get(probeName);
         if (probe == null) {
-            probe = new HdrProbe(partOfTotalThroughput);
+            HistogramSettings settings = probeHistogramSettings.get(probeName);
+            probe = new HdrProbe(partOfTotalThroughput, exemplarCount, settings == null ? histogramSettings : settings);
             probeMap.put(probeName, probe);
         }
         return probe;
@@ -41,6 +41,77 @@ abstract class RunStrategy {
         return 0;
     }
 
+    /**
+     * Describes the current steps of the rate profiles of the test, so they can be marked in the performance logs.
+     *
+     * This method is thread-safe.
+     *
+     * @return the description of the current steps or {@code null} if the test has no running rate profile
+     */
+    public String describeRateProfileSteps() {
+        return null;
+    }
+
+    /**
+     * Changes the rate of the execution groups which have a rate profile.
+     *
+     * This method is thread-safe.
+     *
+     * @param ratePerSecond the new rate in operations per second of each of these execution groups
+     * @throws IllegalStateException if the test has no execution group with a rate profile
+     */
+    public void setRatePerSecond(double ratePerSecond) {
+        throw new IllegalStateException("The rate of a test can only be changed if it has a rate profile");
+    }
+
+    /**
+     * Changes the share of this Worker of the rate of the execution groups which have a global rate.
+     *
+     * This method is thread-safe.
+     *
+     * @param share the share of the global rate, larger than 0 and at most 1
+     * @throws IllegalStateException if the test has no execution group with a global rate
+     */
+    public void setRateShare(double share) {
+        throw new IllegalStateException("The rate share of a test can only be changed if it has a global rate");
+    }
+
+    /**
+     * Changes the number of threads of a running execution group.
+     *
+     * This method is thread-safe.
+     *
+     * @param executionGroup the execution group to change the number of threads of
+     * @param threadCount    the new number of threads, at least 1
+     * @return the new total number of threads of the test
+     * @throws IllegalStateException if the number of threads of the test can't be changed
+     */
+    public int setThreadCount(String executionGroup, int threadCount) {
+        throw new IllegalStateException("The number of threads can only be changed of a running test with timestep methods");
+    }
+
+    /**
+     * Describes the number of threads of the execution groups, so a change can be marked in the performance logs.
+     *
+     * This method is thread-safe.
+     *
+     * @return the description of the number of threads or {@code null} if the number of threads has never been changed
+     */
+    public String describeThreadCounts() {
+        return null;
+    }
+
+    /**
+     * Returns the ids of the threads executing the operations of the test, so the cost of the operations can be measured.
+     *
+     * This method is thread-safe.
+     *
+     * @return the ids of the threads; empty if they aren't tracked
+     */
+    public long[] getThreadIds() {
+        return new long[0];
+    }
+
     /**
      * Checks if the run strategy is running. This is true in case of warmup and actual running.
      *
@@ -30,7 +30,9 @@ import com.hazelcast.simulator.utils.AnnotationFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
 import com.hazelcast.simulator.worker.performance.TestPerformanceTracker;
+import com.hazelcast.simulator.worker.profiler.TestProfiler;
 
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -53,6 +55,7 @@ import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static com.hazelcast.simulator.worker.profiler.TestProfiler.toMillis;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 
@@ -78,6 +81,7 @@ public class TestContainer {
     private final Class testClass;
     private final RunStrategy runStrategy;
     private final TestPerformanceTracker testPerformanceTracker;
+    private final TestProfiler testProfiler;
     private final AtomicReference<TestPhase> currentPhase = new AtomicReference<TestPhase>();
 
     public TestContainer(TestContextImpl targetInstance, TestCase testCase, Object vendorInstance) {
@@ -109,9 +113,11 @@ public class TestContainer {
 
         registerTestPhaseTasks();
 
-        propertyBinding.ensureNoUnusedProperties();
-
+        // the tracker binds the warmup properties
         this.testPerformanceTracker = new TestPerformanceTracker(this);
+        this.testProfiler = new TestProfiler(propertyBinding, testCase.getId());
+
+        propertyBinding.ensureNoUnusedProperties();
     }
 
     public TestPhase getCurrentPhase() {
@@ -162,10 +168,118 @@ public class TestContainer {
         return runStrategy == null ? false : runStrategy.isRunning();
     }
 
+    /**
+     * Describes the current steps of the rate profiles of the test.
+     *
+     * @return the description of the current steps or {@code null} if the test has no running rate profile
+     * @see RunStrategy#describeRateProfileSteps()
+     */
+    public String describeRateProfileSteps() {
+        return runStrategy == null ? null : runStrategy.describeRateProfileSteps();
+    }
+
+    /**
+     * Changes the rate of the running test.
+     *
+     * @param ratePerSecond the new rate in operations per second
+     * @throws IllegalStateException if the rate of the test can't be changed
+     * @see RunStrategy#setRatePerSecond(double)
+     */
+    public void setRatePerSecond(double ratePerSecond) {
+        if (runStrategy == null) {
+            throw new IllegalStateException(format("Can't change the rate of test [%s], it has no run strategy",
+                    testCase.getId()));
+        }
+        runStrategy.setRatePerSecond(ratePerSecond);
+    }
+
+    /**
+     * Changes the share of this Worker of the global rate of the running test.
+     *
+     * @param share the share of the global rate
+     * @throws IllegalStateException if the rate share of the test can't be changed
+     * @see RunStrategy#setRateShare(double)
+     */
+    public void setRateShare(double share) {
+        if (runStrategy == null) {
+            throw new IllegalStateException(format("Can't change the rate share of test [%s], it has no run strategy",
+                    testCase.getId()));
+        }
+        runStrategy.setRateShare(share);
+    }
+
+    /**
+     * Changes the number of threads of an execution group of the running test.
+     *
+     * @param executionGroup the execution group
+     * @param threadCount    the new number of threads
+     * @return the new total number of threads of the test
+     * @throws IllegalStateException if the number of threads of the test can't be changed
+     * @see RunStrategy#setThreadCount(String, int)
+     */
+    public int setThreadCount(String executionGroup, int threadCount) {
+        if (runStrategy == null) {
+            throw new IllegalStateException(format("Can't change the thread count of test [%s], it has no run strategy",
+                    testCase.getId()));
+        }
+        return runStrategy.setThreadCount(executionGroup, threadCount);
+    }
+
+    /**
+     * Describes the number of threads of the test, once it has been changed.
+     *
+     * @return the description of the number of threads or {@code null} if the number of threads has never been changed
+     * @see RunStrategy#describeThreadCounts()
+     */
+    public String describeThreadCounts() {
+        return runStrategy == null ? null : runStrategy.describeThreadCounts();
+    }
+
+    /**
+     * Starts profiling the running test.
+     *
+     * @param profiler the name of the profiler
+     * @param settings the profiler specific settings or {@code null} for the defaults
+     * @param delay    the delay before the profiler is started, e.g. {@code 30s}, or {@code null} to start immediately
+     * @param duration the duration of the profile or {@code null} to profile until the end of the run
+     * @return the name of the file the profile will be written to
+     * @throws IllegalStateException if the test isn't running or is already being profiled
+     * @throws Exception             if the profiler could not be started
+     * @see TestProfiler#start(String, String, long, long)
+     */
+    public String startProfiler(String profiler, String settings, String delay, String duration) throws Exception {
+        if (!isRunning()) {
+            throw new IllegalStateException(format("Can't profile test [%s], it is not running", testCase.getId()));
+        }
+        File file = testProfiler.start(profiler, settings, toMillis("delay", delay), toMillis("duration", duration));
+        return file.getName();
+    }
+
+    /**
+     * Stops profiling the test.
+     *
+     * @return the name of the file the profile has been written to or {@code null} if no profile was written
+     * @see TestProfiler#stop()
+     */
+    public String stopProfiler() {
+        File file = testProfiler.stop();
+        return file == null ? null : file.getName();
+    }
+
     public long iteration() {
         return runStrategy == null ? 0 : runStrategy.iterations();
     }
 
+    /**
+     * Returns the ids of the threads executing the operations of the test.
+     *
+     * @return the ids of the threads
+     * @see RunStrategy#getThreadIds()
+     */
+    public long[] getThreadIds() {
+        return runStrategy == null ? new long[0] : runStrategy.getThreadIds();
+    }
+
     public Map<String, Probe> getProbeMap() {
         return propertyBinding.getProbeMap();
     }
@@ -210,7 +324,12 @@ public class TestContainer {
                         Probe probe = propertyBinding.getOrCreateProbe("jitter", false);
                         new JitterThread(testContext, probe, propertyBinding.recordJitterThresholdNs).start();
                     }
-                    return runStrategy.getRunCallable().call();
+                    testProfiler.onRunStarted();
+                    try {
+                        return runStrategy.getRunCallable().call();
+                    } finally {
+                        testProfiler.onRunCompleted();
+                    }
                 }
             });
 
@@ -22,6 +22,10 @@ import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import org.apache.log4j.Logger;
@@ -91,6 +95,66 @@ public class TestManager {
         testContainer.getTestContext().stop();
     }
 
+    public void setRate(SetRateOperation op) {
+        String testId = op.getTestId();
+
+        LOGGER.info(format("Changing rate of %s to %.0f ops/s", testId, op.getRatePerSecond()));
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not change rate, test [%s] is not found.", testId));
+        }
+
+        testContainer.setRatePerSecond(op.getRatePerSecond());
+    }
+
+    public void setRateShare(SetRateShareOperation op) {
+        String testId = op.getTestId();
+
+        LOGGER.info(format("Changing rate share of %s to %.4f", testId, op.getShare()));
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not change rate share, test [%s] is not found.", testId));
+        }
+
+        testContainer.setRateShare(op.getShare());
+    }
+
+    public String setThreadCount(SetThreadCountOperation op) {
+        String testId = op.getTestId();
+
+        LOGGER.info(format("Changing thread count of %s executionGroup [%s] to %d",
+                testId, op.getExecutionGroup(), op.getThreadCount()));
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not change thread count, test [%s] is not found.", testId));
+        }
+
+        int totalThreadCount = testContainer.setThreadCount(op.getExecutionGroup(), op.getThreadCount());
+        return "" + totalThreadCount;
+    }
+
+    public String profile(ProfileOperation op) throws Exception {
+        String testId = op.getTestId();
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not profile, test [%s] is not found.", testId));
+        }
+
+        if (op.isStop()) {
+            LOGGER.info(format("Stopping profiler of %s", testId));
+            String file = testContainer.stopProfiler();
+            return file == null ? "no profile written" : "profile written to " + file;
+        }
+
+        LOGGER.info(format("Starting profiler [%s] of %s", op.getProfiler(), testId));
+        String file = testContainer.startProfiler(op.getProfiler(), op.getSettings(), op.getDelay(), op.getDuration());
+        return "profiling to " + file;
+    }
+
     public void startTestPhase(StartPhaseOperation op, Promise promise) throws Exception {
         TestPhase testPhase = op.getTestPhase();
 
@@ -103,6 +167,17 @@ public class TestManager {
         new TestPhaseThread(testContainer, testPhase, testId, promise).start();
     }
 
+    private void evictRunnerClasses(TestContainer removedContainer) {
+        Class testClass = removedContainer.getTestInstance().getClass();
+        for (TestContainer container : tests.values()) {
+            if (container.getTestInstance().getClass() == testClass) {
+                // another test still uses the cached runner classes
+                return;
+            }
+        }
+        TimeStepRunnerCodeGenerator.evict(testClass);
+    }
+
     private class TestPhaseThread extends Thread {
 
         private final TestPhase testPhase;
@@ -132,6 +207,7 @@ public class TestManager {
             } finally {
                 if (testPhase == getLastTestPhase()) {
                     tests.remove(testId);
+                    evictRunnerClasses(testContainer);
                 }
             }
         }
@@ -21,7 +21,6 @@ import com.hazelcast.simulator.test.annotations.BeforeRun;
 import com.hazelcast.simulator.test.annotations.StartNanos;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.utils.AnnotatedMethodRetriever;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
@@ -35,7 +34,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
-import static com.hazelcast.simulator.worker.testcontainer.Probability.loadTimeStepProbabilityArray;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isAbstract;
 import static java.lang.reflect.Modifier.isPublic;
@@ -44,6 +43,10 @@ import static java.lang.reflect.Modifier.isStatic;
 public class TimeStepModel {
 
     private static final String PROB = "Prob";
+    private static final String ASYNC_RESULT_CLASS_NAME = "com.hazelcast.core.ICompletableFuture";
+    private static final String SERVICE_TIME_PROBE_SUFFIX = "-serviceTime";
+    private static final String START_LAG_PROBE_SUFFIX = "-startLag";
+    private static final String SCHEDULING_ERROR_PROBE_SUFFIX = "-schedulingError";
     private final Class testClass;
 
     private final Map<String, ExecutionGroup> executionGroups = new HashMap<String, ExecutionGroup>();
@@ -269,6 +272,116 @@ public class TimeStepModel {
         }
     }
 
+    /**
+     * Checks if the {@link TimeStep} method has a {@link Probe} argument, so it records its latency itself.
+     *
+     * @param method the method to check
+     * @return {@code true} if the method has a {@link Probe} argument, {@code false} otherwise
+     */
+    public static boolean hasProbeArgument(Method method) {
+        for (Class paramType : method.getParameterTypes()) {
+            if (Probe.class.isAssignableFrom(paramType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the {@link TimeStep} method returns an asynchronous result, so its latency is recorded on completion.
+     *
+     * @param method the method to check
+     * @return {@code true} if the method returns an asynchronous result, {@code false} otherwise
+     */
+    public static boolean hasAsyncResult(Method method) {
+        return isAsyncResult(method.getReturnType().getName());
+    }
+
+    /**
+     * Returns the name of the probe which records the service time of a {@link TimeStep} method with an asynchronous result.
+     *
+     * The probe of the method itself records the response time: from the intended start until the completion. The service
+     * time probe records from the moment the call is made until the completion, so it excludes the time the request was
+     * queued, e.g. waiting for the metronome or for a free slot of {@code maxInFlight}.
+     *
+     * @param methodName the name of the method
+     * @return the name of the service time probe
+     */
+    public static String toServiceTimeProbeName(String methodName) {
+        return methodName + SERVICE_TIME_PROBE_SUFFIX;
+    }
+
+    /**
+     * Checks if a probe records the service time of a {@link TimeStep} method, see {@link #toServiceTimeProbeName(String)}.
+     *
+     * @param probeName the name of the probe
+     * @return {@code true} if the probe records a service time, {@code false} otherwise
+     */
+    public static boolean isServiceTimeProbe(String probeName) {
+        return probeName.endsWith(SERVICE_TIME_PROBE_SUFFIX);
+    }
+
+    /**
+     * Returns the name of the probe which records the start lag of a {@link TimeStep} method.
+     *
+     * The start lag is the time between the intended start, as determined by the metronome, and the moment the method is
+     * actually called. It shows how much of the latency is caused by the load generator falling behind.
+     *
+     * @param methodName the name of the method
+     * @return the name of the start lag probe
+     */
+    public static String toStartLagProbeName(String methodName) {
+        return methodName + START_LAG_PROBE_SUFFIX;
+    }
+
+    /**
+     * Checks if a probe records the start lag of a {@link TimeStep} method, see {@link #toStartLagProbeName(String)}.
+     *
+     * @param probeName the name of the probe
+     * @return {@code true} if the probe records a start lag, {@code false} otherwise
+     */
+    public static boolean isStartLagProbe(String probeName) {
+        return probeName.endsWith(START_LAG_PROBE_SUFFIX);
+    }
+
+    /**
+     * Returns the name of the probe which records the scheduling error of the metronome of an execution group.
+     *
+     * The scheduling error is the time between the expected start and the actual wakeup of the metronome. It is a diagnostic
+     * of the load generator, not a latency of the system under test.
+     *
+     * @param prefix the name of the execution group, or an empty string for the default group
+     * @return the name of the scheduling error probe
+     */
+    public static String toSchedulingErrorProbeName(String prefix) {
+        return toPropertyName(prefix, "metronome") + SCHEDULING_ERROR_PROBE_SUFFIX;
+    }
+
+    /**
+     * Checks if a probe records the scheduling error of a metronome, see {@link #toSchedulingErrorProbeName(String)}.
+     *
+     * @param probeName the name of the probe
+     * @return {@code true} if the probe records a scheduling error, {@code false} otherwise
+     */
+    public static boolean isSchedulingErrorProbe(String probeName) {
+        return probeName.endsWith(SCHEDULING_ERROR_PROBE_SUFFIX);
+    }
+
+    /**
+     * Checks if a probe records a part of the latency or a diagnostic of the load generator instead of the latency of an
+     * operation. These probes are written to file, but are excluded from the totals and the data sent to the coordinator.
+     *
+     * @param probeName the name of the probe
+     * @return {@code true} if the probe is a latency breakdown probe, {@code false} otherwise
+     */
+    public static boolean isLatencyBreakdownProbe(String probeName) {
+        return isServiceTimeProbe(probeName) || isStartLagProbe(probeName) || isSchedulingErrorProbe(probeName);
+    }
+
+    static boolean isAsyncResult(String resultTypeName) {
+        return ASYNC_RESULT_CLASS_NAME.equals(resultTypeName);
+    }
+
     public boolean hasStartNanosAnnotation(Method method, int parameterIndex) {
         Annotation[][] parametersAnnotations = method.getParameterAnnotations();
         Annotation[] parameterAnnotations = parametersAnnotations[parameterIndex];
@@ -320,18 +433,16 @@ public class TimeStepModel {
     }
 
     /**
-     * Returns the probabilities of the {@link TimeStep} methods.
+     * Returns the {@link AliasTable} to select the {@link TimeStep} method to call based on the probabilities.
      *
-     * The value in the byte refers to the index of the method in the {@link #getActiveTimeStepMethods(String)}.
-     * If a method has 0.5 probability and index 15, then 50% of the values in the array will point to 15.
+     * The selected index refers to the index of the method in the {@link #getActiveTimeStepMethods(String)}.
      *
-     * @param group the name of the execution group to get the probability array for
-     * @return the array of probabilities for each {@link TimeStep} method or {@code null} if there is only a
+     * @param group the name of the execution group to get the alias table for
+     * @return the alias table for the {@link TimeStep} methods or {@code null} if there is only a
      * single {@link TimeStep} method.
      */
-    @SuppressFBWarnings("EI_EXPOSE_REP")
-    public byte[] getTimeStepProbabilityArray(String group) {
-        return executionGroups.get(group).timeStepProbabilityArray;
+    public AliasTable getTimeStepAliasTable(String group) {
+        return executionGroups.get(group).timeStepAliasTable;
     }
 
     private final class ExecutionGroup {
@@ -342,7 +453,7 @@ public class TimeStepModel {
         private Class threadStateClass;
         private Constructor threadStateConstructor;
         private Map<Method, Probability> probabilities;
-        private byte[] timeStepProbabilityArray;
+        private AliasTable timeStepAliasTable;
 
         private ExecutionGroup(String name) {
             this.name = name;
@@ -352,7 +463,7 @@ public class TimeStepModel {
             threadStateClass = loadThreadStateClass();
             threadStateConstructor = loadThreadStateConstructor();
             probabilities = loadProbabilities();
-            timeStepProbabilityArray = loadTimeStepProbabilityArray(probabilities, getActiveTimeStepMethods(name));
+            timeStepAliasTable = AliasTable.newTimeStepAliasTable(probabilities, getActiveTimeStepMethods(name));
         }
 
         private Class loadThreadStateClass() {
@@ -18,13 +18,21 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.utils.ThreadSpawner;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.RateProfileMetronome;
+import com.hazelcast.simulator.worker.metronome.TraceReplayMetronome;
 import org.apache.log4j.Logger;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.String.format;
 
@@ -38,6 +46,7 @@ class TimeStepRunStrategy extends RunStrategy {
     private static final int DEFAULT_THREAD_COUNT = 10;
     private static final int DEFAULT_LOG_FREQUENCY = 0;
     private static final int DEFAULT_LOG_RATE_MS = 0;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 0;
 
     private static final Logger LOGGER = Logger.getLogger(TimeStepRunStrategy.class);
 
@@ -50,8 +59,14 @@ class TimeStepRunStrategy extends RunStrategy {
     private final Map<String, Class> runnerClassMap = new HashMap<String, Class>();
     private final Map<String, Integer> threadCountMap = new HashMap<String, Integer>();
     private final Map<String, Long> runIterationMap = new HashMap<String, Long>();
+    private final Map<String, Boolean> virtualThreadsMap = new HashMap<String, Boolean>();
+    private final Map<String, Boolean> recordStartLagMap = new HashMap<String, Boolean>();
     private int totalThreadCount;
+    // the spawner is only set while the test is running, so the number of threads can only be changed during the run
+    private ThreadSpawner spawner;
+    private boolean threadCountChanged;
 
+    @SuppressWarnings("checkstyle:executablestatementcount")
     TimeStepRunStrategy(TestContainer testContainer) {
         this.binding = testContainer.getPropertyBinding();
         this.testContext = testContainer.getTestContext();
@@ -65,6 +80,7 @@ class TimeStepRunStrategy extends RunStrategy {
 
             MetronomeConstructor metronomeConstructor = new MetronomeConstructor(executionGroup, binding, threadCount);
             metronomeSettingsMap.put(executionGroup, metronomeConstructor);
+            bindTraceReplay(executionGroup, metronomeConstructor);
 
             LOGGER.info(format("executionGroup [%s] using interval: %s class=%s",
                     executionGroup, metronomeConstructor.getIntervalNanos(), metronomeConstructor.getMetronomeClass().getName()));
@@ -75,6 +91,13 @@ class TimeStepRunStrategy extends RunStrategy {
             long iterations = binding.loadAsLong(toPropertyName(executionGroup, "iterations"), 0);
             runIterationMap.put(executionGroup, iterations);
 
+            int maxInFlight = loadMaxInFlight(executionGroup);
+
+            virtualThreadsMap.put(executionGroup, loadVirtualThreads(executionGroup));
+
+            boolean recordStartLag = loadRecordStartLag(executionGroup, metronomeConstructor);
+            recordStartLagMap.put(executionGroup, recordStartLag);
+
             Class runnerClass = new TimeStepRunnerCodeGenerator().compile(
                     testContainer.getTestCase().getId(),
                     executionGroup,
@@ -83,12 +106,73 @@ class TimeStepRunStrategy extends RunStrategy {
                     binding.getProbeClass(),
                     logFrequency,
                     logRateMs,
-                    iterations > 0);
+                    iterations > 0,
+                    maxInFlight,
+                    recordStartLag,
+                    binding.exemplarCount > 0);
 
             runnerClassMap.put(executionGroup, runnerClass);
         }
     }
 
+    private void bindTraceReplay(String executionGroup, MetronomeConstructor metronomeConstructor) {
+        Metronome masterMetronome = metronomeConstructor.getMasterMetronome();
+        if (masterMetronome instanceof TraceReplayMetronome) {
+            TraceReplayMetronome traceReplayMetronome = (TraceReplayMetronome) masterMetronome;
+            traceReplayMetronome.bindMethods(timeStepModel.getActiveTimeStepMethods(executionGroup));
+
+            LOGGER.info(format("executionGroup [%s] replaying %d requests from %s with speed %s",
+                    executionGroup, traceReplayMetronome.getTraceFile().getRecordCount(),
+                    traceReplayMetronome.getTraceFile().getFile(), traceReplayMetronome.getSpeed()));
+        }
+    }
+
+    private int loadMaxInFlight(String executionGroup) {
+        String property = toPropertyName(executionGroup, "maxInFlight");
+        int maxInFlight = binding.loadAsInt(property, DEFAULT_MAX_IN_FLIGHT);
+        if (maxInFlight < 0) {
+            throw new IllegalTestException(format("%s can't be smaller than 0, found: %d", property, maxInFlight));
+        }
+
+        if (maxInFlight > 0) {
+            LOGGER.info(format("executionGroup [%s] using maxInFlight: %d asynchronous calls per thread",
+                    executionGroup, maxInFlight));
+        }
+        return maxInFlight;
+    }
+
+    private boolean loadRecordStartLag(String executionGroup, MetronomeConstructor metronomeConstructor) {
+        String property = toPropertyName(executionGroup, "recordStartLag");
+        if (!binding.loadAsBoolean(property, false) || binding.getProbeClass() == null) {
+            return false;
+        }
+
+        if (metronomeConstructor.getMetronomeClass() == EmptyMetronome.class) {
+            // without a metronome the intended start is the actual start, so there is no lag to record
+            LOGGER.warn(format("executionGroup [%s] ignores %s since no rate is configured", executionGroup, property));
+            return false;
+        }
+
+        LOGGER.info(format("executionGroup [%s] recording the start lag", executionGroup));
+        return true;
+    }
+
+    private boolean loadVirtualThreads(String executionGroup) {
+        boolean virtualThreads = binding.loadAsBoolean(toPropertyName(executionGroup, "virtualThreads"), false);
+        if (!virtualThreads) {
+            return false;
+        }
+
+        if (ThreadSpawner.isVirtualThreadSupported()) {
+            LOGGER.info(format("executionGroup [%s] using virtual threads", executionGroup));
+        } else {
+            LOGGER.warn(format("executionGroup [%s] is configured to use virtual threads, but they are not supported by"
+                    + " this JVM (java.version=%s). Platform threads will be used instead.",
+                    executionGroup, System.getProperty("java.version")));
+        }
+        return true;
+    }
+
     @Override
     public long iterations() {
         TimeStepRunner[] localRunners = runners;
@@ -101,6 +185,82 @@ class TimeStepRunStrategy extends RunStrategy {
         return iterations;
     }
 
+    @Override
+    public long[] getThreadIds() {
+        TimeStepRunner[] localRunners = runners;
+        if (localRunners == null) {
+            return new long[0];
+        }
+
+        long[] threadIds = new long[localRunners.length];
+        int count = 0;
+        for (TimeStepRunner runner : localRunners) {
+            long threadId = runner.getThreadId();
+            if (threadId != -1) {
+                threadIds[count++] = threadId;
+            }
+        }
+        return count == threadIds.length ? threadIds : Arrays.copyOf(threadIds, count);
+    }
+
+    @Override
+    public String describeRateProfileSteps() {
+        StringBuilder sb = null;
+        for (Map.Entry<String, MetronomeConstructor> entry : metronomeSettingsMap.entrySet()) {
+            Metronome masterMetronome = entry.getValue().getMasterMetronome();
+            if (!(masterMetronome instanceof RateProfileMetronome)) {
+                continue;
+            }
+
+            String step = ((RateProfileMetronome) masterMetronome).describeCurrentStep();
+            if (step == null) {
+                continue;
+            }
+
+            sb = sb == null ? new StringBuilder() : sb.append("; ");
+            String executionGroup = entry.getKey();
+            if (!executionGroup.equals("")) {
+                sb.append(executionGroup).append(' ');
+            }
+            sb.append(step);
+        }
+        return sb == null ? null : sb.toString();
+    }
+
+    @Override
+    public void setRatePerSecond(double ratePerSecond) {
+        boolean found = false;
+        for (MetronomeConstructor metronomeConstructor : metronomeSettingsMap.values()) {
+            Metronome masterMetronome = metronomeConstructor.getMasterMetronome();
+            if (masterMetronome instanceof RateProfileMetronome) {
+                ((RateProfileMetronome) masterMetronome).setRatePerSecond(ratePerSecond);
+                found = true;
+            }
+        }
+
+        if (!found) {
+            throw new IllegalStateException(format("Can't change the rate of test [%s], none of its execution groups"
+                    + " has a rateProfile", testContext.getTestId()));
+        }
+    }
+
+    @Override
+    public void setRateShare(double share) {
+        boolean found = false;
+        for (MetronomeConstructor metronomeConstructor : metronomeSettingsMap.values()) {
+            Metronome masterMetronome = metronomeConstructor.getMasterMetronome();
+            if (masterMetronome instanceof RateProfileMetronome && ((RateProfileMetronome) masterMetronome).isGlobal()) {
+                ((RateProfileMetronome) masterMetronome).setShare(share);
+                found = true;
+            }
+        }
+
+        if (!found) {
+            throw new IllegalStateException(format("Can't change the rate share of test [%s], none of its execution groups"
+                    + " has a globalRatePerSecond", testContext.getTestId()));
+        }
+    }
+
     @Override
     public Callable getRunCallable() {
         return new Callable() {
@@ -113,9 +273,10 @@ class TimeStepRunStrategy extends RunStrategy {
                         return null;
                     }
                     runners = createRunners();
-                    onRunStarted();
                     ThreadSpawner spawner = spawnThreads(runners);
-                    spawner.awaitCompletion();
+                    // the run is started after the threads are spawned, so their number can be changed while running
+                    onRunStarted();
+                    awaitCompletion(spawner);
                     return null;
                 } finally {
                     onRunCompleted();
@@ -124,45 +285,152 @@ class TimeStepRunStrategy extends RunStrategy {
         };
     }
 
+    @Override
+    public synchronized int setThreadCount(String executionGroup, int threadCount) {
+        if (!threadCountMap.containsKey(executionGroup)) {
+            throw new IllegalArgumentException(format("Test [%s] has no execution group [%s]",
+                    testContext.getTestId(), executionGroup));
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(format("threadCount should be at least 1, found: %d", threadCount));
+        }
+        if (spawner == null) {
+            throw new IllegalStateException(format("Can't change the thread count of test [%s], it isn't running",
+                    testContext.getTestId()));
+        }
+
+        List<TimeStepRunner> activeRunners = getActiveRunners(executionGroup);
+        int oldThreadCount = activeRunners.size();
+        if (threadCount > oldThreadCount) {
+            addRunners(executionGroup, threadCount - oldThreadCount);
+        } else {
+            // the most recently added runners are retired first
+            for (TimeStepRunner runner : activeRunners.subList(threadCount, oldThreadCount)) {
+                runner.retire();
+            }
+        }
+
+        totalThreadCount += threadCount - oldThreadCount;
+        threadCountMap.put(executionGroup, threadCount);
+        threadCountChanged = true;
+
+        LOGGER.info(format("executionGroup [%s] changed the number of threads from %d to %d",
+                executionGroup, oldThreadCount, threadCount));
+        return totalThreadCount;
+    }
+
+    @Override
+    public synchronized String describeThreadCounts() {
+        if (!threadCountChanged) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String executionGroup : timeStepModel.getExecutionGroups()) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            if (!executionGroup.equals("")) {
+                sb.append(executionGroup).append(' ');
+            }
+            sb.append("threadCount ").append(threadCountMap.get(executionGroup));
+        }
+        return sb.toString();
+    }
+
+    private List<TimeStepRunner> getActiveRunners(String executionGroup) {
+        List<TimeStepRunner> activeRunners = new ArrayList<TimeStepRunner>();
+        for (TimeStepRunner runner : runners) {
+            if (runner.executionGroup.equals(executionGroup) && !runner.isRetired()) {
+                activeRunners.add(runner);
+            }
+        }
+        return activeRunners;
+    }
+
+    private void addRunners(String executionGroup, int count) {
+        TimeStepRunner[] oldRunners = runners;
+        TimeStepRunner[] newRunners = Arrays.copyOf(oldRunners, oldRunners.length + count);
+        try {
+            for (int i = oldRunners.length; i < newRunners.length; i++) {
+                newRunners[i] = newRunner(executionGroup);
+            }
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+
+        // the runners are published before they are started, so their iterations are always included
+        runners = newRunners;
+        for (int i = oldRunners.length; i < newRunners.length; i++) {
+            spawn(spawner, newRunners[i]);
+        }
+    }
+
     private ThreadSpawner spawnThreads(TimeStepRunner[] runners) {
         ThreadSpawner spawner = new ThreadSpawner(testContext.getTestId());
 
-        for (TimeStepRunner runner : runners) {
-            String executionGroup = runner.executionGroup;
-            String name = testContext.getTestId();
-            if (!executionGroup.equals("")) {
-                name += "-" + executionGroup;
+        synchronized (this) {
+            for (TimeStepRunner runner : runners) {
+                spawn(spawner, runner);
             }
-            name += "-timestepThread";
-            spawner.spawn(name, runner);
+            this.spawner = spawner;
         }
 
         return spawner;
     }
 
-    @SuppressWarnings("unchecked")
+    private void spawn(ThreadSpawner spawner, TimeStepRunner runner) {
+        String executionGroup = runner.executionGroup;
+        String name = testContext.getTestId();
+        if (!executionGroup.equals("")) {
+            name += "-" + executionGroup;
+        }
+        name += "-timestepThread";
+        if (virtualThreadsMap.get(executionGroup)) {
+            spawner.spawnVirtual(name, runner);
+        } else {
+            spawner.spawn(name, runner);
+        }
+    }
+
+    private void awaitCompletion(ThreadSpawner spawner) {
+        spawner.awaitCompletion();
+
+        synchronized (this) {
+            // from now on no threads can be added
+            this.spawner = null;
+        }
+
+        // threads could have been added while the last threads were completing
+        spawner.awaitCompletion();
+    }
+
     private TimeStepRunner[] createRunners() throws Exception {
         TimeStepRunner[] runners = new TimeStepRunner[totalThreadCount];
 
         int k = 0;
         for (String executionGroup : timeStepModel.getExecutionGroups()) {
-            Class runnerClass = runnerClassMap.get(executionGroup);
-            Constructor<TimeStepRunner> constructor = runnerClass
-                    .getConstructor(testInstance.getClass(), TimeStepModel.class, String.class);
-
-            MetronomeConstructor metronomeConstructor = metronomeSettingsMap.get(executionGroup);
-
             for (int thread = 0; thread < threadCountMap.get(executionGroup); thread++) {
-                TimeStepRunner runner = constructor.newInstance(testInstance, timeStepModel, executionGroup);
-                runner.testContext = binding.getTestContext();
-                runner.maxIterations = runIterationMap.get(executionGroup);
-                runner.metronome = metronomeConstructor.newInstance();
-                runner.bind(binding);
-                runners[k] = runner;
+                runners[k] = newRunner(executionGroup);
                 k++;
             }
         }
 
         return runners;
     }
+
+    @SuppressWarnings("unchecked")
+    private TimeStepRunner newRunner(String executionGroup) throws Exception {
+        Class runnerClass = runnerClassMap.get(executionGroup);
+        Constructor<TimeStepRunner> constructor = runnerClass
+                .getConstructor(testInstance.getClass(), TimeStepModel.class, String.class);
+
+        TimeStepRunner runner = constructor.newInstance(testInstance, timeStepModel, executionGroup);
+        runner.testContext = binding.getTestContext();
+        runner.maxIterations = runIterationMap.get(executionGroup);
+        runner.recordStartLag = recordStartLagMap.get(executionGroup);
+        runner.metronome = metronomeSettingsMap.get(executionGroup).newInstance();
+        runner.bind(binding);
+        return runner;
+    }
 }
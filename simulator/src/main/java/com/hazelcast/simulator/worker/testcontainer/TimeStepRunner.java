@@ -17,8 +17,11 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.test.StopException;
 import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.utils.PaddedAtomicLong;
+import com.hazelcast.simulator.worker.metronome.HybridMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import org.apache.log4j.Logger;
 
@@ -27,16 +30,28 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.hasAsyncResult;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.hasProbeArgument;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.toServiceTimeProbeName;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepModel.toStartLagProbeName;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Simulator uses a code generator to generate a subclass of this class.
  */
 public abstract class TimeStepRunner implements Runnable {
 
+    private static final int IN_FLIGHT_DRAIN_TIMEOUT_SECONDS = 60;
+    private static final int IN_FLIGHT_ACQUIRE_TIMEOUT_MILLIS = 100;
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong(System.nanoTime());
+
     protected TestContext testContext;
     protected Metronome metronome;
 
@@ -44,18 +59,24 @@ public abstract class TimeStepRunner implements Runnable {
     protected final String executionGroup;
     protected final Object threadState;
     protected final Object testInstance;
-    protected final AtomicLong iterations = new AtomicLong();
+    // padded since the counters of all runners are written very frequently and are allocated close to each other
+    protected final PaddedAtomicLong iterations = new PaddedAtomicLong();
     protected final TimeStepModel timeStepModel;
-    protected final byte[] timeStepProbabilities;
+    protected final AliasTable timeStepAliasTable;
     protected final Map<String, Probe> probeMap = new HashMap<String, Probe>();
     protected long maxIterations;
+    protected boolean recordStartLag;
+    protected volatile boolean retired;
+    private volatile long threadId = -1;
+    // the thread probes created by this runner and the probes they belong to
+    private final Map<Probe, HdrProbe> threadProbes = new HashMap<Probe, HdrProbe>();
 
     public TimeStepRunner(Object testInstance, TimeStepModel timeStepModel, String executionGroup) {
         this.testInstance = testInstance;
         this.timeStepModel = timeStepModel;
         this.executionGroup = executionGroup;
         this.threadState = initThreadState();
-        this.timeStepProbabilities = timeStepModel.getTimeStepProbabilityArray(executionGroup);
+        this.timeStepAliasTable = timeStepModel.getTimeStepAliasTable(executionGroup);
     }
 
     public String getExecutionGroup() {
@@ -66,17 +87,94 @@ public abstract class TimeStepRunner implements Runnable {
         for (Method method : timeStepModel.getActiveTimeStepMethods(executionGroup)) {
             Probe probe = binding.getOrCreateProbe(method.getName(), false);
             if (probe != null) {
-                probeMap.put(method.getName(), probe);
+                probeMap.put(method.getName(), recordedByThisThread(method) ? newThreadProbe(probe) : probe);
+            }
+
+            if (hasAsyncResult(method)) {
+                // the service time is recorded from the completion callbacks, so the probe is shared
+                String serviceTimeProbeName = toServiceTimeProbeName(method.getName());
+                Probe serviceTimeProbe = binding.getOrCreateProbe(serviceTimeProbeName, false);
+                if (serviceTimeProbe != null) {
+                    probeMap.put(serviceTimeProbeName, serviceTimeProbe);
+                }
+            }
+
+            if (recordStartLag) {
+                // the start lag is always recorded by the timestep-thread itself
+                String startLagProbeName = toStartLagProbeName(method.getName());
+                Probe startLagProbe = binding.getOrCreateProbe(startLagProbeName, false);
+                if (startLagProbe != null) {
+                    probeMap.put(startLagProbeName, newThreadProbe(startLagProbe));
+                }
             }
         }
     }
 
+    /**
+     * Checks if the latency of the method is only recorded by the timestep-thread itself, and not by the method or from a
+     * completion callback.
+     */
+    private static boolean recordedByThisThread(Method method) {
+        return !hasProbeArgument(method) && !hasAsyncResult(method);
+    }
+
+    private Probe newThreadProbe(Probe probe) {
+        if (!(probe instanceof HdrProbe)) {
+            return probe;
+        }
+
+        HdrProbe hdrProbe = (HdrProbe) probe;
+        Probe threadProbe = hdrProbe.newThreadProbe();
+        if (threadProbe != hdrProbe) {
+            threadProbes.put(threadProbe, hdrProbe);
+        }
+        return threadProbe;
+    }
+
+    /**
+     * Releases the thread probes of this runner, so the histograms of completed or retired runners don't pile up.
+     */
+    private void releaseThreadProbes() {
+        for (Map.Entry<Probe, HdrProbe> entry : threadProbes.entrySet()) {
+            entry.getValue().release(entry.getKey());
+        }
+        threadProbes.clear();
+
+        if (metronome instanceof HybridMetronome) {
+            ((HybridMetronome) metronome).releaseProbe();
+        }
+    }
+
     public long iteration() {
         return iterations.get();
     }
 
+    /**
+     * Retires this runner when the number of timestep threads of its execution group is decreased.
+     *
+     * The runner completes its current iteration, waits for its outstanding asynchronous calls and then runs the
+     * {@link com.hazelcast.simulator.test.annotations.AfterRun} methods like at the end of a test.
+     */
+    public void retire() {
+        retired = true;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Returns the id of the thread running this runner.
+     *
+     * @return the id of the thread or -1 if the runner hasn't started
+     */
+    public long getThreadId() {
+        return threadId;
+    }
+
     @Override
     public final void run() {
+        threadId = Thread.currentThread().getId();
         String threadName = Thread.currentThread().getName();
         logger.info(threadName + " started");
         try {
@@ -97,6 +195,8 @@ public abstract class TimeStepRunner implements Runnable {
             logger.warn(threadName + " completed with exception " + e.getClass().getName()
                     + " message: " + e.getMessage());
             throw rethrow(e);
+        } finally {
+            releaseThreadProbes();
         }
     }
 
@@ -127,6 +227,47 @@ public abstract class TimeStepRunner implements Runnable {
 
     protected abstract void timeStepLoop() throws Exception;
 
+    /**
+     * Creates the seed for the thread local xorshift random generator used by the generated timeStepLoop.
+     *
+     * @return a seed which is unique for each runner and never 0
+     */
+    protected static long newRandomSeed() {
+        long seed = SEED_UNIQUIFIER.addAndGet(SEED_INCREMENT) ^ System.nanoTime();
+        return seed == 0 ? SEED_INCREMENT : seed;
+    }
+
+    /**
+     * Acquires a permit for an asynchronous call, periodically checking if the test has been stopped or this runner
+     * has been retired, so a call that never completes can't block the runner forever.
+     *
+     * @param inFlight the semaphore used to bound the number of outstanding asynchronous calls
+     * @return {@code true} if the permit was acquired, {@code false} if the runner should stop
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    protected boolean acquireInFlight(Semaphore inFlight) throws InterruptedException {
+        while (!inFlight.tryAcquire(IN_FLIGHT_ACQUIRE_TIMEOUT_MILLIS, MILLISECONDS)) {
+            if (testContext.isStopped() || retired) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits for all outstanding asynchronous calls to complete, so their latencies are recorded before the runner completes.
+     *
+     * @param inFlight    the semaphore used to bound the number of outstanding asynchronous calls
+     * @param maxInFlight the maximum number of outstanding asynchronous calls
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    protected void awaitInFlight(Semaphore inFlight, int maxInFlight) throws InterruptedException {
+        if (!inFlight.tryAcquire(maxInFlight, IN_FLIGHT_DRAIN_TIMEOUT_SECONDS, SECONDS)) {
+            logger.warn(format("%s timed out waiting for %d outstanding asynchronous calls",
+                    Thread.currentThread().getName(), maxInFlight - inFlight.availablePermits()));
+        }
+    }
+
     private void afterRun() throws Exception {
         for (Method afterRunMethod : timeStepModel.getAfterRunMethods(executionGroup)) {
             run(afterRunMethod);
@@ -19,6 +19,7 @@ package com.hazelcast.simulator.worker.testcontainer;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.TraceReplayMetronome;
 import freemarker.ext.util.WrapperTemplateModel;
 import freemarker.template.Configuration;
 import freemarker.template.SimpleNumber;
@@ -28,37 +29,139 @@ import freemarker.template.TemplateExceptionHandler;
 import freemarker.template.TemplateMethodModelEx;
 import freemarker.template.TemplateModelException;
 
+import org.apache.log4j.Logger;
+
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.security.PrivilegedAction;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
-import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
-import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static java.lang.String.format;
 import static java.security.AccessController.doPrivileged;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Generates the {@link TimeStepRunner} classes for the timestep based tests.
+ *
+ * The source of a runner is rendered from the TimeStepRunner.ftl template and compiled in memory; nothing is written to disk.
+ * Compiled runner classes are cached in the worker, so a runner is generated only once per test class, execution group
+ * configuration, metronome class, probe class and set of runner options. Subsequent test cases and runs with the same
+ * settings reuse the cached class. Runners with different settings are generated concurrently; only callers with the same
+ * settings wait for each other.
+ *
+ * The cached classes reference the test class and its class loader, so the {@link TestManager} evicts them with
+ * {@link #evict(Class)} when the last test of a test class is removed.
+ */
+@SuppressWarnings("checkstyle:classdataabstractioncoupling")
 class TimeStepRunnerCodeGenerator {
 
-    private final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
-    private final File targetDirectory = new File(getUserDir(), "timestep-worker-classes");
+    private static final Logger LOGGER = Logger.getLogger(TimeStepRunnerCodeGenerator.class);
+
+    private static final JavaCompiler JAVA_COMPILER = ToolProvider.getSystemJavaCompiler();
+    private static final Configuration TEMPLATE_CONFIGURATION = newTemplateConfiguration();
 
+    private static final ConcurrentMap<List<Object>, Future<Class>> RUNNER_CLASS_CACHE
+            = new ConcurrentHashMap<List<Object>, Future<Class>>();
+    private static final AtomicInteger RUNNER_CLASS_ID = new AtomicInteger();
+
+    /**
+     * Removes the cached runner classes of a test class, so the test class and its class loader can be garbage collected.
+     *
+     * @param testClass the test class
+     */
+    static void evict(Class testClass) {
+        for (List<Object> key : RUNNER_CLASS_CACHE.keySet()) {
+            if (key.get(0) == testClass) {
+                RUNNER_CLASS_CACHE.remove(key);
+            }
+        }
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
     Class compile(
+            final String testCaseId,
+            final String executionGroup,
+            final TimeStepModel timeStepModel,
+            final Class<? extends Metronome> metronomeClass,
+            final Class<? extends Probe> probeClass,
+            final long logFrequency,
+            final long logRateMs,
+            final boolean hasIterationCap,
+            final int maxInFlight,
+            final boolean recordStartLag,
+            final boolean recordExemplars) {
+
+        List<Object> key = asList(
+                timeStepModel.getTestClass(),
+                timeStepModel.getActiveTimeStepMethods(executionGroup),
+                timeStepModel.getThreadStateClass(executionGroup),
+                metronomeClass,
+                probeClass,
+                logFrequency,
+                logRateMs,
+                hasIterationCap,
+                maxInFlight,
+                recordStartLag,
+                recordExemplars);
+
+        FutureTask<Class> task = new FutureTask<Class>(new Callable<Class>() {
+            @Override
+            public Class call() {
+                return generate(testCaseId, executionGroup, timeStepModel, metronomeClass, probeClass, logFrequency,
+                        logRateMs, hasIterationCap, maxInFlight, recordStartLag, recordExemplars);
+            }
+        });
+        Future<Class> future = RUNNER_CLASS_CACHE.putIfAbsent(key, task);
+        if (future == null) {
+            future = task;
+            task.run();
+        }
+
+        try {
+            Class runnerClass = future.get();
+            if (future != task) {
+                LOGGER.info(format("%s reusing runner class %s", testCaseId, runnerClass.getName()));
+            }
+            return runnerClass;
+        } catch (ExecutionException e) {
+            // a failed generation isn't cached, so the next test case tries again
+            RUNNER_CLASS_CACHE.remove(key, future);
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    private Class generate(
             String testCaseId,
             String executionGroup,
             TimeStepModel timeStepModel,
@@ -66,68 +169,76 @@ class TimeStepRunnerCodeGenerator {
             Class<? extends Probe> probeClass,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
-
-        ensureExistingDirectory(targetDirectory);
-
-        String className = timeStepModel.getTestClass().getSimpleName();
+            boolean hasIterationCap,
+            int maxInFlight,
+            boolean recordStartLag,
+            boolean recordExemplars) {
+        long startNanos = System.nanoTime();
+
+        Class testClass = timeStepModel.getTestClass();
+        String className = testClass.getSimpleName();
         if (!"".equals(executionGroup)) {
             className += "_" + executionGroup + "_";
-
         }
-        className += "Runner";
+        className += "Runner" + RUNNER_CLASS_ID.incrementAndGet();
 
-        if (!"".equals(testCaseId)) {
-            className += testCaseId;
-        }
-        JavaFileObject file = createJavaFileObject(
-                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
-        return compile(javaCompiler, file, className);
+        JavaFileObject file = createJavaFileObject(className, executionGroup, metronomeClass, timeStepModel, probeClass,
+                logFrequency, logRateMs, hasIterationCap, maxInFlight, recordStartLag, recordExemplars);
+        Class runnerClass = compile(JAVA_COMPILER, file, className, testClass.getClassLoader());
+
+        LOGGER.info(format("%s generated runner class %s in %d ms",
+                testCaseId, className, NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+        return runnerClass;
     }
 
-    Class compile(JavaCompiler compiler, JavaFileObject file, final String className) {
+    Class compile(JavaCompiler compiler, JavaFileObject file, final String className, final ClassLoader parent) {
         if (compiler == null) {
             throw new IllegalStateException("Could not get Java compiler in TimeStepRunnerCodeGenerator."
                     + " You need to use a JDK to run Simulator! Version found: " + System.getProperty("java.version"));
         }
 
         DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
-        JavaCompiler.CompilationTask task = compiler.getTask(
-                null,
-                null,
-                diagnostics,
-                asList("-d", targetDirectory.getAbsolutePath()),
-                null,
-                singletonList(file));
-
-        boolean success = task.call();
-        if (!success) {
-            StringBuilder sb = new StringBuilder();
-            for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
-                sb.append("Error on line ")
-                        .append(diagnostic.getLineNumber())
-                        .append(" in ")
-                        .append(diagnostic)
-                        .append('\n');
+        final InMemoryFileManager fileManager = new InMemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, null, null));
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    null,
+                    null,
+                    singletonList(file));
+
+            boolean success = task.call();
+            if (!success) {
+                StringBuilder sb = new StringBuilder();
+                for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+                    sb.append("Error on line ")
+                            .append(diagnostic.getLineNumber())
+                            .append(" in ")
+                            .append(diagnostic)
+                            .append('\n');
+                }
+                throw new IllegalTestException(sb.toString());
             }
-            throw new IllegalTestException(sb.toString());
+        } finally {
+            closeQuietly(fileManager);
         }
 
         return (Class) doPrivileged(new PrivilegedAction() {
             @Override
             public Object run() {
                 try {
-                    URLClassLoader classLoader = new URLClassLoader(new URL[]{targetDirectory.toURI().toURL()});
+                    ClassLoader classLoader = new RunnerClassLoader(parent, fileManager.getClassBytes());
                     return (Class) classLoader.loadClass(className);
                 } catch (ClassNotFoundException e) {
                     throw new IllegalTestException(e.getMessage(), e);
-                } catch (MalformedURLException e) {
-                    throw new IllegalTestException(e.getMessage(), e);
                 }
             }
         });
     }
 
+    @SuppressWarnings({"checkstyle:parameternumber", "checkstyle:npathcomplexity"})
     private JavaFileObject createJavaFileObject(
             String className,
             String executionGroup,
@@ -136,14 +247,11 @@ class TimeStepRunnerCodeGenerator {
             Class<? extends Probe> probeClass,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
+            boolean hasIterationCap,
+            int maxInFlight,
+            boolean recordStartLag,
+            boolean recordExemplars) {
         try {
-            Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
-            cfg.setClassForTemplateLoading(this.getClass(), "/");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
             Map<String, Object> root = new HashMap<String, Object>();
             root.put("testInstanceClass", getClassName(timeStepModel.getTestClass()));
             root.put("metronomeClass", getMetronomeClass(metronomeClass));
@@ -155,6 +263,8 @@ class TimeStepRunnerCodeGenerator {
             root.put("Probe", Probe.class);
             root.put("threadStateClass", getClassName(timeStepModel.getThreadStateClass(executionGroup)));
             root.put("hasProbe", new HasProbeMethod());
+            root.put("serviceTimeProbeName", new ServiceTimeProbeNameMethod());
+            root.put("startLagProbeName", new StartLagProbeNameMethod());
             root.put("className", className);
             if (logFrequency > 0) {
                 root.put("logFrequency", "" + logFrequency);
@@ -168,22 +278,41 @@ class TimeStepRunnerCodeGenerator {
                 root.put("hasIterationCap", "true");
             }
 
-            Template temp = cfg.getTemplate("TimeStepRunner.ftl");
-            StringWriter out = new StringWriter();
-            temp.process(root, out);
+            if (maxInFlight > 0) {
+                root.put("maxInFlight", "" + maxInFlight);
+            }
 
-            String javaCode = out.toString();
+            if (metronomeClass == TraceReplayMetronome.class) {
+                root.put("traceReplay", "true");
+            }
 
-            File javaFile = new File(targetDirectory, className + ".java");
+            if (recordStartLag) {
+                root.put("recordStartLag", "true");
+            }
 
-            writeText(javaCode, javaFile);
+            if (recordExemplars && probeClass != null) {
+                root.put("recordExemplars", "true");
+            }
+
+            Template temp = TEMPLATE_CONFIGURATION.getTemplate("TimeStepRunner.ftl");
+            StringWriter out = new StringWriter();
+            temp.process(root, out);
 
-            return new JavaSourceFromString(className, javaCode);
+            return new JavaSourceFromString(className, out.toString());
         } catch (Exception e) {
             throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
         }
     }
 
+    private static Configuration newTemplateConfiguration() {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
+        cfg.setClassForTemplateLoading(TimeStepRunnerCodeGenerator.class, "/");
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+        return cfg;
+    }
+
     private static String getClassName(Class clazz) {
         return clazz == null ? null : clazz.getName().replace('$', '.');
     }
@@ -210,6 +339,70 @@ class TimeStepRunnerCodeGenerator {
         }
     }
 
+    private static class JavaClassToBytes extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        JavaClassToBytes(String name) {
+            super(URI.create("bytes:///" + name.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Keeps the class files produced by the compiler in memory, including those of the anonymous classes of a runner.
+     */
+    private static final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, JavaClassToBytes> classFiles = new HashMap<String, JavaClassToBytes>();
+
+        InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            JavaClassToBytes classFile = new JavaClassToBytes(className);
+            classFiles.put(className, classFile);
+            return classFile;
+        }
+
+        Map<String, byte[]> getClassBytes() {
+            Map<String, byte[]> result = new HashMap<String, byte[]>();
+            for (Map.Entry<String, JavaClassToBytes> entry : classFiles.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().bytes.toByteArray());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Defines the generated runner classes as children of the class loader of the test class.
+     */
+    private static final class RunnerClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classBytes;
+
+        RunnerClassLoader(ClassLoader parent, Map<String, byte[]> classBytes) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classBytes.get(name);
+            if (bytes == null) {
+                return super.findClass(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
     private static final class IsAssignableFromMethod implements TemplateMethodModelEx {
 
         @Override
@@ -245,7 +438,7 @@ class TimeStepRunnerCodeGenerator {
             }
 
             String resultTypeName = ((SimpleScalar) list.get(0)).getAsString();
-            return "com.hazelcast.core.ICompletableFuture".equals(resultTypeName);
+            return TimeStepModel.isAsyncResult(resultTypeName);
         }
     }
 
@@ -281,6 +474,34 @@ class TimeStepRunnerCodeGenerator {
         }
     }
 
+    private static final class ServiceTimeProbeNameMethod implements TemplateMethodModelEx {
+
+        @Override
+        public Object exec(List list) throws TemplateModelException {
+            if (list.size() != 1) {
+                throw new TemplateModelException("Wrong number of arguments for method serviceTimeProbeName()."
+                        + " Method has one required parameter: [String]. Found: " + list.size());
+            }
+
+            String methodName = ((SimpleScalar) list.get(0)).getAsString();
+            return TimeStepModel.toServiceTimeProbeName(methodName);
+        }
+    }
+
+    private static final class StartLagProbeNameMethod implements TemplateMethodModelEx {
+
+        @Override
+        public Object exec(List list) throws TemplateModelException {
+            if (list.size() != 1) {
+                throw new TemplateModelException("Wrong number of arguments for method startLagProbeName()."
+                        + " Method has one required parameter: [String]. Found: " + list.size());
+            }
+
+            String methodName = ((SimpleScalar) list.get(0)).getAsString();
+            return TimeStepModel.toStartLagProbeName(methodName);
+        }
+    }
+
     private static final class HasProbeMethod implements TemplateMethodModelEx {
 
         @Override
@@ -296,14 +517,7 @@ class TimeStepRunnerCodeGenerator {
                         + " It should be Method. Found: " + arg1.getClass());
             }
 
-            Method method = (Method) arg1;
-            for (Class paramType : method.getParameterTypes()) {
-                if (Probe.class.isAssignableFrom(paramType)) {
-                    return true;
-                }
-            }
-
-            return false;
+            return TimeStepModel.hasProbeArgument((Method) arg1);
         }
     }
 }
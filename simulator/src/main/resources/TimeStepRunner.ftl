@@ -9,6 +9,7 @@ import com.hazelcast.simulator.utils.*;
 import org.apache.log4j.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
 public class ${className} extends TimeStepRunner {
@@ -21,10 +22,7 @@ public class ${className} extends TimeStepRunner {
 
     @Override
     public void timeStepLoop() throws Exception {
-<#if timeStepMethods?size gt 1>
-        final Random random = new Random();
-</#if>
-        final AtomicLong iterations = this.iterations;
+        final PaddedAtomicLong iterations = this.iterations;
         final TestContextImpl testContext = (TestContextImpl)this.testContext;
         final ${testInstanceClass} testInstance = (${testInstanceClass})this.testInstance;
 <#if metronomeClass??>
@@ -32,7 +30,13 @@ public class ${className} extends TimeStepRunner {
 </#if>
 <#if probeClass??>
     <#list timeStepMethods as method>
-        final ${probeClass} ${method.name}Probe = (${probeClass})probeMap.get("${method.name}");
+        final Probe ${method.name}Probe = probeMap.get("${method.name}");
+        <#if isAsyncResult(method.getReturnType().getName())>
+        final Probe ${method.name}ServiceTimeProbe = probeMap.get("${serviceTimeProbeName(method.name)}");
+        </#if>
+        <#if recordStartLag??>
+        final Probe ${method.name}StartLagProbe = probeMap.get("${startLagProbeName(method.name)}");
+        </#if>
     </#list>
 </#if>
 <#if threadStateClass??>
@@ -45,19 +49,27 @@ public class ${className} extends TimeStepRunner {
         final ThrottlingLogger throttlingLogger = new ThrottlingLogger(logger, ${logRateMs});
 </#if>
 
-<#if timeStepMethods?size gt 1>
-        final byte[] probs  = this.timeStepProbabilities;
+<#if timeStepMethods?size gt 1 && !traceReplay??>
+        final AliasTable aliasTable = this.timeStepAliasTable;
+        long random = newRandomSeed();
 </#if>
 
 <#if hasIterationCap??>
         final long maxIterations = this.maxIterations;
 </#if>
 
+<#if maxInFlight??>
+        final Semaphore inFlight = new Semaphore(${maxInFlight});
+</#if>
+
         long iteration = 0;
-        while (!testContext.isStopped()) {
+        while (!testContext.isStopped() && !retired) {
 <#if probeClass??>
     <#if metronomeClass??>
             final long startNanos = metronome.waitForNext();
+        <#if recordExemplars??>
+            final long actualStartNanos = System.nanoTime();
+        </#if>
     <#else>
             final long startNanos = System.nanoTime();
     </#if>
@@ -66,37 +78,70 @@ public class ${className} extends TimeStepRunner {
             metronome.waitForNext();
     </#if>
 </#if>
+<#if traceReplay??>
+            if (metronome.isCompleted()) {
+                // the whole trace has been replayed; the outstanding calls are awaited after the loop
+                break;
+            }
+</#if>
 
 <#if timeStepMethods?size==1>
     <#assign method=timeStepMethods?first>
     <#assign resultType=method.getReturnType().getName()>
     <#if hasProbe(method)|| !probeClass?? || isAsyncResult(resultType)>
             <#assign resultName = "result">
-            <#if isAsyncResult(resultType)>${resultType} ${resultName} = </#if><@timestepMethodCall m=method/>;
+            <#assign sendName = "sendNanos">
             <#if isAsyncResult(resultType)>
+                <@acquireInFlight/>
+                <@sendNanos/>
+            </#if>
+            <@startLag m=method/>
+            <#if isAsyncResult(resultType)>
+                <@asyncMethodCall m=method/>
                 <@handleAsyncResult m=method/>
+            <#else>
+            <@timestepMethodCall m=method/>;
             </#if>
     <#else>
+            <@startLag m=method/>
             <@timestepMethodCall m=method/>;
-            ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+            <@recordLatency m=method/>
     </#if>
 <#else>
+    <#if traceReplay??>
+
+            // the trace determines the method of the request
+            switch(metronome.getMethodIndex()){
+    <#else>
 
-            switch(probs[random.nextInt(probs.length)]){
+            // xorshift64*
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            switch(aliasTable.select(random * 0x2545F4914F6CDD1DL)){
+    </#if>
     <#list timeStepMethods as method>
         <#assign index = method?counter-1>
                 case ${index}:
         <#assign resultType=method.getReturnType().getName()>
         <#if hasProbe(method) || !probeClass?? || isAsyncResult(resultType)>
             <#assign resultName = "result" + index>
+            <#assign sendName = "sendNanos" + index>
             <#if isAsyncResult(resultType)>
-                    ${resultType} ${resultName} = </#if><@timestepMethodCall m=method/>;
+                    <@acquireInFlight/>
+                    <@sendNanos/>
+            </#if>
+                    <@startLag m=method/>
             <#if isAsyncResult(resultType)>
+                    <@asyncMethodCall m=method/>
                     <@handleAsyncResult m=method/>
+            <#else>
+                    <@timestepMethodCall m=method/>;
             </#if>
         <#else>
+                    <@startLag m=method/>
                     <@timestepMethodCall m=method/>;
-                    ${method.name}Probe.recordValue(System.nanoTime() - startNanos);
+                    <@recordLatency m=method/>
         </#if>
                     break;
     </#list>
@@ -122,13 +167,78 @@ public class ${className} extends TimeStepRunner {
             }
 </#if>
         }
+<#if maxInFlight??>
+
+        awaitInFlight(inFlight, ${maxInFlight});
+</#if>
     }
 
+<#macro acquireInFlight>
+<#if maxInFlight??>
+                    if (!acquireInFlight(inFlight)) {
+                        // stopped or retired while waiting for a permit; the loop condition ends the loop
+                        continue;
+                    }
+</#if>
+</#macro>
+
+<#macro asyncMethodCall m>
+<#if maxInFlight??>
+                    ${resultType} ${resultName} = null;
+                    try {
+                        ${resultName} = <@timestepMethodCall m=m/>;
+                    } finally {
+                        if (${resultName} == null) {
+                            // no callback will release the permit if the call failed before returning its future
+                            inFlight.release();
+                        }
+                    }
+<#else>
+                    ${resultType} ${resultName} = <@timestepMethodCall m=m/>;
+</#if>
+</#macro>
+
+<#macro sendNanos>
+<#if probeClass??>
+                    final long ${sendName} = System.nanoTime();
+</#if>
+</#macro>
+
+<#macro startLag m>
+<#if recordStartLag??>
+    <#if isAsyncResult(m.getReturnType().getName())>
+                    ${m.name}StartLagProbe.recordValue(${sendName} - startNanos);
+    <#else>
+                    ${m.name}StartLagProbe.recordValue(System.nanoTime() - startNanos);
+    </#if>
+</#if>
+</#macro>
+
+<#macro recordLatency m>
+<#if recordExemplars??>
+                    ${m.name}Probe.done(startNanos, <#if metronomeClass??>actualStartNanos<#else>startNanos</#if>, null);
+<#else>
+                    ${m.name}Probe.recordValue(System.nanoTime() - startNanos);
+</#if>
+</#macro>
+
 <#macro handleAsyncResult m>
                     ${resultName}.andThen(new com.hazelcast.spi.impl.SimpleExecutionCallback() {
                         @Override
                         public void notify(Object o) {
-                           ${m.getName()}Probe.recordValue(System.nanoTime() - startNanos);
+<#if probeClass??>
+                           final long completedNanos = System.nanoTime();
+                           // the response time includes the time the request was queued, the service time doesn't
+<#if recordExemplars??>
+                           ${m.getName()}Probe.done(startNanos, ${sendName}, null);
+<#else>
+                           ${m.getName()}Probe.recordValue(completedNanos - startNanos);
+</#if>
+                           ${m.getName()}ServiceTimeProbe.recordValue(completedNanos - ${sendName});
+</#if>
+<#if maxInFlight??>
+                           inFlight.release();
+</#if>
                          }
                     });
 </#macro>
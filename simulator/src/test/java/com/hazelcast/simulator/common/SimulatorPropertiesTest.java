@@ -196,6 +196,36 @@ public class SimulatorPropertiesTest {
         assertEquals(60, simulatorProperties.getWorkerPingIntervalSeconds());
     }
 
+    @Test
+    public void testGetPerformanceMonitorIntervalMillis() {
+        simulatorProperties.set("WORKER_PERFORMANCE_MONITOR_INTERVAL", "10s");
+        assertEquals(10000, simulatorProperties.getPerformanceMonitorIntervalMillis());
+
+        simulatorProperties.set("WORKER_PERFORMANCE_MONITOR_INTERVAL", "250ms");
+        assertEquals(250, simulatorProperties.getPerformanceMonitorIntervalMillis());
+    }
+
+    @Test
+    public void testGetPerformanceMonitorIntervalMillis_withPreviousName() {
+        simulatorProperties.set("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS", "10");
+        assertEquals(10000, simulatorProperties.getPerformanceMonitorIntervalMillis());
+
+        simulatorProperties.set("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS", "250ms");
+        assertEquals(250, simulatorProperties.getPerformanceMonitorIntervalMillis());
+    }
+
+    @Test
+    public void testLoad_withPreviousPerformanceMonitorIntervalName() {
+        File workingDirFile = new File(simulatorHome, "simulator.properties");
+
+        appendText("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS=250ms", workingDirFile);
+
+        simulatorProperties.load(workingDirFile);
+
+        assertEquals(250, simulatorProperties.getPerformanceMonitorIntervalMillis());
+        assertEquals("250ms", simulatorProperties.asMap().get("WORKER_PERFORMANCE_MONITOR_INTERVAL"));
+    }
+
     @Test
     public void testGetMemberWorkerShutdownDelaySeconds() {
         assertEquals(5, simulatorProperties.getMemberWorkerShutdownDelaySeconds());
@@ -37,6 +37,7 @@ import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class CoordinatorCliTest {
 
@@ -364,6 +365,51 @@ public class CoordinatorCliTest {
     }
 
 
+    @Test
+    public void testInit_rateSearch_default() {
+        args.add(testSuiteFile.getAbsolutePath());
+        CoordinatorCli cli = createCoordinatorCli();
+
+        assertNull(cli.coordinatorParameters.getRateSearchSettings());
+    }
+
+    @Test
+    public void testInit_rateSearch() {
+        args.add("--rateSearchLatencyUs");
+        args.add("500");
+        args.add("--rateSearchPercentile");
+        args.add("99");
+        args.add("--rateSearchMinRate");
+        args.add("100");
+        args.add("--rateSearchMaxRate");
+        args.add("20000");
+        args.add("--rateSearchStep");
+        args.add("1m");
+        args.add(testSuiteFile.getAbsolutePath());
+
+        CoordinatorCli cli = createCoordinatorCli();
+
+        RateSearchSettings settings = cli.coordinatorParameters.getRateSearchSettings();
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500), settings.getLatencyNanos());
+        assertEquals(99, settings.getPercentile(), 0.001);
+        assertEquals(100, settings.getMinRate(), 0.001);
+        assertEquals(20000, settings.getMaxRate(), 0.001);
+        assertEquals(TimeUnit.MINUTES.toMillis(1), settings.getStepMillis());
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testInit_rateSearch_whenMaxRateBelowMinRate() {
+        args.add("--rateSearchLatencyUs");
+        args.add("500");
+        args.add("--rateSearchMinRate");
+        args.add("100");
+        args.add("--rateSearchMaxRate");
+        args.add("10");
+        args.add(testSuiteFile.getAbsolutePath());
+
+        createCoordinatorCli();
+    }
+
     @Test
     public void testInit_withLocalSetup() {
         File simulatorProperties = new File(getUserDir(), "simulator.properties").getAbsoluteFile();
@@ -46,11 +46,13 @@ public class CoordinatorOperationProcessorTest {
     public void test_whenPerformanceStatsOperation() throws Exception {
         PerformanceStatsOperation op = mock(PerformanceStatsOperation.class);
         Map<String, PerformanceStats> performanceStats = mock(Map.class);
+        Map<String, Map<String, String>> histograms = mock(Map.class);
         when(op.getPerformanceStats()).thenReturn(performanceStats);
+        when(op.getHistograms()).thenReturn(histograms);
 
         processor.process(op, address, promise);
 
-        verify(performanceStatsCollector).update(address, performanceStats);
+        verify(performanceStatsCollector).update(address, performanceStats, histograms);
     }
 
     @Test(expected = ProcessException.class)
@@ -8,6 +8,8 @@ import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -111,6 +113,30 @@ public class CoordinatorRemoteImplTest {
         assertSame(expected, result);
     }
 
+    @Test
+    public void test_RcTestThreadCountOperation() throws Exception {
+        RcTestThreadCountOperation op = new RcTestThreadCountOperation("testId", "", 16);
+
+        String expected = "C_A1_W1=16";
+        when(coordinator.testThreadCount(op)).thenReturn(expected);
+
+        String result = remote.execute(op);
+
+        assertSame(expected, result);
+    }
+
+    @Test
+    public void test_RcTestProfileOperation() throws Exception {
+        RcTestProfileOperation op = new RcTestProfileOperation("testId", "jfr", null, null, "60s", false);
+
+        String expected = "C_A1_W1=profiling to testId-jfr-1.jfr";
+        when(coordinator.testProfile(op)).thenReturn(expected);
+
+        String result = remote.execute(op);
+
+        assertSame(expected, result);
+    }
+
     @Test
     public void test_RcWorkerKillOperation() throws Exception {
         RcWorkerKillOperation op = new RcWorkerKillOperation("bla", mock(WorkerQuery.class));
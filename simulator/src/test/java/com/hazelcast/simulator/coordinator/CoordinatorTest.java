@@ -6,6 +6,8 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestProfileOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestThreadCountOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -188,6 +190,16 @@ public class CoordinatorTest {
         assertTestCompletesEventually(testId);
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testThreadCount_whenTestNotFound() throws Exception {
+        coordinator.testThreadCount(new RcTestThreadCountOperation("notexisting", "", 2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testProfile_whenTestNotFound() throws Exception {
+        coordinator.testProfile(new RcTestProfileOperation("notexisting", "jfr", null, null, null, false));
+    }
+
     @Test
     public void testRun() throws Exception {
         // start worker
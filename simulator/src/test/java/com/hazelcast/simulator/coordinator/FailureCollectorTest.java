@@ -26,6 +26,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class FailureCollectorTest {
@@ -115,6 +116,27 @@ public class FailureCollectorTest {
         assertEquals(workerDeleted ? null : worker, registry.getWorker(workerAddress));
     }
 
+    @Test
+    public void notify_whenTerminalFailure_thenWorkerRemovedFromPerformanceStats() {
+        PerformanceStatsCollector performanceStatsCollector = mock(PerformanceStatsCollector.class);
+        failureCollector = new FailureCollector(outputDirectory, registry, performanceStatsCollector);
+        registry.getWorker(workerAddress).setIgnoreFailures(true);
+
+        failureCollector.notify(abnormalExitFailure);
+
+        verify(performanceStatsCollector).removeWorker(workerAddress);
+    }
+
+    @Test
+    public void notify_whenNonTerminalFailure_thenWorkerNotRemovedFromPerformanceStats() {
+        PerformanceStatsCollector performanceStatsCollector = mock(PerformanceStatsCollector.class);
+        failureCollector = new FailureCollector(outputDirectory, registry, performanceStatsCollector);
+
+        failureCollector.notify(exceptionFailure);
+
+        verify(performanceStatsCollector, never()).removeWorker(workerAddress);
+    }
+
     @Test
     public void notify_enrich() {
         TestCase testCase = new TestCase("test1");
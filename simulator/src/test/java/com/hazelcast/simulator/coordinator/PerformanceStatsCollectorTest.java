@@ -1,7 +1,9 @@
 package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -10,10 +12,13 @@ import java.util.Map;
 
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.aggregateAll;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PerformanceStatsCollectorTest {
@@ -83,6 +88,141 @@ public class PerformanceStatsCollectorTest {
         assertFalse(performance.contains("µs"));
     }
 
+    @Test
+    public void testFormatPerformanceNumbers_withHistograms() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(1000, MICROSECONDS.toNanos(100)));
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+        assertTrue(performance.contains("µs (50th)"));
+        assertTrue(performance.contains("µs (99th)"));
+        assertTrue(performance.contains("µs (99.9th)"));
+        assertTrue(performance.contains("µs (99.99th)"));
+    }
+
+    @Test
+    public void testDetailedPerformanceInfo_withCost() {
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500, 64000, 1000000));
+        update(a2w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500, 192000, 3000000));
+
+        String performance = performanceStatsCollector.detailedPerformanceInfo(TEST_CASE_ID_1, SECONDS.toMillis(10));
+        assertTrue(performance.contains("Allocated per operation       128.00 bytes"));
+        assertTrue(performance.contains("CPU time per operation      2,000.00 ns"));
+    }
+
+    @Test
+    public void testDetailedPerformanceInfo_withoutCost() {
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500));
+
+        String performance = performanceStatsCollector.detailedPerformanceInfo(TEST_CASE_ID_1, SECONDS.toMillis(10));
+        assertFalse(performance.contains("per operation"));
+    }
+
+    @Test
+    public void testIntervalHistogram_mergedOverWorkers() {
+        // worker 1 is fast, worker 2 is slow; with max() of the worker numbers the median would be the slow value
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(900, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, new PerformanceStats(100, 20, 50, 1900.0d, 1800, 2500),
+                newHistogram(100, MILLISECONDS.toNanos(10)));
+
+        Histogram histogram = performanceStatsCollector.getIntervalHistogram(TEST_CASE_ID_1);
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(MICROSECONDS.toNanos(100), histogram.getValueAtPercentile(50), MICROSECONDS.toNanos(1));
+        assertEquals(MILLISECONDS.toNanos(10), histogram.getValueAtPercentile(99), MICROSECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testIntervalHistogram_whenWorkerRemoved() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(900, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, new PerformanceStats(100, 20, 50, 1900.0d, 1800, 2500),
+                newHistogram(100, MILLISECONDS.toNanos(10)));
+
+        performanceStatsCollector.removeWorker(a2w1);
+
+        // the last interval of the removed worker isn't part of the later intervals
+        assertEquals(900, performanceStatsCollector.getIntervalHistogram(TEST_CASE_ID_1).getTotalCount());
+        assertEquals(200, performanceStatsCollector.get(TEST_CASE_ID_1, false).getIntervalThroughput(), 0.1);
+        // but its results are kept in the totals
+        assertEquals(1000, performanceStatsCollector.getTotalHistogram(TEST_CASE_ID_1).getTotalCount());
+        assertEquals(1100, performanceStatsCollector.get(TEST_CASE_ID_1, true).getOperationCount());
+    }
+
+    @Test
+    public void testRemoveWorker_whenUnknownWorker() {
+        performanceStatsCollector.removeWorker(a2w1);
+
+        assertNull(performanceStatsCollector.getIntervalHistogram(TEST_CASE_ID_1));
+    }
+
+    @Test
+    public void testIntervalHistogram_whenNoHistograms() {
+        update(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500));
+
+        assertNull(performanceStatsCollector.getIntervalHistogram(TEST_CASE_ID_1));
+    }
+
+    @Test
+    public void testTotalHistograms_mergedOverWorkersAndIntervals() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(100, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(2000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(200, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(300, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a2w1, TEST_CASE_ID_2, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(50, MICROSECONDS.toNanos(100)));
+
+        Map<String, Histogram> histograms = performanceStatsCollector.getTotalHistograms(TEST_CASE_ID_1);
+        assertEquals(1, histograms.size());
+        assertEquals(600, histograms.get("probe").getTotalCount());
+        assertEquals(50, performanceStatsCollector.getTotalHistograms(TEST_CASE_ID_2).get("probe").getTotalCount());
+    }
+
+    @Test
+    public void testTotalHistogram_mergedOverWorkersAndIntervals() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(100, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(2000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(200, MICROSECONDS.toNanos(100)));
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(300, MILLISECONDS.toNanos(10)));
+
+        Histogram histogram = performanceStatsCollector.getTotalHistogram(TEST_CASE_ID_1);
+        assertEquals(600, histogram.getTotalCount());
+        assertEquals(MILLISECONDS.toNanos(10), histogram.getMaxValue(), MICROSECONDS.toNanos(10));
+        assertNull(performanceStatsCollector.getTotalHistogram(TEST_CASE_ID_2));
+    }
+
+    @Test
+    public void testDetailedPerformanceInfo_withHistograms() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, new PerformanceStats(1000, 200, 500, 1900.0d, 1800, 2500),
+                newHistogram(1000, MICROSECONDS.toNanos(100)));
+
+        String performance = performanceStatsCollector.detailedPerformanceInfo(TEST_CASE_ID_1, SECONDS.toMillis(10));
+        assertTrue(performance.contains("Latency probe"));
+        assertTrue(performance.contains("µs (99.99th)"));
+    }
+
+    private void updateWithHistogram(SimulatorAddress address, String testId, PerformanceStats performanceStats,
+                                     Histogram histogram) {
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put("probe", histogram);
+
+        PerformanceStatsOperation operation = new PerformanceStatsOperation();
+        operation.addPerformanceStats(testId, performanceStats);
+        operation.addHistograms(testId, histograms);
+
+        performanceStatsCollector.update(address, operation.getPerformanceStats(), operation.getHistograms());
+    }
+
+    private static Histogram newHistogram(int count, long valueNanos) {
+        Histogram histogram = new Histogram(MICROSECONDS.toNanos(1), HOURS.toNanos(1), 3);
+        histogram.recordValueWithCount(valueNanos, count);
+        return histogram;
+    }
+
     private void update(SimulatorAddress address, String testId, PerformanceStats performanceStats) {
         Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
         performanceStatsMap.put(testId, performanceStats);
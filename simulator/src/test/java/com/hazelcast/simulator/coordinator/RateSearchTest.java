@@ -0,0 +1,158 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RateSearchTest {
+
+    private static final String TEST_ID = "test";
+    private static final long LATENCY_LIMIT_NANOS = MILLISECONDS.toNanos(1);
+
+    private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
+
+    @Test
+    public void testBinarySearch() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+        // the system can sustain up to 20000 ops/s
+        double maxRate = 20000;
+
+        assertEquals(1000, rateSearch.getRate(), 0.001);
+        int steps = 0;
+        while (!rateSearch.isDone()) {
+            double rate = rateSearch.getRate();
+            long latencyNanos = rate <= maxRate ? MICROSECONDS.toNanos(100) : MILLISECONDS.toNanos(10);
+            rateSearch.complete(newHistogram(latencyNanos), rate);
+            steps++;
+        }
+
+        assertTrue(rateSearch.getMaxSustainableRate() <= maxRate);
+        assertTrue(rateSearch.getMaxSustainableRate() >= maxRate / 1.05);
+        assertTrue("the search should use a binary search, but needed " + steps + " steps", steps < 12);
+        assertEquals(MICROSECONDS.toNanos(100), rateSearch.getMaxSustainableHistogram().getMaxValue(), MICROSECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testMinRateNotSustainable() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+
+        assertFalse(rateSearch.complete(newHistogram(MILLISECONDS.toNanos(10)), 1000));
+
+        assertTrue(rateSearch.isDone());
+        assertEquals(0, rateSearch.getMaxSustainableRate(), 0.001);
+        assertNull(rateSearch.getMaxSustainableHistogram());
+        assertTrue(rateSearch.report().contains("No sustainable rate found"));
+    }
+
+    @Test
+    public void testMaxRateSustainable() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+
+        assertTrue(rateSearch.complete(newHistogram(MICROSECONDS.toNanos(100)), 1000));
+        assertEquals(100000, rateSearch.getRate(), 0.001);
+        assertTrue(rateSearch.complete(newHistogram(MICROSECONDS.toNanos(100)), 100000));
+
+        assertTrue(rateSearch.isDone());
+        assertEquals(100000, rateSearch.getMaxSustainableRate(), 0.001);
+        assertTrue(rateSearch.report().contains("Maximum sustainable rate 100000 ops/s"));
+    }
+
+    @Test
+    public void testNotSustainable_whenThroughputTooLow() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+
+        assertFalse(rateSearch.complete(newHistogram(MICROSECONDS.toNanos(100)), 500));
+    }
+
+    @Test
+    public void testNotSustainable_whenNoLatencies() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+
+        assertFalse(rateSearch.complete(null, 1000));
+        assertTrue(rateSearch.report().contains("no latencies recorded"));
+    }
+
+    @Test
+    public void testUpdate() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+
+        // the first update applies the minimum rate
+        assertTrue(rateSearch.update(1000));
+        // the latencies before the end of the settle time are ignored
+        addPerformance(500, 500, MILLISECONDS.toNanos(10));
+        assertFalse(rateSearch.update(1500));
+        assertFalse(rateSearch.update(2000));
+
+        addPerformance(1500, 1000, MICROSECONDS.toNanos(100));
+        assertFalse(rateSearch.update(2500));
+        assertTrue(rateSearch.update(3000));
+
+        assertEquals(1000, rateSearch.getMaxSustainableRate(), 0.001);
+        assertEquals(1000, rateSearch.getMaxSustainableHistogram().getTotalCount());
+        assertEquals(100000, rateSearch.getRate(), 0.001);
+    }
+
+    @Test
+    public void testReport_whenIncomplete() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+        rateSearch.complete(newHistogram(MICROSECONDS.toNanos(100)), 1000);
+
+        String report = rateSearch.report();
+        assertTrue(report.contains("(incomplete)"));
+        assertTrue(report.contains("rate 1000 ops/s throughput 1000 ops/s sustainable"));
+    }
+
+    @Test
+    public void testMaxSustainableHistogram() {
+        RateSearch rateSearch = newRateSearch(1000, 100000);
+        Histogram histogram = newHistogram(MICROSECONDS.toNanos(100));
+
+        rateSearch.complete(histogram, 1000);
+        rateSearch.complete(newHistogram(MILLISECONDS.toNanos(10)), 100000);
+
+        assertFalse(rateSearch.isDone());
+        assertEquals(10000, rateSearch.getRate(), 0.001);
+        assertSame(histogram, rateSearch.getMaxSustainableHistogram());
+    }
+
+    private RateSearch newRateSearch(double minRate, double maxRate) {
+        RateSearchSettings settings = new RateSearchSettings(99.9, LATENCY_LIMIT_NANOS, minRate, maxRate, 1000);
+        return new RateSearch(TEST_ID, settings, performanceStatsCollector, 1000);
+    }
+
+    private void addPerformance(long totalOperationCount, long intervalOperationCount, long latencyNanos) {
+        Histogram histogram = newHistogram(latencyNanos, intervalOperationCount);
+
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put("probe", histogram);
+
+        PerformanceStatsOperation operation = new PerformanceStatsOperation();
+        operation.addPerformanceStats(TEST_ID, new PerformanceStats(totalOperationCount, 0, 0, 0, 0, 0));
+        operation.addHistograms(TEST_ID, histograms);
+        performanceStatsCollector.update(workerAddress(1, 1), operation.getPerformanceStats(), operation.getHistograms());
+    }
+
+    private static Histogram newHistogram(long latencyNanos) {
+        return newHistogram(latencyNanos, 1000);
+    }
+
+    private static Histogram newHistogram(long latencyNanos, long count) {
+        Histogram histogram = new Histogram(MICROSECONDS.toNanos(1), HOURS.toNanos(1), 3);
+        histogram.recordValueWithCount(latencyNanos, count);
+        return histogram;
+    }
+}
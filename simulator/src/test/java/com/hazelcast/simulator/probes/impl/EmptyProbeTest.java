@@ -11,6 +11,8 @@ public class EmptyProbeTest {
         EmptyProbe emptyProbe = new EmptyProbe();
         emptyProbe.reset();
         emptyProbe.done(10);
+        emptyProbe.done(10, "key");
+        emptyProbe.done(10, 20, "key");
         emptyProbe.recordValue(20);
         assertFalse(emptyProbe.isPartOfTotalThroughput());
     }
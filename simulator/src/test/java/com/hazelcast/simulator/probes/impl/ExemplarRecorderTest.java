@@ -0,0 +1,94 @@
+package com.hazelcast.simulator.probes.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExemplarRecorderTest {
+
+    private final ExemplarRecorder recorder = new ExemplarRecorder(10);
+
+    @Test
+    public void testDrainIntervalTo_whenEmpty() {
+        List<Exemplar> exemplars = new ArrayList<Exemplar>();
+        recorder.drainIntervalTo(exemplars);
+
+        assertTrue(exemplars.isEmpty());
+    }
+
+    @Test
+    public void testDrainIntervalTo_keepsSlowest() {
+        List<Long> latencies = new ArrayList<Long>();
+        for (long latency = 1; latency <= 1000; latency++) {
+            latencies.add(latency);
+        }
+        Collections.shuffle(latencies, new Random(42));
+        for (long latency : latencies) {
+            recorder.record(latency, Exemplar.NOT_MEASURED, "key-" + latency);
+        }
+
+        List<Exemplar> exemplars = new ArrayList<Exemplar>();
+        recorder.drainIntervalTo(exemplars);
+
+        assertEquals(10, exemplars.size());
+        for (Exemplar exemplar : exemplars) {
+            assertTrue(exemplar.getLatencyNanos() > 990);
+            assertEquals("key-" + exemplar.getLatencyNanos(), exemplar.getTag());
+        }
+    }
+
+    @Test
+    public void testDrainIntervalTo_startsNewInterval() {
+        recorder.record(5, 1, null);
+
+        List<Exemplar> exemplars = new ArrayList<Exemplar>();
+        recorder.drainIntervalTo(exemplars);
+        assertEquals(1, exemplars.size());
+        assertEquals(1, exemplars.get(0).getStartLagNanos());
+
+        recorder.record(3, 2, null);
+
+        exemplars.clear();
+        recorder.drainIntervalTo(exemplars);
+        assertEquals(1, exemplars.size());
+        assertEquals(3, exemplars.get(0).getLatencyNanos());
+
+        exemplars.clear();
+        recorder.drainIntervalTo(exemplars);
+        assertTrue(exemplars.isEmpty());
+    }
+
+    @Test
+    public void testRecordConcurrently() throws Exception {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (long latency = 1; latency <= 10000; latency++) {
+                        recorder.recordConcurrently(latency * 4 + offset, Exemplar.NOT_MEASURED, null);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Exemplar> exemplars = new ArrayList<Exemplar>();
+        recorder.drainIntervalTo(exemplars);
+
+        assertEquals(10, exemplars.size());
+        for (Exemplar exemplar : exemplars) {
+            assertTrue(exemplar.getLatencyNanos() > 40003 - 10);
+        }
+    }
+}
@@ -5,17 +5,26 @@ import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramIterationValue;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-import static com.hazelcast.simulator.probes.impl.HdrProbe.HIGHEST_TRACKABLE_VALUE;
+import static com.hazelcast.simulator.probes.impl.HdrProbe.MAX_THREAD_PROBES;
+import static com.hazelcast.simulator.probes.impl.HistogramSettings.MICROSECOND_RESOLUTION;
+import static com.hazelcast.simulator.probes.impl.HistogramSettings.NANOSECOND_RESOLUTION;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class HdrProbeTest {
 
+    private static final long HIGHEST_TRACKABLE_VALUE = MICROSECOND_RESOLUTION.getHighestTrackableValue();
+
     private HdrProbe probe = new HdrProbe(false);
 
     @Test
@@ -116,4 +125,322 @@ public class HdrProbeTest {
 
         assertEquals(3, probe.getRecorder().getIntervalHistogram().getTotalCount());
     }
+
+    @Test
+    public void testNewThreadProbe() {
+        Probe threadProbe = probe.newThreadProbe();
+
+        assertFalse(threadProbe.isPartOfTotalThroughput());
+        assertTrue(new HdrProbe(true).newThreadProbe().isPartOfTotalThroughput());
+    }
+
+    @Test
+    public void testGetIntervalHistogram_mergesThreadProbes() throws Exception {
+        long value1 = MILLISECONDS.toNanos(200);
+        long value2 = MILLISECONDS.toNanos(500);
+        long value3 = MILLISECONDS.toNanos(1000);
+
+        final Probe threadProbe1 = probe.newThreadProbe();
+        final Probe threadProbe2 = probe.newThreadProbe();
+
+        probe.recordValue(value1);
+        threadProbe1.recordValue(value2);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                threadProbe2.recordValue(MILLISECONDS.toNanos(1000));
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertHistogramContent(probe.getIntervalHistogram(), value1, value2, value3);
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testThreadProbe_recordWhenTooLarge() {
+        probe.newThreadProbe().recordValue(HIGHEST_TRACKABLE_VALUE * 2);
+
+        assertHistogramContent(probe.getIntervalHistogram(), HIGHEST_TRACKABLE_VALUE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadProbe_doneWithZero() {
+        probe.newThreadProbe().done(0);
+    }
+
+    @Test
+    public void testReset_resetsThreadProbes() {
+        Probe threadProbe = probe.newThreadProbe();
+        probe.recordValue(1);
+        threadProbe.recordValue(1);
+
+        probe.reset();
+
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testGetIntervalExemplars_whenDisabled() {
+        probe.recordValue(1);
+
+        assertEquals(0, probe.getExemplarCount());
+        assertTrue(probe.getIntervalExemplars().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenNegativeExemplarCount() {
+        new HdrProbe(false, -1);
+    }
+
+    @Test
+    public void testGetIntervalExemplars() {
+        HdrProbe probe = new HdrProbe(false, 2);
+        probe.recordValue(100);
+        probe.recordValue(300);
+        probe.done(System.nanoTime() - MILLISECONDS.toNanos(1), "key");
+        probe.recordValue(200);
+
+        List<Exemplar> exemplars = probe.getIntervalExemplars();
+        assertEquals(2, exemplars.size());
+        assertTrue(exemplars.get(0).getLatencyNanos() >= MILLISECONDS.toNanos(1));
+        assertEquals("key", exemplars.get(0).getTag());
+        assertEquals(Exemplar.NOT_MEASURED, exemplars.get(0).getStartLagNanos());
+        assertEquals(Thread.currentThread().getName(), exemplars.get(0).getThreadName());
+        assertEquals(300, exemplars.get(1).getLatencyNanos());
+        assertNull(exemplars.get(1).getTag());
+
+        // the histogram isn't affected by the exemplars
+        assertEquals(4, probe.getIntervalHistogram().getTotalCount());
+        assertTrue(probe.getIntervalExemplars().isEmpty());
+    }
+
+    @Test
+    public void testGetIntervalExemplars_withStartLag() {
+        HdrProbe probe = new HdrProbe(false, 1);
+        long intendedStartNanos = System.nanoTime() - MILLISECONDS.toNanos(2);
+
+        probe.done(intendedStartNanos, intendedStartNanos + MILLISECONDS.toNanos(1), 42);
+
+        Exemplar exemplar = probe.getIntervalExemplars().get(0);
+        assertEquals(MILLISECONDS.toNanos(1), exemplar.getStartLagNanos());
+        assertTrue(exemplar.getLatencyNanos() >= MILLISECONDS.toNanos(2));
+        assertEquals("42", exemplar.getTag());
+    }
+
+    @Test
+    public void testGetIntervalExemplars_mergesThreadProbes() throws Exception {
+        final HdrProbe probe = new HdrProbe(false, 2);
+        final Probe threadProbe = probe.newThreadProbe();
+
+        probe.recordValue(100);
+        threadProbe.recordValue(400);
+        Thread thread = new Thread("other") {
+            @Override
+            public void run() {
+                probe.recordValue(300);
+                threadProbe.recordValue(200);
+            }
+        };
+        thread.start();
+        thread.join();
+
+        List<Exemplar> exemplars = probe.getIntervalExemplars();
+        assertEquals(2, exemplars.size());
+        assertEquals(400, exemplars.get(0).getLatencyNanos());
+        assertEquals(300, exemplars.get(1).getLatencyNanos());
+        assertEquals("other", exemplars.get(1).getThreadName());
+    }
+
+    @Test
+    public void testGetIntervalExemplars_whenManyThreads_thenRecordersBounded() throws Exception {
+        final HdrProbe probe = new HdrProbe(false, 3);
+        for (int k = 1; k <= 100; k++) {
+            final long latency = k;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    probe.recordValue(latency);
+                }
+            };
+            thread.start();
+            thread.join();
+        }
+        int recorderCount = probe.getExemplarRecorderCount();
+
+        for (int k = 0; k < 100; k++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    probe.recordValue(1);
+                }
+            };
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(recorderCount, probe.getExemplarRecorderCount());
+        List<Exemplar> exemplars = probe.getIntervalExemplars();
+        assertEquals(3, exemplars.size());
+        assertEquals(100, exemplars.get(0).getLatencyNanos());
+        assertEquals(99, exemplars.get(1).getLatencyNanos());
+        assertEquals(98, exemplars.get(2).getLatencyNanos());
+    }
+
+    @Test
+    public void testReset_resetsExemplars() {
+        HdrProbe probe = new HdrProbe(false, 2);
+        probe.newThreadProbe().recordValue(1);
+        probe.recordValue(1);
+
+        probe.reset();
+
+        assertTrue(probe.getIntervalExemplars().isEmpty());
+    }
+
+    @Test
+    public void testHistogramSettings_defaultMicrosecondResolution() {
+        probe.recordValue(200);
+        probe.recordValue(300);
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertSame(MICROSECOND_RESOLUTION, probe.getHistogramSettings());
+        assertTrue(histogram.valuesAreEquivalent(200, 300));
+    }
+
+    @Test
+    public void testHistogramSettings_nanosecondResolution() {
+        HdrProbe probe = new HdrProbe(false, 0, NANOSECOND_RESOLUTION);
+        probe.recordValue(200);
+        probe.newThreadProbe().recordValue(300);
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(200, histogram.getMinValue());
+        assertEquals(300, histogram.getMaxValue());
+    }
+
+    @Test
+    public void testHistogramSettings_autoResize() {
+        HdrProbe probe = new HdrProbe(false, 0, HistogramSettings.autoResize(3));
+        probe.recordValue(200);
+        probe.newThreadProbe().recordValue(HOURS.toNanos(2));
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(200, histogram.getMinValue());
+        assertTrue(histogram.valuesAreEquivalent(HOURS.toNanos(2), histogram.getMaxValue()));
+    }
+
+    @Test
+    public void testGetEstimatedFootprintInBytes() {
+        HdrProbe probe = new HdrProbe(false, 0, NANOSECOND_RESOLUTION);
+        assertEquals(0, probe.getEstimatedFootprintInBytes());
+
+        probe.getIntervalHistogram();
+        long footprintInBytes = probe.getEstimatedFootprintInBytes();
+        assertTrue(footprintInBytes > 0);
+
+        probe.newThreadProbe();
+        probe.getIntervalHistogram();
+        assertEquals(2 * footprintInBytes, probe.getEstimatedFootprintInBytes());
+    }
+
+    @Test
+    public void testNewThreadProbe_whenMaxThreadProbes_thenSharedProbe() {
+        for (int i = 0; i < MAX_THREAD_PROBES; i++) {
+            assertNotSame(probe, probe.newThreadProbe());
+        }
+
+        Probe threadProbe = probe.newThreadProbe();
+        assertSame(probe, threadProbe);
+        threadProbe.recordValue(1000);
+        probe.release(threadProbe);
+
+        assertEquals(MAX_THREAD_PROBES, probe.getThreadProbeCount());
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testNewThreadProbe_whenReleased_thenThreadProbeAvailableAgain() {
+        Probe threadProbe = null;
+        for (int i = 0; i < MAX_THREAD_PROBES; i++) {
+            threadProbe = probe.newThreadProbe();
+        }
+        probe.release(threadProbe);
+
+        assertNotSame(probe, probe.newThreadProbe());
+    }
+
+    @Test
+    public void testGetEstimatedFootprintInBytes_isBoundedByMaxThreadProbes() {
+        for (int i = 0; i < MAX_THREAD_PROBES; i++) {
+            probe.newThreadProbe();
+        }
+        probe.getIntervalHistogram();
+        long footprintInBytes = probe.getEstimatedFootprintInBytes();
+
+        // e.g. 10k virtual timestep threads
+        for (int i = 0; i < 10000; i++) {
+            probe.newThreadProbe().recordValue(1000);
+        }
+
+        assertEquals(10000, probe.getIntervalHistogram().getTotalCount());
+        assertEquals(footprintInBytes, probe.getEstimatedFootprintInBytes());
+    }
+
+    @Test
+    public void testGetEstimatedFootprintInBytes_whenAutoResize_thenGrowsWithValues() {
+        HdrProbe probe = new HdrProbe(false, 0, HistogramSettings.autoResize(3));
+        probe.recordValue(1000);
+        probe.getIntervalHistogram();
+        long footprintInBytes = probe.getEstimatedFootprintInBytes();
+
+        probe.recordValue(HOURS.toNanos(1));
+        probe.getIntervalHistogram();
+        assertTrue(probe.getEstimatedFootprintInBytes() > footprintInBytes);
+    }
+
+    @Test
+    public void testRelease() {
+        Probe threadProbe = probe.newThreadProbe();
+        threadProbe.recordValue(MILLISECONDS.toNanos(1));
+        assertEquals(1, probe.getThreadProbeCount());
+
+        probe.release(threadProbe);
+
+        assertEquals(0, probe.getThreadProbeCount());
+        Histogram histogram = probe.getIntervalHistogram();
+        assertEquals(1, histogram.getTotalCount());
+        assertTrue(histogram.valuesAreEquivalent(MILLISECONDS.toNanos(1), histogram.getMaxValue()));
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRelease_whenReleasedTwice() {
+        Probe threadProbe = probe.newThreadProbe();
+        threadProbe.recordValue(1000);
+
+        probe.release(threadProbe);
+        probe.release(threadProbe);
+
+        assertEquals(1, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testRelease_keepsSlowestExemplars() {
+        HdrProbe probe = new HdrProbe(false, 2);
+        for (int k = 1; k <= 3; k++) {
+            Probe threadProbe = probe.newThreadProbe();
+            threadProbe.recordValue(k * 100);
+            probe.release(threadProbe);
+        }
+        probe.recordValue(250);
+
+        List<Exemplar> exemplars = probe.getIntervalExemplars();
+        assertEquals(2, exemplars.size());
+        assertEquals(300, exemplars.get(0).getLatencyNanos());
+        assertEquals(250, exemplars.get(1).getLatencyNanos());
+        assertTrue(probe.getIntervalExemplars().isEmpty());
+    }
 }
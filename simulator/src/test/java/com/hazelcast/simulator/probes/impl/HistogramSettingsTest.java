@@ -0,0 +1,86 @@
+package com.hazelcast.simulator.probes.impl;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.probes.impl.HistogramSettings.MICROSECOND_RESOLUTION;
+import static com.hazelcast.simulator.probes.impl.HistogramSettings.NANOSECOND_RESOLUTION;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramSettingsTest {
+
+    @Test
+    public void testMicrosecondResolution() {
+        assertEquals(MICROSECONDS.toNanos(1), MICROSECOND_RESOLUTION.getLowestDiscernibleValue());
+        assertEquals(HOURS.toNanos(1), MICROSECOND_RESOLUTION.getHighestTrackableValue());
+        assertEquals(3, MICROSECOND_RESOLUTION.getNumberOfSignificantValueDigits());
+        assertFalse(MICROSECOND_RESOLUTION.isAutoResize());
+    }
+
+    @Test
+    public void testNanosecondResolution() {
+        assertEquals(1, NANOSECOND_RESOLUTION.getLowestDiscernibleValue());
+        assertEquals(HOURS.toNanos(1), NANOSECOND_RESOLUTION.getHighestTrackableValue());
+
+        Recorder recorder = NANOSECOND_RESOLUTION.newRecorder();
+        recorder.recordValue(200);
+        recorder.recordValue(300);
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        assertEquals(200, histogram.getMinValue());
+        assertEquals(300, histogram.getMaxValue());
+    }
+
+    @Test
+    public void testAutoResize() {
+        HistogramSettings settings = HistogramSettings.autoResize(2);
+
+        assertTrue(settings.isAutoResize());
+        assertEquals(1, settings.getLowestDiscernibleValue());
+        assertEquals(2, settings.getNumberOfSignificantValueDigits());
+        assertTrue(settings.newRecorder().getIntervalHistogram().isAutoResize());
+        assertTrue(settings.newSingleWriterRecorder().getIntervalHistogram().isAutoResize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenLowestDiscernibleValueZero() {
+        new HistogramSettings(0, 1000, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenHighestTrackableValueTooSmall() {
+        new HistogramSettings(1000, 1999, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenTooManySignificantDigits() {
+        new HistogramSettings(1, 1000, 6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAutoResize_whenNegativeSignificantDigits() {
+        HistogramSettings.autoResize(-1);
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(MICROSECOND_RESOLUTION, new HistogramSettings(1000, HOURS.toNanos(1), 3));
+        assertEquals(MICROSECOND_RESOLUTION.hashCode(), new HistogramSettings(1000, HOURS.toNanos(1), 3).hashCode());
+        assertEquals(HistogramSettings.autoResize(3), HistogramSettings.autoResize(3));
+        assertNotEquals(MICROSECOND_RESOLUTION, NANOSECOND_RESOLUTION);
+        assertNotEquals(MICROSECOND_RESOLUTION, new HistogramSettings(1000, HOURS.toNanos(1), 2));
+        assertNotEquals(HistogramSettings.autoResize(3), HistogramSettings.autoResize(2));
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(MICROSECOND_RESOLUTION.toString().contains("lowestDiscernibleValue=1000"));
+        assertTrue(HistogramSettings.autoResize(3).toString().contains("autoResize"));
+    }
+}
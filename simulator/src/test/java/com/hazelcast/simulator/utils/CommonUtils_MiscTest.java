@@ -8,6 +8,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.simulator.utils.CommonUtils.await;
 import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.CommonUtils.parseIntervalMillis;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.CommonUtils.throwableToString;
@@ -55,6 +56,25 @@ public class CommonUtils_MiscTest {
         }
     }
 
+    @Test
+    public void testParseIntervalMillis() {
+        assertEquals(0, parseIntervalMillis("0"));
+        assertEquals(10000, parseIntervalMillis("10"));
+        assertEquals(5000, parseIntervalMillis(" 5s "));
+        assertEquals(250, parseIntervalMillis("250ms"));
+        assertEquals(100, parseIntervalMillis("100 ms"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIntervalMillis_whenInvalid_thenThrowIllegalArgumentException() {
+        parseIntervalMillis("10m");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIntervalMillis_whenNegative_thenThrowIllegalArgumentException() {
+        parseIntervalMillis("-100ms");
+    }
+
     @Test
     public void testThrowableToString() {
         String marker = "#*+*#";
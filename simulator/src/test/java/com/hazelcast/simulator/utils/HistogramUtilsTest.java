@@ -0,0 +1,44 @@
+package com.hazelcast.simulator.utils;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.HistogramUtils.decodeHistogram;
+import static com.hazelcast.simulator.utils.HistogramUtils.encodeHistogram;
+import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static org.junit.Assert.assertEquals;
+
+public class HistogramUtilsTest {
+
+    @Test
+    public void testConstructor() throws Exception {
+        invokePrivateConstructor(HistogramUtils.class);
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Histogram histogram = new Histogram(1000, HOURS.toNanos(1), 3);
+        for (int i = 1; i <= 10000; i++) {
+            histogram.recordValue(i * 1000L);
+        }
+
+        Histogram decoded = decodeHistogram(encodeHistogram(histogram));
+
+        assertEquals(histogram, decoded);
+        assertEquals(histogram.getTotalCount(), decoded.getTotalCount());
+        assertEquals(histogram.getValueAtPercentile(99.9), decoded.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void testEncodeDecode_emptyHistogram() {
+        Histogram histogram = new Histogram(1000, HOURS.toNanos(1), 3);
+
+        assertEquals(0, decodeHistogram(encodeHistogram(histogram)).getTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_invalid() {
+        decodeHistogram("bm90IGEgaGlzdG9ncmFt");
+    }
+}
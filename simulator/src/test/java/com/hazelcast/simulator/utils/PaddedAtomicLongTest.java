@@ -0,0 +1,35 @@
+package com.hazelcast.simulator.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PaddedAtomicLongTest {
+
+    @Test
+    public void testInitialValue() {
+        assertEquals(0, new PaddedAtomicLong().get());
+        assertEquals(10, new PaddedAtomicLong(10).get());
+    }
+
+    @Test
+    public void testSet() {
+        PaddedAtomicLong value = new PaddedAtomicLong();
+        value.set(5);
+
+        assertEquals(5, value.get());
+    }
+
+    @Test
+    public void testLazySet() {
+        PaddedAtomicLong value = new PaddedAtomicLong();
+        value.lazySet(20);
+
+        assertEquals(20, value.get());
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("15", new PaddedAtomicLong(15).toString());
+    }
+}
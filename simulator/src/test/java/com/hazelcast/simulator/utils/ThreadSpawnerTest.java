@@ -88,6 +88,75 @@ public class ThreadSpawnerTest {
         assertEqualsStringFormat("Expected counter to be %d, but as %d", 5, counter.get());
     }
 
+    @Test
+    public void testAwaitCompletion_whenThreadSpawnedWhileWaiting() {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        final ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        spawner.spawn(new Runnable() {
+            @Override
+            public void run() {
+                sleepSeconds(1);
+                spawner.spawn(new Runnable() {
+                    @Override
+                    public void run() {
+                        sleepSeconds(1);
+                        counter.incrementAndGet();
+                    }
+                });
+            }
+        });
+        spawner.awaitCompletion();
+
+        assertEqualsStringFormat("Expected counter to be %d, but as %d", 1, counter.get());
+    }
+
+    @Test
+    public void testSpawnVirtual() {
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        for (int i = 0; i < 1000; i++) {
+            spawner.spawnVirtual("NamePrefix", new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+        spawner.awaitCompletion();
+
+        assertEqualsStringFormat("Expected counter to be %d, but as %d", 1000, counter.get());
+    }
+
+    @Test
+    public void testSpawnVirtual_reportException() {
+        File exceptionFile = new File(getUserDir(), "1.exception");
+
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        spawner.spawnVirtual("NamePrefix", new Runnable() {
+            @Override
+            public void run() {
+                throw new CommandLineExitException("Expected exception");
+            }
+        });
+        spawner.awaitCompletion();
+
+        assertTrue(exceptionFile.exists());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSpawnVirtual_throwException() {
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId", true);
+        spawner.spawnVirtual("NamePrefix", new Runnable() {
+            @Override
+            public void run() {
+                throw new UnsupportedOperationException("Expected exception");
+            }
+        });
+        spawner.awaitCompletion();
+    }
+
     @Test
     public void testInterrupt() {
         ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId", true);
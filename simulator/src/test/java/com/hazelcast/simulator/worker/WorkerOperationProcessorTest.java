@@ -10,6 +10,10 @@ import com.hazelcast.simulator.protocol.exception.ProcessException;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
@@ -30,6 +34,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class WorkerOperationProcessorTest {
 
@@ -105,6 +110,48 @@ public class WorkerOperationProcessorTest {
         assertTrue(promise.hasAnswer());
     }
 
+    @Test
+    public void test_SetRateOperation() throws Exception {
+        SetRateOperation op = new SetRateOperation("foo", 1000);
+
+        processor.process(op, sourceAddress, promise);
+
+        verify(testManager).setRate(op);
+        assertTrue(promise.hasAnswer());
+    }
+
+    @Test
+    public void test_SetThreadCountOperation() throws Exception {
+        SetThreadCountOperation op = new SetThreadCountOperation("foo", "", 8);
+        when(testManager.setThreadCount(op)).thenReturn("8");
+
+        processor.process(op, sourceAddress, promise);
+
+        verify(testManager).setThreadCount(op);
+        assertTrue(promise.hasAnswer());
+    }
+
+    @Test
+    public void test_ProfileOperation() throws Exception {
+        ProfileOperation op = new ProfileOperation("foo", "jfr", null, null, null, true);
+        when(testManager.profile(op)).thenReturn("no profile written");
+
+        processor.process(op, sourceAddress, promise);
+
+        verify(testManager).profile(op);
+        assertTrue(promise.hasAnswer());
+    }
+
+    @Test
+    public void test_SetRateShareOperation() throws Exception {
+        SetRateShareOperation op = new SetRateShareOperation("foo", 0.5);
+
+        processor.process(op, sourceAddress, promise);
+
+        verify(testManager).setRateShare(op);
+        assertTrue(promise.hasAnswer());
+    }
+
     // make sure that unhandled exceptions are trapped.
     @Test
     public void test_unhandledException() throws Exception {
@@ -0,0 +1,113 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchedCombinedRateMetronomeTest {
+
+    @Test
+    public void test_getIntervalNanos() {
+        long intervalNanos = MILLISECONDS.toNanos(100);
+        BatchedCombinedRateMetronome master = new BatchedCombinedRateMetronome(intervalNanos, 1, true);
+
+        assertEquals(intervalNanos, master.getIntervalNanos());
+        assertEquals(1, master.getBatchSize());
+    }
+
+    @Test
+    public void test_propertyBinding() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo").setProperty("metronomeBatchSize", "8"));
+
+        BatchedCombinedRateMetronome master = new BatchedCombinedRateMetronome(1000, 4, binding, "");
+
+        assertEquals(8, master.getBatchSize());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void test_whenBatchSizeZero() {
+        new BatchedCombinedRateMetronome(1000, 0, true);
+    }
+
+    @Test
+    public void test() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        BatchedCombinedRateMetronome master = new BatchedCombinedRateMetronome(intervalNanos, 1, true);
+
+        BatchedCombinedRateMetronome metronome1 = new BatchedCombinedRateMetronome(master);
+        BatchedCombinedRateMetronome metronome2 = new BatchedCombinedRateMetronome(master);
+
+        long next = metronome1.waitForNext() + intervalNanos;
+
+        assertEquals(next, metronome1.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome2.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome2.waitForNext());
+        next += intervalNanos;
+        assertEquals(next, metronome1.waitForNext());
+    }
+
+    @Test
+    public void test_batch() {
+        long intervalNanos = MILLISECONDS.toNanos(10);
+        BatchedCombinedRateMetronome master = new BatchedCombinedRateMetronome(intervalNanos, 2, true);
+
+        BatchedCombinedRateMetronome metronome1 = new BatchedCombinedRateMetronome(master);
+        BatchedCombinedRateMetronome metronome2 = new BatchedCombinedRateMetronome(master);
+
+        long start = metronome1.waitForNext();
+
+        // metronome1 claimed the first 2 requests, so metronome2 gets the next batch
+        assertEquals(start + 2 * intervalNanos, metronome2.waitForNext());
+        assertEquals(start + intervalNanos, metronome1.waitForNext());
+        assertEquals(start + 3 * intervalNanos, metronome2.waitForNext());
+        assertEquals(start + 4 * intervalNanos, metronome1.waitForNext());
+    }
+
+    @Test
+    public void test_concurrent_everyRequestOnce() throws Exception {
+        final int threadCount = 8;
+        final int requestsPerThread = 1000;
+        final long intervalNanos = MICROSECONDS.toNanos(1);
+        final BatchedCombinedRateMetronome master = new BatchedCombinedRateMetronome(intervalNanos, 4, true);
+        final Set<Long> expectedStartTimes = newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    Metronome metronome = new BatchedCombinedRateMetronome(master);
+                    for (int k = 0; k < requestsPerThread; k++) {
+                        expectedStartTimes.add(metronome.waitForNext());
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int requests = threadCount * requestsPerThread;
+        assertEquals(requests, expectedStartTimes.size());
+        long first = Long.MAX_VALUE;
+        for (long expectedStartTime : expectedStartTimes) {
+            first = Math.min(first, expectedStartTime);
+        }
+        for (int request = 0; request < requests; request++) {
+            assertTrue(expectedStartTimes.contains(first + request * intervalNanos));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.probes.impl.EmptyProbe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HybridMetronomeTest {
+
+    @Test
+    public void testWithFixedInterval_50Ms() {
+        testMetronome(50, MILLISECONDS);
+    }
+
+    @Test
+    public void testWithFixedInterval_100us() {
+        testMetronome(100, MICROSECONDS);
+    }
+
+    private static void testMetronome(long interval, TimeUnit unit) {
+        long intervalNanos = unit.toNanos(interval);
+        Metronome metronome = new HybridMetronome(intervalNanos, true, HybridMetronome.calibrateParkOverheadNanos(),
+                EmptyProbe.INSTANCE);
+
+        // we don't want to measure the first invocation, since it has a random delay
+        long previousExpectedStart = metronome.waitForNext();
+        for (int i = 0; i < 10; i++) {
+            long expectedStart = metronome.waitForNext();
+            long now = System.nanoTime();
+
+            assertEquals(previousExpectedStart + intervalNanos, expectedStart);
+            assertTrue(format("woke up %d ns before the expected start", expectedStart - now), now >= expectedStart);
+            previousExpectedStart = expectedStart;
+        }
+    }
+
+    @Test
+    public void testCalibrateParkOverheadNanos() {
+        long parkOverheadNanos = HybridMetronome.calibrateParkOverheadNanos();
+
+        assertTrue("parkOverheadNanos should not be negative, but was " + parkOverheadNanos, parkOverheadNanos >= 0);
+    }
+
+    @Test
+    public void testSchedulingErrorRecorded() {
+        HdrProbe probe = new HdrProbe(false);
+        HybridMetronome master = new HybridMetronome(MILLISECONDS.toNanos(1), true,
+                HybridMetronome.calibrateParkOverheadNanos(), probe);
+        Metronome metronome = new HybridMetronome(master);
+
+        // the first call has a random delay
+        metronome.waitForNext();
+        for (int i = 0; i < 100; i++) {
+            metronome.waitForNext();
+        }
+
+        Histogram histogram = probe.getIntervalHistogram();
+        assertTrue("expected scheduling errors to be recorded", histogram.getTotalCount() > 0);
+        // the scheduling error should be a lot smaller than the interval
+        assertTrue("median scheduling error was " + histogram.getValueAtPercentile(50) + " ns",
+                histogram.getValueAtPercentile(50) < MICROSECONDS.toNanos(500));
+    }
+
+    @Test
+    public void testSchedulingErrorNotRecorded_whenBehindSchedule() {
+        HdrProbe probe = new HdrProbe(false);
+        Metronome metronome = new HybridMetronome(MILLISECONDS.toNanos(1), true, 0, probe);
+
+        // the first call has a random delay
+        metronome.waitForNext();
+        probe.reset();
+
+        // we are behind schedule, so the metronome doesn't wait
+        long now = System.nanoTime();
+        while (System.nanoTime() < now + MILLISECONDS.toNanos(5)) {
+            Thread.yield();
+        }
+        metronome.waitForNext();
+        metronome.waitForNext();
+
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.Test;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PoissonMetronomeTest {
+
+    private static final long INTERVAL_NANOS = MICROSECONDS.toNanos(100);
+
+    @Test
+    public void testExponentialInterArrivalTimes() {
+        Metronome metronome = new PoissonMetronome(INTERVAL_NANOS, 1, 0, 0, true);
+
+        int count = 2000;
+        long[] intervals = new long[count];
+        long previous = metronome.waitForNext();
+        for (int i = 0; i < count; i++) {
+            long expectedStart = metronome.waitForNext();
+            intervals[i] = expectedStart - previous;
+            previous = expectedStart;
+        }
+
+        double mean = mean(intervals);
+        double stdDev = stdDev(intervals, mean);
+        assertBetween("mean interval", mean, INTERVAL_NANOS * 0.8, INTERVAL_NANOS * 1.2);
+        // the coefficient of variation of an exponential distribution is 1, of a periodic interval 0
+        assertBetween("coefficient of variation", stdDev / mean, 0.8, 1.2);
+    }
+
+    @Test
+    public void testBurst() {
+        Metronome metronome = new PoissonMetronome(INTERVAL_NANOS, 5, 0, 0, true);
+
+        for (int burst = 0; burst < 10; burst++) {
+            long burstStart = metronome.waitForNext();
+            for (int i = 1; i < 5; i++) {
+                assertEquals(burstStart, metronome.waitForNext());
+            }
+        }
+    }
+
+    @Test
+    public void testOnOff() {
+        long onPeriodNanos = MILLISECONDS.toNanos(10);
+        long offPeriodNanos = MILLISECONDS.toNanos(10);
+        PoissonMetronome metronome = new PoissonMetronome(INTERVAL_NANOS, 1, onPeriodNanos, offPeriodNanos, true);
+
+        for (int i = 0; i < 500; i++) {
+            long expectedStart = metronome.waitForNext();
+
+            long phase = (expectedStart - metronome.getEpochNanos()) % (onPeriodNanos + offPeriodNanos);
+            assertTrue(format("arrival in off-period, phase %d ns", phase), phase < onPeriodNanos);
+        }
+    }
+
+    @Test
+    public void testConstructFromPropertyBinding() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo")
+                .setProperty("burstSize", 4)
+                .setProperty("onPeriod", "10ms")
+                .setProperty("offPeriod", "5ms"));
+
+        PoissonMetronome master = new PoissonMetronome(INTERVAL_NANOS, 2, binding, "");
+        PoissonMetronome metronome = new PoissonMetronome(master);
+
+        assertEquals(2 * INTERVAL_NANOS, metronome.getIntervalNanos());
+        assertEquals(master.getEpochNanos(), metronome.getEpochNanos());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testInvalidBurstSize() {
+        new PoissonMetronome(INTERVAL_NANOS, 0, 0, 0, true);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testOffPeriodWithoutOnPeriod() {
+        new PoissonMetronome(INTERVAL_NANOS, 1, 0, MILLISECONDS.toNanos(10), true);
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdDev(long[] values, double mean) {
+        double sum = 0;
+        for (long value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / values.length);
+    }
+
+    private static void assertBetween(String name, double actual, double min, double max) {
+        assertTrue(format("%s expected between %f and %f, but was %f", name, min, max, actual), actual >= min && actual <= max);
+    }
+}
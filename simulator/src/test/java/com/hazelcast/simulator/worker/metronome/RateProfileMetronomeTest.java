@@ -0,0 +1,92 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RateProfileMetronomeTest {
+
+    @Test
+    public void testFollowsSteps() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", "steps 1k,2k every 100ms");
+        RateProfileMetronome master = new RateProfileMetronome(rateProfile, 2, true);
+        Metronome metronome = new RateProfileMetronome(master);
+
+        assertNull(master.describeCurrentStep());
+
+        // with 2 threads, a single thread does 500 ops/s in the first step and 1000 ops/s in the second step
+        long previous = metronome.waitForNext();
+        assertEquals("step 1/2 1000 ops/s", master.describeCurrentStep());
+        long first = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(2), first - previous);
+
+        long expectedStart = first;
+        while (expectedStart - first < MILLISECONDS.toNanos(150)) {
+            previous = expectedStart;
+            expectedStart = metronome.waitForNext();
+        }
+
+        assertEquals(MILLISECONDS.toNanos(1), expectedStart - previous);
+        assertEquals("step 2/2 2000 ops/s", master.describeCurrentStep());
+    }
+
+    @Test
+    public void testSetRatePerSecond() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", "steps 1k every 1m");
+        RateProfileMetronome master = new RateProfileMetronome(rateProfile, 1, true);
+        Metronome metronome = new RateProfileMetronome(master);
+
+        long previous = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(1), metronome.waitForNext() - previous);
+
+        master.setRatePerSecond(2000);
+        assertEquals("rate 2000 ops/s", master.describeCurrentStep());
+
+        // the schedule restarts after the rate change
+        previous = metronome.waitForNext();
+        assertEquals(MICROSECONDS.toNanos(500), metronome.waitForNext() - previous);
+    }
+
+    @Test
+    public void testSetShare() {
+        RateProfileMetronome master = new RateProfileMetronome(RateProfile.constant(2000), 1, true, true);
+        Metronome metronome = new RateProfileMetronome(master);
+
+        master.setShare(0.5);
+
+        long previous = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(1), metronome.waitForNext() - previous);
+        assertEquals("rate 1000 ops/s", master.describeCurrentStep());
+
+        // the share is applied to the global rate, not to the current share
+        master.setShare(0.25);
+        previous = metronome.waitForNext();
+        assertEquals(MILLISECONDS.toNanos(2), metronome.waitForNext() - previous);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetShare_whenLargerThanOne() {
+        new RateProfileMetronome(RateProfile.constant(2000), 1, true, true).setShare(2);
+    }
+
+    @Test
+    public void testLoadRateProfile_whenNotConfigured() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo"));
+
+        assertNull(RateProfileMetronome.loadRateProfile(binding, ""));
+    }
+
+    @Test
+    public void testLoadRateProfile_withGlobalRatePerSecond() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo").setProperty("readGlobalRatePerSecond", "3000"));
+
+        RateProfile rateProfile = RateProfileMetronome.loadRateProfile(binding, "read");
+
+        assertEquals(3000, rateProfile.getRatePerSecond(0), 0.001);
+    }
+}
@@ -0,0 +1,111 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class RateProfileTest {
+
+    @Test
+    public void testRamp() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", "ramp 1k->101k over 10m");
+
+        assertEquals(1000, rateProfile.getRatePerSecond(0), 0.001);
+        assertEquals(51000, rateProfile.getRatePerSecond(MINUTES.toNanos(5)), 0.001);
+        assertEquals(101000, rateProfile.getRatePerSecond(MINUTES.toNanos(10)), 0.001);
+        assertEquals(101000, rateProfile.getRatePerSecond(MINUTES.toNanos(20)), 0.001);
+
+        assertEquals(0, rateProfile.getStepIndex(MINUTES.toNanos(5)));
+        assertEquals(1, rateProfile.getStepIndex(MINUTES.toNanos(10)));
+        assertEquals(1, rateProfile.getStepIndex(MINUTES.toNanos(20)));
+
+        assertEquals("ramp 1000->101000 ops/s", rateProfile.describeStep(0));
+        assertEquals("ramp completed 101000 ops/s", rateProfile.describeStep(1));
+    }
+
+    @Test
+    public void testRamp_down() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", "RAMP 10000->5000 OVER 10s");
+
+        assertEquals(7500, rateProfile.getRatePerSecond(SECONDS.toNanos(5)), 0.001);
+    }
+
+    @Test
+    public void testSteps() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", " steps  10k,20k,1.5m  every 2m ");
+
+        assertEquals(10000, rateProfile.getRatePerSecond(0), 0.001);
+        assertEquals(10000, rateProfile.getRatePerSecond(MINUTES.toNanos(2) - 1), 0.001);
+        assertEquals(20000, rateProfile.getRatePerSecond(MINUTES.toNanos(2)), 0.001);
+        assertEquals(1500000, rateProfile.getRatePerSecond(MINUTES.toNanos(4)), 0.001);
+        assertEquals(1500000, rateProfile.getRatePerSecond(MINUTES.toNanos(100)), 0.001);
+
+        assertEquals(0, rateProfile.getStepIndex(0));
+        assertEquals(1, rateProfile.getStepIndex(MINUTES.toNanos(3)));
+        assertEquals(2, rateProfile.getStepIndex(MINUTES.toNanos(100)));
+
+        assertEquals("step 2/3 20000 ops/s", rateProfile.describeStep(1));
+    }
+
+    @Test
+    public void testConstant() {
+        RateProfile rateProfile = RateProfile.constant(2500);
+
+        assertEquals(2500, rateProfile.getRatePerSecond(0), 0.001);
+        assertEquals(2500, rateProfile.getRatePerSecond(MINUTES.toNanos(100)), 0.001);
+        assertEquals(0, rateProfile.getStepIndex(MINUTES.toNanos(100)));
+        assertEquals("rate 2500 ops/s", rateProfile.describeStep(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstant_whenZero() {
+        RateProfile.constant(0);
+    }
+
+    @Test
+    public void testScale() {
+        RateProfile rateProfile = RateProfile.parse("rateProfile", "ramp 1k->101k over 10m").scale(0.5);
+
+        assertEquals(500, rateProfile.getRatePerSecond(0), 0.001);
+        assertEquals(50500, rateProfile.getRatePerSecond(MINUTES.toNanos(10)), 0.001);
+        assertEquals("ramp 500->50500 ops/s", rateProfile.describeStep(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScale_whenZero() {
+        RateProfile.constant(1000).scale(0);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testUnknownType() {
+        RateProfile.parse("rateProfile", "sine 1k->2k over 10m");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testRamp_missingArrow() {
+        RateProfile.parse("rateProfile", "ramp 1k over 10m");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSteps_invalidRate() {
+        RateProfile.parse("rateProfile", "steps 1k,foo every 10m");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSteps_zeroRate() {
+        RateProfile.parse("rateProfile", "steps 0,1k every 10m");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSteps_missingTimeUnit() {
+        RateProfile.parse("rateProfile", "steps 1k,2k every 10");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSteps_zeroDuration() {
+        RateProfile.parse("rateProfile", "steps 1k,2k every 0s");
+    }
+}
@@ -0,0 +1,86 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.utils.UncheckedIOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class TraceFileTest {
+
+    private File file;
+
+    @Before
+    public void before() throws IOException {
+        file = File.createTempFile("trace", ".bin");
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testWriteAndOpen() {
+        TraceFile.Writer writer = new TraceFile.Writer(file);
+        writer.write(1000, "get");
+        writer.write(1500, "put");
+        writer.write(1500, "get");
+        writer.write(4000, "remove");
+        writer.close();
+
+        TraceFile traceFile = TraceFile.open(file);
+
+        assertEquals(file, traceFile.getFile());
+        assertEquals(4, traceFile.getRecordCount());
+        assertEquals(asList("get", "put", "remove"), traceFile.getMethodNames());
+        assertEquals(0, traceFile.getOffsetNanos(0));
+        assertEquals(0, traceFile.getMethodIndex(0));
+        assertEquals(500, traceFile.getOffsetNanos(1));
+        assertEquals(1, traceFile.getMethodIndex(1));
+        assertEquals(500, traceFile.getOffsetNanos(2));
+        assertEquals(0, traceFile.getMethodIndex(2));
+        assertEquals(3000, traceFile.getOffsetNanos(3));
+        assertEquals(2, traceFile.getMethodIndex(3));
+    }
+
+    @Test
+    public void testWriteAndOpen_whenEmpty() {
+        new TraceFile.Writer(file).close();
+
+        TraceFile traceFile = TraceFile.open(file);
+
+        assertEquals(0, traceFile.getRecordCount());
+        assertEquals(0, traceFile.getMethodNames().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrite_whenOutOfOrder() {
+        TraceFile.Writer writer = new TraceFile.Writer(file);
+        try {
+            writer.write(1000, "get");
+            writer.write(999, "get");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testOpen_whenNotTraceFile() {
+        writeText("this is not a trace file", file);
+
+        TraceFile.open(file);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testOpen_whenNotExists() {
+        TraceFile.open(new File("notexists.bin"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceReplayMetronomeTest {
+
+    private File file;
+    private List<Method> activeMethods;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("trace", ".bin");
+        activeMethods = asList(
+                DummyTest.class.getMethod("put"),
+                DummyTest.class.getMethod("get"));
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(file);
+    }
+
+    @Test
+    public void testPropertyBinding() {
+        writeTrace(0, "get");
+        TestCase testCase = new TestCase("foo")
+                .setProperty("traceFile", file.getAbsolutePath())
+                .setProperty("traceSpeed", "2.5");
+
+        TraceReplayMetronome master = new TraceReplayMetronome(0, 1, new PropertyBinding(testCase), "");
+
+        assertEquals(file.getAbsolutePath(), master.getTraceFile().getFile().getAbsolutePath());
+        assertEquals(2.5, master.getSpeed(), 0.0001);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testPropertyBinding_whenNoTraceFile() {
+        new TraceReplayMetronome(0, 1, new PropertyBinding(new TestCase("foo")), "");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSpeed_whenZero() {
+        writeTrace(0, "get");
+
+        new TraceReplayMetronome(TraceFile.open(file), 0, true);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testBindMethods_whenUnknownMethod() {
+        writeTrace(0, "get", 0, "delete");
+        TraceReplayMetronome master = new TraceReplayMetronome(TraceFile.open(file), 1, true);
+
+        master.bindMethods(activeMethods);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNewInstance_whenNotBound() {
+        writeTrace(0, "get");
+        TraceReplayMetronome master = new TraceReplayMetronome(TraceFile.open(file), 1, true);
+
+        new TraceReplayMetronome(master);
+    }
+
+    @Test
+    public void testReplay() {
+        long offsetNanos = MILLISECONDS.toNanos(20);
+        writeTrace(0, "get", offsetNanos, "put", 2 * offsetNanos, "get");
+        TraceReplayMetronome master = new TraceReplayMetronome(TraceFile.open(file), 2, true);
+        master.bindMethods(activeMethods);
+
+        TraceReplayMetronome metronome1 = new TraceReplayMetronome(master);
+        TraceReplayMetronome metronome2 = new TraceReplayMetronome(master);
+
+        long startNanos = metronome1.waitForNext();
+        assertEquals(1, metronome1.getMethodIndex());
+
+        // the speed is 2, so the offsets are halved
+        assertEquals(startNanos + offsetNanos / 2, metronome2.waitForNext());
+        assertEquals(0, metronome2.getMethodIndex());
+
+        long expected = startNanos + offsetNanos;
+        long actual = metronome1.waitForNext();
+        assertEquals(expected, actual);
+        assertEquals(1, metronome1.getMethodIndex());
+        assertTrue(System.nanoTime() >= expected);
+
+        assertFalse(metronome2.isCompleted());
+        metronome2.waitForNext();
+        assertTrue(metronome2.isCompleted());
+        assertFalse(metronome1.isCompleted());
+    }
+
+    private void writeTrace(Object... records) {
+        TraceFile.Writer writer = new TraceFile.Writer(file);
+        for (int i = 0; i < records.length; i += 2) {
+            writer.write(((Number) records[i]).longValue(), (String) records[i + 1]);
+        }
+        writer.close();
+    }
+
+    public static class DummyTest {
+
+        public void put() {
+        }
+
+        public void get() {
+        }
+    }
+}
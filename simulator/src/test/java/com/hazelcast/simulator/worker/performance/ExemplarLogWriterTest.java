@@ -0,0 +1,47 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.probes.impl.Exemplar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static org.junit.Assert.assertEquals;
+
+public class ExemplarLogWriterTest {
+
+    private File file;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        file = new File(getUserDir(), "test-timeStep-exemplars.csv");
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testWrite() {
+        ExemplarLogWriter writer = new ExemplarLogWriter(file);
+        writer.write(1000000, Arrays.asList(
+                new Exemplar(999000, 40000000, 10000000, "thread-1", "key,1"),
+                new Exemplar(998000, 2000000, Exemplar.NOT_MEASURED, "thread-2", null)));
+        writer.write(2000000, Collections.<Exemplar>emptyList());
+        writer.close();
+
+        assertEquals("epoch,intended-start,actual-start,completed,latency-us,thread,tag\n"
+                        + "1000,998.96,998.97,999,40000,thread-1,key;1\n"
+                        + "1000,997.998,,998,2000,thread-2,\n",
+                fileAsText(file));
+    }
+}
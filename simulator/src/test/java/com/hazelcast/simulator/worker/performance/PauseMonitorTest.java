@@ -0,0 +1,99 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.utils.AssertTask;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static com.hazelcast.simulator.worker.performance.PauseMonitor.NOT_MEASURED;
+import static com.hazelcast.simulator.worker.performance.PauseMonitor.isConcurrentCollector;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PauseMonitorTest {
+
+    private final PauseMonitor pauseMonitor = new PauseMonitor();
+
+    @After
+    public void after() {
+        pauseMonitor.stop();
+    }
+
+    @Test
+    public void testRecordPause() {
+        pauseMonitor.recordPause(MILLISECONDS.toNanos(10));
+        pauseMonitor.recordPause(MILLISECONDS.toNanos(30));
+
+        Histogram histogram = pauseMonitor.getPauseHistogram();
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(MILLISECONDS.toNanos(30), histogram.getMaxValue(), MILLISECONDS.toNanos(1));
+        assertEquals(MILLISECONDS.toNanos(40), pauseMonitor.getTotalPauseNanos());
+    }
+
+    @Test
+    public void testGetPauseHistogram_returnsCopy() {
+        Histogram histogram = pauseMonitor.getPauseHistogram();
+
+        pauseMonitor.recordPause(MILLISECONDS.toNanos(10));
+
+        assertEquals(0, histogram.getTotalCount());
+    }
+
+    @Test
+    public void testIsConcurrentCollector() {
+        assertTrue(isConcurrentCollector("ConcurrentMarkSweep"));
+        assertTrue(isConcurrentCollector("G1 Concurrent GC"));
+        assertTrue(isConcurrentCollector("ZGC"));
+        assertTrue(isConcurrentCollector("ZGC Cycles"));
+        assertTrue(isConcurrentCollector("ZGC Major Cycles"));
+        assertTrue(isConcurrentCollector("ZGC Minor Cycles"));
+        assertTrue(isConcurrentCollector("Shenandoah Cycles"));
+    }
+
+    @Test
+    public void testIsConcurrentCollector_whenPauses() {
+        assertFalse(isConcurrentCollector("G1 Young Generation"));
+        assertFalse(isConcurrentCollector("G1 Old Generation"));
+        assertFalse(isConcurrentCollector("ParNew"));
+        assertFalse(isConcurrentCollector("ZGC Pauses"));
+        assertFalse(isConcurrentCollector("ZGC Major Pauses"));
+        assertFalse(isConcurrentCollector("ZGC Minor Pauses"));
+        assertFalse(isConcurrentCollector("Shenandoah Pauses"));
+    }
+
+    @Test
+    public void testGcNotification() {
+        pauseMonitor.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                System.gc();
+                assertTrue(pauseMonitor.getPauseHistogram().getTotalCount() > 0);
+            }
+        });
+    }
+
+    @Test
+    public void testGcNotification_whenStopped() {
+        pauseMonitor.start();
+        pauseMonitor.stop();
+        long pauseCount = pauseMonitor.getPauseHistogram().getTotalCount();
+
+        System.gc();
+        sleepMillis(100);
+
+        assertEquals(pauseCount, pauseMonitor.getPauseHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testGetTotalSafepointNanos() {
+        long safepointNanos = pauseMonitor.getTotalSafepointNanos();
+
+        assertTrue(safepointNanos == NOT_MEASURED || safepointNanos >= 0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PerformanceLogFormatTest {
+
+    @Test
+    public void testFromString() {
+        assertEquals(PerformanceLogFormat.CSV, PerformanceLogFormat.fromString("csv"));
+        assertEquals(PerformanceLogFormat.BINARY, PerformanceLogFormat.fromString("Binary"));
+        assertEquals(PerformanceLogFormat.BINARY, PerformanceLogFormat.fromString(" BINARY "));
+    }
+
+    @Test
+    public void testFromString_whenNullOrEmpty_thenCsv() {
+        assertEquals(PerformanceLogFormat.CSV, PerformanceLogFormat.fromString(null));
+        assertEquals(PerformanceLogFormat.CSV, PerformanceLogFormat.fromString(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromString_whenUnknown_thenThrowIllegalArgumentException() {
+        PerformanceLogFormat.fromString("xml");
+    }
+}
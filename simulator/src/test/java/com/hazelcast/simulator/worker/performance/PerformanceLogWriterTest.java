@@ -0,0 +1,173 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.worker.performance.PerformanceLogWriter.newPerformanceLogWriter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceLogWriterTest {
+
+    private static final String HEADER = "epoch,timestamp,operations,operations-delta,operations/second,allocated-bytes/op,cpu-ns/op,gc-pause-ms,safepoint-ms,marker";
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testCsv() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10.5);
+        writer.write(2000, "time2", 30, 20, 20);
+        writer.flush();
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(HEADER, lines[0]);
+        assertEquals("1,time1,10,10,10.5,,,,", lines[1]);
+        assertEquals("2,time2,30,20,20,,,,", lines[2]);
+
+        writer.close();
+    }
+
+    @Test
+    public void testCsv_withMarker() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10, "step 1/2, 10 ops/s");
+        writer.write(2000, "time2", 20, 10, 10, null);
+        writer.close();
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals("1,time1,10,10,10,,,,,step 1/2; 10 ops/s", lines[1]);
+        assertEquals("2,time2,20,10,10,,,,", lines[2]);
+    }
+
+    @Test
+    public void testCsv_withCost() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10, 128.5, 2000, -1, -1, null);
+        writer.write(2000, "time2", 20, 10, 10, -1, 1500, -1, -1, "marker");
+        writer.close();
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals("1,time1,10,10,10,128.5,2000,,", lines[1]);
+        assertEquals("2,time2,20,10,10,,1500,,,marker", lines[2]);
+    }
+
+    @Test
+    public void testCsv_withPauses() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10, -1, -1, 12.5, 13, null);
+        writer.write(2000, "time2", 20, 10, 10, -1, -1, 0, -1, null);
+        writer.close();
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals("1,time1,10,10,10,,,12.5,13", lines[1]);
+        assertEquals("2,time2,20,10,10,,,0,", lines[2]);
+    }
+
+    @Test
+    public void testCsv_whenNotFlushed_thenNothingWritten() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10);
+
+        assertEquals(0, file.length());
+
+        writer.close();
+        assertEquals(2, fileAsText(file).split("\n").length);
+    }
+
+    @Test
+    public void testCsv_whenWrittenAfterClose_thenAppendedWithoutHeader() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        File file = new File(getUserDir(), "performance.csv");
+
+        writer.write(1000, "time1", 10, 10, 10);
+        writer.close();
+        writer.write(2000, "time2", 20, 10, 10);
+        writer.close();
+
+        String[] lines = fileAsText(file).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(HEADER, lines[0]);
+        assertEquals("2,time2,20,10,10,,,,", lines[2]);
+    }
+
+    @Test
+    public void testCsv_whenNothingWritten_thenNoFileCreated() {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.CSV);
+        writer.flush();
+        writer.close();
+
+        assertFalse(new File(getUserDir(), "performance.csv").exists());
+    }
+
+    @Test
+    public void testBinary() throws IOException {
+        PerformanceLogWriter writer = newPerformanceLogWriter(getUserDir(), "performance", PerformanceLogFormat.BINARY);
+        File file = new File(getUserDir(), "performance.bin");
+
+        writer.write(1000, "time1", 10, 10, 10.5);
+        writer.close();
+        writer.write(2000, "time2", 30, 20, 20, 128, 2000, 12.5, 13, null);
+        writer.close();
+
+        assertTrue(file.exists());
+        assertEquals(8 + 2 * BinaryPerformanceLogWriter.RECORD_SIZE, file.length());
+
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            assertEquals(BinaryPerformanceLogWriter.MAGIC, in.readInt());
+            assertEquals(BinaryPerformanceLogWriter.VERSION, in.readInt());
+
+            assertEquals(1000, in.readLong());
+            assertEquals(10, in.readLong());
+            assertEquals(10, in.readLong());
+            assertEquals(10.5, in.readDouble(), 0.0);
+            assertEquals(-1, in.readDouble(), 0.0);
+            assertEquals(-1, in.readDouble(), 0.0);
+            assertEquals(-1, in.readDouble(), 0.0);
+            assertEquals(-1, in.readDouble(), 0.0);
+
+            assertEquals(2000, in.readLong());
+            assertEquals(30, in.readLong());
+            assertEquals(20, in.readLong());
+            assertEquals(20, in.readDouble(), 0.0);
+            assertEquals(128, in.readDouble(), 0.0);
+            assertEquals(2000, in.readDouble(), 0.0);
+            assertEquals(12.5, in.readDouble(), 0.0);
+            assertEquals(13, in.readDouble(), 0.0);
+        } finally {
+            closeQuietly(in);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.tests.DummyTest;
 import com.hazelcast.simulator.tests.SuccessTest;
 import com.hazelcast.simulator.utils.AssertTask;
+import com.hazelcast.simulator.worker.metronome.HybridMetronome;
 import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
@@ -14,7 +15,10 @@ import com.hazelcast.simulator.worker.testcontainer.TestManager;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.io.File;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -23,8 +27,13 @@ import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -119,6 +128,152 @@ public class PerformanceMonitorTest {
         performanceMonitor.close();
     }
 
+    @Test
+    public void test_whenSubSecondInterval_thenSendPerformanceStatsEveryInterval() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 100, PerformanceLogFormat.CSV);
+        performanceMonitor.start();
+
+        DummyTest test = new DummyTest();
+        TestContext testContext = addTest(test);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        sleepMillis(1500);
+
+        // with a 1 second scan interval there would be at most 1 update
+        verify(server, atLeast(5)).sendCoordinator(any(PerformanceStatsOperation.class));
+
+        testContext.stop();
+        joinThread(runTestThread);
+
+        performanceMonitor.close();
+    }
+
+    @Test
+    public void test_whenWarmup_thenWarmupWrittenSeparately() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 100, PerformanceLogFormat.CSV);
+        performanceMonitor.start();
+
+        TestCase testCase = new TestCase(TEST_NAME)
+                .setProperty("threadCount", 1)
+                .setProperty("warmup", "500ms");
+        TestContext testContext = addTest(new DummyTest(), testCase);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(new File(getUserDir(), "performance-" + TEST_NAME + ".csv").exists());
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+        performanceMonitor.close();
+
+        assertTrue(new File(getUserDir(), "performance-" + TEST_NAME + "-warmup.csv").exists());
+        assertTrue(new File(getUserDir(), TEST_NAME + "-timestep-warmup.hdr").exists());
+        // the steady state is sent to the coordinator once the warmup is completed
+        ArgumentCaptor<PerformanceStatsOperation> captor = ArgumentCaptor.forClass(PerformanceStatsOperation.class);
+        verify(server, atLeastOnce()).sendCoordinator(captor.capture());
+        // the duration of the warmup is sent along, so the coordinator can exclude it from the total throughput
+        PerformanceStatsOperation operation = captor.getValue();
+        assertTrue(operation.getPerformanceStats().get(TEST_NAME).getWarmupMillis() >= 500);
+    }
+
+    @Test
+    public void test_whenTestRunning_thenPausesWritten() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 100, PerformanceLogFormat.CSV);
+        performanceMonitor.start();
+
+        TestContext testContext = addTest(new DummyTest());
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(new File(getUserDir(), TEST_NAME + "-gc-pause.hdr").exists());
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+        performanceMonitor.close();
+
+        String header = fileAsText(new File(getUserDir(), "performance-" + TEST_NAME + ".csv")).split("\n")[0];
+        assertTrue(header.contains("gc-pause-ms,safepoint-ms"));
+    }
+
+    @Test
+    public void test_whenTestRunning_withExemplarCount_thenExemplarsWritten() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 100, PerformanceLogFormat.CSV);
+        performanceMonitor.start();
+
+        TestCase testCase = new TestCase(TEST_NAME)
+                .setProperty("threadCount", 1)
+                .setProperty("exemplarCount", 3);
+        TestContext testContext = addTest(new DummyTest(), testCase);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        final File exemplarFile = new File(getUserDir(), TEST_NAME + "-timestep-exemplars.csv");
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(exemplarFile.exists());
+                assertTrue(fileAsText(exemplarFile).split("\n").length > 1);
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+        performanceMonitor.close();
+    }
+
+    @Test
+    public void test_whenHybridMetronome_thenSchedulingErrorWrittenButNotSent() {
+        performanceMonitor = new PerformanceMonitor(server, containerManager, 100, PerformanceLogFormat.CSV);
+        performanceMonitor.start();
+
+        TestCase testCase = new TestCase(TEST_NAME)
+                .setProperty("threadCount", 1)
+                .setProperty("ratePerSecond", 1000)
+                .setProperty("metronomeClass", HybridMetronome.class);
+        TestContext testContext = addTest(new DummyTest(), testCase);
+
+        Thread runTestThread = new RunTestThread();
+        runTestThread.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(new File(getUserDir(), TEST_NAME + "-metronome-schedulingError.hdr").exists());
+            }
+        });
+
+        testContext.stop();
+        joinThread(runTestThread);
+        performanceMonitor.close();
+
+        ArgumentCaptor<PerformanceStatsOperation> captor = ArgumentCaptor.forClass(PerformanceStatsOperation.class);
+        verify(server, atLeastOnce()).sendCoordinator(captor.capture());
+        boolean timeStepSent = false;
+        for (PerformanceStatsOperation operation : captor.getAllValues()) {
+            Map<String, String> histograms = operation.getHistograms().get(TEST_NAME);
+            if (histograms != null) {
+                timeStepSent |= histograms.containsKey("timestep");
+                assertFalse(histograms.containsKey("metronome-schedulingError"));
+            }
+        }
+        assertTrue(timeStepSent);
+    }
+
     private TestContext addTest(Object test) {
         return addTest(test, 0);
     }
@@ -126,6 +281,14 @@ public class PerformanceMonitorTest {
     private DelayTestContext addTest(Object test, int delayMillis) {
         TestCase testCase = new TestCase(TEST_NAME);
         testCase.setProperty("threadCount", 1);
+        return addTest(test, testCase, delayMillis);
+    }
+
+    private DelayTestContext addTest(Object test, TestCase testCase) {
+        return addTest(test, testCase, 0);
+    }
+
+    private DelayTestContext addTest(Object test, TestCase testCase, int delayMillis) {
         DelayTestContext testContext = new DelayTestContext(delayMillis);
         TestContainer testContainer = new TestContainer(testContext, test, testCase);
 
@@ -27,6 +27,18 @@ public class PerformanceStatsTest {
         assertEquals(200, addState.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testAdd_keepsLongestWarmup() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, -1, -1, 2000);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, -1, -1, 3000));
+        assertEquals(3000, addState.getWarmupMillis());
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100), false);
+        assertEquals(3000, addState.getWarmupMillis());
+        assertEquals(3000, new PerformanceStats(addState).getWarmupMillis());
+    }
+
     @Test
     public void testAdd_emptyState() {
         PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 550.0d, 300, 800);
@@ -97,6 +109,47 @@ public class PerformanceStatsTest {
         assertEquals(500, addState.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testAdd_withCost() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, 6400, 50000);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, 9600, 75000));
+
+        assertEquals(16000, addState.getAllocatedBytes());
+        assertEquals(125000, addState.getCpuNanos());
+        assertEquals(64.0, addState.getAllocatedBytesPerOperation(), 0.00001);
+        assertEquals(500.0, addState.getCpuNanosPerOperation(), 0.00001);
+    }
+
+    @Test
+    public void testAdd_withCost_withoutAddOperationCountAndThroughput() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, 6400, 50000);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, 9600, 75000), false);
+
+        assertEquals(9600, addState.getAllocatedBytes());
+        assertEquals(75000, addState.getCpuNanos());
+    }
+
+    @Test
+    public void testAdd_withCost_whenNotMeasured() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, 9600, -1));
+
+        assertEquals(9600, addState.getAllocatedBytes());
+        assertEquals(-1, addState.getCpuNanos());
+        assertEquals(-1, addState.getCpuNanosPerOperation(), 0.00001);
+    }
+
+    @Test
+    public void testCostPerOperation_whenNoOperations() {
+        PerformanceStats performanceStats = new PerformanceStats(0, 0, 0, 0, 0, 0, 6400, 50000);
+
+        assertEquals(-1, performanceStats.getAllocatedBytesPerOperation(), 0.00001);
+        assertEquals(-1, performanceStats.getCpuNanosPerOperation(), 0.00001);
+    }
+
     @Test
     public void testToString() {
         assertNotNull(new PerformanceStats().toString());
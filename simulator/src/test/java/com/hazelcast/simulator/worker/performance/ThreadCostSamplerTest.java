@@ -0,0 +1,105 @@
+package com.hazelcast.simulator.worker.performance;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static com.hazelcast.simulator.worker.performance.ThreadCostSampler.NOT_MEASURED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ThreadCostSamplerTest {
+
+    private static volatile Object sink;
+
+    private ThreadCostSampler sampler;
+
+    @Before
+    public void before() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        assumeTrue(((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported());
+        assumeTrue(threadMXBean.isThreadCpuTimeSupported());
+
+        sampler = new ThreadCostSampler();
+    }
+
+    @Test
+    public void testSample() {
+        long[] threadIds = {Thread.currentThread().getId()};
+        sampler.sample(threadIds);
+
+        for (int i = 0; i < 1000; i++) {
+            sink = new byte[1024];
+        }
+        sampler.sample(threadIds);
+
+        assertTrue(sampler.allocatedBytesDelta() >= 1000 * 1024);
+        assertTrue(sampler.cpuNanosDelta() >= 0);
+    }
+
+    @Test
+    public void testSample_whenNoThreads() {
+        sampler.sample(new long[0]);
+
+        assertEquals(NOT_MEASURED, sampler.allocatedBytesDelta());
+        assertEquals(NOT_MEASURED, sampler.cpuNanosDelta());
+    }
+
+    @Test
+    public void testSample_whenThreadTerminated() throws Exception {
+        Thread thread = new Thread();
+        thread.start();
+        thread.join();
+
+        sampler.sample(new long[]{thread.getId()});
+
+        assertEquals(NOT_MEASURED, sampler.allocatedBytesDelta());
+        assertEquals(NOT_MEASURED, sampler.cpuNanosDelta());
+    }
+
+    @Test
+    public void testSample_whenThreadTerminated_andOtherThreadSampled() throws Exception {
+        Thread thread = new Thread();
+        thread.start();
+        thread.join();
+
+        sampler.sample(new long[]{thread.getId(), Thread.currentThread().getId()});
+
+        assertTrue(sampler.allocatedBytesDelta() >= 0);
+        assertTrue(sampler.cpuNanosDelta() >= 0);
+    }
+
+    @Test
+    public void testSample_whenThreadsNotSampled() {
+        // the ThreadMXBean returns -1 for threads it can't sample, e.g. virtual threads
+        ThreadMXBean threadMXBean = mock(ThreadMXBean.class);
+        when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(true);
+        when(threadMXBean.isThreadCpuTimeEnabled()).thenReturn(true);
+        when(threadMXBean.getThreadCpuTime(anyLong())).thenReturn(-1L);
+        ThreadCostSampler sampler = new ThreadCostSampler(threadMXBean);
+
+        sampler.sample(new long[]{1, 2, 3});
+
+        assertEquals(NOT_MEASURED, sampler.allocatedBytesDelta());
+        assertEquals(NOT_MEASURED, sampler.cpuNanosDelta());
+    }
+
+    @Test
+    public void testSample_whenCpuTimeNotSupported() {
+        ThreadMXBean threadMXBean = mock(ThreadMXBean.class);
+        when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(false);
+        ThreadCostSampler sampler = new ThreadCostSampler(threadMXBean);
+
+        sampler.sample(new long[]{Thread.currentThread().getId()});
+
+        assertEquals(NOT_MEASURED, sampler.allocatedBytesDelta());
+        assertEquals(NOT_MEASURED, sampler.cpuNanosDelta());
+    }
+}
@@ -0,0 +1,102 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WarmupTest {
+
+    @Test
+    public void testLoad_whenNotConfigured() {
+        assertNull(load(new TestCase("foo")));
+    }
+
+    @Test
+    public void testLoad_withDuration() {
+        Warmup warmup = load(new TestCase("foo").setProperty("warmup", "30s"));
+
+        assertFalse(warmup.isAuto());
+        assertEquals(30000, warmup.getDurationMillis());
+    }
+
+    @Test
+    public void testLoad_withAuto() {
+        Warmup warmup = load(new TestCase("foo").setProperty("warmup", "auto"));
+
+        assertTrue(warmup.isAuto());
+        assertEquals(300000, warmup.getDurationMillis());
+    }
+
+    @Test
+    public void testLoad_withAutoAndMaxDuration() {
+        Warmup warmup = load(new TestCase("foo")
+                .setProperty("warmup", "auto")
+                .setProperty("warmupMaxDuration", "1m"));
+
+        assertEquals(60000, warmup.getDurationMillis());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenZeroDuration() {
+        load(new TestCase("foo").setProperty("warmup", "0s"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testLoad_whenNegativeTolerance() {
+        load(new TestCase("foo")
+                .setProperty("warmup", "auto")
+                .setProperty("warmupTolerance", "-0.1"));
+    }
+
+    @Test
+    public void testComplete_withDuration() {
+        Warmup warmup = new Warmup(false, 1000, 0.2);
+
+        // stable measurements don't end a warmup with a fixed duration
+        assertFalse(warmup.complete(200, 100, 10));
+        assertFalse(warmup.complete(400, 100, 10));
+        assertFalse(warmup.complete(600, 100, 10));
+        assertTrue(warmup.complete(1000, 100, 10));
+    }
+
+    @Test
+    public void testComplete_withAuto_whenStable() {
+        Warmup warmup = new Warmup(true, 60000, 0.2);
+
+        assertFalse(warmup.complete(1000, 100, 50));
+        assertFalse(warmup.complete(2000, 500, 20));
+        assertFalse(warmup.complete(3000, 900, 12));
+        assertFalse(warmup.complete(4000, 1000, 10));
+        assertTrue(warmup.complete(5000, 950, 11));
+        assertTrue(warmup.isStable());
+    }
+
+    @Test
+    public void testComplete_withAuto_whenLatencyNotStable() {
+        Warmup warmup = new Warmup(true, 60000, 0.2);
+
+        assertFalse(warmup.complete(1000, 1000, 50));
+        assertFalse(warmup.complete(2000, 1000, 20));
+        assertFalse(warmup.complete(3000, 1000, 10));
+    }
+
+    @Test
+    public void testComplete_withAuto_whenMaxDurationPassed() {
+        Warmup warmup = new Warmup(true, 3000, 0.2);
+
+        assertFalse(warmup.complete(1000, 100, 50));
+        assertFalse(warmup.complete(2000, 500, 20));
+        assertTrue(warmup.complete(3000, 900, 12));
+        assertFalse(warmup.isStable());
+    }
+
+    private static Warmup load(TestCase testCase) {
+        return Warmup.load(new PropertyBinding(testCase));
+    }
+}
@@ -0,0 +1,60 @@
+package com.hazelcast.simulator.worker.profiler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class JfrProfilerTest {
+
+    private File userDir;
+
+    @Before
+    public void before() throws Exception {
+        assumeTrue(isJfrAvailable());
+        userDir = setupFakeUserDir();
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testStartAndStop() throws Exception {
+        JfrProfiler profiler = new JfrProfiler();
+        File file = new File(userDir, "foo-jfr-1" + profiler.getExtension());
+
+        try {
+            profiler.start(file, null);
+        } catch (Exception e) {
+            // e.g. a commercial JDK 8 without -XX:+UnlockCommercialFeatures
+            assumeTrue(false);
+        }
+        profiler.stop(file);
+
+        assertTrue(file.exists());
+    }
+
+    private static boolean isJfrAvailable() throws Exception {
+        ObjectName name = new ObjectName("com.sun.management:type=DiagnosticCommand");
+        if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+            return false;
+        }
+        for (MBeanOperationInfo operation : ManagementFactory.getPlatformMBeanServer().getMBeanInfo(name).getOperations()) {
+            if ("jfrStart".equals(operation.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package com.hazelcast.simulator.worker.profiler;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.utils.AssertTask;
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestProfilerTest {
+
+    private File userDir;
+    private StubProfiler stubProfiler;
+
+    @Before
+    public void before() {
+        userDir = setupFakeUserDir();
+        stubProfiler = new StubProfiler();
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
+
+    @Test
+    public void testRun_whenNotConfigured() {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo"));
+
+        profiler.onRunStarted();
+        profiler.onRunCompleted();
+
+        assertTrue(stubProfiler.events.isEmpty());
+    }
+
+    @Test
+    public void testRun_withProfiler() {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo")
+                .setProperty("profiler", "jfr")
+                .setProperty("profilerSettings", "default"));
+
+        profiler.onRunStarted();
+        assertEquals(asList("start foo-jfr-1.stub default"), stubProfiler.events);
+
+        profiler.onRunCompleted();
+        assertEquals(asList("start foo-jfr-1.stub default", "stop foo-jfr-1.stub"), stubProfiler.events);
+        assertTrue(new File(userDir, "foo-jfr-1.stub").exists());
+    }
+
+    @Test
+    public void testRun_withDelayAndDuration() {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo")
+                .setProperty("profiler", "async-profiler")
+                .setProperty("profilerDelay", "100ms")
+                .setProperty("profilerDuration", "100ms"));
+
+        profiler.onRunStarted();
+        assertTrue(stubProfiler.events.isEmpty());
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(asList("start foo-async-profiler-1.stub null", "stop foo-async-profiler-1.stub"),
+                        stubProfiler.events);
+            }
+        });
+
+        profiler.onRunCompleted();
+        assertEquals(2, stubProfiler.events.size());
+    }
+
+    @Test
+    public void testRun_whenCompletedBeforeDelay() {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo")
+                .setProperty("profiler", "jfr")
+                .setProperty("profilerDelay", "1h"));
+
+        profiler.onRunStarted();
+        profiler.onRunCompleted();
+
+        assertTrue(stubProfiler.events.isEmpty());
+    }
+
+    @Test
+    public void testRun_whenProfilerFails() {
+        stubProfiler.failOnStart = true;
+        TestProfiler profiler = newTestProfiler(new TestCase("foo").setProperty("profiler", "jfr"));
+
+        // a failing profiler doesn't fail the test
+        profiler.onRunStarted();
+        profiler.onRunCompleted();
+
+        assertTrue(stubProfiler.events.isEmpty());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testConstructor_whenUnknownProfiler() {
+        newTestProfiler(new TestCase("foo").setProperty("profiler", "unknown"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testConstructor_whenInvalidDuration() {
+        newTestProfiler(new TestCase("foo")
+                .setProperty("profiler", "jfr")
+                .setProperty("profilerDuration", "10"));
+    }
+
+    @Test
+    public void testStartAndStop() throws Exception {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo"));
+
+        File file = profiler.start("jfr", null, 0, 0);
+        assertEquals(new File(userDir, "foo-jfr-1.stub"), file);
+        assertEquals(file, profiler.stop());
+
+        assertEquals(new File(userDir, "foo-jfr-2.stub"), profiler.start("jfr", null, 0, 0));
+        assertEquals(new File(userDir, "foo-jfr-2.stub"), profiler.stop());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStart_whenAlreadyProfiling() throws Exception {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo"));
+        profiler.start("jfr", null, 0, 0);
+
+        try {
+            profiler.start("jfr", null, 0, 0);
+        } finally {
+            profiler.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStart_whenUnknownProfiler() throws Exception {
+        TestProfiler profiler = new TestProfiler(new PropertyBinding(new TestCase("foo")), "foo");
+
+        profiler.start("unknown", null, 0, 0);
+    }
+
+    @Test
+    public void testStop_whenNotProfiling() {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo"));
+
+        assertNull(profiler.stop());
+    }
+
+    @Test
+    public void testStop_whenDurationPassed() throws Exception {
+        TestProfiler profiler = newTestProfiler(new TestCase("foo"));
+        File file = profiler.start("jfr", null, 0, 10);
+
+        sleepMillis(100);
+
+        assertEquals(file, profiler.stop());
+        assertNull(profiler.stop());
+    }
+
+    @Test
+    public void testToMillis() {
+        assertEquals(0, TestProfiler.toMillis("duration", null));
+        assertEquals(0, TestProfiler.toMillis("duration", ""));
+        assertEquals(30000, TestProfiler.toMillis("duration", "30s"));
+    }
+
+    private TestProfiler newTestProfiler(TestCase testCase) {
+        return new TestProfiler(new PropertyBinding(testCase), testCase.getId()) {
+            @Override
+            Profiler newProfiler(String name) {
+                return stubProfiler;
+            }
+        };
+    }
+
+    private static class StubProfiler extends Profiler {
+
+        private final List<String> events = new CopyOnWriteArrayList<String>();
+        private volatile boolean failOnStart;
+
+        @Override
+        String getExtension() {
+            return ".stub";
+        }
+
+        @Override
+        void start(File file, String settings) throws Exception {
+            if (failOnStart) {
+                throw new IllegalStateException("expected");
+            }
+            events.add("start " + file.getName() + " " + settings);
+        }
+
+        @Override
+        void stop(File file) throws Exception {
+            writeText("profile", file);
+            events.add("stop " + file.getName());
+        }
+    }
+}
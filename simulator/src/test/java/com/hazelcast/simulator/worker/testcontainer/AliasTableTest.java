@@ -0,0 +1,92 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.Math.sqrt;
+import static org.junit.Assert.assertEquals;
+
+public class AliasTableTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenEmpty() {
+        new AliasTable();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenNegativeWeight() {
+        new AliasTable(0.5, -0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenAllZero() {
+        new AliasTable(0, 0);
+    }
+
+    @Test
+    public void testSingleIndex() {
+        AliasTable table = new AliasTable(1);
+
+        assertEquals(1, table.size());
+        assertEquals(1, table.getProbability(0), DELTA);
+        assertEquals(0, table.select(new Random().nextLong()));
+    }
+
+    @Test
+    public void testProbabilities() {
+        assertProbabilities(0.1, 0.2, 0.1, 0.29, 0.21, 0.1);
+        assertProbabilities(0.5, 0.5);
+        assertProbabilities(0.0001, 0.9999);
+        assertProbabilities(0.000001, 0.999999);
+        assertProbabilities(0.0001, 0.0002, 0.4997, 0.5);
+        assertProbabilities(0.3, 0, 0.7);
+    }
+
+    @Test
+    public void testProbabilities_whenWeightsNotNormalized() {
+        AliasTable table = new AliasTable(1, 3);
+
+        assertEquals(0.25, table.getProbability(0), DELTA);
+        assertEquals(0.75, table.getProbability(1), DELTA);
+    }
+
+    @Test
+    public void testSelect_distribution() {
+        double[] probabilities = {0.0001, 0.0999, 0.3, 0.6};
+        AliasTable table = new AliasTable(probabilities);
+
+        int samples = 10 * 1000 * 1000;
+        long[] counts = new long[probabilities.length];
+        Random random = new Random(1);
+        for (int i = 0; i < samples; i++) {
+            counts[table.select(random.nextLong())]++;
+        }
+
+        for (int index = 0; index < probabilities.length; index++) {
+            double p = probabilities[index];
+            assertEquals(samples * p, counts[index], 5 * sqrt(samples * p * (1 - p)));
+        }
+    }
+
+    @Test
+    public void testSelect_extremeRandomValues() {
+        AliasTable table = new AliasTable(0.25, 0.25, 0.5);
+
+        table.select(0);
+        table.select(-1);
+        table.select(Long.MAX_VALUE);
+        table.select(Long.MIN_VALUE);
+    }
+
+    private static void assertProbabilities(double... probabilities) {
+        AliasTable table = new AliasTable(probabilities);
+
+        assertEquals(probabilities.length, table.size());
+        for (int index = 0; index < probabilities.length; index++) {
+            assertEquals(probabilities[index], table.getProbability(index), DELTA);
+        }
+    }
+}
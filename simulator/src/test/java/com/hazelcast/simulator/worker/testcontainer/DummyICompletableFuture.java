@@ -0,0 +1,51 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future for asynchronous timestep methods in tests. It completes as soon as a callback is registered; subclasses can
+ * override {@link #andThen(ExecutionCallback)} to complete it later.
+ */
+class DummyICompletableFuture implements ICompletableFuture<Object> {
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        throw new UnsupportedOperationException("not implemented");
+    }
+
+    @Override
+    public boolean isCancelled() {
+        throw new UnsupportedOperationException("not implemented");
+    }
+
+    @Override
+    public boolean isDone() {
+        throw new UnsupportedOperationException("not implemented");
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+        throw new UnsupportedOperationException("not implemented");
+    }
+
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        throw new UnsupportedOperationException("not implemented");
+    }
+
+    @Override
+    public void andThen(ExecutionCallback<Object> executionCallback) {
+        executionCallback.onResponse(null);
+    }
+
+    @Override
+    public void andThen(ExecutionCallback<Object> executionCallback, Executor executor) {
+        throw new UnsupportedOperationException("not implemented");
+    }
+}
@@ -3,7 +3,10 @@ package com.hazelcast.simulator.worker.testcontainer;
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.HybridMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.PoissonMetronome;
+import com.hazelcast.simulator.worker.metronome.RateProfileMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 import org.junit.Test;
 
@@ -15,6 +18,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class MetronomeConstructorTest {
 
@@ -85,6 +89,104 @@ public class MetronomeConstructorTest {
         assertEquals(10, metronome.getIntervalNanos());
     }
 
+    @Test
+    public void withHybridMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("interval", "10us")
+                        .setProperty("metronomeClass", HybridMetronome.class));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 2);
+
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(HybridMetronome.class, m.getClass());
+        HybridMetronome metronome = (HybridMetronome) m;
+
+        assertEquals(MICROSECONDS.toNanos(20), metronome.getIntervalNanos());
+        assertTrue(propertyBinding.getProbeMap().containsKey("metronome-schedulingError"));
+    }
+
+    @Test
+    public void withPoissonMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", "1000")
+                        .setProperty("metronomeClass", PoissonMetronome.class)
+                        .setProperty("burstSize", "10"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 1);
+
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(PoissonMetronome.class, m.getClass());
+        PoissonMetronome metronome = (PoissonMetronome) m;
+
+        assertEquals(MILLISECONDS.toNanos(1), metronome.getIntervalNanos());
+    }
+
+    @Test
+    public void withRateProfile() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("rateProfile", "ramp 1k->10k over 1m"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 4);
+
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(RateProfileMetronome.class, m.getClass());
+        assertEquals(MILLISECONDS.toNanos(1), metronomeConstructor.getIntervalNanos());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRateProfile_andRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", "1000")
+                        .setProperty("rateProfile", "ramp 1k->10k over 1m"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRateProfile_andOtherMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("metronomeClass", BusySpinningMetronome.class)
+                        .setProperty("rateProfile", "ramp 1k->10k over 1m"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test
+    public void withGlobalRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("globalRatePerSecond", "4000"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 4);
+
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(RateProfileMetronome.class, m.getClass());
+        assertTrue(((RateProfileMetronome) m).isGlobal());
+        assertEquals(MICROSECONDS.toNanos(250), metronomeConstructor.getIntervalNanos());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withGlobalRatePerSecond_andRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", "1000")
+                        .setProperty("globalRatePerSecond", "4000"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withGlobalRatePerSecond_andRateProfile() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("rateProfile", "ramp 1k->10k over 1m")
+                        .setProperty("globalRatePerSecond", "4000"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withGlobalRatePerSecond_whenZero() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("globalRatePerSecond", "0"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
     @Test
     public void whenZeroInterval() {
         PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
@@ -1,9 +1,13 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.probes.impl.HistogramSettings;
 import org.junit.Test;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PropertyBindingTest {
     @Test
@@ -118,4 +122,67 @@ public class PropertyBindingTest {
 
         assertEquals(false, binding.loadAsBoolean("booleanValue", true));
     }
+
+    @Test
+    public void getOrCreateProbe_defaultHistogramSettings() {
+        PropertyBinding binding = new PropertyBinding(new TestCase("foo"));
+
+        HdrProbe probe = (HdrProbe) binding.getOrCreateProbe("probe", false);
+
+        assertEquals(HistogramSettings.MICROSECOND_RESOLUTION, probe.getHistogramSettings());
+    }
+
+    @Test
+    public void getOrCreateProbe_withLatencyResolution() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("latencyResolution", "100ns")
+                .setProperty("latencyHighestTrackableValue", "10s")
+                .setProperty("latencySignificantDigits", 2);
+        PropertyBinding binding = new PropertyBinding(testCase);
+
+        HistogramSettings settings = ((HdrProbe) binding.getOrCreateProbe("probe", false)).getHistogramSettings();
+
+        assertEquals(100, settings.getLowestDiscernibleValue());
+        assertEquals(SECONDS.toNanos(10), settings.getHighestTrackableValue());
+        assertEquals(2, settings.getNumberOfSignificantValueDigits());
+    }
+
+    @Test
+    public void getOrCreateProbe_withProbeLatencyResolution() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("probeLatencyResolution", "get:1ns, put-serviceTime:auto");
+        PropertyBinding binding = new PropertyBinding(testCase);
+
+        assertEquals(1, getHistogramSettings(binding, "get").getLowestDiscernibleValue());
+        assertTrue(getHistogramSettings(binding, "put-serviceTime").isAutoResize());
+        assertEquals(HistogramSettings.MICROSECOND_RESOLUTION, getHistogramSettings(binding, "put"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void getOrCreateProbe_withInvalidLatencyResolution() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("latencyResolution", "2h");
+
+        new PropertyBinding(testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void getOrCreateProbe_withTooManySignificantDigits() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("latencySignificantDigits", 6);
+
+        new PropertyBinding(testCase);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void getOrCreateProbe_withInvalidProbeLatencyResolution() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("probeLatencyResolution", "get");
+
+        new PropertyBinding(testCase);
+    }
+
+    private static HistogramSettings getHistogramSettings(PropertyBinding binding, String probeName) {
+        return ((HdrProbe) binding.getOrCreateProbe(probeName, false)).getHistogramSettings();
+    }
 }
@@ -2,6 +2,7 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.test.BaseThreadState;
 import com.hazelcast.simulator.test.annotations.AfterRun;
@@ -58,6 +59,51 @@ public class TestContainer_TimeStepTest extends TestContainer_AbstractTest {
     }
 
 
+    @Test
+    public void testWithVirtualThreads() throws Exception {
+        int threadCount = 100;
+        int iterations = 10;
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", threadCount)
+                .setProperty("iterations", iterations)
+                .setProperty("virtualThreads", true)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        container.invoke(TestPhase.LOCAL_TEARDOWN);
+
+        assertEquals(threadCount, testInstance.beforeRunCount.get());
+        assertEquals(threadCount, testInstance.afterRunCount.get());
+        assertEquals(threadCount * iterations, testInstance.timeStepCount.get());
+    }
+
+    @Test
+    public void testWithMeasureLatency_probesMergedFromAllThreads() throws Exception {
+        int threadCount = 4;
+        int iterations = 1000;
+        TestWithAllTimeStepPhases testInstance = new TestWithAllTimeStepPhases();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", threadCount)
+                .setProperty("iterations", iterations)
+                .setProperty("measureLatency", true)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        container.invoke(TestPhase.LOCAL_TEARDOWN);
+
+        HdrProbe probe = (HdrProbe) container.getProbeMap().get("timeStep");
+        assertEquals(threadCount * iterations, probe.getIntervalHistogram().getTotalCount());
+    }
+
     public static class TestWithAllTimeStepPhases {
         private final AtomicLong beforeRunCount = new AtomicLong();
         private final AtomicLong afterRunCount = new AtomicLong();
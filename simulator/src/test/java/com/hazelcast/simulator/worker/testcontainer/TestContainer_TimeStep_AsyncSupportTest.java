@@ -8,16 +8,19 @@ import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.test.annotations.TimeStep;
-import org.HdrHistogram.Recorder;
 import org.junit.Test;
 
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.simulator.TestSupport.spawn;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -47,12 +50,85 @@ public class TestContainer_TimeStep_AsyncSupportTest extends TestContainer_Abstr
         assertEquals(totalIterationCount, asyncTimeStep1 + asyncTimeStep2);
     }
 
-    private TestContainer createContainerAndRunTestInstance(Object testInstance, int totalIterationCount) throws Exception {
+    @Test
+    public void testWithMaxInFlight_withMultipleAsyncMethod() throws Exception {
+        StartAsyncTest_withMultipleAsyncMethod testInstance = new StartAsyncTest_withMultipleAsyncMethod();
+        int totalIterationCount = 1000;
+        TestCase testCase = newTestCase(testInstance, totalIterationCount)
+                .setProperty("maxInFlight", 4);
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        long asyncTimeStep1 = getProbeTotalCount("asyncTimeStep1", container);
+        long asyncTimeStep2 = getProbeTotalCount("asyncTimeStep2", container);
+
+        assertEquals(totalIterationCount, asyncTimeStep1 + asyncTimeStep2);
+    }
+
+    @Test(timeout = 30000)
+    public void testWithMaxInFlight_whenStoppedWhileWaitingForPermit() throws Exception {
+        StartAsyncTest_withPendingAsyncMethod testInstance = new StartAsyncTest_withPendingAsyncMethod();
         TestCase testCase = new TestCase("test")
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 1)
+                .setProperty("class", testInstance.getClass());
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future runFuture = spawn(new Callable() {
+            @Override
+            public Object call() throws Exception {
+                container.invoke(RUN);
+                return null;
+            }
+        });
+        // the runner now waits for the permit of the pending call
+        testInstance.called.await();
+        Thread.sleep(200);
+        testContext.stop();
+        Thread.sleep(500);
+        testInstance.future.complete();
+        runFuture.get();
+
+        assertEquals(1, testInstance.callCount.get());
+    }
+
+    @Test
+    public void testServiceTimeProbe() throws Exception {
+        StartAsyncTest_withSingleAsyncMethod testInstance = new StartAsyncTest_withSingleAsyncMethod();
+        int totalIterationCount = 50;
+        TestContainer container = createContainerAndRunTestInstance(testInstance, totalIterationCount);
+
+        Map<String, Probe> probeMap = container.getProbeMap();
+        assertFalse(probeMap.containsKey("timeStep-serviceTime"));
+        assertFalse(probeMap.get("asyncTimeStep-serviceTime").isPartOfTotalThroughput());
+
+        long asyncCount = getProbeTotalCount("asyncTimeStep", container);
+        assertProbeTotalCount("asyncTimeStep-serviceTime", asyncCount, container);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testWithNegativeMaxInFlight() throws Exception {
+        StartAsyncTest_withSingleAsyncMethod testInstance = new StartAsyncTest_withSingleAsyncMethod();
+        TestCase testCase = newTestCase(testInstance, 50)
+                .setProperty("maxInFlight", -1);
+
+        runTestCase(testInstance, testCase);
+    }
+
+    private TestContainer createContainerAndRunTestInstance(Object testInstance, int totalIterationCount) throws Exception {
+        return runTestCase(testInstance, newTestCase(testInstance, totalIterationCount));
+    }
+
+    private static TestCase newTestCase(Object testInstance, int totalIterationCount) {
+        return new TestCase("test")
                 .setProperty("iterations", totalIterationCount)
                 .setProperty("threadCount", 1)
                 .setProperty("class", testInstance.getClass());
+    }
 
+    private TestContainer runTestCase(Object testInstance, TestCase testCase) throws Exception {
         TestContextImpl testContext = new TestContextImpl(
                 testCase.getId(), "localhost", mock(Server.class));
         TestContainer container = new TestContainer(testContext, testInstance, testCase);
@@ -71,8 +147,7 @@ public class TestContainer_TimeStep_AsyncSupportTest extends TestContainer_Abstr
     private static long getProbeTotalCount(String probeName, TestContainer container) {
         Map<String, Probe> probeMap = container.getProbeMap();
         HdrProbe probe = (HdrProbe) probeMap.get(probeName);
-        Recorder recorder = probe.getRecorder();
-        return recorder.getIntervalHistogram().getTotalCount();
+        return probe.getIntervalHistogram().getTotalCount();
     }
 
     public static class StartAsyncTest_withSingleAsyncMethod {
@@ -99,40 +174,29 @@ public class TestContainer_TimeStep_AsyncSupportTest extends TestContainer_Abstr
         }
     }
 
-    private static class DummyICompletableFuture implements ICompletableFuture<Object> {
-        @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            throw new UnsupportedOperationException("not implemented");
-        }
-
-        @Override
-        public boolean isCancelled() {
-            throw new UnsupportedOperationException("not implemented");
-        }
-
-        @Override
-        public boolean isDone() {
-            throw new UnsupportedOperationException("not implemented");
-        }
+    public static class StartAsyncTest_withPendingAsyncMethod {
+        private final CountDownLatch called = new CountDownLatch(1);
+        private final AtomicInteger callCount = new AtomicInteger();
+        private final PendingICompletableFuture future = new PendingICompletableFuture();
 
-        @Override
-        public Object get() throws InterruptedException, ExecutionException {
-            throw new UnsupportedOperationException("not implemented");
+        @TimeStep
+        public ICompletableFuture<Object> asyncTimeStep() {
+            callCount.incrementAndGet();
+            called.countDown();
+            return future;
         }
+    }
 
-        @Override
-        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-            throw new UnsupportedOperationException("not implemented");
-        }
+    private static class PendingICompletableFuture extends DummyICompletableFuture {
+        private volatile ExecutionCallback<Object> callback;
 
         @Override
         public void andThen(ExecutionCallback<Object> executionCallback) {
-            executionCallback.onResponse(null);
+            callback = executionCallback;
         }
 
-        @Override
-        public void andThen(ExecutionCallback<Object> executionCallback, Executor executor) {
-            throw new UnsupportedOperationException("not implemented");
+        void complete() {
+            callback.onResponse(null);
         }
     }
 }
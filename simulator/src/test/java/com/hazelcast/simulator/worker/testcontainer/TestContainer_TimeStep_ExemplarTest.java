@@ -0,0 +1,104 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.Exemplar;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.StartNanos;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_ExemplarTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testWithRate() throws Exception {
+        ExemplarTest testInstance = new ExemplarTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("interval", "10us")
+                .setProperty("exemplarCount", 5);
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        List<Exemplar> exemplars = getExemplars("timeStep", container);
+        assertEquals(5, exemplars.size());
+        for (Exemplar exemplar : exemplars) {
+            assertNotEquals(Exemplar.NOT_MEASURED, exemplar.getStartLagNanos());
+        }
+    }
+
+    @Test
+    public void testWithTag() throws Exception {
+        TaggedExemplarTest testInstance = new TaggedExemplarTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("exemplarCount", 3);
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        List<Exemplar> exemplars = getExemplars("timeStep", container);
+        assertEquals(3, exemplars.size());
+        assertTrue(exemplars.get(0).getTag().startsWith("key-"));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        ExemplarTest testInstance = new ExemplarTest();
+
+        TestContainer container = runTestCase(testInstance, newTestCase(testInstance));
+
+        assertTrue(getExemplars("timeStep", container).isEmpty());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNegativeExemplarCount() throws Exception {
+        ExemplarTest testInstance = new ExemplarTest();
+
+        runTestCase(testInstance, newTestCase(testInstance).setProperty("exemplarCount", -1));
+    }
+
+    private static TestCase newTestCase(Object testInstance) {
+        return new TestCase("test")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+    }
+
+    private TestContainer runTestCase(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+        return container;
+    }
+
+    private static List<Exemplar> getExemplars(String probeName, TestContainer container) {
+        HdrProbe probe = (HdrProbe) container.getProbeMap().get(probeName);
+        return probe.getIntervalExemplars();
+    }
+
+    public static class ExemplarTest {
+        @TimeStep
+        public void timeStep() {
+        }
+    }
+
+    public static class TaggedExemplarTest {
+        private int key;
+
+        @TimeStep
+        public void timeStep(Probe probe, @StartNanos long startNanos) {
+            probe.done(startNanos, "key-" + key++);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static java.lang.Math.sqrt;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_ProbabilityTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testDistribution() throws Exception {
+        int threadCount = 2;
+        int iterations = 1000 * 1000;
+        ProbabilityTest testInstance = new ProbabilityTest();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", threadCount)
+                .setProperty("iterations", iterations)
+                .setProperty("rareProb", 0.0005)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+        container.invoke(TestPhase.LOCAL_TEARDOWN);
+
+        long total = (long) threadCount * iterations;
+        assertEquals(total, testInstance.rareCount.get() + testInstance.someCount.get() + testInstance.mostCount.get());
+        assertCount(total, 0.0005, testInstance.rareCount.get());
+        assertCount(total, 0.2, testInstance.someCount.get());
+        assertCount(total, 0.7995, testInstance.mostCount.get());
+    }
+
+    private static void assertCount(long total, double probability, long actual) {
+        double expected = total * probability;
+        double sigma = sqrt(total * probability * (1 - probability));
+        assertEquals(expected, actual, 5 * sigma);
+    }
+
+    public static class ProbabilityTest {
+        private final AtomicLong rareCount = new AtomicLong();
+        private final AtomicLong someCount = new AtomicLong();
+        private final AtomicLong mostCount = new AtomicLong();
+
+        @TimeStep(prob = 0.1)
+        public void rare() {
+            rareCount.incrementAndGet();
+        }
+
+        @TimeStep(prob = 0.2)
+        public void some() {
+            someCount.incrementAndGet();
+        }
+
+        @TimeStep(prob = -1)
+        public void most() {
+            mostCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.utils.AssertTask;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.TestSupport.spawn;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_RateProfileTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testDescribeRateProfileSteps() throws Exception {
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("rateProfile", "steps 1k,2k every 500ms")
+                .setProperty("class", RateProfileTest.class);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, new RateProfileTest(), testCase);
+        container.invoke(SETUP);
+
+        assertNull(container.describeRateProfileSteps());
+
+        Future runFuture = spawn(new Callable() {
+            @Override
+            public Object call() throws Exception {
+                container.invoke(RUN);
+                return null;
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals("step 2/2 2000 ops/s", container.describeRateProfileSteps());
+            }
+        });
+
+        testContext.stop();
+        runFuture.get();
+    }
+
+    @Test
+    public void testSetRateShare() throws Exception {
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("globalRatePerSecond", "4000")
+                .setProperty("class", RateProfileTest.class);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, new RateProfileTest(), testCase);
+        container.invoke(SETUP);
+
+        // the share is assigned before the run starts
+        container.setRateShare(0.25);
+
+        Future runFuture = spawn(new Callable() {
+            @Override
+            public Object call() throws Exception {
+                container.invoke(RUN);
+                return null;
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals("rate 1000 ops/s", container.describeRateProfileSteps());
+            }
+        });
+
+        // a Worker has failed, so the share of this Worker increases
+        container.setRateShare(0.5);
+        assertEquals("rate 2000 ops/s", container.describeRateProfileSteps());
+
+        testContext.stop();
+        runFuture.get();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetRateShare_whenNoGlobalRate() {
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 2)
+                .setProperty("rateProfile", "steps 1k,2k every 500ms")
+                .setProperty("class", RateProfileTest.class);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, new RateProfileTest(), testCase);
+
+        container.setRateShare(0.5);
+    }
+
+    public static class RateProfileTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
+    }
+}
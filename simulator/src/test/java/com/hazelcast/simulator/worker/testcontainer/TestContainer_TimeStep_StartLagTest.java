@@ -0,0 +1,117 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_StartLagTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testWithRate() throws Exception {
+        StartLagTest testInstance = new StartLagTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("interval", "10us")
+                .setProperty("recordStartLag", true);
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        Map<String, Probe> probeMap = container.getProbeMap();
+        assertFalse(probeMap.get("timeStep1-startLag").isPartOfTotalThroughput());
+
+        long count1 = getProbeTotalCount("timeStep1", container);
+        long count2 = getProbeTotalCount("timeStep2", container);
+        assertTrue(count1 > 0);
+        assertTrue(count2 > 0);
+        assertEquals(count1, getProbeTotalCount("timeStep1-startLag", container));
+        assertEquals(count2, getProbeTotalCount("timeStep2-startLag", container));
+    }
+
+    @Test
+    public void testWithRate_withAsyncMethod() throws Exception {
+        AsyncStartLagTest testInstance = new AsyncStartLagTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("interval", "10us")
+                .setProperty("recordStartLag", true);
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        assertEquals(100, getProbeTotalCount("asyncTimeStep", container));
+        assertEquals(100, getProbeTotalCount("asyncTimeStep-startLag", container));
+    }
+
+    @Test
+    public void testWithoutRate() throws Exception {
+        StartLagTest testInstance = new StartLagTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("recordStartLag", true);
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        Map<String, Probe> probeMap = container.getProbeMap();
+        assertTrue(probeMap.containsKey("timeStep1"));
+        assertFalse(probeMap.containsKey("timeStep1-startLag"));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        StartLagTest testInstance = new StartLagTest();
+        TestCase testCase = newTestCase(testInstance)
+                .setProperty("interval", "10us");
+
+        TestContainer container = runTestCase(testInstance, testCase);
+
+        assertFalse(container.getProbeMap().containsKey("timeStep1-startLag"));
+    }
+
+    private static TestCase newTestCase(Object testInstance) {
+        return new TestCase("test")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+    }
+
+    private TestContainer runTestCase(Object testInstance, TestCase testCase) throws Exception {
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+        return container;
+    }
+
+    private static long getProbeTotalCount(String probeName, TestContainer container) {
+        HdrProbe probe = (HdrProbe) container.getProbeMap().get(probeName);
+        return probe.getIntervalHistogram().getTotalCount();
+    }
+
+    public static class StartLagTest {
+        @TimeStep(prob = 0.5)
+        public void timeStep1() {
+        }
+
+        @TimeStep(prob = 0.5)
+        public void timeStep2() {
+        }
+    }
+
+    public static class AsyncStartLagTest {
+        @TimeStep
+        public ICompletableFuture<Object> asyncTimeStep() {
+            return new DummyICompletableFuture();
+        }
+    }
+}
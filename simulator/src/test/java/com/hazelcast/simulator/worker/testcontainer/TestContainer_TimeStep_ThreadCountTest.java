@@ -0,0 +1,143 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.utils.AssertTask;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.simulator.TestSupport.spawn;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_ThreadCountTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testSetThreadCount() throws Exception {
+        final ThreadCountTest testInstance = new ThreadCountTest();
+        TestCase testCase = new TestCase("threadCount")
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn(new Callable() {
+            @Override
+            public Object call() throws Exception {
+                container.invoke(RUN);
+                return null;
+            }
+        });
+
+        assertNull(container.describeThreadCounts());
+
+        awaitRunning(container);
+
+        assertEquals(4, container.setThreadCount("", 4));
+        assertEquals("threadCount 4", container.describeThreadCounts());
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(4, testInstance.activeThreads.size());
+            }
+        });
+
+        assertEquals(1, container.setThreadCount("", 1));
+        assertEquals("threadCount 1", container.describeThreadCounts());
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(3, testInstance.afterRunCount.get());
+                assertEquals(1, testInstance.activeThreads.size());
+            }
+        });
+
+        // the thread probes of the retired runners have been released
+        final HdrProbe probe = (HdrProbe) container.getProbeMap().get("timeStep");
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(1, probe.getThreadProbeCount());
+            }
+        });
+
+        testContext.stop();
+        assertCompletesEventually(f);
+        assertEquals(4, testInstance.afterRunCount.get());
+        assertEquals(0, probe.getThreadProbeCount());
+        assertNoExceptions();
+    }
+
+    private static void awaitRunning(final TestContainer container) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(container.isRunning());
+            }
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetThreadCount_whenNotRunning() {
+        ThreadCountTest testInstance = new ThreadCountTest();
+        TestCase testCase = new TestCase("threadCount")
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        container.setThreadCount("", 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetThreadCount_whenUnknownExecutionGroup() {
+        ThreadCountTest testInstance = new ThreadCountTest();
+        TestCase testCase = new TestCase("threadCount")
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+
+        container.setThreadCount("unknown", 2);
+    }
+
+    public static class ThreadCountTest {
+        private final Set<Thread> activeThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private final AtomicInteger afterRunCount = new AtomicInteger();
+
+        @TimeStep
+        public void timeStep() throws Exception {
+            activeThreads.add(Thread.currentThread());
+            Thread.sleep(1);
+        }
+
+        @AfterRun
+        public void afterRun() {
+            activeThreads.remove(Thread.currentThread());
+            afterRunCount.incrementAndGet();
+        }
+    }
+}
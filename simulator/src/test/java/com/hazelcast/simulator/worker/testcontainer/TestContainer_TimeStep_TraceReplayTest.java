@@ -0,0 +1,145 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.TraceFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class TestContainer_TimeStep_TraceReplayTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testReplay() throws Exception {
+        File file = new File(userDir, "trace.bin");
+        TraceFile.Writer writer = new TraceFile.Writer(file);
+        for (int i = 0; i < 300; i++) {
+            writer.write(MICROSECONDS.toNanos(10 * i), i % 3 == 0 ? "put" : "get");
+        }
+        writer.close();
+
+        TraceReplayTest testInstance = new TraceReplayTest();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 4)
+                .setProperty("traceFile", file.getAbsolutePath())
+                .setProperty("traceSpeed", 2)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        // the run completes once the whole trace has been replayed
+        container.invoke(RUN);
+
+        assertEquals(100, testInstance.putCount.get());
+        assertEquals(200, testInstance.getCount.get());
+    }
+
+    @Test
+    public void testReplay_withAsyncMethodAndMaxInFlight() throws Exception {
+        File file = new File(userDir, "trace.bin");
+        TraceFile.Writer writer = new TraceFile.Writer(file);
+        for (int i = 0; i < 20; i++) {
+            writer.write(MICROSECONDS.toNanos(10 * i), "asyncGet");
+        }
+        writer.close();
+
+        AsyncTraceReplayTest testInstance = new AsyncTraceReplayTest();
+        TestCase testCase = new TestCase("id")
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 4)
+                .setProperty("traceFile", file.getAbsolutePath())
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+        container.invoke(RUN);
+
+        // the calls which are still in flight at the end of the trace are awaited before the @AfterRun
+        assertEquals(20, testInstance.completedAtAfterRun);
+        HdrProbe probe = (HdrProbe) container.getProbeMap().get("asyncGet");
+        assertEquals(20, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testReplay_whenCombinedWithRatePerSecond() throws Exception {
+        File file = new File(userDir, "trace.bin");
+        new TraceFile.Writer(file).close();
+
+        TestCase testCase = new TestCase("id")
+                .setProperty("traceFile", file.getAbsolutePath())
+                .setProperty("ratePerSecond", 100)
+                .setProperty("class", TraceReplayTest.class);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        new TestContainer(testContext, new TraceReplayTest(), testCase).invoke(SETUP);
+    }
+
+    public static class AsyncTraceReplayTest {
+
+        private final AtomicLong completed = new AtomicLong();
+        private volatile long completedAtAfterRun = -1;
+
+        @TimeStep
+        public ICompletableFuture<Object> asyncGet() {
+            return new DelayedICompletableFuture(completed);
+        }
+
+        @AfterRun
+        public void afterRun() {
+            completedAtAfterRun = completed.get();
+        }
+    }
+
+    private static class DelayedICompletableFuture extends DummyICompletableFuture {
+
+        private final AtomicLong completed;
+
+        DelayedICompletableFuture(AtomicLong completed) {
+            this.completed = completed;
+        }
+
+        @Override
+        public void andThen(final ExecutionCallback<Object> executionCallback) {
+            new Thread() {
+                @Override
+                public void run() {
+                    sleepMillis(50);
+                    completed.incrementAndGet();
+                    executionCallback.onResponse(null);
+                }
+            }.start();
+        }
+    }
+
+    public static class TraceReplayTest {
+
+        private final AtomicLong putCount = new AtomicLong();
+        private final AtomicLong getCount = new AtomicLong();
+
+        @TimeStep(prob = 0.5)
+        public void put() {
+            putCount.incrementAndGet();
+        }
+
+        @TimeStep(prob = 0.5)
+        public void get() {
+            getCount.incrementAndGet();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.protocol.Promise;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.StubPromise;
+import com.hazelcast.simulator.tests.DummyTest;
 import com.hazelcast.simulator.tests.FailingTest;
 import com.hazelcast.simulator.tests.StoppingTest;
 import com.hazelcast.simulator.tests.SuccessTest;
@@ -14,6 +15,10 @@ import com.hazelcast.simulator.utils.AssertTask;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
+import com.hazelcast.simulator.worker.operations.ProfileOperation;
+import com.hazelcast.simulator.worker.operations.SetRateOperation;
+import com.hazelcast.simulator.worker.operations.SetRateShareOperation;
+import com.hazelcast.simulator.worker.operations.SetThreadCountOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import org.junit.After;
@@ -163,6 +168,117 @@ public class TestManagerTest {
         manager.stopRun(new StopRunOperation("foo"));
     }
 
+    @Test
+    public void test_setRate() throws Exception {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("rateProfile", "steps 1k every 1m")
+                .setProperty("class", DummyTest.class);
+
+        manager.createTest(new CreateTestOperation(testCase));
+        final TestContainer container = manager.getContainers().iterator().next();
+
+        StubPromise setupPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseOperation(SETUP, "foo"), setupPromise);
+        setupPromise.assertCompletesEventually();
+
+        StubPromise runPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseOperation(RUN, "foo"), runPromise);
+        awaitRunning(container);
+
+        manager.setRate(new SetRateOperation("foo", 2000));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals("rate 2000 ops/s", container.describeRateProfileSteps());
+            }
+        });
+
+        manager.stopRun(new StopRunOperation("foo"));
+        runPromise.assertCompletesEventually();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_setRate_whenNoRateProfile() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("class", DummyTest.class);
+        manager.createTest(new CreateTestOperation(testCase));
+
+        manager.setRate(new SetRateOperation("foo", 2000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setRate_whenNotExistingTest() {
+        manager.setRate(new SetRateOperation("foo", 2000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setRateShare_whenNotExistingTest() {
+        manager.setRateShare(new SetRateShareOperation("foo", 0.5));
+    }
+
+    @Test
+    public void test_setThreadCount() throws Exception {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("class", DummyTest.class);
+
+        manager.createTest(new CreateTestOperation(testCase));
+        final TestContainer container = manager.getContainers().iterator().next();
+
+        StubPromise setupPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseOperation(SETUP, "foo"), setupPromise);
+        setupPromise.assertCompletesEventually();
+
+        StubPromise runPromise = new StubPromise();
+        manager.startTestPhase(new StartPhaseOperation(RUN, "foo"), runPromise);
+        awaitRunning(container);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(container.isRunning());
+            }
+        });
+
+        assertEquals("3", manager.setThreadCount(new SetThreadCountOperation("foo", "", 3)));
+        assertEquals("threadCount 3", container.describeThreadCounts());
+
+        manager.stopRun(new StopRunOperation("foo"));
+        runPromise.assertCompletesEventually();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setThreadCount_whenNotExistingTest() {
+        manager.setThreadCount(new SetThreadCountOperation("foo", "", 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_profile_whenNotExistingTest() throws Exception {
+        manager.profile(new ProfileOperation("foo", "jfr", null, null, null, false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_profile_whenNotRunning() throws Exception {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("class", DummyTest.class);
+        manager.createTest(new CreateTestOperation(testCase));
+
+        manager.profile(new ProfileOperation("foo", "jfr", null, null, null, false));
+    }
+
+    @Test
+    public void test_profile_stop_whenNotProfiling() throws Exception {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("threadCount", 1)
+                .setProperty("class", DummyTest.class);
+        manager.createTest(new CreateTestOperation(testCase));
+
+        assertEquals("no profile written", manager.profile(new ProfileOperation("foo", null, null, null, null, true)));
+    }
+
     @Test
     public void test_startTestPhase() throws Exception {
         TestCase testCase = new TestCase("foo")
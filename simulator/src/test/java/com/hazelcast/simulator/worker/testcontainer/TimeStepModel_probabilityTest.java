@@ -39,7 +39,7 @@ public class TimeStepModel_probabilityTest {
                 + "}\n", probs);
 
         assertProbability(model, "timeStep1", 1.0);
-        assertNull(model.getTimeStepProbabilityArray(""));
+        assertNull(model.getTimeStepAliasTable(""));
     }
 
     private void assertProbability(TimeStepModel model, String method, double value) {
@@ -107,7 +107,7 @@ public class TimeStepModel_probabilityTest {
 
         assertProbability(model, "timeStep1", 1.0);
         assertProbability(model, "timeStep2", 0.0);
-        assertNull(model.getTimeStepProbabilityArray(""));
+        assertNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -127,8 +127,8 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "b", "b1", 0.20);
         assertProbability(model, "b", "b2", 0.80);
 
-        assertNotNull(model.getTimeStepProbabilityArray("a"));
-        assertNotNull(model.getTimeStepProbabilityArray("b"));
+        assertNotNull(model.getTimeStepAliasTable("a"));
+        assertNotNull(model.getTimeStepAliasTable("b"));
     }
 
     @Test
@@ -151,8 +151,8 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "b", "b1", 0.03);
         assertProbability(model, "b", "b2", 0.97);
 
-        assertNotNull(model.getTimeStepProbabilityArray("a"));
-        assertNotNull(model.getTimeStepProbabilityArray("b"));
+        assertNotNull(model.getTimeStepAliasTable("a"));
+        assertNotNull(model.getTimeStepAliasTable("b"));
     }
 
     @Test
@@ -169,7 +169,7 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "a", 0.001);
         assertProbability(model, "b", 0.999);
 
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -184,7 +184,7 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "a", 0.0001);
         assertProbability(model, "b", 0.9999);
 
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -199,7 +199,7 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "a", 0.00001);
         assertProbability(model, "b", 0.99999);
 
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -214,7 +214,7 @@ public class TimeStepModel_probabilityTest {
         assertProbability(model, "a", 0.000001);
         assertProbability(model, "b", 0.999999);
 
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -228,7 +228,7 @@ public class TimeStepModel_probabilityTest {
 
         assertProbability(model, "timeStep1", 1.0);
         assertProbability(model, "timeStep2", 0.0);
-        assertNull(model.getTimeStepProbabilityArray(""));
+        assertNull(model.getTimeStepAliasTable(""));
     }
 
 
@@ -243,7 +243,7 @@ public class TimeStepModel_probabilityTest {
 
         assertProbability(model, "timeStep1", 0.5);
         assertProbability(model, "timeStep2", 0.5);
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -257,7 +257,7 @@ public class TimeStepModel_probabilityTest {
 
         assertProbability(model, "timeStep1", 0.2);
         assertProbability(model, "timeStep2", 0.8);
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     @Test
@@ -273,7 +273,7 @@ public class TimeStepModel_probabilityTest {
 
         assertProbability(model, "timeStep1", 0.3);
         assertProbability(model, "timeStep2", 0.7);
-        assertNotNull(model.getTimeStepProbabilityArray(""));
+        assertNotNull(model.getTimeStepAliasTable(""));
     }
 
     private TimeStepModel loadModel(String code, Map<String, Double> probs) {
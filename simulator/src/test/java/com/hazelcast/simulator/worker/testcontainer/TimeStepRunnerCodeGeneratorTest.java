@@ -1,19 +1,100 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.EmptyProbe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import javax.tools.JavaFileObject;
+import java.io.File;
 
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class TimeStepRunnerCodeGeneratorTest {
 
     private TimeStepRunnerCodeGenerator codeGenerator = new TimeStepRunnerCodeGenerator();
+    private TimeStepModel model;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        model = new TimeStepModel(CodeGeneratorTest.class, new PropertyBinding(new TestCase("id")));
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+    }
 
     @Test(expected = IllegalStateException.class)
     public void testCompile_whenCompilerIsNull_thenThrowIllegalStateException() {
         JavaFileObject javaFileObject = mock(JavaFileObject.class);
 
-        codeGenerator.compile(null, javaFileObject, "className");
+        codeGenerator.compile(null, javaFileObject, "className", getClass().getClassLoader());
+    }
+
+    @Test
+    public void testCompile() {
+        Class runnerClass = compile("testCase1", HdrProbe.class, 0);
+
+        assertTrue(TimeStepRunner.class.isAssignableFrom(runnerClass));
+        assertFalse(new File(getUserDir(), "timestep-worker-classes").exists());
+    }
+
+    @Test
+    public void testCompile_whenSameSettings_thenRunnerClassReused() {
+        Class runnerClass1 = compile("testCase1", HdrProbe.class, 0);
+        Class runnerClass2 = new TimeStepRunnerCodeGenerator().compile("testCase2", "", model, EmptyMetronome.class,
+                HdrProbe.class, 0, 0, false, 0, false, false);
+
+        assertSame(runnerClass1, runnerClass2);
+    }
+
+    @Test
+    public void testCompile_whenDifferentSettings_thenNewRunnerClass() {
+        Class runnerClass = compile("testCase1", HdrProbe.class, 0);
+
+        assertNotSame(runnerClass, compile("testCase2", EmptyProbe.class, 0));
+        assertNotSame(runnerClass, compile("testCase3", HdrProbe.class, 100));
+        assertNotSame(runnerClass, codeGenerator.compile("testCase4", "", model, SleepingMetronome.class,
+                HdrProbe.class, 0, 0, false, 0, false, false));
+        assertNotSame(runnerClass, codeGenerator.compile("testCase5", "", model, SleepingMetronome.class,
+                HdrProbe.class, 0, 0, false, 0, true, false));
+        assertNotSame(runnerClass, codeGenerator.compile("testCase6", "", model, EmptyMetronome.class,
+                HdrProbe.class, 0, 0, false, 0, false, true));
+    }
+
+    @Test
+    public void testCompile_whenEvicted_thenNewRunnerClass() {
+        Class runnerClass = compile("testCase1", HdrProbe.class, 0);
+
+        TimeStepRunnerCodeGenerator.evict(CodeGeneratorTest.class);
+
+        assertNotSame(runnerClass, compile("testCase2", HdrProbe.class, 0));
+    }
+
+    private Class compile(String testCaseId, Class<? extends Probe> probeClass, long logFrequency) {
+        return codeGenerator.compile(testCaseId, "", model, EmptyMetronome.class, probeClass, logFrequency, 0, false, 0, false,
+                false);
+    }
+
+    public static class CodeGeneratorTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.special;
+
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+
+import static com.hazelcast.simulator.worker.testcontainer.Probability.methodProbabilitiesToMethodRatios;
+import static com.hazelcast.simulator.worker.testcontainer.Probability.ratiosToMethodProbabilityArray;
+
+/**
+ * Counterpart of the {@link NoopDispatchTest} which selects one of four empty methods like the generated runner did before
+ * the alias table: an index into a probability array, drawn from a {@link java.util.Random} per timestep-thread.
+ */
+public class LegacyNoopDispatchTest extends HazelcastTest {
+
+    private byte[] probs;
+
+    @Setup
+    public void setup() {
+        probs = ratiosToMethodProbabilityArray(methodProbabilitiesToMethodRatios(0.4, 0.3, 0.2, 0.1));
+    }
+
+    @TimeStep
+    public void timeStep(BaseThreadState state) {
+        switch (probs[state.randomInt(probs.length)]) {
+            case 0:
+                method1();
+                break;
+            case 1:
+                method2();
+                break;
+            case 2:
+                method3();
+                break;
+            default:
+                method4();
+        }
+    }
+
+    private void method1() {
+    }
+
+    private void method2() {
+    }
+
+    private void method3() {
+    }
+
+    private void method4() {
+    }
+}
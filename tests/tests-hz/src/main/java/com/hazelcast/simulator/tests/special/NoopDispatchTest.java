@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.special;
+
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+
+/**
+ * Test with four empty timestep methods, to measure the overhead of selecting the timestep method.
+ *
+ * The generated runner selects the method with an alias table; the {@link LegacyNoopDispatchTest} does the same selection
+ * with the probability array which was used before. See {@code examples/dispatch-overhead.properties}.
+ */
+public class NoopDispatchTest extends HazelcastTest {
+
+    @TimeStep(prob = 0.4)
+    public void timeStep1() {
+    }
+
+    @TimeStep(prob = 0.3)
+    public void timeStep2() {
+    }
+
+    @TimeStep(prob = 0.2)
+    public void timeStep3() {
+    }
+
+    @TimeStep(prob = 0.1)
+    public void timeStep4() {
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.special;
+
+import com.hazelcast.simulator.hz.HazelcastTest;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+
+/**
+ * Test with an empty timestep method, to measure the overhead of Simulator itself.
+ *
+ * The throughput is the ceiling of the timestep loop, e.g. to compare the scaling of the timestep threads between Simulator
+ * versions:
+ * <pre>
+ * {@code
+ *     class=com.hazelcast.simulator.tests.special.NoopTest
+ *     threadCount=32
+ * }
+ * </pre>
+ */
+public class NoopTest extends HazelcastTest {
+
+    @TimeStep
+    public void timeStep() {
+    }
+}